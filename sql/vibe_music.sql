@@ -314,6 +314,18 @@ INSERT INTO `tb_comment` VALUES (294, 149, 1237, NULL, NULL, '父1', '2025-09-26
 INSERT INTO `tb_comment` VALUES (295, 151, 1237, NULL, NULL, '子1', '2025-09-26 20:12:19', 0, 0, NULL, 294, 149, 0);
 INSERT INTO `tb_comment` VALUES (297, 149, 1237, NULL, NULL, '', '2025-09-26 20:34:19', 0, 1, 'http://192.168.100.1:9000/vibe-music-data/commentImages/7243aa65-f589-49ca-96a0-78860c7acf1c-5f04b3872506be5a9db0a39f71867ccf.jpg', 294, 151, 0);
 
+-- ----------------------------
+-- Table structure for tb_comment_like_flush
+-- ----------------------------
+DROP TABLE IF EXISTS `tb_comment_like_flush`;
+CREATE TABLE `tb_comment_like_flush`  (
+  `flush_id` varchar(36) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT '点赞写回轮次 id',
+  `comment_id` bigint NOT NULL COMMENT '评论 id',
+  `create_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '写回时间',
+  PRIMARY KEY (`flush_id`, `comment_id`) USING BTREE,
+  INDEX `idx_create_time`(`create_time` ASC) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci COMMENT = '评论点赞写回记录（保证崩溃重放幂等）' ROW_FORMAT = Dynamic;
+
 -- ----------------------------
 -- Table structure for tb_feedback
 -- ----------------------------
@@ -2061,8 +2073,8 @@ CREATE TABLE `tb_user_recent_play`  (
   `create_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   PRIMARY KEY (`id`) USING BTREE,
   INDEX `idx_user_time`(`user_id` ASC, `create_time` ASC) USING BTREE,
-  INDEX `idx_user_song`(`user_id` ASC, `song_id` ASC) USING BTREE
-) ENGINE = InnoDB AUTO_INCREMENT = 1857 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci COMMENT = '用户最近播放' ROW_FORMAT = Dynamic;
+  UNIQUE INDEX `uk_user_song`(`user_id` ASC, `song_id` ASC) USING BTREE
+) ENGINE = InnoDB AUTO_INCREMENT = 1857 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci COMMENT = '用户最近播放（每个用户每首歌一行，保存最后一次播放时间）' ROW_FORMAT = Dynamic;
 
 -- ----------------------------
 -- Records of tb_user_recent_play
@@ -0,0 +1,64 @@
+package cn.edu.seig.vibemusic.config;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * 支持批量读取的缓存：列表页按 id 读取多条缓存时一次往返完成，而不是每个 key 一次 GET。
+ */
+public interface BatchReadableCache {
+
+    /**
+     * 批量读取
+     *
+     * @param keys 缓存 key
+     * @return 命中的条目（key 为传入的 key）；未命中与 null 值不包含在结果中
+     */
+    Map<Object, Object> getAll(Collection<?> keys);
+
+    /**
+     * 按缓存的实际类型批量读取：自身支持批量读取的直接委托；RedisCache 用一次 MGET；其它缓存逐个读取
+     */
+    static Map<Object, Object> getAll(Cache cache, Collection<?> keys, StringRedisTemplate stringRedisTemplate) {
+        if (keys.isEmpty()) return new HashMap<>();
+        if (cache instanceof BatchReadableCache batch) return batch.getAll(keys);
+        if (cache instanceof RedisCache redisCache) return multiGet(redisCache, new ArrayList<>(keys), stringRedisTemplate);
+        Map<Object, Object> result = new HashMap<>();
+        for (Object key : keys) {
+            Cache.ValueWrapper wrapper = cache.get(key);
+            if (wrapper != null && wrapper.get() != null) result.put(key, wrapper.get());
+        }
+        return result;
+    }
+
+    private static Map<Object, Object> multiGet(RedisCache cache, List<?> keys, StringRedisTemplate stringRedisTemplate) {
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        byte[][] rawKeys = new byte[keys.size()][];
+        for (int i = 0; i < rawKeys.length; i++) {
+            // 与 RedisCache 生成 key 的方式一致：简单类型的 key 转字符串，再加缓存名前缀
+            String key = String.valueOf(keys.get(i));
+            if (config.usePrefix()) key = config.getKeyPrefixFor(cache.getName()) + key;
+            rawKeys[i] = ByteUtils.getBytes(config.getKeySerializationPair().write(key));
+        }
+        List<byte[]> values = stringRedisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                connection.stringCommands().mGet(rawKeys));
+
+        Map<Object, Object> result = new HashMap<>();
+        if (values == null) return result;
+        for (int i = 0; i < rawKeys.length && i < values.size(); i++) {
+            byte[] raw = values.get(i);
+            if (raw == null) continue;
+            Object value = config.getValueSerializationPair().read(ByteBuffer.wrap(raw));
+            if (value != null && !(value instanceof NullValue)) result.put(keys.get(i), value);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,21 @@
+package cn.edu.seig.vibemusic.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "cache-serializer")
+public class CacheSerializerProperties {
+
+    /** 值序列化方式：compact / json（两种模式都能读取对方写入的缓存，切换无需清空） */
+    private String mode = "compact";
+
+    /** compact 模式下超过该字节数才做 LZ4 压缩，0 表示不压缩 */
+    private int compressionThreshold = 1024;
+
+    public boolean isCompact() {
+        return "compact".equalsIgnoreCase(mode);
+    }
+}
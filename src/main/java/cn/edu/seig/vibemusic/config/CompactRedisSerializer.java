@@ -0,0 +1,207 @@
+package cn.edu.seig.vibemusic.config;
+
+import cn.edu.seig.vibemusic.model.vo.*;
+import cn.edu.seig.vibemusic.result.PageResult;
+import cn.edu.seig.vibemusic.result.Result;
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DatabindContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.jsontype.NamedType;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.TypeIdResolver;
+import com.fasterxml.jackson.databind.jsontype.impl.ClassNameIdResolver;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * 紧凑的缓存值序列化器。
+ * - 编码：Smile（二进制 JSON），同一列表内重复的属性名只写一次，数值按二进制存储；
+ * - 类型：仍保留多态类型信息，但常见 VO/容器类型写为 "~s" 这类短类型码，代替完整类名；
+ * - 压缩：序列化结果超过阈值时做 LZ4 块压缩。
+ * 格式：1 字节格式标记 [+ 4 字节原始长度（仅压缩时）] + Smile 数据。
+ * 不带格式标记的数据按旧的 JSON 格式读取，切换模式前写入的缓存仍可正常命中；
+ * json 模式同样使用本类（只写 JSON），从 compact 切回 json 时已写入的紧凑格式也能读取，两个方向切换都无需清空缓存。
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte FORMAT_SMILE = 0x01;
+    private static final byte FORMAT_SMILE_LZ4 = 0x02;
+
+    // 短类型码：只能追加，不能修改已有映射（否则已缓存的数据无法读取）
+    private static final Map<Class<?>, String> TYPE_CODES = new HashMap<>();
+    private static final Map<String, Class<?>> CODE_TYPES = new HashMap<>();
+
+    static {
+        register("~r", Result.class);
+        register("~p", PageResult.class);
+        register("~s", SongVO.class);
+        register("~sd", SongDetailVO.class);
+        register("~pl", PlaylistVO.class);
+        register("~pd", PlaylistDetailVO.class);
+        register("~a", ArtistVO.class);
+        register("~ad", ArtistDetailVO.class);
+        register("~an", ArtistNameVO.class);
+        register("~al", AlbumVO.class);
+        register("~c", CommentVO.class);
+        register("~b", BannerVO.class);
+        register("~ll", LyricLine.class);
+        register("~L", ArrayList.class);
+        register("~M", HashMap.class);
+        register("~LM", LinkedHashMap.class);
+        register("~cp", CommentPageVO.class);
+        register("~sc", SongCardVO.class);
+    }
+
+    private static void register(String code, Class<?> type) {
+        TYPE_CODES.put(type, code);
+        CODE_TYPES.put(code, type);
+    }
+
+    private final ObjectMapper mapper;
+    private final RedisSerializer<Object> legacy;
+    private final boolean writeCompact;
+    private final int compressionThreshold;
+    private final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+    private final LZ4FastDecompressor decompressor = LZ4Factory.fastestInstance().fastDecompressor();
+
+    /**
+     * @param legacy               读取旧格式（JSON）数据的序列化器
+     * @param compressionThreshold 超过该字节数才压缩，0 表示不压缩
+     */
+    public CompactRedisSerializer(RedisSerializer<Object> legacy, int compressionThreshold) {
+        this(legacy, compressionThreshold, true);
+    }
+
+    /**
+     * @param legacy               读写 JSON 格式数据的序列化器
+     * @param compressionThreshold 超过该字节数才压缩，0 表示不压缩
+     * @param writeCompact         true 写紧凑格式；false 写 JSON（读取时两种格式都支持）
+     */
+    public CompactRedisSerializer(RedisSerializer<Object> legacy, int compressionThreshold, boolean writeCompact) {
+        this.legacy = legacy;
+        this.compressionThreshold = compressionThreshold;
+        this.writeCompact = writeCompact;
+
+        SmileFactory factory = new SmileFactory();
+        factory.enable(SmileGenerator.Feature.CHECK_SHARED_NAMES);
+        factory.enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+        ObjectMapper om = new ObjectMapper(factory);
+        om.registerModule(new JavaTimeModule());
+        om.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        ObjectMapper.DefaultTypeResolverBuilder typer = new CompactTypeResolverBuilder();
+        typer.init(JsonTypeInfo.Id.CLASS, null);
+        typer.inclusion(JsonTypeInfo.As.PROPERTY);
+        typer.typeProperty("@t");
+        om.setDefaultTyping(typer);
+        this.mapper = om;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) return new byte[0];
+        if (!writeCompact) return legacy.serialize(value);
+        byte[] smile;
+        try {
+            smile = mapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new SerializationException("Could not write compact value: " + e.getMessage(), e);
+        }
+        if (compressionThreshold > 0 && smile.length > compressionThreshold) {
+            byte[] compressed = compressor.compress(smile);
+            if (compressed.length + 4 < smile.length) {
+                byte[] out = new byte[5 + compressed.length];
+                out[0] = FORMAT_SMILE_LZ4;
+                writeInt(out, 1, smile.length);
+                System.arraycopy(compressed, 0, out, 5, compressed.length);
+                return out;
+            }
+        }
+        byte[] out = new byte[1 + smile.length];
+        out[0] = FORMAT_SMILE;
+        System.arraycopy(smile, 0, out, 1, smile.length);
+        return out;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) return null;
+        try {
+            if (bytes[0] == FORMAT_SMILE) {
+                return mapper.readValue(bytes, 1, bytes.length - 1, Object.class);
+            }
+            if (bytes[0] == FORMAT_SMILE_LZ4) {
+                byte[] smile = decompressor.decompress(bytes, 5, readInt(bytes, 1));
+                return mapper.readValue(smile, Object.class);
+            }
+        } catch (Exception e) {
+            throw new SerializationException("Could not read compact value: " + e.getMessage(), e);
+        }
+        // 旧格式（JSON 文本）
+        return legacy.deserialize(bytes);
+    }
+
+    private static void writeInt(byte[] buf, int off, int v) {
+        buf[off] = (byte) (v >>> 24);
+        buf[off + 1] = (byte) (v >>> 16);
+        buf[off + 2] = (byte) (v >>> 8);
+        buf[off + 3] = (byte) v;
+    }
+
+    private static int readInt(byte[] buf, int off) {
+        return ((buf[off] & 0xFF) << 24) | ((buf[off + 1] & 0xFF) << 16)
+                | ((buf[off + 2] & 0xFF) << 8) | (buf[off + 3] & 0xFF);
+    }
+
+    /** 与原配置相同的默认类型范围（NON_FINAL），仅替换类型 id 的写法 */
+    private static class CompactTypeResolverBuilder extends ObjectMapper.DefaultTypeResolverBuilder {
+
+        CompactTypeResolverBuilder() {
+            super(ObjectMapper.DefaultTyping.NON_FINAL, LaissezFaireSubTypeValidator.instance);
+        }
+
+        @Override
+        protected TypeIdResolver idResolver(MapperConfig<?> config, JavaType baseType,
+                                            PolymorphicTypeValidator subtypeValidator,
+                                            Collection<NamedType> subtypes, boolean forSer, boolean forDeser) {
+            return new CompactTypeIdResolver(baseType, config.getTypeFactory(), subtypeValidator);
+        }
+    }
+
+    /** 已登记的类型写短类型码，其余回退为完整类名 */
+    private static class CompactTypeIdResolver extends ClassNameIdResolver {
+
+        CompactTypeIdResolver(JavaType baseType, TypeFactory typeFactory, PolymorphicTypeValidator ptv) {
+            super(baseType, typeFactory, ptv);
+        }
+
+        @Override
+        protected String _idFrom(Object value, Class<?> cls, TypeFactory typeFactory) {
+            String code = TYPE_CODES.get(cls);
+            return code != null ? code : super._idFrom(value, cls, typeFactory);
+        }
+
+        @Override
+        protected JavaType _typeFromId(String id, DatabindContext ctxt) throws IOException {
+            Class<?> type = CODE_TYPES.get(id);
+            if (type != null) {
+                return ctxt.constructSpecializedType(_baseType, type);
+            }
+            return super._typeFromId(id, ctxt);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package cn.edu.seig.vibemusic.config;
+
+import cn.edu.seig.vibemusic.constant.JwtClaimsConstant;
+import cn.edu.seig.vibemusic.model.entity.Album;
+import cn.edu.seig.vibemusic.model.entity.Artist;
+import cn.edu.seig.vibemusic.model.entity.Playlist;
+import cn.edu.seig.vibemusic.model.vo.*;
+import cn.edu.seig.vibemusic.result.PageResult;
+import cn.edu.seig.vibemusic.result.Result;
+import cn.edu.seig.vibemusic.util.ThreadLocalUtil;
+import cn.edu.seig.vibemusic.util.TypeConversionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 带依赖追踪的 CacheManager 装饰器。
+ * 写入缓存时从返回值中提取所依赖的实体（song/artist/album/playlist id、列表、用户），
+ * 以 Redis Set 记录 cachedep:{tag} -> {cacheName}::{key}；
+ * 写操作只需按实体标签失效受影响的条目（见 CacheInvalidator），不再 allEntries 清空整个缓存。
+ */
+public class DependencyTrackingCacheManager implements CacheManager {
+
+    private static final Logger log = LoggerFactory.getLogger(DependencyTrackingCacheManager.class);
+
+    public static final String TAG_KEY_PREFIX = "cachedep:";
+    private static final String REF_SEPARATOR = "::";
+    // 按用户隔离的缓存，条目额外依赖 user:{userId}
+    private static final Set<String> USER_SCOPED_CACHES = Set.of("userFavoriteCache");
+
+    private final CacheManager delegate;
+    private final StringRedisTemplate stringRedisTemplate;
+    // 标签集合的过期时间与缓存条目保持一致，避免标签集合无限增长
+    private final long tagTtlSeconds;
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public DependencyTrackingCacheManager(CacheManager delegate, StringRedisTemplate stringRedisTemplate, Duration entryTtl) {
+        this.delegate = delegate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.tagTtlSeconds = entryTtl.getSeconds();
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache target = delegate.getCache(name);
+        if (target == null) return null;
+        return caches.computeIfAbsent(name, n -> new TrackingCache(target));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    public CacheManager getDelegate() {
+        return delegate;
+    }
+
+    // ================= 失效 =================
+
+    /**
+     * 失效依赖某个标签的全部缓存条目。
+     * 先把标签集合 RENAME 到临时键再逐条失效：之后并发写入的依赖记录落在新的标签集合中，不会随本次失效一起被删除
+     */
+    public void evictTag(String tag) {
+        String tagKey = TAG_KEY_PREFIX + tag;
+        if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(tagKey))) return;
+        String evictingKey = tagKey + ":evicting:" + UUID.randomUUID();
+        try {
+            stringRedisTemplate.rename(tagKey, evictingKey);
+        } catch (Exception e) {
+            // 标签集合恰好过期或已被并发失效
+            log.debug("[CacheDependency] Rename tag {} failed: {}", tagKey, e.getMessage());
+            return;
+        }
+        try {
+            Set<String> refs = stringRedisTemplate.opsForSet().members(evictingKey);
+            if (refs == null) return;
+            for (String ref : refs) {
+                int idx = ref.indexOf(REF_SEPARATOR);
+                if (idx <= 0) continue;
+                Cache cache = getCache(ref.substring(0, idx));
+                if (cache != null) cache.evict(ref.substring(idx + REF_SEPARATOR.length()));
+            }
+        } finally {
+            stringRedisTemplate.delete(evictingKey);
+        }
+    }
+
+    // ================= 依赖记录 =================
+
+    /**
+     * 记录缓存条目的依赖标签（须在写入缓存之前调用）
+     *
+     * @return 记录失败时返回 false，调用方不应写入该条目
+     */
+    private boolean record(String cacheName, Object key, Object value) {
+        Set<String> tags = new HashSet<>();
+        Object data = value instanceof Result<?> r ? r.getData() : value;
+        if (data instanceof PageResult<?> || data instanceof Collection<?>) {
+            tags.add("list:" + cacheName);
+        }
+        collectTags(data, tags, 0);
+        if (USER_SCOPED_CACHES.contains(cacheName)) {
+            Map<String, Object> claims = ThreadLocalUtil.get();
+            Object uid = claims == null ? null : claims.get(JwtClaimsConstant.USER_ID);
+            if (uid != null) tags.add("user:" + TypeConversionUtil.toLong(uid));
+        }
+        if (tags.isEmpty()) return true;
+
+        byte[] member = (cacheName + REF_SEPARATOR + key).getBytes(StandardCharsets.UTF_8);
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String tag : tags) {
+                    byte[] tagKey = (TAG_KEY_PREFIX + tag).getBytes(StandardCharsets.UTF_8);
+                    connection.setCommands().sAdd(tagKey, member);
+                    if (tagTtlSeconds > 0) connection.keyCommands().expire(tagKey, tagTtlSeconds);
+                }
+                return null;
+            });
+            return true;
+        } catch (Exception e) {
+            // 记录失败时该条目无法被精确失效，不写入缓存以保证一致性
+            log.warn("[CacheDependency] Record failed, skip caching {}::{}: {}", cacheName, key, e.getMessage());
+            return false;
+        }
+    }
+
+    /** 从缓存值中提取依赖的实体标签 */
+    private static void collectTags(Object o, Set<String> tags, int depth) {
+        if (o == null || depth > 3) return;
+        if (o instanceof PageResult<?> p) {
+            collectTags(p.getItems(), tags, depth + 1);
+        } else if (o instanceof Collection<?> c) {
+            for (Object item : c) collectTags(item, tags, depth + 1);
+        } else if (o instanceof SongVO s) {
+            add(tags, "song:", s.getSongId());
+            add(tags, "artist:", s.getArtistId());
+            add(tags, "album:", s.getAlbumId());
+        } else if (o instanceof SongCardVO s) {
+            add(tags, "song:", s.getSongId());
+            add(tags, "artist:", s.getArtistId());
+            add(tags, "album:", s.getAlbumId());
+        } else if (o instanceof SongDetailVO s) {
+            add(tags, "song:", s.getSongId());
+        } else if (o instanceof ArtistDetailVO a) {
+            add(tags, "artist:", a.getArtistId());
+            collectTags(a.getSongs(), tags, depth + 1);
+        } else if (o instanceof ArtistVO a) {
+            add(tags, "artist:", a.getArtistId());
+        } else if (o instanceof ArtistNameVO a) {
+            add(tags, "artist:", a.getArtistId());
+        } else if (o instanceof Artist a) {
+            add(tags, "artist:", a.getArtistId());
+        } else if (o instanceof AlbumVO a) {
+            add(tags, "album:", a.getAlbumId());
+            add(tags, "artist:", a.getArtistId());
+        } else if (o instanceof Album a) {
+            add(tags, "album:", a.getAlbumId());
+            add(tags, "artist:", a.getArtistId());
+        } else if (o instanceof PlaylistDetailVO p) {
+            add(tags, "playlist:", p.getPlaylistId());
+            collectTags(p.getSongs(), tags, depth + 1);
+        } else if (o instanceof PlaylistVO p) {
+            add(tags, "playlist:", p.getPlaylistId());
+        } else if (o instanceof Playlist p) {
+            add(tags, "playlist:", p.getPlaylistId());
+        }
+    }
+
+    private static void add(Set<String> tags, String prefix, Long id) {
+        if (id != null) tags.add(prefix + id);
+    }
+
+    /** 委托给底层缓存，写入前先记录依赖（先记录后写入，失效时不会漏掉已写入的条目） */
+    private class TrackingCache implements Cache, BatchReadableCache {
+
+        private final Cache target;
+
+        TrackingCache(Cache target) {
+            this.target = target;
+        }
+
+        @Override
+        public String getName() {
+            return target.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return target.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            return target.get(key);
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return target.get(key, type);
+        }
+
+        @Override
+        public Map<Object, Object> getAll(Collection<?> keys) {
+            return BatchReadableCache.getAll(target, keys, stringRedisTemplate);
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            boolean[] untracked = {false};
+            T result = target.get(key, () -> {
+                T value = valueLoader.call();
+                untracked[0] = !record(getName(), key, value);
+                return value;
+            });
+            // 加载路径由底层缓存负责写入，记录失败时写入后立即移除
+            if (untracked[0]) target.evict(key);
+            return result;
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            if (record(getName(), key, value)) target.put(key, value);
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            if (!record(getName(), key, value)) return target.get(key);
+            return target.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            target.evict(key);
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            return target.evictIfPresent(key);
+        }
+
+        @Override
+        public void clear() {
+            target.clear();
+        }
+
+        @Override
+        public boolean invalidate() {
+            return target.invalidate();
+        }
+    }
+}
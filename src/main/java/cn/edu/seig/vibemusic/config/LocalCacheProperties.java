@@ -0,0 +1,32 @@
+package cn.edu.seig.vibemusic.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "local-cache")
+public class LocalCacheProperties {
+
+    /** 是否启用本地一级缓存 */
+    private boolean enabled = true;
+
+    /** 本地条目写入后的存活时间 */
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+    /** 未单独配置的缓存的最大条目数 */
+    private long defaultMaximumSize = 500;
+
+    /** 按缓存名配置的最大条目数 */
+    private Map<String, Long> maximumSizes = new HashMap<>();
+
+    /** 本地保存序列化字节、每次命中反序列化出独立副本的缓存（调用方会修改返回值时配置），其余缓存直接共享对象 */
+    private Set<String> copyOnRead = new HashSet<>();
+}
@@ -1,18 +1,24 @@
 package cn.edu.seig.vibemusic.config;
 
+import cn.edu.seig.vibemusic.constant.RedisKeyConstant;
 import cn.edu.seig.vibemusic.model.vo.SongVO;
+import cn.edu.seig.vibemusic.util.TokenSessionCache;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.*;
 
 import java.time.Duration;
@@ -49,24 +55,52 @@ public class RedisConfig {
         return template;
     }
 
-    // Spring Cache 的 RedisCacheManager
+    // Spring Cache 的 CacheManager：[依赖追踪] -> [Caffeine 本地缓存(可选)] -> RedisCacheManager
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public DependencyTrackingCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                                       StringRedisTemplate stringRedisTemplate,
+                                                       LocalCacheProperties localCacheProperties,
+                                                       CacheSerializerProperties serializerProperties) {
         RedisSerializer<String> keySerializer = new StringRedisSerializer();
-        Jackson2JsonRedisSerializer<Object> valueSerializer = jackson2JsonRedisSerializer();
+        RedisSerializer<Object> valueSerializer = cacheValueSerializer(serializerProperties);
+        Duration ttl = Duration.ofHours(6);
 
         RedisCacheConfiguration cacheConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofHours(6))
+                .entryTtl(ttl)
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(keySerializer))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer));
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(cacheConfig)
                 .build();
+        redisCacheManager.afterPropertiesSet();
+        CacheManager target = localCacheProperties.isEnabled()
+                ? new TwoLevelCacheManager(redisCacheManager, stringRedisTemplate, localCacheProperties, valueSerializer)
+                : redisCacheManager;
+        return new DependencyTrackingCacheManager(target, stringRedisTemplate, ttl);
+    }
+
+    // 订阅缓存失效与会话注销频道，清理本节点的本地缓存副本与本地会话
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       DependencyTrackingCacheManager cacheManager,
+                                                                       TokenSessionCache tokenSessionCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(tokenSessionCache, new ChannelTopic(RedisKeyConstant.SESSION_REVOKE_CHANNEL));
+        if (cacheManager.getDelegate() instanceof TwoLevelCacheManager twoLevel) {
+            container.addMessageListener(twoLevel, new ChannelTopic(TwoLevelCacheManager.INVALIDATION_CHANNEL));
+        }
+        return container;
+    }
+
+    // 缓存值序列化器：compact 模式下写 Smile + 短类型码 + LZ4，json 模式下写 JSON；两种模式都能读取对方写入的缓存
+    private RedisSerializer<Object> cacheValueSerializer(CacheSerializerProperties properties) {
+        return new CompactRedisSerializer(jackson2JsonRedisSerializer(), properties.getCompressionThreshold(), properties.isCompact());
     }
 
     // 统一的 JSON 序列化器（支持 JSR310 & 多态）
-    private Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer() {
+    static Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer() {
         Jackson2JsonRedisSerializer<Object> serializer = new Jackson2JsonRedisSerializer<>(Object.class);
         ObjectMapper mapper = new ObjectMapper();
         mapper.registerModule(new JavaTimeModule());
@@ -1,40 +1,53 @@
 package cn.edu.seig.vibemusic.config;
 
+import cn.edu.seig.vibemusic.util.PathPrefixTrie;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * 角色权限管理器
+ * 启动时把 role-path-permissions 编译为每个角色一棵前缀树；配置中心刷新后重新编译。
  */
 @Component
 public class RolePermissionManager {
 
+    // 默认兜底：主题相关路径允许登录用户访问（防止外部配置未同步导致403）
+    private static final PathPrefixTrie ALWAYS_ALLOWED = PathPrefixTrie.ofPrefixes(List.of("/theme/", "/user/theme/"));
+
     private final RolePathPermissionsConfig rolePathPermissionsConfig;
+    // 编译后的权限表，整体替换，读取无需加锁
+    private volatile Map<String, PathPrefixTrie> roleTries = Map.of();
 
     @Autowired
     public RolePermissionManager(RolePathPermissionsConfig rolePathPermissionsConfig) {
         this.rolePathPermissionsConfig = rolePathPermissionsConfig;
+        reload();
     }
 
     // 判断当前角色是否有权限访问请求的路径
     public boolean hasPermission(String role, String requestURI) {
-        Map<String, List<String>> permissions = rolePathPermissionsConfig.getPermissions();
-        List<String> allowedPaths = permissions.get(role);
-        // 默认兜底：主题相关路径允许登录用户访问（防止外部配置未同步导致403）
-        if (requestURI != null && (requestURI.startsWith("/theme/") || requestURI.startsWith("/user/theme/"))) {
+        if (requestURI == null) return false;
+        if (ALWAYS_ALLOWED.matches(requestURI)) {
             return true;
         }
-        if (allowedPaths != null) {
-            for (String path : allowedPaths) {
-                if (requestURI.startsWith(path)) {
-                    return true;
-                }
-            }
+        PathPrefixTrie trie = role == null ? null : roleTries.get(role);
+        return trie != null && trie.matches(requestURI);
+    }
+
+    /** 重新编译权限配置（Nacos 等配置中心刷新后，配置属性已重新绑定时触发） */
+    @EventListener(RefreshScopeRefreshedEvent.class)
+    public void reload() {
+        Map<String, List<String>> permissions = rolePathPermissionsConfig.getPermissions();
+        Map<String, PathPrefixTrie> compiled = new HashMap<>();
+        if (permissions != null) {
+            permissions.forEach((role, paths) -> compiled.put(role, PathPrefixTrie.ofPrefixes(paths)));
         }
-        return false;
+        roleTries = Map.copyOf(compiled);
     }
 }
-
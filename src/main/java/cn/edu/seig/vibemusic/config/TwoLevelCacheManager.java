@@ -0,0 +1,284 @@
+package cn.edu.seig.vibemusic.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 二级缓存：Caffeine 本地缓存(L1) + Redis 缓存(L2)。
+ * 读：先查本地，未命中再查 Redis 并回填本地，热点条目无需网络往返，也无需反序列化。
+ * 本地直接保存对象引用，所有调用方共享同一实例：缓存值只读，需要补充用户相关数据时先复制
+ * （如 FavoriteSongBitmap.withLikeStatus、详情接口的 BeanUtils.copyProperties）；
+ * 确需修改返回值的缓存配置在 local-cache.copy-on-read 中，本地改为保存序列化字节，每次命中得到独立副本。
+ * 写/失效：更新 Redis 与本地，同时通过 Redis pub/sub 广播，让其它节点丢弃本地副本；
+ * 回填本地前检查失效代数，读取 Redis 期间到达的失效消息不会被回填覆盖。
+ */
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TwoLevelCacheManager.class);
+
+    public static final String INVALIDATION_CHANNEL = "cache:invalidate";
+    private static final String OP_EVICT = "E";
+    private static final String OP_CLEAR = "C";
+
+    private final CacheManager remote;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final LocalCacheProperties properties;
+    // copy-on-read 缓存在本地保存序列化后的字节（与 Redis 使用同一序列化器）
+    private final RedisSerializer<Object> valueSerializer;
+    // 当前节点标识，用于忽略自己发出的失效消息
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remote, StringRedisTemplate stringRedisTemplate, LocalCacheProperties properties,
+                                RedisSerializer<Object> valueSerializer) {
+        this.remote = remote;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.properties = properties;
+        this.valueSerializer = valueSerializer;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) return cache;
+        Cache target = remote.getCache(name);
+        if (target == null) return null;
+        return caches.computeIfAbsent(name, n -> new TwoLevelCache(target, newLocal(n), properties.getCopyOnRead().contains(n)));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remote.getCacheNames();
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<String, Object> newLocal(String name) {
+        long size = properties.getMaximumSizes().getOrDefault(name, properties.getDefaultMaximumSize());
+        return Caffeine.newBuilder()
+                .maximumSize(size)
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .build();
+    }
+
+    // ================= 跨节点失效 =================
+
+    private void publish(String op, String cacheName, String key) {
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL,
+                    nodeId + "|" + op + "|" + cacheName + "|" + (key == null ? "" : key));
+        } catch (Exception e) {
+            log.warn("[TwoLevelCache] Publish invalidation failed, {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    /** 收到其它节点的失效消息：只清理本地副本 */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split("\\|", 4);
+        if (parts.length < 4 || nodeId.equals(parts[0])) return;
+        TwoLevelCache cache = caches.get(parts[2]);
+        if (cache == null) return;
+        if (OP_CLEAR.equals(parts[1])) {
+            cache.invalidateLocalAll();
+        } else {
+            cache.invalidateLocal(parts[3]);
+        }
+    }
+
+    // ================= 缓存实现 =================
+
+    private class TwoLevelCache implements Cache, BatchReadableCache {
+
+        // 本地缓存中 null 值的占位
+        private static final Object NULL_VALUE = new Object();
+
+        private final Cache remote;
+        // 值为对象引用；copy-on-read 缓存为 Serialized
+        private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+        private final boolean copyOnRead;
+        // 每次本地失效递增；从 Redis 回填本地前后比较，期间发生过失效则放弃回填，避免把旧值写回本地
+        private final AtomicLong epoch = new AtomicLong();
+
+        TwoLevelCache(Cache remote, com.github.benmanes.caffeine.cache.Cache<String, Object> local, boolean copyOnRead) {
+            this.remote = remote;
+            this.local = local;
+            this.copyOnRead = copyOnRead;
+        }
+
+        // 本地 key 统一转字符串，与 Redis key 的生成方式一致（Long 与 String 形式的 id 命中同一条目）
+        private String localKey(Object key) {
+            return String.valueOf(key);
+        }
+
+        /** 回填本地：仅当读取 Redis 以来没有发生过失效时写入 */
+        private void fill(Object key, Object value, long observedEpoch) {
+            Object stored;
+            if (value == null) {
+                stored = NULL_VALUE;
+            } else if (copyOnRead) {
+                try {
+                    byte[] bytes = valueSerializer.serialize(value);
+                    if (bytes == null) return;
+                    stored = new Serialized(bytes);
+                } catch (Exception e) {
+                    log.warn("[TwoLevelCache] Serialize failed, skip local fill {}::{}: {}", getName(), key, e.getMessage());
+                    return;
+                }
+            } else {
+                stored = value;
+            }
+            local.asMap().compute(localKey(key), (k, old) -> epoch.get() == observedEpoch ? stored : old);
+        }
+
+        /** 本地存储的值还原为缓存值：共享引用直接返回，copy-on-read 每次反序列化出新实例 */
+        private Object fromLocal(Object stored) {
+            if (stored == NULL_VALUE) return null;
+            return stored instanceof Serialized s ? valueSerializer.deserialize(s.bytes()) : stored;
+        }
+
+        void invalidateLocal(String localKey) {
+            epoch.incrementAndGet();
+            local.invalidate(localKey);
+        }
+
+        void invalidateLocalAll() {
+            epoch.incrementAndGet();
+            local.invalidateAll();
+        }
+
+        @Override
+        public String getName() {
+            return remote.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return remote.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            Object stored = local.getIfPresent(localKey(key));
+            if (stored != null) {
+                return new SimpleValueWrapper(fromLocal(stored));
+            }
+            long observed = epoch.get();
+            ValueWrapper wrapper = remote.get(key);
+            if (wrapper != null) fill(key, wrapper.get(), observed);
+            return wrapper;
+        }
+
+        /** 先查本地，本地未命中的 key 一次批量读取 Redis（MGET）并回填本地 */
+        @Override
+        public Map<Object, Object> getAll(Collection<?> keys) {
+            Map<Object, Object> result = new HashMap<>();
+            List<Object> misses = new ArrayList<>();
+            for (Object key : keys) {
+                Object stored = local.getIfPresent(localKey(key));
+                if (stored == null) {
+                    misses.add(key);
+                } else if (stored != NULL_VALUE) {
+                    result.put(key, fromLocal(stored));
+                }
+            }
+            if (misses.isEmpty()) return result;
+            long observed = epoch.get();
+            BatchReadableCache.getAll(remote, misses, stringRedisTemplate).forEach((key, value) -> {
+                fill(key, value, observed);
+                result.put(key, value);
+            });
+            return result;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Class<T> type) {
+            ValueWrapper wrapper = get(key);
+            Object value = wrapper == null ? null : wrapper.get();
+            if (value != null && type != null && !type.isInstance(value)) {
+                throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+            }
+            return (T) value;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            ValueWrapper wrapper = get(key);
+            if (wrapper != null) return (T) wrapper.get();
+            long observed = epoch.get();
+            T value = remote.get(key, valueLoader);
+            // 未命中加载的是新值，其它节点本地没有该条目，无需广播
+            fill(key, value, observed);
+            return value;
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            long observed = epoch.get();
+            remote.put(key, value);
+            fill(key, value, observed);
+            publish(OP_EVICT, getName(), localKey(key));
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            long observed = epoch.get();
+            ValueWrapper existing = remote.putIfAbsent(key, value);
+            if (existing == null) {
+                fill(key, value, observed);
+                publish(OP_EVICT, getName(), localKey(key));
+            }
+            return existing;
+        }
+
+        @Override
+        public void evict(Object key) {
+            remote.evict(key);
+            invalidateLocal(localKey(key));
+            publish(OP_EVICT, getName(), localKey(key));
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            boolean removed = remote.evictIfPresent(key);
+            invalidateLocal(localKey(key));
+            publish(OP_EVICT, getName(), localKey(key));
+            return removed;
+        }
+
+        @Override
+        public void clear() {
+            remote.clear();
+            invalidateLocalAll();
+            publish(OP_CLEAR, getName(), null);
+        }
+
+        @Override
+        public boolean invalidate() {
+            boolean result = remote.invalidate();
+            invalidateLocalAll();
+            publish(OP_CLEAR, getName(), null);
+            return result;
+        }
+    }
+
+    /** copy-on-read 缓存在本地保存的序列化值 */
+    private record Serialized(byte[] bytes) {
+    }
+}
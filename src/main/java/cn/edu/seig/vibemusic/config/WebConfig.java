@@ -14,7 +14,8 @@ public class WebConfig implements WebMvcConfigurer {
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
-        // 登录接口和注册接口不拦截
+        // 登录接口和注册接口不拦截；
+        // 歌曲/歌手/歌单详情与推荐等需要区分登录态的公开接口仍经过拦截器（见 LoginInterceptor 的放行列表），以便写入当前用户
         registry.addInterceptor(loginInterceptor)
                 .addPathPatterns("/**") // 拦截所有请求
                 .excludePathPatterns(
@@ -23,10 +24,15 @@ public class WebConfig implements WebMvcConfigurer {
                         "/user/sendVerificationCode", "/user/resetUserPassword",
                         "/captcha/**",
                         "/banner/getBannerList",
-                        "/playlist/getAllPlaylists", "/playlist/getRecommendedPlaylists", "/playlist/getPlaylistDetail/**",
-                        "/artist/getAllArtists", "/artist/getArtistDetail/**",
-                        "/song/getAllSongs", "/song/getRecommendedSongs", "/song/getSongDetail/**", "/song/getSongsByAlbumId", "/song/getLyric/**",
-                        "/album/getAlbumDetail/**", "/album/getAlbumsByArtist",
-                        "/search/getHotKeywords", "/search/reportKeyword");
+                        "/playlist/getAllPlaylists",
+                        "/artist/getAllArtists",
+                        "/song/getSongsByAlbumId", "/song/getLyric/**",
+                        "/album/getAlbumsByArtist",
+                        "/search/getHotKeywords", "/search/reportKeyword", "/search/suggest",
+                        "/chart/getTopChart", "/chart/getTrendingChart",
+                        // 音频流有意公开：未登录用户本就可以在公开的歌曲列表/详情中拿到预签名的音频 URL 并试听，
+                        // 且 <audio> 发起的请求无法携带 Authorization 头；存储桶私有化防止的是直链长期有效与桶内遍历，
+                        // 这里只按歌曲 id 输出已上架歌曲的音频，不暴露对象地址
+                        "/stream/**");
     }
 }
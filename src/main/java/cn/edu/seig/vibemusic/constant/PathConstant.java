@@ -7,5 +7,10 @@ public class PathConstant {
     public static final String SONG_LIST_PATH = "/song/getAllSongs";
     public static final String SONG_DETAIL_PATH = "/song/getSongDetail/**";
     public static final String ALBUM_DETAIL_PATH = "/album/getAlbumDetail/**";
+    public static final String SONG_RECOMMENDED_PATH = "/song/getRecommendedSongs";
+    public static final String PLAYLIST_RECOMMENDED_PATH = "/playlist/getRecommendedPlaylists";
+    public static final String SONG_COMMENT_PAGE_PATH = "/comment/getSongCommentPage";
+    public static final String PLAYLIST_COMMENT_PAGE_PATH = "/comment/getPlaylistCommentPage";
+    public static final String ALBUM_COMMENT_PAGE_PATH = "/comment/getAlbumCommentPage";
 
 }
@@ -6,11 +6,99 @@ package cn.edu.seig.vibemusic.constant;
 public class RedisKeyConstant {
 
     /**
-     * 搜索热词计数 ZSET
-     * member: 关键字；score: 搜索次数
+     * 搜索热词分桶计数 ZSET（前缀 + 时间桶序号）
+     * member: 关键字；score: 该时间桶内的搜索次数
+     * 分桶与快照使用同一个 hash tag，集群模式下位于同一槽位，ZUNIONSTORE / RENAME 不会跨槽
      */
-    public static final String HOT_SEARCH_ZSET = "hot:search:zset";
+    public static final String HOT_SEARCH_BUCKET_PREFIX = "{hot:search}:b:";
 
-}
+    /**
+     * 热搜榜快照 ZSET（由窗口内各分桶按时间衰减加权合并而成，定时刷新）
+     * member: 关键字；score: 热度
+     */
+    public static final String HOT_SEARCH_SNAPSHOT = "{hot:search}:snapshot";
+
+    /**
+     * 旧版热搜 ZSET（全局计数，每日清空），启动后合并进当前分桶并删除
+     */
+    public static final String HOT_SEARCH_LEGACY_ZSET = "hot:search:zset";
+
+    /**
+     * 旧版热搜快照 key（未带 hash tag），启动后删除
+     */
+    public static final String HOT_SEARCH_LEGACY_SNAPSHOT = "hot:search:snapshot";
+
+    /**
+     * 热搜榜快照刷新锁，一个刷新周期内只由一个节点计算
+     */
+    public static final String HOT_SEARCH_REFRESH_LOCK = "hot:search:refresh:lock";
+
+    /**
+     * 用户的登录 token 集合 SET（前缀 + userId）
+     * member: token；用于改密、禁用、删除用户时注销该用户的全部会话
+     */
+    public static final String SESSION_USER_PREFIX = "session:user:";
+
+    /**
+     * 会话注销广播频道，各节点据此清理本地会话缓存
+     */
+    public static final String SESSION_REVOKE_CHANNEL = "session:revoke";
+
+    /**
+     * 评论点赞增量 HASH（待写回）
+     * field: commentId；value: 尚未写入数据库的点赞增量
+     */
+    public static final String COMMENT_LIKE_PENDING = "comment:like:pending";
+
+    /**
+     * 正在写回数据库的点赞增量 HASH（由 pending 原子改名而来，写库确认后逐字段删除；field "round" 保存本轮写回 id）
+     */
+    public static final String COMMENT_LIKE_FLUSHING = "comment:like:flushing";
 
+    /**
+     * 点赞写回锁，保证同一时刻只有一个节点写回
+     */
+    public static final String COMMENT_LIKE_FLUSH_LOCK = "comment:like:flush:lock";
+
+    /**
+     * 用户最近播放 ZSET（前缀 + userId）
+     * member: songId；score: 最后播放时间（毫秒时间戳）
+     */
+    public static final String RECENT_PLAY_PREFIX = "recent:play:";
+
+    /**
+     * 最近播放有变化、待同步到归档表的用户 ZSET
+     * member: userId；score: 最后一次变化时间（毫秒时间戳）
+     */
+    public static final String RECENT_PLAY_DIRTY = "recent:play:dirty";
+
+    /**
+     * 播放事件 STREAM，由消费组聚合为播放计数与榜单
+     * fields: u = userId；s = songId；t = 播放时间（毫秒时间戳）
+     */
+    public static final String PLAY_EVENT_STREAM = "play:events";
+
+    /**
+     * 歌曲累计播放次数 ZSET（即总榜）
+     * member: songId；score: 播放次数
+     */
+    public static final String PLAY_COUNT_ZSET = "play:count";
+
+    /**
+     * 按小时分桶的播放次数 ZSET（前缀 + yyyyMMddHH），用于计算飙升榜
+     * member: songId；score: 该小时内的播放次数
+     */
+    public static final String PLAY_HOUR_PREFIX = "play:hour:";
+
+    /**
+     * 歌曲独立听众 HyperLogLog（前缀 + songId），元素为 userId
+     */
+    public static final String PLAY_LISTENER_PREFIX = "play:uv:";
+
+    /**
+     * 飙升榜 ZSET（由最近若干小时的分桶按时间衰减加权合并而成）
+     * member: songId；score: 热度
+     */
+    public static final String CHART_TRENDING_ZSET = "chart:trending";
 
+}
@@ -473,15 +473,16 @@ public class AdminController {
                 return Result.error("仅支持 mp3 或 flac 音频");
             }
         }
-        String audioUrl = minioService.uploadFile(audio, "songs");  // 上传到 songs 目录
-        return songService.updateSongAudio(songId, audioUrl, audio);
+        // 上传到 songs 目录，上传过程中同时解析时长
+        MinioService.MediaUpload upload = minioService.uploadMedia(audio, "songs");
+        return songService.updateSongAudio(songId, upload.url(), upload.durationSeconds(), audio);
     }
 
     /** 管理端：更新歌曲歌词（上传 .lrc 到 MinIO 并写入 lyric_url） */
     @PatchMapping("/updateSongLyric/{id}")
     public Result<String> updateSongLyric(@PathVariable("id") Long songId, @RequestParam("lyric") MultipartFile lyric) {
         String lyricUrl = minioService.uploadFile(lyric, "songLyrics");  // 上传到 songLyrics 目录
-        return songService.updateSongLyric(songId, lyricUrl);
+        return songService.updateSongLyric(songId, lyricUrl, lyric);
     }
 
     /**
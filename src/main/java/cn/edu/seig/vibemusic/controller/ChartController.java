@@ -0,0 +1,39 @@
+package cn.edu.seig.vibemusic.controller;
+
+import cn.edu.seig.vibemusic.model.vo.ChartSongVO;
+import cn.edu.seig.vibemusic.result.Result;
+import cn.edu.seig.vibemusic.service.PlayChartService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 播放榜单开放接口
+ */
+@RestController
+@RequestMapping("/chart")
+public class ChartController {
+
+    @Autowired
+    private PlayChartService playChartService;
+
+    /**
+     * 获取总榜 TopN（按累计播放次数，默认50，最多100）
+     */
+    @GetMapping("/getTopChart")
+    public Result<List<ChartSongVO>> getTopChart(@RequestParam(required = false, defaultValue = "50") Integer top) {
+        return Result.success(playChartService.getTopChart(top));
+    }
+
+    /**
+     * 获取飙升榜 TopN（按最近若干小时的播放热度，默认50，最多100）
+     */
+    @GetMapping("/getTrendingChart")
+    public Result<List<ChartSongVO>> getTrendingChart(@RequestParam(required = false, defaultValue = "50") Integer top) {
+        return Result.success(playChartService.getTrendingChart(top));
+    }
+}
@@ -5,9 +5,11 @@ import cn.edu.seig.vibemusic.model.dto.CommentPlaylistDTO;
 import cn.edu.seig.vibemusic.model.dto.CommentAlbumDTO;
 import cn.edu.seig.vibemusic.model.dto.CommentSongDTO;
 import cn.edu.seig.vibemusic.result.Result;
+import cn.edu.seig.vibemusic.model.vo.CommentPageVO;
 import cn.edu.seig.vibemusic.model.vo.CommentVO;
 import cn.edu.seig.vibemusic.service.ICommentService;
 import cn.edu.seig.vibemusic.service.MinioService;
+import cn.edu.seig.vibemusic.util.ObjectUrlSigner;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -30,6 +32,9 @@ public class CommentController {
     @Autowired
     private MinioService minioService;
 
+    @Autowired
+    private ObjectUrlSigner objectUrlSigner;
+
     /**
      * 新增歌曲评论
      *
@@ -103,7 +108,8 @@ public class CommentController {
             
             // 上传到MinIO
             String imageUrl = minioService.uploadFile(file, "commentImages");
-            return Result.success(imageUrl);
+            // 返回预签名 URL 供前端预览，发表评论时回传的 imgPath 由 DTO 反序列化还原为原始 URL
+            return Result.success(objectUrlSigner.sign(imageUrl));
         } catch (Exception e) {
             return Result.error("图片上传失败：" + e.getMessage());
         }
@@ -135,6 +141,30 @@ public class CommentController {
         return commentService.getPlaylistComments(playlistId);
     }
 
+    /** 歌曲评论游标分页：首页不传 cursor，之后传上一页返回的 nextCursor */
+    @GetMapping("/getSongCommentPage")
+    public Result<CommentPageVO> getSongCommentPage(@RequestParam Long songId,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) Integer size) {
+        return commentService.getSongCommentPage(songId, cursor, size);
+    }
+
+    /** 歌单评论游标分页 */
+    @GetMapping("/getPlaylistCommentPage")
+    public Result<CommentPageVO> getPlaylistCommentPage(@RequestParam Long playlistId,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer size) {
+        return commentService.getPlaylistCommentPage(playlistId, cursor, size);
+    }
+
+    /** 专辑评论游标分页 */
+    @GetMapping("/getAlbumCommentPage")
+    public Result<CommentPageVO> getAlbumCommentPage(@RequestParam Long albumId,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) Integer size) {
+        return commentService.getAlbumCommentPage(albumId, cursor, size);
+    }
+
     /**
      * 删除评论
      *
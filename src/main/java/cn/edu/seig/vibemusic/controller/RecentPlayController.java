@@ -3,6 +3,7 @@ package cn.edu.seig.vibemusic.controller;
 import cn.edu.seig.vibemusic.result.PageResult;
 import cn.edu.seig.vibemusic.result.Result;
 import cn.edu.seig.vibemusic.service.IRecentPlayService;
+import cn.edu.seig.vibemusic.service.PlayChartService;
 import cn.edu.seig.vibemusic.util.ThreadLocalUtil;
 import cn.edu.seig.vibemusic.util.TypeConversionUtil;
 import cn.edu.seig.vibemusic.constant.JwtClaimsConstant;
@@ -17,6 +18,7 @@ import jakarta.servlet.http.HttpServletRequest;
 public class RecentPlayController {
 
     private final IRecentPlayService recentPlayService;
+    private final PlayChartService playChartService;
 
     private Long currentUserId() {
         try {
@@ -33,6 +35,8 @@ public class RecentPlayController {
         Object sid = body.get("songId");
         Long songId = sid == null ? null : Long.valueOf(String.valueOf(sid));
         recentPlayService.reportRecent(userId, songId);
+        // 播放计数与榜单异步聚合
+        playChartService.recordPlay(userId, songId);
         return Result.success();
     }
 
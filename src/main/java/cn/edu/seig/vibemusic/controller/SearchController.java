@@ -1,7 +1,9 @@
 package cn.edu.seig.vibemusic.controller;
 
+import cn.edu.seig.vibemusic.model.vo.SearchSuggestionVO;
 import cn.edu.seig.vibemusic.result.Result;
 import cn.edu.seig.vibemusic.service.HotSearchService;
+import cn.edu.seig.vibemusic.util.SearchSuggestIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -19,6 +21,8 @@ public class SearchController {
 
     @Autowired
     private HotSearchService hotSearchService;
+    @Autowired
+    private SearchSuggestIndex searchSuggestIndex;
 
     /**
      * 获取热搜 TopN（默认10）
@@ -28,6 +32,16 @@ public class SearchController {
         return Result.success(hotSearchService.getTopKeywords(top));
     }
 
+    /**
+     * 搜索联想：按前缀匹配歌名 / 歌手名 / 专辑名 / 热搜词（支持拼音首字母），默认10条，最多10条。
+     * 输入过程中调用，不计入热搜。
+     */
+    @GetMapping("/suggest")
+    public Result<List<SearchSuggestionVO>> suggest(@RequestParam String keyword,
+                                                    @RequestParam(required = false, defaultValue = "10") Integer limit) {
+        return Result.success(searchSuggestIndex.suggest(keyword, limit));
+    }
+
     /**
      * 主动上报一次关键字计数（前端在重复搜索但不刷新列表时可调用）
      */
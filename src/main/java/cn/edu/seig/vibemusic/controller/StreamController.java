@@ -0,0 +1,30 @@
+package cn.edu.seig.vibemusic.controller;
+
+import cn.edu.seig.vibemusic.service.AudioStreamService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * 音频流式播放开放接口（无需登录，与公开歌曲列表中的音频 URL 一致，见 WebConfig）
+ */
+@RestController
+public class StreamController {
+
+    @Autowired
+    private AudioStreamService audioStreamService;
+
+    /**
+     * 播放歌曲音频，支持 Range 拖动（206 Partial Content）
+     */
+    @RequestMapping(value = "/stream/{songId}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void stream(@PathVariable Long songId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        audioStreamService.stream(songId, request, response);
+    }
+}
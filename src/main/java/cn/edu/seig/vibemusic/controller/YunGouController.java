@@ -38,6 +38,8 @@ public class YunGouController {
     private StringRedisTemplate stringRedisTemplate;
     @Autowired
     private UserMapper userMapper;
+    @Autowired
+    private cn.edu.seig.vibemusic.util.TokenSessionCache tokenSessionCache;
 
     /**
      * 获取授权Url链接（PC 扫码跳转方式）
@@ -119,6 +121,7 @@ public class YunGouController {
         claims.put("openId", openId);
         String token = JwtUtil.generateToken(claims);
         stringRedisTemplate.opsForValue().set(token, token, 6, TimeUnit.HOURS);
+        tokenSessionCache.register(user.getUserId(), token);
 
         Map<String, Object> data = new HashMap<>();
         data.put("wxOauthInfo", wxOauthInfo);
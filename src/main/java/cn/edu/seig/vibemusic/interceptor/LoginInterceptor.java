@@ -6,27 +6,43 @@ import cn.edu.seig.vibemusic.constant.JwtClaimsConstant;
 import cn.edu.seig.vibemusic.constant.MessageConstant;
 import cn.edu.seig.vibemusic.constant.PathConstant;
 import cn.edu.seig.vibemusic.util.JwtUtil;
+import cn.edu.seig.vibemusic.util.PathPrefixTrie;
 import cn.edu.seig.vibemusic.util.ThreadLocalUtil;
+import cn.edu.seig.vibemusic.util.TokenSessionCache;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
-import org.springframework.util.PathMatcher;
 import org.springframework.web.servlet.HandlerInterceptor;
 
 import java.io.IOException;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
 @Component
 public class LoginInterceptor implements HandlerInterceptor {
 
+    // 允许访问的路径（未登录也放行；携带有效令牌时仍会写入当前用户），启动时编译为前缀树
+    private static final PathPrefixTrie ALLOWED_PATHS = PathPrefixTrie.ofAntPatterns(List.of(
+            PathConstant.PLAYLIST_DETAIL_PATH,
+            PathConstant.PLAYLIST_RECOMMENDED_PATH,
+            PathConstant.ARTIST_DETAIL_PATH,
+            PathConstant.SONG_LIST_PATH,
+            PathConstant.SONG_RECOMMENDED_PATH,
+            PathConstant.SONG_DETAIL_PATH,
+            PathConstant.ALBUM_DETAIL_PATH,
+            PathConstant.SONG_COMMENT_PAGE_PATH,
+            PathConstant.PLAYLIST_COMMENT_PAGE_PATH,
+            PathConstant.ALBUM_COMMENT_PAGE_PATH,
+            "/captcha/**",
+            "/yungou/wx/getAuthorizationUrl",
+            "/yungou/wx/innerQrCodeInfo",
+            "/yungou/wx/loginByCode",
+            "/yungou/wx/callback"
+    ));
+
     @Autowired
-    private StringRedisTemplate stringRedisTemplate;
+    private TokenSessionCache tokenSessionCache;
     @Autowired
     private RolePermissionManager rolePermissionManager;
 
@@ -57,26 +73,8 @@ public class LoginInterceptor implements HandlerInterceptor {
             return true;
         }
 
-        // 获取 Spring 的 PathMatcher 实例
-        PathMatcher pathMatcher = new AntPathMatcher();
-
-        // 定义允许访问的路径（未登录也放行）
-        List<String> allowedPaths = Arrays.asList(
-                PathConstant.PLAYLIST_DETAIL_PATH,
-                PathConstant.ARTIST_DETAIL_PATH,
-                PathConstant.SONG_LIST_PATH,
-                PathConstant.SONG_DETAIL_PATH,
-                PathConstant.ALBUM_DETAIL_PATH,
-                "/captcha/**",
-                "/yungou/wx/getAuthorizationUrl",
-                "/yungou/wx/innerQrCodeInfo",
-                "/yungou/wx/loginByCode",
-                "/yungou/wx/callback"
-        );
-
-        // 检查路径是否匹配
-        boolean isAllowedPath = allowedPaths.stream()
-                .anyMatch(pattern -> pathMatcher.match(pattern, path));
+        // 检查路径是否匹配（未登录也放行的公开路径）
+        boolean isAllowedPath = ALLOWED_PATHS.matches(path);
 
         if (token == null || token.isEmpty()) {
             if (isAllowedPath) {
@@ -88,10 +86,8 @@ public class LoginInterceptor implements HandlerInterceptor {
         }
 
         try {
-            // 从redis中获取相同的token
-            ValueOperations<String, String> operations = stringRedisTemplate.opsForValue();
-            String redisToken = operations.get(token);
-            if (redisToken == null) {
+            // 校验会话：优先命中本地会话缓存，未命中再查 redis 中相同的token
+            if (!tokenSessionCache.isActive(token)) {
                 // token失效
                 throw new RuntimeException();
             }
@@ -100,8 +96,8 @@ public class LoginInterceptor implements HandlerInterceptor {
             String role = (String) claims.get(JwtClaimsConstant.ROLE);
             String requestURI = request.getRequestURI();
 
-            if (rolePermissionManager.hasPermission(role, requestURI)) {
-                // 把业务数据存储到ThreadLocal中
+            if (isAllowedPath || rolePermissionManager.hasPermission(role, requestURI)) {
+                // 把业务数据存储到ThreadLocal中，本次请求内的业务代码直接读取，无需再次解析 token
                 ThreadLocalUtil.set(claims);
                 return true;
             } else {
@@ -109,6 +105,9 @@ public class LoginInterceptor implements HandlerInterceptor {
                 return false;
             }
         } catch (Exception e) {
+            if (isAllowedPath) {
+                return true; // 公开路径上的失效令牌按未登录处理
+            }
             sendErrorResponse(response, 401, MessageConstant.SESSION_EXPIRED); // 令牌无效
             return false;
         }
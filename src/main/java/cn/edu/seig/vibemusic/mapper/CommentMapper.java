@@ -3,7 +3,9 @@ package cn.edu.seig.vibemusic.mapper;
 import cn.edu.seig.vibemusic.model.entity.Comment;
 import cn.edu.seig.vibemusic.model.vo.CommentVO;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 import org.apache.ibatis.annotations.ResultMap;
@@ -20,7 +22,7 @@ import java.util.List;
  */
 @Mapper
 public interface CommentMapper extends BaseMapper<Comment> {
-    /** 点赞 +1，原子更新 */
+    /** 点赞 +1，原子更新（点赞缓冲不可用时直接写库） */
     @Update("UPDATE tb_comment SET like_count = like_count + 1 WHERE id = #{commentId}")
     int incLikeCount(Long commentId);
 
@@ -40,10 +42,33 @@ public interface CommentMapper extends BaseMapper<Comment> {
     @Select("SELECT c.id AS commentId, u.id AS userId, u.username AS username, u.user_avatar AS userAvatar, c.content AS content, c.create_time AS createTime, c.like_count AS likeCount, c.img_path AS imgPath FROM tb_comment c LEFT JOIN tb_user u ON c.user_id = u.id WHERE c.playlist_id = #{playlistId} AND c.type = 1 ORDER BY c.id DESC")
     List<CommentVO> getPlaylistComments(Long playlistId);
 
-    // 带子级的查询由 XML 提供：selectChildComments
+    // ========== XML 映射的评论树查询（方法签名用于绑定 XML 的 <select id=...>），由 Service 组装 ==========
+    /** 一级评论（不含用户名/头像） */
+    List<CommentVO> getAlbumRootComments(Long albumId);
+    List<CommentVO> getSongRootComments(Long songId);
+    List<CommentVO> getPlaylistRootComments(Long playlistId);
 
-    // ========== XML 映射的树形查询（方法签名用于绑定 XML 的 <select id=...>） ==========
-    List<CommentVO> getAlbumCommentsWithChildren(Long albumId);
-    List<CommentVO> getSongCommentsWithChildren(Long songId);
-    List<CommentVO> getPlaylistCommentsWithChildren(Long playlistId);
+    /** 一级评论游标分页（type：0 歌曲 / 1 歌单 / 2 专辑；首页 cursorId 传 null） */
+    List<CommentVO> getRootCommentPage(@Param("type") Integer type, @Param("targetId") Long targetId,
+                                       @Param("cursorTopType") Integer cursorTopType, @Param("cursorId") Long cursorId,
+                                       @Param("limit") int limit);
+
+    /** 一级评论总数 */
+    long countRootComments(@Param("type") Integer type, @Param("targetId") Long targetId);
+
+    /** 批量写回点赞增量（commentId -> delta），结果最小为 0 */
+    int addLikeCounts(@Param("deltas") java.util.Map<Long, Long> deltas);
+
+    /** 查询某轮写回中已落库的评论id（加锁读，与写回同一事务） */
+    List<Long> selectFlushedCommentIds(@Param("flushId") String flushId, @Param("commentIds") java.util.Collection<Long> commentIds);
+
+    /** 记录某轮写回中已落库的评论id */
+    int insertFlushMarks(@Param("flushId") String flushId, @Param("commentIds") java.util.Collection<Long> commentIds);
+
+    /** 删除某轮及过早轮次的写回记录 */
+    @Delete("DELETE FROM tb_comment_like_flush WHERE flush_id = #{flushId} OR create_time < #{before}")
+    int deleteFlushMarks(@Param("flushId") String flushId, @Param("before") java.time.LocalDateTime before);
+
+    /** 按一批父级ID取二级回复（不含用户名/头像），按 id 正序 */
+    List<CommentVO> selectChildCommentsByParentIds(@Param("parentIds") List<Long> parentIds);
 }
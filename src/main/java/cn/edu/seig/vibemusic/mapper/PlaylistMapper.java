@@ -8,7 +8,6 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
-import org.apache.ibatis.annotations.Select;
 
 import java.util.List;
 
@@ -32,18 +31,6 @@ public interface PlaylistMapper extends BaseMapper<Playlist> {
     // 根据风格推荐歌单（排除已收藏歌单）
     List<PlaylistVO> getRecommendedPlaylistsByStyles(List<Long> sortedStyleIds, List<Long> favoritePlaylistIds, int limit);
 
-    // 随机推荐歌单
-    @Select("""
-            SELECT 
-                p.id AS playlistId, 
-                p.title AS title, 
-                p.cover_url AS coverUrl
-            FROM tb_playlist p
-            ORDER BY RAND() 
-            LIMIT #{limit}
-            """)
-    List<PlaylistVO> getRandomPlaylists(int limit);
-
     // 根据用户收藏的歌单id列表获取歌单列表
     IPage<PlaylistVO> getPlaylistsByIds(
             Long userId,
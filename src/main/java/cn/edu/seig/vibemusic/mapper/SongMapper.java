@@ -72,6 +72,27 @@ public interface SongMapper extends BaseMapper<Song> {
             """)
     IPage<SongVO> getSongsByKeyword(Page<SongVO> page, @Param("keyword") String keyword);
 
+    // 全量歌曲（带 artistName），用于构建内存搜索索引
+    @Select("""
+                SELECT
+                    s.id AS songId,
+                    s.name AS songName,
+                    s.artist_id AS artistId,
+                    s.album_id AS albumId,
+                    s.album,
+                    s.duration,
+                    s.cover_url AS coverUrl,
+                    s.audio_url AS audioUrl,
+                    s.release_time AS releaseTime,
+                    a.name AS artistName
+                FROM tb_song s
+                LEFT JOIN tb_artist a ON s.artist_id = a.id
+            """)
+    List<SongVO> getAllSongsWithArtist();
+
+    // 按歌曲id列表获取歌曲（带 artistName）
+    List<SongVO> getSongsWithArtistByIds(@Param("songIds") List<Long> songIds);
+
     // 获取歌曲列表（Admin：带 artistName）
     @Select("""
                 SELECT 
@@ -98,25 +119,6 @@ public interface SongMapper extends BaseMapper<Song> {
                                               @Param("songName") String songName,
                                               @Param("album") String album);
 
-    // 获取随机歌曲列表
-    @Select("""
-                SELECT 
-                    s.id AS songId, 
-                    s.name AS songName, 
-                    s.artist_id AS artistId,
-                    s.album_id AS albumId,
-                    s.album, 
-                    s.duration, 
-                    s.cover_url AS coverUrl, 
-                    s.audio_url AS audioUrl, 
-                    s.release_time AS releaseTime, 
-                    a.name AS artistName
-                FROM tb_song s
-                LEFT JOIN tb_artist a ON s.artist_id = a.id
-                ORDER BY RAND() LIMIT 20
-            """)
-    List<SongVO> getRandomSongsWithArtist();
-
     // 根据id获取歌曲详情
     SongDetailVO getSongDetailById(Long songId);
 
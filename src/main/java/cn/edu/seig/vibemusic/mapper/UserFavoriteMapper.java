@@ -19,8 +19,9 @@ import java.util.List;
 @Mapper
 public interface UserFavoriteMapper extends BaseMapper<UserFavorite> {
 
-    // 查询用户收藏的所有歌曲ID
-    @Select("SELECT song_id FROM tb_user_favorite WHERE user_id = #{userId} AND type = 0 ORDER BY create_time DESC")
+    // 查询用户收藏的所有歌曲ID（仅包含仍存在的歌曲，收藏分页的总数与列表一致）
+    @Select("SELECT f.song_id FROM tb_user_favorite f JOIN tb_song s ON s.id = f.song_id "
+            + "WHERE f.user_id = #{userId} AND f.type = 0 ORDER BY f.create_time DESC")
     List<Long> getUserFavoriteSongIds(@Param("userId") Long userId);
 
     // 查询用户收藏的所有歌单ID
@@ -11,11 +11,14 @@ import java.util.List;
 @Mapper
 public interface UserRecentPlayMapper extends BaseMapper<UserRecentPlay> {
 
-    @Select("SELECT COUNT(1) FROM tb_user_recent_play WHERE user_id = #{userId}")
-    int countByUser(@Param("userId") Long userId);
-
-    @Select("SELECT id FROM tb_user_recent_play WHERE user_id = #{userId} ORDER BY create_time ASC LIMIT #{limit}")
-    List<Long> findOldestIds(@Param("userId") Long userId, @Param("limit") int limit);
-}
+    /** 用户最近播放的歌曲（每首歌一行，按最后播放时间倒序），用于重建 Redis 中的最近播放 */
+    @Select("SELECT song_id AS songId, create_time AS createTime FROM tb_user_recent_play WHERE user_id = #{userId} "
+            + "ORDER BY create_time DESC LIMIT #{limit}")
+    List<UserRecentPlay> findLatestSongs(@Param("userId") Long userId, @Param("limit") int limit);
 
+    /** 批量写入播放记录（按用户+歌曲去重，保留较晚的播放时间） */
+    int upsertBatch(@Param("list") List<UserRecentPlay> list);
 
+    /** 删除用户不在给定歌曲中的记录，使归档与 Redis 中的最近播放一致 */
+    int deleteOtherSongs(@Param("userId") Long userId, @Param("songIds") List<Long> songIds);
+}
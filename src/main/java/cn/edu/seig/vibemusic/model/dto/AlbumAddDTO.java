@@ -1,5 +1,7 @@
 package cn.edu.seig.vibemusic.model.dto;
 
+import cn.edu.seig.vibemusic.util.UnsignedUrlDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
@@ -12,6 +14,7 @@ public class AlbumAddDTO implements Serializable {
     private Long artistId;
     @NotBlank
     private String title;
+    @JsonDeserialize(using = UnsignedUrlDeserializer.class)
     private String coverUrl;
     private String releaseDate;
     private String category;
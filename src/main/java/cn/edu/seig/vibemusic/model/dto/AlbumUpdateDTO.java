@@ -1,5 +1,7 @@
 package cn.edu.seig.vibemusic.model.dto;
 
+import cn.edu.seig.vibemusic.util.UnsignedUrlDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
@@ -11,6 +13,7 @@ public class AlbumUpdateDTO implements Serializable {
     private Long albumId;
     private Long artistId;
     private String title;
+    @JsonDeserialize(using = UnsignedUrlDeserializer.class)
     private String coverUrl;
     private String releaseDate;
     private String category;
@@ -1,5 +1,7 @@
 package cn.edu.seig.vibemusic.model.dto;
 
+import cn.edu.seig.vibemusic.util.UnsignedUrlDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
@@ -16,6 +18,7 @@ public class CommentAlbumDTO {
     private String content;
 
     /** 图片路径 */
+    @JsonDeserialize(using = UnsignedUrlDeserializer.class)
     private String imgPath;
 
     /** 回复的评论ID（可选） */
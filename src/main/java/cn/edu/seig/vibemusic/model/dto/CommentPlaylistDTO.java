@@ -1,5 +1,7 @@
 package cn.edu.seig.vibemusic.model.dto;
 
+import cn.edu.seig.vibemusic.util.UnsignedUrlDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Data;
 
 import java.io.Serial;
@@ -24,6 +26,7 @@ public class CommentPlaylistDTO implements Serializable {
     /**
      * 图片路径
      */
+    @JsonDeserialize(using = UnsignedUrlDeserializer.class)
     private String imgPath;
 
     /** 回复的评论ID（可选） */
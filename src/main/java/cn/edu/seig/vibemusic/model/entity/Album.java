@@ -1,5 +1,7 @@
 package cn.edu.seig.vibemusic.model.entity;
 
+import cn.edu.seig.vibemusic.util.SignedUrlSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.baomidou.mybatisplus.annotation.IdType;
 import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
@@ -28,6 +30,7 @@ public class Album implements Serializable {
     @TableField("title")
     private String title;
 
+    @JsonSerialize(using = SignedUrlSerializer.class)
     @TableField("cover_url")
     private String coverUrl;
 
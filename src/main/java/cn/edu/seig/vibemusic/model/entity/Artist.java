@@ -1,5 +1,7 @@
 package cn.edu.seig.vibemusic.model.entity;
 
+import cn.edu.seig.vibemusic.util.SignedUrlSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.baomidou.mybatisplus.annotation.IdType;
 import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
@@ -51,6 +53,7 @@ public class Artist implements Serializable {
     /**
      * 歌手头像
      */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     @TableField("avatar")
     private String avatar;
 
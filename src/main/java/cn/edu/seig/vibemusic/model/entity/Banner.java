@@ -1,5 +1,7 @@
 package cn.edu.seig.vibemusic.model.entity;
 
+import cn.edu.seig.vibemusic.util.SignedUrlSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import cn.edu.seig.vibemusic.enumeration.BannerStatusEnum;
 import com.baomidou.mybatisplus.annotation.IdType;
 import com.baomidou.mybatisplus.annotation.TableField;
@@ -39,6 +41,7 @@ public class Banner implements Serializable {
     /**
      * 轮播图 url
      */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     @TableField("banner_url")
     private String bannerUrl;
 
@@ -1,5 +1,7 @@
 package cn.edu.seig.vibemusic.model.entity;
 
+import cn.edu.seig.vibemusic.util.SignedUrlSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableName;
 import com.baomidou.mybatisplus.annotation.IdType;
@@ -89,6 +91,7 @@ public class Comment implements Serializable {
     /**
      * 图片路径
      */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     @TableField("img_path")
     private String imgPath;
 
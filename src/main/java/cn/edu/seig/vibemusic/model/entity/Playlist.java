@@ -1,5 +1,7 @@
 package cn.edu.seig.vibemusic.model.entity;
 
+import cn.edu.seig.vibemusic.util.SignedUrlSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableName;
 import com.baomidou.mybatisplus.annotation.IdType;
@@ -43,6 +45,7 @@ public class Playlist implements Serializable {
     /**
      * 歌单封面
      */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     @TableField("cover_url")
     private String coverUrl;
 
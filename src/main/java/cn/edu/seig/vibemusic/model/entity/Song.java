@@ -1,5 +1,7 @@
 package cn.edu.seig.vibemusic.model.entity;
 
+import cn.edu.seig.vibemusic.util.SignedUrlSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.baomidou.mybatisplus.annotation.IdType;
 import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
@@ -69,6 +71,7 @@ public class Song implements Serializable {
     /**
      * 歌词文件 URL（MinIO）
      */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     @TableField("lyric_url")
     private String lyricUrl;
 
@@ -87,12 +90,14 @@ public class Song implements Serializable {
     /**
      * 歌曲封面 url
      */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     @TableField("cover_url")
     private String coverUrl;
 
     /**
      * 歌曲 url
      */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     @TableField("audio_url")
     private String audioUrl;
 
@@ -1,5 +1,7 @@
 package cn.edu.seig.vibemusic.model.entity;
 
+import cn.edu.seig.vibemusic.util.SignedUrlSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.baomidou.mybatisplus.annotation.IdType;
 import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
@@ -31,14 +33,17 @@ public class Theme implements Serializable {
     private String name;
 
     /** 1080p 背景图 */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     @TableField("url_1080")
     private String url1080;
 
     /** 1440p 背景图（可选） */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     @TableField("url_1440")
     private String url1440;
 
     /** 缩略图 */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     @TableField("thumb_url")
     private String thumbUrl;
 
@@ -47,10 +52,12 @@ public class Theme implements Serializable {
     private Integer type;
 
     /** 视频地址 */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     @TableField("video_url")
     private String videoUrl;
 
     /** 视频海报（首帧） */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     @TableField("poster_url")
     private String posterUrl;
 
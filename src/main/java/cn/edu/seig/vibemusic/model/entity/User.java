@@ -1,5 +1,7 @@
 package cn.edu.seig.vibemusic.model.entity;
 
+import cn.edu.seig.vibemusic.util.SignedUrlSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import cn.edu.seig.vibemusic.constant.MessageConstant;
 import cn.edu.seig.vibemusic.enumeration.UserStatusEnum;
 import com.baomidou.mybatisplus.annotation.TableField;
@@ -79,6 +81,7 @@ public class User implements Serializable {
     /**
      * 用户头像
      */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     @TableField("user_avatar")
     private String userAvatar;
 
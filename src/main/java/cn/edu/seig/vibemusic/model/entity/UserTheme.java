@@ -1,5 +1,7 @@
 package cn.edu.seig.vibemusic.model.entity;
 
+import cn.edu.seig.vibemusic.util.SignedUrlSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.baomidou.mybatisplus.annotation.IdType;
 import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
@@ -37,6 +39,7 @@ public class UserTheme implements Serializable {
     private Long themeId;
 
     /** 自定义背景URL */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     @TableField("image_url")
     private String imageUrl;
 
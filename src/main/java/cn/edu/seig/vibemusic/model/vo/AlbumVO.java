@@ -1,5 +1,7 @@
 package cn.edu.seig.vibemusic.model.vo;
 
+import cn.edu.seig.vibemusic.util.SignedUrlSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Data;
 
@@ -17,6 +19,7 @@ public class AlbumVO implements Serializable {
     private Long artistId;
     private String artistName;
     private String title;
+    @JsonSerialize(using = SignedUrlSerializer.class)
     private String coverUrl;
     @JsonFormat(pattern = "yyyy-MM-dd")
     private LocalDate releaseDate;
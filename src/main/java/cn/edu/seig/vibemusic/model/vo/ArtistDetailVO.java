@@ -1,5 +1,7 @@
 package cn.edu.seig.vibemusic.model.vo;
 
+import cn.edu.seig.vibemusic.util.SignedUrlSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Data;
 
@@ -32,6 +34,7 @@ public class ArtistDetailVO implements Serializable {
     /**
      * 歌手头像
      */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     private String avatar;
 
     /**
@@ -1,5 +1,7 @@
 package cn.edu.seig.vibemusic.model.vo;
 
+import cn.edu.seig.vibemusic.util.SignedUrlSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.Data;
 
 import java.io.Serial;
@@ -24,6 +26,7 @@ public class ArtistVO implements Serializable {
     /**
      * 歌手头像
      */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     private String avatar;
 
 }
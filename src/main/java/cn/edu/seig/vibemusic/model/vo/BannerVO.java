@@ -1,5 +1,7 @@
 package cn.edu.seig.vibemusic.model.vo;
 
+import cn.edu.seig.vibemusic.util.SignedUrlSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.Data;
 
 import java.io.Serial;
@@ -19,6 +21,7 @@ public class BannerVO implements Serializable {
     /**
      * 轮播图 url
      */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     private String bannerUrl;
 
     /** 关联专辑ID */
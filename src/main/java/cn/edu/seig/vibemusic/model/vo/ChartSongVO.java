@@ -0,0 +1,38 @@
+package cn.edu.seig.vibemusic.model.vo;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.io.Serial;
+
+/**
+ * 榜单条目：歌曲卡片 + 播放统计
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class ChartSongVO extends SongCardVO {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 名次（从 1 开始）
+     */
+    private Integer rank;
+
+    /**
+     * 累计播放次数
+     */
+    private Long playCount;
+
+    /**
+     * 独立听众数（HyperLogLog 估算值）
+     */
+    private Long listenerCount;
+
+    /**
+     * 榜单热度：总榜为累计播放次数，飙升榜为按时间衰减加权后的播放次数
+     */
+    private Double score;
+
+}
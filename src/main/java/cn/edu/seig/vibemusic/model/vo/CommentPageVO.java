@@ -0,0 +1,30 @@
+package cn.edu.seig.vibemusic.model.vo;
+
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+public class CommentPageVO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 本页一级评论（带二级回复）
+     */
+    private List<CommentVO> items;
+
+    /**
+     * 一级评论总数
+     */
+    private Long total;
+
+    /**
+     * 下一页游标，没有更多时为 null
+     */
+    private String nextCursor;
+
+}
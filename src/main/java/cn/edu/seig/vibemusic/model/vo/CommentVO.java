@@ -1,5 +1,7 @@
 package cn.edu.seig.vibemusic.model.vo;
 
+import cn.edu.seig.vibemusic.util.SignedUrlSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Data;
 
@@ -31,6 +33,7 @@ public class CommentVO implements Serializable {
     /**
      * 用户头像
      */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     private String userAvatar;
 
     /**
@@ -52,6 +55,7 @@ public class CommentVO implements Serializable {
     /**
      * 图片路径
      */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     private String imgPath;
 
     /** 父级评论ID；0 表示一级 */
@@ -63,6 +67,9 @@ public class CommentVO implements Serializable {
     /** 被回复的用户昵称（@对象） */
     private String replyNickName;
 
+    /** 置顶标记（一级评论游标分页使用） */
+    private Integer topType;
+
     /** 子级回复列表（仅二级） */
     private java.util.List<CommentVO> children;
 
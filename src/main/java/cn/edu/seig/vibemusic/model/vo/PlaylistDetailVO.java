@@ -1,5 +1,7 @@
 package cn.edu.seig.vibemusic.model.vo;
 
+import cn.edu.seig.vibemusic.util.SignedUrlSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.Data;
 
 import java.io.Serial;
@@ -25,6 +27,7 @@ public class PlaylistDetailVO implements Serializable {
     /**
      * 歌单封面
      */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     private String coverUrl;
 
     /**
@@ -37,6 +40,7 @@ public class PlaylistDetailVO implements Serializable {
      */
     private Long creatorId;
     private String creatorName;
+    @JsonSerialize(using = SignedUrlSerializer.class)
     private String creatorAvatar;
 
     /**
@@ -52,8 +56,18 @@ public class PlaylistDetailVO implements Serializable {
     private Integer likeStatus;
 
     /**
-     * 评论列表
+     * 评论列表（仅第一页，后续页通过评论分页接口按游标获取）
      */
     private List<CommentVO> comments;
 
+    /**
+     * 一级评论总数
+     */
+    private Long commentTotal;
+
+    /**
+     * 评论下一页游标，没有更多时为 null
+     */
+    private String commentNextCursor;
+
 }
@@ -1,5 +1,7 @@
 package cn.edu.seig.vibemusic.model.vo;
 
+import cn.edu.seig.vibemusic.util.SignedUrlSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Data;
 
@@ -22,7 +24,9 @@ public class PlaylistSongVO implements Serializable {
     private String songName;
     private String artistName;
     private String album;
+    @JsonSerialize(using = SignedUrlSerializer.class)
     private String coverUrl;
+    @JsonSerialize(using = SignedUrlSerializer.class)
     private String audioUrl;
 
     @JsonFormat(pattern = "yyyy-MM-dd")
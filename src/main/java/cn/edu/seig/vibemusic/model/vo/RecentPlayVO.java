@@ -0,0 +1,28 @@
+package cn.edu.seig.vibemusic.model.vo;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.io.Serial;
+
+/**
+ * 最近播放条目：歌曲卡片 + 播放时间
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class RecentPlayVO extends SongCardVO {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 最后播放时间
+     */
+    private String createTime;
+
+    /**
+     * 喜欢状态
+     */
+    private Integer likeStatus;
+
+}
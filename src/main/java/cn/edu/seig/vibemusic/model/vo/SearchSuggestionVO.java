@@ -0,0 +1,36 @@
+package cn.edu.seig.vibemusic.model.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * 搜索联想词
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchSuggestionVO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 联想文本（歌名 / 歌手名 / 专辑名 / 热搜词原文）
+     */
+    private String text;
+
+    /**
+     * 类型：song / artist / album / keyword
+     */
+    private String type;
+
+    /**
+     * 对应的歌曲 / 歌手 / 专辑 id，热搜词为 null
+     */
+    private Long id;
+
+}
@@ -0,0 +1,85 @@
+package cn.edu.seig.vibemusic.model.vo;
+
+import cn.edu.seig.vibemusic.util.SignedUrlSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * 歌曲卡片：列表展示所需的歌曲基础信息（含歌手名与头像），按歌曲 id 缓存，供各列表接口批量读取
+ */
+@Data
+public class SongCardVO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 歌曲 id
+     */
+    private Long songId;
+
+    /**
+     * 歌名
+     */
+    private String songName;
+
+    /**
+     * 歌手ID
+     */
+    private Long artistId;
+
+    /**
+     * 歌手
+     */
+    private String artistName;
+
+    /**
+     * 歌手头像
+     */
+    @JsonSerialize(using = SignedUrlSerializer.class)
+    private String artistAvatar;
+
+    /**
+     * 专辑
+     */
+    private String album;
+
+    /**
+     * 专辑ID
+     */
+    private Long albumId;
+
+    /**
+     * 歌曲时长
+     */
+    private String duration;
+
+    /**
+     * 歌曲风格
+     */
+    private String style;
+
+    /**
+     * 歌曲封面 url
+     */
+    @JsonSerialize(using = SignedUrlSerializer.class)
+    private String coverUrl;
+
+    /**
+     * 歌曲 url
+     */
+    @JsonSerialize(using = SignedUrlSerializer.class)
+    private String audioUrl;
+
+    /**
+     * 歌曲发行时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate releaseTime;
+
+}
@@ -1,5 +1,7 @@
 package cn.edu.seig.vibemusic.model.vo;
 
+import cn.edu.seig.vibemusic.util.SignedUrlSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Data;
 
@@ -45,11 +47,13 @@ public class SongDetailVO implements Serializable {
     /**
      * 歌曲封面 url
      */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     private String coverUrl;
 
     /**
      * 歌曲 url
      */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     private String audioUrl;
 
     /**
@@ -66,8 +70,18 @@ public class SongDetailVO implements Serializable {
     private Integer likeStatus;
 
     /**
-     * 评论列表
+     * 评论列表（仅第一页，后续页通过评论分页接口按游标获取）
      */
     private List<CommentVO> comments;
 
+    /**
+     * 一级评论总数
+     */
+    private Long commentTotal;
+
+    /**
+     * 评论下一页游标，没有更多时为 null
+     */
+    private String commentNextCursor;
+
 }
@@ -1,5 +1,7 @@
 package cn.edu.seig.vibemusic.model.vo;
 
+import cn.edu.seig.vibemusic.util.SignedUrlSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Data;
 
@@ -51,11 +53,13 @@ public class SongVO implements Serializable {
     /**
      * 歌曲封面 url
      */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     private String coverUrl;
 
     /**
      * 歌曲 url
      */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     private String audioUrl;
 
     /**
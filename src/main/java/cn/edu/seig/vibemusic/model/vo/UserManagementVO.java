@@ -1,5 +1,7 @@
 package cn.edu.seig.vibemusic.model.vo;
 
+import cn.edu.seig.vibemusic.util.SignedUrlSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import cn.edu.seig.vibemusic.enumeration.UserStatusEnum;
 import lombok.Data;
 
@@ -36,6 +38,7 @@ public class UserManagementVO implements Serializable {
     /**
      * 用户头像
      */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     private String userAvatar;
 
     /**
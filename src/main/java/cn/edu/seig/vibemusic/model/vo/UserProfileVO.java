@@ -1,5 +1,7 @@
 package cn.edu.seig.vibemusic.model.vo;
 
+import cn.edu.seig.vibemusic.util.SignedUrlSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.Data;
 
 import java.io.Serial;
@@ -12,6 +14,7 @@ public class UserProfileVO implements Serializable {
 
     private Long userId;
     private String username;
+    @JsonSerialize(using = SignedUrlSerializer.class)
     private String userAvatar;
     private String introduction;
 
@@ -1,5 +1,7 @@
 package cn.edu.seig.vibemusic.model.vo;
 
+import cn.edu.seig.vibemusic.util.SignedUrlSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.Data;
 
 import java.io.Serial;
@@ -34,6 +36,7 @@ public class UserVO implements Serializable {
     /**
      * 用户头像
      */
+    @JsonSerialize(using = SignedUrlSerializer.class)
     private String userAvatar;
 
     /**
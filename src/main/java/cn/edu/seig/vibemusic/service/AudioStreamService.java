@@ -0,0 +1,21 @@
+package cn.edu.seig.vibemusic.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+/**
+ * 音频流式播放服务
+ */
+public interface AudioStreamService {
+
+    /**
+     * 按 HTTP Range 输出歌曲音频（单区间），无 Range 时输出整个文件
+     *
+     * @param songId   歌曲id
+     * @param request  请求（读取 Range 头）
+     * @param response 响应
+     */
+    void stream(Long songId, HttpServletRequest request, HttpServletResponse response) throws IOException;
+}
@@ -1,6 +1,7 @@
 package cn.edu.seig.vibemusic.service;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 热搜服务
@@ -13,10 +14,20 @@ public interface HotSearchService {
     void increaseKeyword(String keyword);
 
     /**
-     * 读取 TopN 关键字（倒序）
+     * 读取 TopN 关键字（倒序），来自定时刷新的快照
      */
     List<String> getTopKeywords(int topN);
 
+    /**
+     * 本地快照中的关键字及热度（按热度倒序）
+     */
+    Map<String, Double> getKeywordScores();
+
+    /**
+     * 由滑动窗口内的分桶重新计算热搜榜快照，并加载到本地
+     */
+    void refreshSnapshot();
+
     /**
      * 清空热搜榜数据
      */
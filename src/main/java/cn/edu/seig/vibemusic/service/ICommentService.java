@@ -4,6 +4,7 @@ import cn.edu.seig.vibemusic.model.dto.CommentPlaylistDTO;
 import cn.edu.seig.vibemusic.model.dto.CommentAlbumDTO;
 import cn.edu.seig.vibemusic.model.dto.CommentSongDTO;
 import cn.edu.seig.vibemusic.model.entity.Comment;
+import cn.edu.seig.vibemusic.model.vo.CommentPageVO;
 import cn.edu.seig.vibemusic.model.vo.CommentVO;
 import cn.edu.seig.vibemusic.result.Result;
 import com.baomidou.mybatisplus.extension.service.IService;
@@ -36,6 +37,15 @@ public interface ICommentService extends IService<Comment> {
     // 获取歌单评论列表
     Result<java.util.List<CommentVO>> getPlaylistComments(Long playlistId);
 
+    // 歌曲评论游标分页
+    Result<CommentPageVO> getSongCommentPage(Long songId, String cursor, Integer size);
+
+    // 歌单评论游标分页
+    Result<CommentPageVO> getPlaylistCommentPage(Long playlistId, String cursor, Integer size);
+
+    // 专辑评论游标分页
+    Result<CommentPageVO> getAlbumCommentPage(Long albumId, String cursor, Integer size);
+
     // 点赞评论
     Result<String> likeComment(Long commentId);
 
@@ -45,4 +55,7 @@ public interface ICommentService extends IService<Comment> {
     // 删除评论
     Result<String> deleteComment(Long commentId);
 
+    // 将缓冲的点赞增量批量写回数据库（定时任务调用）
+    void flushPendingLikes();
+
 }
@@ -7,6 +7,8 @@ public interface IRecentPlayService {
     PageResult<?> page(Long userId, Integer pageNum, Integer pageSize);
     void removeOne(Long userId, Long songId);
     void clearAll(Long userId);
+    // 将最近播放有变化的用户同步到归档表（定时任务调用）
+    void flushArchive();
 }
 
 
@@ -51,8 +51,8 @@ public interface ISongService extends IService<Song> {
     // 更新歌曲封面
     Result<String> updateSongCover(Long songId, String coverUrl);
 
-    // 更新歌曲音频（并可更新时长）
-    Result<String> updateSongAudio(Long songId, String audioUrl, org.springframework.web.multipart.MultipartFile audioFile);
+    // 更新歌曲音频（并可更新时长，durationSeconds 为上传时解析的时长，为 null 时从文件提取）
+    Result<String> updateSongAudio(Long songId, String audioUrl, Integer durationSeconds, org.springframework.web.multipart.MultipartFile audioFile);
 
     // 删除歌曲
     Result<String> deleteSong(Long songId);
@@ -60,8 +60,8 @@ public interface ISongService extends IService<Song> {
     // 批量删除歌曲
     Result<String> deleteSongs(List<Long> songIds);
 
-    // 更新歌曲歌词URL（并清理歌词缓存）
-    Result<String> updateSongLyric(Long songId, String lyricUrl);
+    // 更新歌曲歌词URL（同时写入预解析的歌词时间轴，并清理歌词缓存）
+    Result<String> updateSongLyric(Long songId, String lyricUrl, org.springframework.web.multipart.MultipartFile lyricFile);
 
     // 获取某歌手已有专辑列表（去重）
     Result<List<String>> getAlbumsByArtist(Long artistId);
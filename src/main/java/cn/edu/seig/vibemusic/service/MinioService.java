@@ -12,6 +12,14 @@ public interface MinioService {
      */
     String uploadFile(MultipartFile file, String folder);
 
+    /**
+     * 上传音视频文件，上传的同时从同一数据流解析时长（MP3 / FLAC / MP4），不再另存临时文件
+     * @param file   要上传的文件
+     * @param folder 存储文件的目录
+     * @return 文件访问 URL 与时长
+     */
+    MediaUpload uploadMedia(MultipartFile file, String folder);
+
     /**
      * 删除 MinIO 文件
      * @param fileUrl 文件 URL
@@ -25,6 +33,28 @@ public interface MinioService {
      */
     String readText(String fileUrl);
 
+    /**
+     * 读取文件原始字节
+     * @param fileUrl 文件 URL 或对象键
+     * @return 文件内容
+     */
+    byte[] readBytes(String fileUrl);
+
+    /**
+     * 读取文件原始字节，对象不存在时返回 null，其他读取失败仍抛出异常
+     * @param fileUrl 文件 URL 或对象键
+     * @return 文件内容，对象不存在时为 null
+     */
+    byte[] readBytesIfExists(String fileUrl);
+
+    /**
+     * 以指定 URL 对应的对象键写入（覆盖）文件，用于与已有文件配套的衍生文件
+     * @param fileUrl     文件 URL 或对象键
+     * @param data        文件内容
+     * @param contentType MIME 类型
+     */
+    void putBytes(String fileUrl, byte[] data, String contentType);
+
     /**
      * 通过输入流上传（用于临时文件/生成的海报等）
      * @param inputStream 数据流
@@ -36,4 +66,42 @@ public interface MinioService {
      */
     String uploadStream(InputStream inputStream, String originalFilename, String contentType, String folder, long size);
 
+    /**
+     * 查询对象元信息
+     * @param fileUrl 文件 URL 或对象键
+     * @return 对象键、大小、MIME 类型与 ETag
+     */
+    ObjectStat statObject(String fileUrl);
+
+    /**
+     * 读取对象的一段字节
+     * @param objectKey 对象键
+     * @param offset    起始偏移
+     * @param length    长度
+     * @return 数据流，由调用方关闭
+     */
+    InputStream getObjectRange(String objectKey, long offset, long length);
+
+    /**
+     * 为本存储桶内的对象生成限时访问的 GET 预签名 URL
+     * @param fileUrl       文件 URL
+     * @param expirySeconds 有效期（秒）
+     * @return 预签名 URL；不是本存储桶的对象 URL 时返回 null
+     */
+    String getPresignedUrl(String fileUrl, int expirySeconds);
+
+    /**
+     * 对象元信息
+     */
+    record ObjectStat(String objectKey, long size, String contentType, String etag) {
+    }
+
+    /**
+     * 音视频上传结果
+     * @param url             文件访问 URL
+     * @param durationSeconds 时长（秒），格式不支持或无法解析时为 null
+     */
+    record MediaUpload(String url, Integer durationSeconds) {
+    }
+
 }
@@ -0,0 +1,38 @@
+package cn.edu.seig.vibemusic.service;
+
+import cn.edu.seig.vibemusic.model.vo.ChartSongVO;
+
+import java.util.List;
+
+/**
+ * 播放统计与榜单服务
+ */
+public interface PlayChartService {
+
+    /**
+     * 记录一次播放（异步进入采集管道）
+     */
+    void recordPlay(Long userId, Long songId);
+
+    /**
+     * 把采集队列写入 Stream，并消费 Stream 聚合播放次数、小时分桶与独立听众
+     *
+     * @return 本次聚合的事件数
+     */
+    int ingest();
+
+    /**
+     * 由最近若干小时的分桶重新计算飙升榜
+     */
+    void refreshTrending();
+
+    /**
+     * 总榜（累计播放次数）TopN
+     */
+    List<ChartSongVO> getTopChart(int topN);
+
+    /**
+     * 飙升榜 TopN
+     */
+    List<ChartSongVO> getTrendingChart(int topN);
+}
@@ -35,6 +35,8 @@ public class AdminServiceImpl extends ServiceImpl<AdminMapper, Admin> implements
     private AdminMapper adminMapper;
     @Autowired
     private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private cn.edu.seig.vibemusic.util.TokenSessionCache tokenSessionCache;
 
     /**
      * 管理员注册
@@ -99,6 +101,7 @@ public class AdminServiceImpl extends ServiceImpl<AdminMapper, Admin> implements
     public Result logout(String token) {
         // 注销token
         Boolean result = stringRedisTemplate.delete(token);
+        tokenSessionCache.revokeToken(token);
         if (result != null && result) {
             return Result.success(MessageConstant.LOGOUT + MessageConstant.SUCCESS);
         } else {
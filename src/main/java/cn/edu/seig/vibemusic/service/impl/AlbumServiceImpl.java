@@ -24,7 +24,6 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheConfig;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import cn.edu.seig.vibemusic.model.dto.AlbumDTO;
@@ -58,7 +57,9 @@ public class AlbumServiceImpl extends ServiceImpl<AlbumMapper, Album> implements
     @Autowired
     private BannerMapper bannerMapper;
     @Autowired
-    private cn.edu.seig.vibemusic.util.CachePurger cachePurger;
+    private cn.edu.seig.vibemusic.util.SongSearchIndex songSearchIndex;
+    @Autowired
+    private cn.edu.seig.vibemusic.util.CacheInvalidator cacheInvalidator;
 
     @Override
     @Cacheable(key = "'albumsByArtist-' + #artistId + '-' + #pageNum + '-' + #pageSize")
@@ -128,7 +129,6 @@ public class AlbumServiceImpl extends ServiceImpl<AlbumMapper, Album> implements
 
     // 管理端：新增专辑
     @Override
-    @CacheEvict(cacheNames = {"albumCache", "songCache"}, allEntries = true)
     public Result addAlbum(AlbumAddDTO albumAddDTO) {
         Album a = new Album();
         BeanUtils.copyProperties(albumAddDTO, a);
@@ -155,12 +155,12 @@ public class AlbumServiceImpl extends ServiceImpl<AlbumMapper, Album> implements
                 }
             }
         } catch (Exception ignored) {}
+        cacheInvalidator.evictLists("albumCache");
         return Result.success("新增成功");
     }
 
     // 管理端：更新专辑
     @Override
-    @CacheEvict(cacheNames = {"albumCache"}, allEntries = true)
     public Result updateAlbum(AlbumUpdateDTO albumUpdateDTO) {
         Album a = new Album();
         BeanUtils.copyProperties(albumUpdateDTO, a);
@@ -235,12 +235,16 @@ public class AlbumServiceImpl extends ServiceImpl<AlbumMapper, Album> implements
             }
         } catch (Exception ignored) {}
 
+        // 专辑封面可能回填到歌曲，同步刷新搜索索引
+        try { songSearchIndex.refreshAlbum(albumUpdateDTO.getAlbumId()); } catch (Exception ignored) {}
+
+        cacheInvalidator.evictAlbum(albumUpdateDTO.getAlbumId());
+        cacheInvalidator.evictLists("albumCache");
         return Result.success("更新成功");
     }
 
     // 管理端：删除专辑
     @Override
-    @CacheEvict(cacheNames = {"albumCache", "songCache"}, allEntries = true)
     public Result deleteAlbum(Long albumId) {
         Album album = albumMapper.selectById(albumId);
         if (album == null) return Result.success("删除成功");
@@ -287,18 +291,21 @@ public class AlbumServiceImpl extends ServiceImpl<AlbumMapper, Album> implements
                     .eq("type", 3).apply("album_id not in (select id from tb_album)"));
         } catch (Exception ignored) {}
 
-        // 6) 自定义 Redis Key 清理
-        try { cachePurger.purgeForAlbum(albumId); } catch (Exception ignored) {}
+        // 6) 刷新原属该专辑的歌曲索引（专辑名已置空）
+        try { songSearchIndex.refreshAlbum(albumId); } catch (Exception ignored) {}
 
+        cacheInvalidator.evictAlbum(albumId);
+        cacheInvalidator.evictLists("albumCache", "songCache");
         return Result.success("删除成功");
     }
 
     // 管理端：批量删除专辑
     @Override
-    @CacheEvict(cacheNames = {"albumCache", "songCache"}, allEntries = true)
     public Result deleteAlbums(java.util.List<Long> albumIds) {
         if (albumIds == null || albumIds.isEmpty()) return Result.success("删除成功");
         int affected = albumMapper.deleteBatchIds(albumIds);
+        albumIds.forEach(cacheInvalidator::evictAlbum);
+        cacheInvalidator.evictLists("albumCache", "songCache");
         return affected > 0 ? Result.success("删除成功") : Result.error("删除失败");
     }
 }
@@ -1,25 +1,18 @@
 package cn.edu.seig.vibemusic.service.impl;
 
-import cn.edu.seig.vibemusic.constant.JwtClaimsConstant;
 import cn.edu.seig.vibemusic.constant.MessageConstant;
-import cn.edu.seig.vibemusic.enumeration.LikeStatusEnum;
-import cn.edu.seig.vibemusic.enumeration.RoleEnum;
 import cn.edu.seig.vibemusic.mapper.*;
 import cn.edu.seig.vibemusic.model.dto.ArtistAddDTO;
 import cn.edu.seig.vibemusic.model.dto.ArtistDTO;
 import cn.edu.seig.vibemusic.model.dto.ArtistUpdateDTO;
 import cn.edu.seig.vibemusic.model.entity.Artist;
-import cn.edu.seig.vibemusic.model.entity.UserFavorite;
 import cn.edu.seig.vibemusic.model.vo.ArtistDetailVO;
 import cn.edu.seig.vibemusic.model.vo.ArtistNameVO;
 import cn.edu.seig.vibemusic.model.vo.ArtistVO;
-import cn.edu.seig.vibemusic.model.vo.SongVO;
 import cn.edu.seig.vibemusic.result.PageResult;
 import cn.edu.seig.vibemusic.result.Result;
 import cn.edu.seig.vibemusic.service.IArtistService;
 import cn.edu.seig.vibemusic.service.MinioService;
-import cn.edu.seig.vibemusic.util.JwtUtil;
-import cn.edu.seig.vibemusic.util.TypeConversionUtil;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
@@ -27,16 +20,14 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheConfig;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * <p>
@@ -70,6 +61,16 @@ public class ArtistServiceImpl extends ServiceImpl<ArtistMapper, Artist> impleme
     private MinioService minioService;
     @Autowired
     private cn.edu.seig.vibemusic.util.CachePurger cachePurger;
+    @Autowired
+    private cn.edu.seig.vibemusic.util.SongSearchIndex songSearchIndex;
+    @Autowired
+    private cn.edu.seig.vibemusic.util.RandomSampler randomSampler;
+    @Autowired
+    private cn.edu.seig.vibemusic.util.CacheInvalidator cacheInvalidator;
+    @Autowired
+    private cn.edu.seig.vibemusic.util.FavoriteSongBitmap favoriteSongBitmap;
+    @Autowired
+    private CacheManager cacheManager;
 
     /**
      * 获取所有歌手列表
@@ -176,10 +177,7 @@ public class ArtistServiceImpl extends ServiceImpl<ArtistMapper, Artist> impleme
      */
     @Override
     public Result<List<ArtistVO>> getRandomArtists() {
-        QueryWrapper<Artist> queryWrapper = new QueryWrapper<>();
-        queryWrapper.last("ORDER BY RAND() LIMIT 10");
-
-        List<Artist> artists = artistMapper.selectList(queryWrapper);
+        List<Artist> artists = randomSampler.randomArtists(10);
         if (artists.isEmpty()) {
             return Result.success(MessageConstant.DATA_NOT_FOUND, null);
         }
@@ -202,55 +200,33 @@ public class ArtistServiceImpl extends ServiceImpl<ArtistMapper, Artist> impleme
      * @return 歌手详情
      */
     @Override
-    @Cacheable(key = "#artistId")
     public Result<ArtistDetailVO> getArtistDetail(Long artistId, HttpServletRequest request) {
-        ArtistDetailVO artistDetailVO = artistMapper.getArtistDetailById(artistId);
+        ArtistDetailVO cached = loadArtistDetail(artistId);
+        if (cached == null) {
+            return Result.error(MessageConstant.ARTIST + MessageConstant.NOT_FOUND);
+        }
 
-        // 设置默认状态
-        List<SongVO> songVOList = artistDetailVO.getSongs();
-        songVOList.forEach(songVO -> songVO.setLikeStatus(LikeStatusEnum.DEFAULT.getId()));
+        // 复制一份再补充当前用户的收藏状态，不修改缓存中的对象
+        ArtistDetailVO artistDetailVO = new ArtistDetailVO();
+        BeanUtils.copyProperties(cached, artistDetailVO);
+        artistDetailVO.setSongs(favoriteSongBitmap.withLikeStatus(cached.getSongs()));
 
-        // 获取请求头中的 token
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7); // 去掉 "Bearer " 前缀
-        }
+        return Result.success(artistDetailVO);
+    }
 
-        Map<String, Object> map = null;
-        if (token != null && !token.isEmpty()) {
-            map = JwtUtil.parseToken(token);
+    /** 歌手详情的公共部分（不含收藏状态），所有用户共用一份，缓存于 artistCache 的 detail-{artistId} */
+    private ArtistDetailVO loadArtistDetail(Long artistId) {
+        Cache cache = cacheManager.getCache("artistCache");
+        String key = "detail-" + artistId;
+        if (cache != null) {
+            ArtistDetailVO cached = cache.get(key, ArtistDetailVO.class);
+            if (cached != null) return cached;
         }
-
-        // 如果 token 解析成功且用户为登录状态，进一步操作
-        if (map != null) {
-            String role = (String) map.get(JwtClaimsConstant.ROLE);
-            if (role.equals(RoleEnum.USER.getRole())) {
-                Object userIdObj = map.get(JwtClaimsConstant.USER_ID);
-                Long userId = TypeConversionUtil.toLong(userIdObj);
-
-                // 获取用户收藏的歌曲
-                List<UserFavorite> favoriteSongs = userFavoriteMapper.selectList(new QueryWrapper<UserFavorite>()
-                        .eq("user_id", userId)
-                        .eq("type", 0));
-
-                // 获取用户收藏的歌曲 id
-                Set<Long> favoriteSongIds = favoriteSongs.stream()
-                        .map(UserFavorite::getSongId)
-                        .collect(Collectors.toSet());
-
-                // 检查并更新状态
-                for (SongVO songVO : songVOList) {
-                    if (favoriteSongIds.contains(songVO.getSongId())) {
-                        songVO.setLikeStatus(LikeStatusEnum.LIKE.getId());
-                    }
-                }
-            }
+        ArtistDetailVO detail = artistMapper.getArtistDetailById(artistId);
+        if (detail != null && cache != null) {
+            cache.put(key, detail);
         }
-
-        // 设置歌曲列表
-        artistDetailVO.setSongs(songVOList);
-
-        return Result.success(artistDetailVO);
+        return detail;
     }
 
     /**
@@ -280,7 +256,6 @@ public class ArtistServiceImpl extends ServiceImpl<ArtistMapper, Artist> impleme
      * @return 添加结果
      */
     @Override
-    @CacheEvict(cacheNames = "artistCache", allEntries = true)
     public Result addArtist(ArtistAddDTO artistAddDTO) {
         QueryWrapper<Artist> queryWrapper = new QueryWrapper<>();
         queryWrapper.eq("name", artistAddDTO.getArtistName());
@@ -291,7 +266,9 @@ public class ArtistServiceImpl extends ServiceImpl<ArtistMapper, Artist> impleme
         Artist artist = new Artist();
         BeanUtils.copyProperties(artistAddDTO, artist);
         artistMapper.insert(artist);
+        randomSampler.invalidateArtists();
 
+        cacheInvalidator.evictLists("artistCache");
         return Result.success(MessageConstant.ADD + MessageConstant.SUCCESS);
     }
 
@@ -302,7 +279,6 @@ public class ArtistServiceImpl extends ServiceImpl<ArtistMapper, Artist> impleme
      * @return 更新结果
      */
     @Override
-    @CacheEvict(cacheNames = "artistCache", allEntries = true)
     public Result updateArtist(ArtistUpdateDTO artistUpdateDTO) {
         Long artistId = artistUpdateDTO.getArtistId();
 
@@ -317,6 +293,15 @@ public class ArtistServiceImpl extends ServiceImpl<ArtistMapper, Artist> impleme
             return Result.error(MessageConstant.UPDATE + MessageConstant.FAILED);
         }
 
+        // 歌手名参与歌曲搜索，同步刷新该歌手的歌曲索引
+        try { songSearchIndex.refreshArtist(artistId); } catch (Exception ignored) {}
+        // 歌手名出现在列表与其歌曲详情中（歌曲详情不含 artistId，按歌曲逐个失效）
+        cacheInvalidator.evictArtist(artistId);
+        cacheInvalidator.evictLists("artistCache");
+        try {
+            cacheInvalidator.evictSongs(songMapper.selectList(new QueryWrapper<cn.edu.seig.vibemusic.model.entity.Song>().select("id").eq("artist_id", artistId))
+                    .stream().map(cn.edu.seig.vibemusic.model.entity.Song::getSongId).toList());
+        } catch (Exception ignored) {}
         return Result.success(MessageConstant.UPDATE + MessageConstant.SUCCESS);
     }
 
@@ -328,7 +313,6 @@ public class ArtistServiceImpl extends ServiceImpl<ArtistMapper, Artist> impleme
      * @return 更新结果
      */
     @Override
-    @CacheEvict(cacheNames = "artistCache", allEntries = true)
     public Result updateArtistAvatar(Long artistId, String avatar) {
         Artist artist = artistMapper.selectById(artistId);
         String avatarUrl = artist.getAvatar();
@@ -341,6 +325,7 @@ public class ArtistServiceImpl extends ServiceImpl<ArtistMapper, Artist> impleme
             return Result.error(MessageConstant.UPDATE + MessageConstant.FAILED);
         }
 
+        cacheInvalidator.evictArtist(artistId);
         return Result.success(MessageConstant.UPDATE + MessageConstant.SUCCESS);
     }
 
@@ -351,7 +336,6 @@ public class ArtistServiceImpl extends ServiceImpl<ArtistMapper, Artist> impleme
      * @return 删除结果
      */
     @Override
-    @CacheEvict(cacheNames = "artistCache", allEntries = true)
     public Result deleteArtist(Long artistId) {
         cascadeDeleteArtist(artistId);
         return Result.success(MessageConstant.DELETE + MessageConstant.SUCCESS);
@@ -364,7 +348,6 @@ public class ArtistServiceImpl extends ServiceImpl<ArtistMapper, Artist> impleme
      * @return 删除结果
      */
     @Override
-    @CacheEvict(cacheNames = {"artistCache", "songCache"}, allEntries = true)
     public Result deleteArtists(List<Long> artistIds) {
         if (artistIds == null || artistIds.isEmpty()) return Result.success(MessageConstant.DELETE + MessageConstant.SUCCESS);
         for (Long artistId : artistIds) {
@@ -394,6 +377,7 @@ public class ArtistServiceImpl extends ServiceImpl<ArtistMapper, Artist> impleme
             commentMapper.delete(new QueryWrapper<cn.edu.seig.vibemusic.model.entity.Comment>().in("song_id", songIds).eq("type", 0));
             userFavoriteMapper.delete(new QueryWrapper<cn.edu.seig.vibemusic.model.entity.UserFavorite>().eq("type", 0).in("song_id", songIds));
             songMapper.delete(new QueryWrapper<cn.edu.seig.vibemusic.model.entity.Song>().in("id", songIds));
+            try { songSearchIndex.removeSongs(songIds); } catch (Exception ignored) {}
         }
 
         // 2) 该歌手的专辑，清理封面、专辑评论、收藏、轮播引用
@@ -427,8 +411,15 @@ public class ArtistServiceImpl extends ServiceImpl<ArtistMapper, Artist> impleme
 
         // 5) 兜底：全局清理可能遗留的脏数据（外键缺失的收藏、绑定、流派映射、评论）
         cleanupOrphans();
-        // 6) 额外：清理自定义 Redis Key（如推荐列表）
-        try { cachePurger.purgeForArtist(artistId); } catch (Exception ignored) {}
+        // 6) 额外：清理自定义 Redis Key（如推荐列表），随机抽样的 id 池失效
+        // 歌手的歌曲已随之删除，只需从候选集中移除这些歌曲
+        try { cachePurger.purgeForSongs(songIds); } catch (Exception ignored) {}
+        randomSampler.invalidateArtists();
+        randomSampler.invalidateSongs();
+        // 7) 精确失效：该歌手及其歌曲/专辑相关的缓存条目与各列表
+        cacheInvalidator.evictArtist(artistId);
+        cacheInvalidator.evictSongs(songIds);
+        cacheInvalidator.evictLists("artistCache", "songCache", "albumCache");
     }
 
     /** 全表兜底清理：移除已不存在实体的引用行，避免脏数据 */
@@ -0,0 +1,177 @@
+package cn.edu.seig.vibemusic.service.impl;
+
+import cn.edu.seig.vibemusic.model.vo.SongCardVO;
+import cn.edu.seig.vibemusic.service.AudioStreamService;
+import cn.edu.seig.vibemusic.service.MinioService.ObjectStat;
+import cn.edu.seig.vibemusic.util.AudioChunkCache;
+import cn.edu.seig.vibemusic.util.SongCardCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 音频流式播放：解析 Range 后按块从本地磁盘缓存读取（未命中时由 MinIO 按区间回源），热门歌曲的拖动与重复播放不再经过 MinIO。
+ * 写出用 FileChannel.transferTo，但目标是 Servlet 输出流包装的通道，既不是文件也不是 socket 通道，
+ * JDK 会退化为经堆内缓冲区的读写循环，并非零拷贝；节省的是 MinIO 回源，而不是用户态拷贝。
+ * 同一个地址（/stream/{songId}）的音频可能被替换，响应使用 no-cache + ETag：浏览器每次用 If-None-Match 校验，未变化时返回 304。
+ * 该接口有意对未登录用户开放（见 WebConfig）。
+ */
+@Service
+public class AudioStreamServiceImpl implements AudioStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(AudioStreamServiceImpl.class);
+
+    @Autowired
+    private SongCardCache songCardCache;
+    @Autowired
+    private AudioChunkCache audioChunkCache;
+
+    @Override
+    public void stream(Long songId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        SongCardVO card = songId == null ? null : songCardCache.getCards(List.of(songId)).get(songId);
+        if (card == null || card.getAudioUrl() == null || card.getAudioUrl().isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        ObjectStat stat;
+        try {
+            stat = audioChunkCache.stat(card.getAudioUrl());
+        } catch (Exception e) {
+            log.warn("[AudioStream] Stat failed, songId={}: {}", songId, e.getMessage());
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long size = stat.size();
+        String etag = stat.etag() == null ? null : "\"" + stat.etag() + "\"";
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+            if (matchesEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+        response.setContentType(stat.contentType() != null ? stat.contentType() : "audio/mpeg");
+
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && size > 0) {
+            long[] parsed = parseRange(range, size);
+            if (parsed == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            start = parsed[0];
+            end = parsed[1];
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        } else {
+            response.setStatus(HttpServletResponse.SC_OK);
+        }
+        long length = Math.max(0, end - start + 1);
+        response.setContentLengthLong(length);
+        if (length == 0 || "HEAD".equalsIgnoreCase(request.getMethod())) return;
+
+        try {
+            write(stat, start, end, Channels.newChannel(response.getOutputStream()));
+        } catch (NoSuchFileException e) {
+            log.warn("[AudioStream] Chunk file missing after reload, songId={}: {}", songId, e.getMessage());
+        } catch (IOException e) {
+            // 客户端拖动进度条或切歌时会主动断开连接，属于正常情况
+            log.debug("[AudioStream] Client aborted, songId={}: {}", songId, e.getMessage());
+        }
+    }
+
+    /** 逐块输出 [start, end] 区间 */
+    private void write(ObjectStat stat, long start, long end, WritableByteChannel out) throws IOException {
+        long chunkSize = audioChunkCache.chunkSize();
+        for (long index = start / chunkSize; index <= end / chunkSize; index++) {
+            long chunkStart = index * chunkSize;
+            long from = Math.max(start, chunkStart) - chunkStart;
+            long to = Math.min(end, chunkStart + chunkSize - 1) - chunkStart;
+            transfer(stat, index, from, to - from + 1, out);
+        }
+    }
+
+    private void transfer(ObjectStat stat, long index, long position, long count, WritableByteChannel out) throws IOException {
+        FileChannel channel;
+        Path path = audioChunkCache.chunk(stat, index);
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            // 取出路径后恰好被淘汰，或文件被外部删除：丢弃该块后重新下载一次
+            audioChunkCache.invalidate(stat, index, path);
+            channel = FileChannel.open(audioChunkCache.chunk(stat, index), StandardOpenOption.READ);
+        }
+        try (FileChannel file = channel) {
+            while (count > 0) {
+                long n = file.transferTo(position, count, out);
+                if (n <= 0) throw new IOException("Chunk truncated: " + stat.objectKey() + ":" + index);
+                position += n;
+                count -= n;
+            }
+        }
+    }
+
+    /** If-None-Match 是否包含该 ETag（支持多个值、弱校验前缀与 *） */
+    private static boolean matchesEtag(String header, String etag) {
+        if (header == null) return false;
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) value = value.substring(2);
+            if (value.equals("*") || value.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 解析单区间 Range（bytes=a-b / bytes=a- / bytes=-n），多区间只取第一个
+     *
+     * @return [start, end]，无法满足时为 null
+     */
+    private static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=")) return null;
+        String spec = header.substring(6);
+        int comma = spec.indexOf(',');
+        if (comma >= 0) spec = spec.substring(0, comma);
+        spec = spec.trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) return null;
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) return null;
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            }
+            if (start < 0 || start >= size || end < start) return null;
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
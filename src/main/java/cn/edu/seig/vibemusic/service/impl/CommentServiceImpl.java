@@ -4,23 +4,34 @@ import cn.edu.seig.vibemusic.constant.JwtClaimsConstant;
 import cn.edu.seig.vibemusic.constant.MessageConstant;
 import cn.edu.seig.vibemusic.enumeration.RoleEnum;
 import cn.edu.seig.vibemusic.mapper.CommentMapper;
+import cn.edu.seig.vibemusic.mapper.UserMapper;
 import cn.edu.seig.vibemusic.model.dto.CommentPlaylistDTO;
 import cn.edu.seig.vibemusic.model.dto.CommentAlbumDTO;
 import cn.edu.seig.vibemusic.model.dto.CommentSongDTO;
 import cn.edu.seig.vibemusic.model.entity.Comment;
+import cn.edu.seig.vibemusic.model.entity.User;
 import cn.edu.seig.vibemusic.result.Result;
+import cn.edu.seig.vibemusic.model.vo.CommentPageVO;
 import cn.edu.seig.vibemusic.model.vo.CommentVO;
 import cn.edu.seig.vibemusic.service.ICommentService;
+import cn.edu.seig.vibemusic.util.CommentLikeBuffer;
 import cn.edu.seig.vibemusic.util.ThreadLocalUtil;
 import cn.edu.seig.vibemusic.util.TypeConversionUtil;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p>
@@ -33,8 +44,34 @@ import java.util.Objects;
 @Service
 public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> implements ICommentService {
 
+    private static final Logger log = LoggerFactory.getLogger(CommentServiceImpl.class);
+
     @Autowired
     private CommentMapper commentMapper;
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private CommentLikeBuffer commentLikeBuffer;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // 二级回复 IN 查询的单批父级数量
+    private static final int CHILD_BATCH_SIZE = 1000;
+    // 评论分页缓存区，与歌曲/歌单详情缓存分离
+    private static final String COMMENT_CACHE = "commentCache";
+    // 每个评论目标的版本号：评论增删/点赞时递增，旧版本的分页缓存不再命中（随 TTL 过期）
+    private static final String VERSION_KEY_PREFIX = "comment:ver:";
+    // 版本号存活时间需长于分页缓存的 TTL，避免版本号过期归零后命中旧分页
+    private static final long VERSION_TTL_HOURS = 24;
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 50;
+    // 点赞增量单条 UPDATE 合并的评论数
+    private static final int LIKE_FLUSH_BATCH_SIZE = 500;
 
     /**
      * 添加歌曲评论
@@ -43,7 +80,6 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
      * @return Result
      */
     @Override
-    @CacheEvict(cacheNames = "songCache", allEntries = true)
     public Result<String> addSongComment(CommentSongDTO commentSongDTO) {
         Map<String, Object> map = ThreadLocalUtil.get();
         Object userIdObj = map.get(JwtClaimsConstant.USER_ID);
@@ -76,6 +112,7 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
         if (commentMapper.insert(comment) == 0) {
             return Result.error(MessageConstant.ADD + MessageConstant.FAILED);
         }
+        bumpVersion(0, commentSongDTO.getSongId());
         return Result.success(MessageConstant.ADD + MessageConstant.SUCCESS);
     }
 
@@ -86,7 +123,6 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
      * @return Result
      */
     @Override
-    @CacheEvict(cacheNames = "playlistCache", allEntries = true)
     public Result<String> addPlaylistComment(CommentPlaylistDTO commentPlaylistDTO) {
         Map<String, Object> map = ThreadLocalUtil.get();
         Object userIdObj = map.get(JwtClaimsConstant.USER_ID);
@@ -117,6 +153,7 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
         if (commentMapper.insert(comment) == 0) {
             return Result.error(MessageConstant.ADD + MessageConstant.FAILED);
         }
+        bumpVersion(1, commentPlaylistDTO.getPlaylistId());
         return Result.success(MessageConstant.ADD + MessageConstant.SUCCESS);
     }
 
@@ -124,7 +161,6 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
      * 添加专辑评论
      */
     @Override
-    @CacheEvict(cacheNames = "albumCache", allEntries = true)
     public Result<String> addAlbumComment(CommentAlbumDTO commentAlbumDTO) {
         Map<String, Object> map = ThreadLocalUtil.get();
         Object userIdObj = map.get(JwtClaimsConstant.USER_ID);
@@ -156,30 +192,214 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
         if (commentMapper.insert(comment) == 0) {
             return Result.error(MessageConstant.ADD + MessageConstant.FAILED);
         }
+        bumpVersion(2, commentAlbumDTO.getAlbumId());
         return Result.success(MessageConstant.ADD + MessageConstant.SUCCESS);
     }
 
     /** 获取专辑评论列表 */
     @Override
     public Result<java.util.List<CommentVO>> getAlbumComments(Long albumId) {
-        java.util.List<CommentVO> list = commentMapper.getAlbumCommentsWithChildren(albumId);
+        java.util.List<CommentVO> list = withPendingLikes(buildTree(commentMapper.getAlbumRootComments(albumId)));
         return Result.success(list);
     }
 
     /** 获取歌曲评论列表 */
     @Override
     public Result<java.util.List<CommentVO>> getSongComments(Long songId) {
-        java.util.List<CommentVO> list = commentMapper.getSongCommentsWithChildren(songId);
+        java.util.List<CommentVO> list = withPendingLikes(buildTree(commentMapper.getSongRootComments(songId)));
         return Result.success(list);
     }
 
     /** 获取歌单评论列表 */
     @Override
     public Result<java.util.List<CommentVO>> getPlaylistComments(Long playlistId) {
-        java.util.List<CommentVO> list = commentMapper.getPlaylistCommentsWithChildren(playlistId);
+        java.util.List<CommentVO> list = withPendingLikes(buildTree(commentMapper.getPlaylistRootComments(playlistId)));
         return Result.success(list);
     }
 
+    @Override
+    public Result<CommentPageVO> getSongCommentPage(Long songId, String cursor, Integer size) {
+        return commentPage(0, songId, cursor, size);
+    }
+
+    @Override
+    public Result<CommentPageVO> getPlaylistCommentPage(Long playlistId, String cursor, Integer size) {
+        return commentPage(1, playlistId, cursor, size);
+    }
+
+    @Override
+    public Result<CommentPageVO> getAlbumCommentPage(Long albumId, String cursor, Integer size) {
+        return commentPage(2, albumId, cursor, size);
+    }
+
+    /**
+     * 一级评论游标分页（带二级回复），按 (top_type, id) 倒序；结果按 目标+版本号+游标 缓存
+     *
+     * @param type     0 歌曲 / 1 歌单 / 2 专辑
+     * @param targetId 目标id
+     * @param cursor   上一页返回的 nextCursor，首页为空
+     * @param size     每页数量
+     * @return 评论分页
+     */
+    private Result<CommentPageVO> commentPage(int type, Long targetId, String cursor, Integer size) {
+        if (targetId == null) {
+            return Result.error(MessageConstant.NOT_FOUND);
+        }
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        Integer cursorTopType = null;
+        Long cursorId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                int idx = cursor.indexOf('_');
+                cursorTopType = Integer.valueOf(cursor.substring(0, idx));
+                cursorId = Long.valueOf(cursor.substring(idx + 1));
+            } catch (Exception e) {
+                return Result.error("cursor" + MessageConstant.INVALID);
+            }
+        }
+
+        String version = null;
+        try {
+            version = stringRedisTemplate.opsForValue().get(VERSION_KEY_PREFIX + type + ":" + targetId);
+        } catch (Exception ignored) {}
+        String cacheKey = type + ":" + targetId + ":v" + (version == null ? "0" : version)
+                + ":" + (cursorId == null ? "" : cursor) + ":" + pageSize;
+
+        Cache cache = cacheManager.getCache(COMMENT_CACHE);
+        if (cache != null) {
+            CommentPageVO cached = cache.get(cacheKey, CommentPageVO.class);
+            if (cached != null) return Result.success(withPendingLikes(cached));
+        }
+
+        List<CommentVO> roots = commentMapper.getRootCommentPage(type, targetId, cursorTopType, cursorId, pageSize + 1);
+        boolean hasMore = roots.size() > pageSize;
+        if (hasMore) roots = new ArrayList<>(roots.subList(0, pageSize));
+        CommentPageVO page = new CommentPageVO();
+        page.setItems(buildTree(roots));
+        page.setTotal(commentMapper.countRootComments(type, targetId));
+        if (hasMore) {
+            CommentVO last = roots.get(roots.size() - 1);
+            page.setNextCursor((last.getTopType() == null ? 0 : last.getTopType()) + "_" + last.getCommentId());
+        }
+
+        if (cache != null) {
+            try { cache.put(cacheKey, page); } catch (Exception ignored) {}
+        }
+        return Result.success(withPendingLikes(page));
+    }
+
+    /** 合并尚未写回数据库的点赞增量；缓存中的对象可能被本地缓存共享，有增量时返回副本 */
+    private CommentPageVO withPendingLikes(CommentPageVO page) {
+        List<CommentVO> items = withPendingLikes(page.getItems());
+        if (items == page.getItems()) return page;
+        CommentPageVO copy = new CommentPageVO();
+        copy.setItems(items);
+        copy.setTotal(page.getTotal());
+        copy.setNextCursor(page.getNextCursor());
+        return copy;
+    }
+
+    private List<CommentVO> withPendingLikes(List<CommentVO> roots) {
+        if (roots == null || roots.isEmpty()) return roots;
+        List<Long> ids = new ArrayList<>();
+        for (CommentVO root : roots) {
+            ids.add(root.getCommentId());
+            if (root.getChildren() != null) {
+                for (CommentVO child : root.getChildren()) ids.add(child.getCommentId());
+            }
+        }
+        Map<Long, Long> deltas;
+        try {
+            deltas = commentLikeBuffer.pendingDeltas(ids);
+        } catch (Exception e) {
+            return roots;
+        }
+        if (deltas.isEmpty()) return roots;
+
+        List<CommentVO> result = new ArrayList<>(roots.size());
+        for (CommentVO root : roots) {
+            CommentVO copy = copyWithDelta(root, deltas);
+            if (root.getChildren() != null) {
+                List<CommentVO> children = new ArrayList<>(root.getChildren().size());
+                for (CommentVO child : root.getChildren()) children.add(copyWithDelta(child, deltas));
+                copy.setChildren(children);
+            }
+            result.add(copy);
+        }
+        return result;
+    }
+
+    private static CommentVO copyWithDelta(CommentVO comment, Map<Long, Long> deltas) {
+        CommentVO copy = new CommentVO();
+        BeanUtils.copyProperties(comment, copy);
+        Long delta = deltas.get(comment.getCommentId());
+        if (delta != null) {
+            long base = comment.getLikeCount() == null ? 0L : comment.getLikeCount();
+            copy.setLikeCount(Math.max(0L, base + delta));
+        }
+        return copy;
+    }
+
+    /**
+     * 组装评论树：按父级 IN 批量取二级回复，再批量取涉及的用户（评论人与被回复人），内存中回填
+     *
+     * @param roots 一级评论
+     * @return 带 children 的一级评论
+     */
+    private List<CommentVO> buildTree(List<CommentVO> roots) {
+        if (roots == null || roots.isEmpty()) return new ArrayList<>();
+
+        Map<Long, CommentVO> rootById = new HashMap<>();
+        for (CommentVO root : roots) {
+            root.setChildren(new ArrayList<>());
+            rootById.put(root.getCommentId(), root);
+        }
+        List<Long> parentIds = new ArrayList<>(rootById.keySet());
+        List<CommentVO> children = new ArrayList<>();
+        for (int i = 0; i < parentIds.size(); i += CHILD_BATCH_SIZE) {
+            children.addAll(commentMapper.selectChildCommentsByParentIds(
+                    parentIds.subList(i, Math.min(i + CHILD_BATCH_SIZE, parentIds.size()))));
+        }
+
+        Set<Long> userIds = new HashSet<>();
+        for (CommentVO c : roots) {
+            if (c.getUserId() != null) userIds.add(c.getUserId());
+        }
+        for (CommentVO c : children) {
+            if (c.getUserId() != null) userIds.add(c.getUserId());
+            if (c.getReplyUserId() != null) userIds.add(c.getReplyUserId());
+        }
+        Map<Long, User> users = new HashMap<>();
+        if (!userIds.isEmpty()) {
+            for (User u : userMapper.selectList(new QueryWrapper<User>().select("id", "username", "user_avatar").in("id", userIds))) {
+                users.put(u.getUserId(), u);
+            }
+        }
+
+        for (CommentVO root : roots) {
+            fillUser(root, users);
+        }
+        for (CommentVO child : children) {
+            fillUser(child, users);
+            User replyUser = child.getReplyUserId() == null ? null : users.get(child.getReplyUserId());
+            child.setReplyNickName(replyUser == null ? null : replyUser.getUsername());
+            CommentVO parent = rootById.get(child.getPCommentId());
+            if (parent != null) parent.getChildren().add(child);
+        }
+        return roots;
+    }
+
+    // 回填评论人信息；用户已不存在时与原 LEFT JOIN 行为一致，置空
+    private static void fillUser(CommentVO comment, Map<Long, User> users) {
+        User user = comment.getUserId() == null ? null : users.get(comment.getUserId());
+        if (user == null) {
+            comment.setUserId(null);
+            return;
+        }
+        comment.setUsername(user.getUsername());
+        comment.setUserAvatar(user.getUserAvatar());
+    }
+
     /**
      * 点赞评论
      *
@@ -187,13 +407,8 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
      * @return Result
      */
     @Override
-    @CacheEvict(cacheNames = {"songCache", "playlistCache"}, allEntries = true)
     public Result<String> likeComment(Long commentId) {
-        int updated = commentMapper.incLikeCount(commentId);
-        if (updated == 0) {
-            return Result.error(MessageConstant.FAILED);
-        }
-        return Result.success(MessageConstant.SUCCESS);
+        return changeLike(commentId, 1);
     }
 
     /**
@@ -203,15 +418,81 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
      * @return Result
      */
     @Override
-    @CacheEvict(cacheNames = {"songCache", "playlistCache"}, allEntries = true)
     public Result<String> cancelLikeComment(Long commentId) {
-        int updated = commentMapper.decLikeCount(commentId);
-        if (updated == 0) {
+        return changeLike(commentId, -1);
+    }
+
+    /**
+     * 点赞增量写入 Redis 缓冲，由定时任务批量写回；读取时合并未落库的增量，因此无需使分页缓存失效。
+     * 不存在的评论不查库校验：写回时 UPDATE 按 id 匹配不到行，增量自然丢弃。
+     * Redis 不可用时退回直接更新数据库。
+     */
+    private Result<String> changeLike(Long commentId, int delta) {
+        if (commentId == null) {
             return Result.error(MessageConstant.FAILED);
         }
+        try {
+            commentLikeBuffer.add(commentId, delta);
+        } catch (Exception e) {
+            int updated = delta > 0 ? commentMapper.incLikeCount(commentId) : commentMapper.decLikeCount(commentId);
+            if (updated == 0) {
+                return Result.error(MessageConstant.FAILED);
+            }
+            evictCommentTarget(commentMapper.selectById(commentId));
+        }
         return Result.success(MessageConstant.SUCCESS);
     }
 
+    /**
+     * 将缓冲的点赞增量分批写回数据库，每批提交后在一次 Redis 调用中确认并递增相关目标的版本号，使分页缓存读到新的点赞数。
+     * 所属目标在写库前查好，提交与确认之间只剩一次 Redis 往返（见 CommentLikeBuffer 的一致性说明）。
+     * 每批在同一事务中记录（轮次 id, 评论 id），崩溃后重放同一轮时跳过已落库的评论；锁丢失时停止写回。
+     */
+    @Override
+    public void flushPendingLikes() {
+        CommentLikeBuffer.Flush flush = commentLikeBuffer.beginFlush();
+        if (flush == null) return;
+        try {
+            List<Long> ids = new ArrayList<>(flush.deltas().keySet());
+            for (int i = 0; i < ids.size(); i += LIKE_FLUSH_BATCH_SIZE) {
+                List<Long> batchIds = ids.subList(i, Math.min(i + LIKE_FLUSH_BATCH_SIZE, ids.size()));
+                if (!commentLikeBuffer.renew(flush)) {
+                    log.warn("[CommentLike] Flush lock lost, stopping round {}", flush.flushId());
+                    return;
+                }
+                // 同一目标只递增一次版本号
+                Set<String> versionKeys = new LinkedHashSet<>();
+                for (Comment comment : commentMapper.selectList(new QueryWrapper<Comment>()
+                        .select("id", "type", "song_id", "playlist_id", "album_id").in("id", batchIds))) {
+                    String key = versionKey(comment);
+                    if (key != null) versionKeys.add(key);
+                }
+                transactionTemplate.executeWithoutResult(status -> applyLikeBatch(flush, batchIds));
+                commentLikeBuffer.acknowledge(batchIds, versionKeys, TimeUnit.HOURS.toSeconds(VERSION_TTL_HOURS));
+            }
+            if (commentLikeBuffer.complete(flush)) {
+                try {
+                    commentMapper.deleteFlushMarks(flush.flushId(), LocalDateTime.now().minusDays(1));
+                } catch (Exception ignored) {}
+            }
+            log.debug("[CommentLike] Flushed like deltas of {} comments", ids.size());
+        } finally {
+            commentLikeBuffer.endFlush(flush);
+        }
+    }
+
+    /** 写回一批点赞增量（需在事务中调用）：跳过本轮已落库的评论，其余累加并记录 */
+    private void applyLikeBatch(CommentLikeBuffer.Flush flush, List<Long> batchIds) {
+        Set<Long> flushed = new HashSet<>(commentMapper.selectFlushedCommentIds(flush.flushId(), batchIds));
+        Map<Long, Long> batch = new LinkedHashMap<>();
+        for (Long id : batchIds) {
+            if (!flushed.contains(id)) batch.put(id, flush.deltas().get(id));
+        }
+        if (batch.isEmpty()) return;
+        commentMapper.insertFlushMarks(flush.flushId(), batch.keySet());
+        commentMapper.addLikeCounts(batch);
+    }
+
     /**
      * 删除评论
      *
@@ -219,7 +500,6 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
      * @return Result
      */
     @Override
-    @CacheEvict(cacheNames = {"songCache", "playlistCache", "albumCache"}, allEntries = true)
     public Result<String> deleteComment(Long commentId) {
         Map<String, Object> map = ThreadLocalUtil.get();
         String role = map == null ? null : (String) map.get(JwtClaimsConstant.ROLE);
@@ -251,6 +531,40 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
         if (commentMapper.deleteById(commentId) == 0) {
             return Result.error(MessageConstant.DELETE + MessageConstant.FAILED);
         }
+        evictCommentTarget(comment);
         return Result.success(MessageConstant.DELETE + MessageConstant.SUCCESS);
     }
+
+    /** 评论变更后递增所属目标的版本号，使其分页缓存失效 */
+    private void evictCommentTarget(Comment comment) {
+        if (comment == null || comment.getType() == null) return;
+        if (comment.getType() == 0) {
+            bumpVersion(0, comment.getSongId());
+        } else if (comment.getType() == 1) {
+            bumpVersion(1, comment.getPlaylistId());
+        } else if (comment.getType() == 2) {
+            bumpVersion(2, comment.getAlbumId());
+        }
+    }
+
+    /** 评论所属目标的版本号 key，无法确定目标时返回 null */
+    private static String versionKey(Comment comment) {
+        if (comment == null || comment.getType() == null) return null;
+        Long targetId = switch (comment.getType()) {
+            case 0 -> comment.getSongId();
+            case 1 -> comment.getPlaylistId();
+            case 2 -> comment.getAlbumId();
+            default -> null;
+        };
+        return targetId == null ? null : VERSION_KEY_PREFIX + comment.getType() + ":" + targetId;
+    }
+
+    private void bumpVersion(int type, Long targetId) {
+        if (targetId == null) return;
+        try {
+            String key = VERSION_KEY_PREFIX + type + ":" + targetId;
+            stringRedisTemplate.opsForValue().increment(key);
+            stringRedisTemplate.expire(key, VERSION_TTL_HOURS, TimeUnit.HOURS);
+        } catch (Exception ignored) {}
+    }
 }
@@ -3,39 +3,179 @@ package cn.edu.seig.vibemusic.service.impl;
 import cn.edu.seig.vibemusic.constant.RedisKeyConstant;
 import cn.edu.seig.vibemusic.service.HotSearchService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.connection.zset.Weights;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * 热搜榜：滑动窗口 + 时间衰减。
+ * - 计数：按 bucket-minutes 分桶，每次搜索 ZINCRBY 当前分桶；
+ * - 快照：定时把窗口内全部分桶按半衰期加权 ZUNIONSTORE 为 {hot:search}:snapshot（截断为前 SNAPSHOT_SIZE 个），
+ *   各节点再把快照读入本地，读取 TopN 不访问 Redis；
+ * - 过期：分桶在滑出窗口后自然过期，不再每日 0 点清空，榜单平滑变化；
+ * - 所有 key 共用 {hot:search} hash tag，集群模式下合并与 RENAME 在同一槽位内完成。
+ * 旧版的全局计数 hot:search:zset 在首次刷新时合并进当前分桶后删除。
+ */
 @Service
 public class HotSearchServiceImpl implements HotSearchService {
 
+    // 快照保留的关键字数量
+    private static final int SNAPSHOT_SIZE = 100;
+
     @Autowired
     private StringRedisTemplate stringRedisTemplate;
 
+    @Value("${hot-search.bucket-minutes:10}")
+    private long bucketMinutes;
+
+    @Value("${hot-search.window-minutes:1440}")
+    private long windowMinutes;
+
+    @Value("${hot-search.half-life-minutes:180}")
+    private double halfLifeMinutes;
+
+    @Value("${hot-search.refresh-interval-ms:60000}")
+    private long refreshIntervalMs;
+
+    // 本地快照（关键字 -> 热度，按热度倒序），整体替换
+    private volatile Map<String, Double> localSnapshot;
+    // 本进程是否已检查过旧版 key
+    private volatile boolean legacyMigrated;
+
     @Override
     public void increaseKeyword(String keyword) {
         if (keyword == null) return;
         String trimmed = keyword.trim();
         if (trimmed.isEmpty()) return;
-        stringRedisTemplate.opsForZSet().incrementScore(RedisKeyConstant.HOT_SEARCH_ZSET, trimmed, 1D);
+        byte[] key = bucketKey(currentBucket()).getBytes(StandardCharsets.UTF_8);
+        byte[] member = trimmed.getBytes(StandardCharsets.UTF_8);
+        long ttl = TimeUnit.MINUTES.toSeconds(windowMinutes + bucketMinutes);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.zSetCommands().zIncrBy(key, 1D, member);
+            connection.keyCommands().expire(key, ttl);
+            return null;
+        });
     }
 
     @Override
     public List<String> getTopKeywords(int topN) {
         if (topN <= 0) return List.of();
-        Set<String> set = stringRedisTemplate.opsForZSet().reverseRange(RedisKeyConstant.HOT_SEARCH_ZSET, 0, topN - 1);
-        if (set == null || set.isEmpty()) return List.of();
-        return new ArrayList<>(set);
+        List<String> result = new ArrayList<>(topN);
+        for (String keyword : getKeywordScores().keySet()) {
+            if (result.size() >= topN) break;
+            result.add(keyword);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Double> getKeywordScores() {
+        Map<String, Double> snapshot = localSnapshot;
+        return snapshot != null ? snapshot : loadSnapshot();
+    }
+
+    @Override
+    public void refreshSnapshot() {
+        // 同一周期内只由抢到锁的节点重新计算，锁随周期自然过期
+        Boolean locked = stringRedisTemplate.opsForValue().setIfAbsent(RedisKeyConstant.HOT_SEARCH_REFRESH_LOCK,
+                "1", Duration.ofMillis(Math.max(1000, refreshIntervalMs - 1000)));
+        if (Boolean.TRUE.equals(locked)) {
+            migrateLegacy();
+            materialize();
+        }
+        loadSnapshot();
+    }
+
+    /** 合并窗口内全部分桶，整体替换快照 */
+    private void materialize() {
+        List<String> keys = windowKeys();
+        double[] weights = new double[keys.size()];
+        for (int age = 0; age < weights.length; age++) {
+            // 越早的桶权重越低
+            weights[age] = Math.pow(0.5, age * bucketMinutes / halfLifeMinutes);
+        }
+
+        // 先写入临时 key 并截断，再 RENAME 整体替换
+        String tmpKey = RedisKeyConstant.HOT_SEARCH_SNAPSHOT + ":tmp:" + UUID.randomUUID();
+        Long size = stringRedisTemplate.opsForZSet().unionAndStore(
+                keys.get(0), keys.subList(1, keys.size()), tmpKey, Aggregate.SUM, Weights.of(weights));
+        if (size == null || size == 0) {
+            stringRedisTemplate.delete(RedisKeyConstant.HOT_SEARCH_SNAPSHOT);
+            return;
+        }
+        stringRedisTemplate.opsForZSet().removeRange(tmpKey, 0, -(SNAPSHOT_SIZE + 1));
+        stringRedisTemplate.rename(tmpKey, RedisKeyConstant.HOT_SEARCH_SNAPSHOT);
+    }
+
+    /** 把旧版全局计数累加进当前分桶，删除旧版 key（每个进程只检查一次） */
+    private void migrateLegacy() {
+        if (legacyMigrated) return;
+        Set<ZSetOperations.TypedTuple<String>> legacy = stringRedisTemplate.opsForZSet()
+                .rangeWithScores(RedisKeyConstant.HOT_SEARCH_LEGACY_ZSET, 0, -1);
+        if (legacy != null && !legacy.isEmpty()) {
+            byte[] key = bucketKey(currentBucket()).getBytes(StandardCharsets.UTF_8);
+            long ttl = TimeUnit.MINUTES.toSeconds(windowMinutes + bucketMinutes);
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (ZSetOperations.TypedTuple<String> t : legacy) {
+                    if (t.getValue() == null || t.getScore() == null) continue;
+                    connection.zSetCommands().zIncrBy(key, t.getScore(), t.getValue().getBytes(StandardCharsets.UTF_8));
+                }
+                connection.keyCommands().expire(key, ttl);
+                return null;
+            });
+        }
+        stringRedisTemplate.delete(List.of(RedisKeyConstant.HOT_SEARCH_LEGACY_ZSET, RedisKeyConstant.HOT_SEARCH_LEGACY_SNAPSHOT));
+        legacyMigrated = true;
+    }
+
+    /** 从 Redis 读取快照到本地 */
+    private Map<String, Double> loadSnapshot() {
+        Set<ZSetOperations.TypedTuple<String>> tuples = stringRedisTemplate.opsForZSet()
+                .reverseRangeWithScores(RedisKeyConstant.HOT_SEARCH_SNAPSHOT, 0, SNAPSHOT_SIZE - 1);
+        Map<String, Double> snapshot = new LinkedHashMap<>();
+        if (tuples != null) {
+            for (ZSetOperations.TypedTuple<String> t : tuples) {
+                if (t.getValue() != null) snapshot.put(t.getValue(), t.getScore() == null ? 0D : t.getScore());
+            }
+        }
+        Map<String, Double> readOnly = Collections.unmodifiableMap(snapshot);
+        localSnapshot = readOnly;
+        return readOnly;
     }
 
     @Override
     public void clearAll() {
-        stringRedisTemplate.delete(RedisKeyConstant.HOT_SEARCH_ZSET);
+        List<String> keys = windowKeys();
+        keys.add(RedisKeyConstant.HOT_SEARCH_SNAPSHOT);
+        stringRedisTemplate.delete(keys);
+        localSnapshot = Map.of();
+    }
+
+    private long currentBucket() {
+        return System.currentTimeMillis() / TimeUnit.MINUTES.toMillis(Math.max(1, bucketMinutes));
     }
-}
 
+    /** 窗口内全部分桶 key，按时间从新到旧排列（含当前桶） */
+    private List<String> windowKeys() {
+        long current = currentBucket();
+        int buckets = (int) Math.max(1, windowMinutes / Math.max(1, bucketMinutes));
+        List<String> keys = new ArrayList<>(buckets + 1);
+        for (int age = 0; age < buckets; age++) {
+            keys.add(bucketKey(current - age));
+        }
+        return keys;
+    }
 
+    private static String bucketKey(long bucket) {
+        return RedisKeyConstant.HOT_SEARCH_BUCKET_PREFIX + bucket;
+    }
+}
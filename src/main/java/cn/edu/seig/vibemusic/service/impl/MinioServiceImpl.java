@@ -2,19 +2,27 @@ package cn.edu.seig.vibemusic.service.impl;
 
 import cn.edu.seig.vibemusic.constant.MessageConstant;
 import cn.edu.seig.vibemusic.service.MinioService;
+import cn.edu.seig.vibemusic.util.MediaHeaderProbe;
+import cn.edu.seig.vibemusic.util.MultipartUploader;
+import cn.edu.seig.vibemusic.util.ProbingInputStream;
+import cn.edu.seig.vibemusic.util.TextDecodeUtil;
 import io.minio.MinioClient;
 import io.minio.GetObjectArgs;
+import io.minio.GetPresignedObjectUrlArgs;
 import io.minio.PutObjectArgs;
 import io.minio.RemoveObjectArgs;
+import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
+import io.minio.errors.ErrorResponseException;
+import io.minio.http.Method;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.context.config.annotation.RefreshScope;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-import java.nio.charset.Charset;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.UUID;
@@ -24,6 +32,7 @@ import java.util.UUID;
 public class MinioServiceImpl implements MinioService {
 
     private final MinioClient minioClient;
+    private final MultipartUploader multipartUploader;
 
     @Value("${minio.bucket}")
     private String bucketName;
@@ -31,8 +40,9 @@ public class MinioServiceImpl implements MinioService {
     @Value("${minio.endpoint}")
     private String endpoint;
 
-    public MinioServiceImpl(MinioClient minioClient) {
+    public MinioServiceImpl(MinioClient minioClient, MultipartUploader multipartUploader) {
         this.minioClient = minioClient;
+        this.multipartUploader = multipartUploader;
     }
 
     @PostConstruct
@@ -69,14 +79,7 @@ public class MinioServiceImpl implements MinioService {
             InputStream inputStream = file.getInputStream();
 
             // 上传文件
-            minioClient.putObject(
-                    PutObjectArgs.builder()
-                            .bucket(bucketName)
-                            .object(fileName)
-                            .stream(inputStream, file.getSize(), -1)
-                            .contentType(file.getContentType())
-                            .build()
-            );
+            putObject(fileName, inputStream, file.getSize(), file.getContentType());
 
             // 返回可访问的 URL
             return endpoint + "/" + bucketName + "/" + fileName;
@@ -86,6 +89,29 @@ public class MinioServiceImpl implements MinioService {
         }
     }
 
+    /**
+     * 上传音视频文件，并在同一次读取中解析时长
+     *
+     * @param file   文件
+     * @param folder 文件夹
+     * @return 可访问的 URL 与时长
+     */
+    @Override
+    public MediaUpload uploadMedia(MultipartFile file, String folder) {
+        MediaHeaderProbe probe = MediaHeaderProbe.forFile(file.getOriginalFilename(), file.getContentType());
+        if (probe == null) {
+            return new MediaUpload(uploadFile(file, folder), null);
+        }
+        try (InputStream inputStream = new ProbingInputStream(file.getInputStream(), probe)) {
+            String fileName = folder + "/" + UUID.randomUUID() + "-" + file.getOriginalFilename();
+            // 边读边传，分片缓冲有上限，内存占用与文件大小无关
+            putObject(fileName, inputStream, file.getSize(), file.getContentType());
+            return new MediaUpload(endpoint + "/" + bucketName + "/" + fileName, probe.durationSeconds(file.getSize()));
+        } catch (Exception e) {
+            throw new RuntimeException(MessageConstant.FILE_UPLOAD + MessageConstant.FAILED + "：" + e.getMessage());
+        }
+    }
+
     /**
      * 删除文件
      *
@@ -119,21 +145,113 @@ public class MinioServiceImpl implements MinioService {
 
     @Override
     public String readText(String fileUrl) {
+        return TextDecodeUtil.smartDecode(readBytes(fileUrl));
+    }
+
+    @Override
+    public byte[] readBytes(String fileUrl) {
+        try {
+            return getObjectBytes(fileUrl);
+        } catch (Exception e) {
+            throw new RuntimeException("文件读取失败: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public byte[] readBytesIfExists(String fileUrl) {
+        try {
+            return getObjectBytes(fileUrl);
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) return null;
+            throw new RuntimeException("文件读取失败: " + e.getMessage());
+        } catch (Exception e) {
+            throw new RuntimeException("文件读取失败: " + e.getMessage());
+        }
+    }
+
+    private byte[] getObjectBytes(String fileUrl) throws Exception {
+        String objectKey = extractObjectKey(fileUrl);
+        if (objectKey == null || objectKey.isEmpty()) {
+            throw new IllegalArgumentException("无法解析文件对象键");
+        }
+
+        try (InputStream in = minioClient.getObject(
+                GetObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(objectKey)
+                        .build()
+        )) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Override
+    public void putBytes(String fileUrl, byte[] data, String contentType) {
+        try {
+            String objectKey = extractObjectKey(fileUrl);
+            if (objectKey == null || objectKey.isEmpty()) {
+                throw new IllegalArgumentException("无法解析文件对象键");
+            }
+            putObject(objectKey, new ByteArrayInputStream(data), data.length, contentType);
+        } catch (Exception e) {
+            throw new RuntimeException("文件写入失败: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public ObjectStat statObject(String fileUrl) {
         try {
             String objectKey = extractObjectKey(fileUrl);
             if (objectKey == null || objectKey.isEmpty()) {
                 throw new IllegalArgumentException("无法解析文件对象键");
             }
+            StatObjectResponse stat = minioClient.statObject(
+                    StatObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(objectKey)
+                            .build()
+            );
+            return new ObjectStat(objectKey, stat.size(), stat.contentType(), stat.etag());
+        } catch (Exception e) {
+            throw new RuntimeException("文件信息读取失败: " + e.getMessage());
+        }
+    }
 
-            try (InputStream in = minioClient.getObject(
+    @Override
+    public String getPresignedUrl(String fileUrl, int expirySeconds) {
+        String prefix = endpoint + "/" + bucketName + "/";
+        if (fileUrl == null || !fileUrl.startsWith(prefix) || fileUrl.length() == prefix.length()) {
+            return null;
+        }
+        // 已带查询参数（如已签名）的 URL 不再处理
+        if (fileUrl.indexOf('?') >= 0) {
+            return null;
+        }
+        try {
+            return minioClient.getPresignedObjectUrl(
+                    GetPresignedObjectUrlArgs.builder()
+                            .method(Method.GET)
+                            .bucket(bucketName)
+                            .object(fileUrl.substring(prefix.length()))
+                            .expiry(expirySeconds)
+                            .build()
+            );
+        } catch (Exception e) {
+            throw new RuntimeException("文件签名失败: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public InputStream getObjectRange(String objectKey, long offset, long length) {
+        try {
+            return minioClient.getObject(
                     GetObjectArgs.builder()
                             .bucket(bucketName)
                             .object(objectKey)
+                            .offset(offset)
+                            .length(length)
                             .build()
-            )) {
-                byte[] bytes = in.readAllBytes();
-                return smartDecode(bytes);
-            }
+            );
         } catch (Exception e) {
             throw new RuntimeException("文件读取失败: " + e.getMessage());
         }
@@ -144,14 +262,7 @@ public class MinioServiceImpl implements MinioService {
         try {
             String safeName = originalFilename == null ? "file" : originalFilename;
             String object = folder + "/" + UUID.randomUUID() + "-" + safeName;
-            minioClient.putObject(
-                    PutObjectArgs.builder()
-                            .bucket(bucketName)
-                            .object(object)
-                            .stream(inputStream, size, -1)
-                            .contentType(contentType)
-                            .build()
-            );
+            putObject(object, inputStream, size, contentType);
             return endpoint + "/" + bucketName + "/" + object;
         } catch (Exception e) {
             throw new RuntimeException("流上传失败: " + e.getMessage());
@@ -159,43 +270,21 @@ public class MinioServiceImpl implements MinioService {
     }
 
     /**
-     * 简易智能解码：优先 UTF-8；若中文命中率低或含大量替换符，则回退 GB18030
+     * 写入对象：大文件走分片并发上传，其余（含大小未知）交给 SDK 的 putObject
      */
-    private String smartDecode(byte[] bytes) {
-        // UTF-8 BOM 处理
-        if (bytes.length >= 3 && (bytes[0] & 0xFF) == 0xEF && (bytes[1] & 0xFF) == 0xBB && (bytes[2] & 0xFF) == 0xBF) {
-            String s = new String(bytes, 3, bytes.length - 3, StandardCharsets.UTF_8);
-            return s;
+    private void putObject(String object, InputStream inputStream, long size, String contentType) throws Exception {
+        if (size > 0 && multipartUploader.accepts(size)) {
+            multipartUploader.upload(bucketName, object, inputStream, size, contentType);
+            return;
         }
-
-        String utf8 = new String(bytes, StandardCharsets.UTF_8);
-        int utf8Score = chineseScore(utf8) - replacementPenalty(utf8);
-
-        String gb = new String(bytes, Charset.forName("GB18030"));
-        int gbScore = chineseScore(gb) - replacementPenalty(gb);
-
-        return gbScore > utf8Score ? gb : utf8;
-    }
-
-    private int chineseScore(String s) {
-        int score = 0;
-        for (int i = 0; i < s.length(); i++) {
-            char c = s.charAt(i);
-            if (isCjk(c)) score++;
-        }
-        return score;
-    }
-
-    private int replacementPenalty(String s) {
-        int cnt = 0;
-        for (int i = 0; i < s.length(); i++) if (s.charAt(i) == '\uFFFD') cnt++;
-        return cnt * 5; // 大量替换符扣分
-    }
-
-    private boolean isCjk(char c) {
-        return (c >= '\u4E00' && c <= '\u9FFF') // CJK Unified Ideographs
-                || (c >= '\u3400' && c <= '\u4DBF') // CJK Extension A
-                || (c >= '\uF900' && c <= '\uFAFF'); // CJK Compatibility Ideographs
+        minioClient.putObject(
+                PutObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(object)
+                        .stream(inputStream, size, -1)
+                        .contentType(contentType)
+                        .build()
+        );
     }
 
     /**
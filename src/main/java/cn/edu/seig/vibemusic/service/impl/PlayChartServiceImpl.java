@@ -0,0 +1,200 @@
+package cn.edu.seig.vibemusic.service.impl;
+
+import cn.edu.seig.vibemusic.constant.RedisKeyConstant;
+import cn.edu.seig.vibemusic.model.vo.ChartSongVO;
+import cn.edu.seig.vibemusic.model.vo.SongCardVO;
+import cn.edu.seig.vibemusic.service.PlayChartService;
+import cn.edu.seig.vibemusic.util.PlayEventPipeline;
+import cn.edu.seig.vibemusic.util.PlayEventPipeline.PlayEvent;
+import cn.edu.seig.vibemusic.util.SongCardCache;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.connection.zset.Weights;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 播放统计与榜单：由 Stream 消费组聚合播放事件，榜单全部来自预先计算好的 ZSET，不再扫描 tb_user_recent_play。
+ * - 总榜：play:count，每条事件 ZINCRBY；
+ * - 小时分桶：play:hour:{yyyyMMddHH}，保留到飙升榜窗口之外即过期；
+ * - 独立听众：play:uv:{songId}，HyperLogLog；
+ * - 飙升榜：定时把最近 N 小时的分桶按半衰期加权 ZUNIONSTORE 到 chart:trending。
+ */
+@Service
+public class PlayChartServiceImpl implements PlayChartService {
+
+    // 飙升榜保留的歌曲数
+    private static final int TRENDING_SIZE = 200;
+    private static final long TRENDING_TTL_HOURS = 1;
+    // 单次接口返回的上限
+    private static final int MAX_TOP_N = 100;
+    // 单次 ingest 最多消费的批次，避免长时间占用调度线程
+    private static final int MAX_BATCHES_PER_RUN = 20;
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHH");
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private PlayEventPipeline playEventPipeline;
+    @Autowired
+    private SongCardCache songCardCache;
+
+    @Value("${play-event.trending-hours:24}")
+    private int trendingHours;
+
+    @Value("${play-event.trending-half-life-hours:6}")
+    private double trendingHalfLifeHours;
+
+    @Override
+    public void recordPlay(Long userId, Long songId) {
+        playEventPipeline.submit(userId, songId);
+    }
+
+    @Override
+    public int ingest() {
+        playEventPipeline.publish();
+        // 每轮先重读未确认的事件：上一轮聚合失败的事件在本轮重新处理（至少一次）
+        playEventPipeline.beginRound();
+        int total = 0;
+        for (int i = 0; i < MAX_BATCHES_PER_RUN; i++) {
+            List<PlayEvent> events = playEventPipeline.read();
+            if (events.isEmpty()) break;
+            aggregate(events);
+            // 聚合写入成功后再确认；失败时事件留在 PEL 中，下一轮 beginRound 后重新读取
+            playEventPipeline.acknowledge(events);
+            total += events.size();
+        }
+        return total;
+    }
+
+    /** 把一批事件合并后用一次 pipeline 写入计数、分桶与 HyperLogLog */
+    private void aggregate(List<PlayEvent> events) {
+        Map<Long, Long> counts = new HashMap<>();
+        Map<String, Map<Long, Long>> hourly = new HashMap<>();
+        Map<Long, Set<Long>> listeners = new HashMap<>();
+        for (PlayEvent event : events) {
+            counts.merge(event.songId(), 1L, Long::sum);
+            hourly.computeIfAbsent(hourKey(event.time()), k -> new HashMap<>()).merge(event.songId(), 1L, Long::sum);
+            listeners.computeIfAbsent(event.songId(), k -> new HashSet<>()).add(event.userId());
+        }
+
+        byte[] countKey = bytes(RedisKeyConstant.PLAY_COUNT_ZSET);
+        long hourTtl = TimeUnit.HOURS.toSeconds(trendingHours + 2L);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            counts.forEach((songId, n) -> connection.zSetCommands().zIncrBy(countKey, n, bytes(songId)));
+            hourly.forEach((key, bucket) -> {
+                byte[] rawKey = bytes(key);
+                bucket.forEach((songId, n) -> connection.zSetCommands().zIncrBy(rawKey, n, bytes(songId)));
+                connection.keyCommands().expire(rawKey, hourTtl);
+            });
+            listeners.forEach((songId, userIds) -> connection.hyperLogLogCommands().pfAdd(
+                    bytes(RedisKeyConstant.PLAY_LISTENER_PREFIX + songId),
+                    userIds.stream().map(PlayChartServiceImpl::bytes).toArray(byte[][]::new)));
+            return null;
+        });
+    }
+
+    @Override
+    public void refreshTrending() {
+        int hours = Math.max(1, trendingHours);
+        LocalDateTime now = LocalDateTime.now();
+        List<String> keys = new ArrayList<>(hours);
+        double[] weights = new double[hours];
+        for (int age = 0; age < hours; age++) {
+            keys.add(RedisKeyConstant.PLAY_HOUR_PREFIX + HOUR_FORMAT.format(now.minusHours(age)));
+            weights[age] = Math.pow(0.5, age / trendingHalfLifeHours);
+        }
+
+        // 先写入临时 key 并截断，再 RENAME 整体替换，读取方不会看到中间状态
+        String tmpKey = RedisKeyConstant.CHART_TRENDING_ZSET + ":tmp:" + UUID.randomUUID();
+        Long size = stringRedisTemplate.opsForZSet().unionAndStore(
+                keys.get(0), keys.subList(1, keys.size()), tmpKey, Aggregate.SUM, Weights.of(weights));
+        if (size == null || size == 0) {
+            stringRedisTemplate.delete(RedisKeyConstant.CHART_TRENDING_ZSET);
+            return;
+        }
+        stringRedisTemplate.opsForZSet().removeRange(tmpKey, 0, -(TRENDING_SIZE + 1));
+        // 过期时间随 RENAME 保留：刷新任务停止后飙升榜自然消失，不会一直展示旧数据
+        stringRedisTemplate.expire(tmpKey, TRENDING_TTL_HOURS, TimeUnit.HOURS);
+        stringRedisTemplate.rename(tmpKey, RedisKeyConstant.CHART_TRENDING_ZSET);
+    }
+
+    @Override
+    public List<ChartSongVO> getTopChart(int topN) {
+        return chart(RedisKeyConstant.PLAY_COUNT_ZSET, topN);
+    }
+
+    @Override
+    public List<ChartSongVO> getTrendingChart(int topN) {
+        return chart(RedisKeyConstant.CHART_TRENDING_ZSET, topN);
+    }
+
+    /** 读取榜单 ZSET 的前 topN 首，拼装歌曲卡片、累计播放次数与独立听众数 */
+    private List<ChartSongVO> chart(String key, int topN) {
+        if (topN <= 0) return List.of();
+        int n = Math.min(topN, MAX_TOP_N);
+        Set<ZSetOperations.TypedTuple<String>> tuples = stringRedisTemplate.opsForZSet().reverseRangeWithScores(key, 0, n - 1);
+        if (tuples == null || tuples.isEmpty()) return List.of();
+
+        List<Long> songIds = new ArrayList<>(tuples.size());
+        List<Double> scores = new ArrayList<>(tuples.size());
+        for (ZSetOperations.TypedTuple<String> t : tuples) {
+            if (t.getValue() == null) continue;
+            try {
+                songIds.add(Long.valueOf(t.getValue()));
+                scores.add(t.getScore());
+            } catch (NumberFormatException ignored) {}
+        }
+        if (songIds.isEmpty()) return List.of();
+
+        Object[] members = songIds.stream().map(String::valueOf).toArray();
+        List<Double> playCounts = RedisKeyConstant.PLAY_COUNT_ZSET.equals(key)
+                ? scores
+                : stringRedisTemplate.opsForZSet().score(RedisKeyConstant.PLAY_COUNT_ZSET, members);
+        List<Object> listenerCounts = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Long songId : songIds) {
+                connection.hyperLogLogCommands().pfCount(bytes(RedisKeyConstant.PLAY_LISTENER_PREFIX + songId));
+            }
+            return null;
+        });
+        Map<Long, SongCardVO> cards = songCardCache.getCards(songIds);
+
+        List<ChartSongVO> result = new ArrayList<>(songIds.size());
+        for (int i = 0; i < songIds.size(); i++) {
+            // 已删除的歌曲没有卡片，直接跳过
+            SongCardVO card = cards.get(songIds.get(i));
+            if (card == null) continue;
+            ChartSongVO vo = new ChartSongVO();
+            BeanUtils.copyProperties(card, vo);
+            vo.setRank(result.size() + 1);
+            vo.setScore(scores.get(i));
+            Double playCount = playCounts == null ? null : playCounts.get(i);
+            vo.setPlayCount(playCount == null ? 0L : playCount.longValue());
+            Object listeners = listenerCounts == null ? null : listenerCounts.get(i);
+            vo.setListenerCount(listeners instanceof Long l ? l : 0L);
+            result.add(vo);
+        }
+        return result;
+    }
+
+    private static String hourKey(Long time) {
+        Instant instant = Instant.ofEpochMilli(time == null ? System.currentTimeMillis() : time);
+        return RedisKeyConstant.PLAY_HOUR_PREFIX + HOUR_FORMAT.format(LocalDateTime.ofInstant(instant, ZoneId.systemDefault()));
+    }
+
+    private static byte[] bytes(Object value) {
+        return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+    }
+}
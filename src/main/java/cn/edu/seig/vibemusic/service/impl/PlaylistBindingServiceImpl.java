@@ -5,13 +5,13 @@ import cn.edu.seig.vibemusic.mapper.PlaylistBindingMapper;
 import cn.edu.seig.vibemusic.service.IPlaylistBindingService;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import org.springframework.stereotype.Service;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import cn.edu.seig.vibemusic.result.Result;
 import cn.edu.seig.vibemusic.result.PageResult;
 import cn.edu.seig.vibemusic.model.vo.SongAdminVO;
 import cn.edu.seig.vibemusic.model.vo.PlaylistSongVO;
+import cn.edu.seig.vibemusic.model.vo.SongCardVO;
 import cn.edu.seig.vibemusic.model.dto.PlaylistSongQueryDTO;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 // import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
@@ -28,9 +28,12 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 public class PlaylistBindingServiceImpl extends ServiceImpl<PlaylistBindingMapper, PlaylistBinding> implements IPlaylistBindingService {
     @Autowired
     private PlaylistBindingMapper bindingMapper;
+    @Autowired
+    private cn.edu.seig.vibemusic.util.CacheInvalidator cacheInvalidator;
+    @Autowired
+    private cn.edu.seig.vibemusic.util.SongCardCache songCardCache;
 
     @Override
-    @CacheEvict(cacheNames = "playlistCache", allEntries = true)
     public Result<String> addSongs(Long playlistId, java.util.List<Long> songIds) {
         if (playlistId == null || songIds == null || songIds.isEmpty()) return Result.success("OK");
         java.util.List<PlaylistBinding> rows = songIds.stream().distinct().map(id -> {
@@ -55,16 +58,17 @@ public class PlaylistBindingServiceImpl extends ServiceImpl<PlaylistBindingMappe
         int requested = rows.size();
         int ignored = Math.max(0, requested - affected);
         String msg = ignored == 0 ? ("添加成功，新增 " + affected + " 首") : ("已添加 " + affected + " 首，" + ignored + " 首已在歌单中");
+        cacheInvalidator.evictPlaylist(playlistId);
         return Result.success(msg);
     }
 
     @Override
-    @CacheEvict(cacheNames = "playlistCache", allEntries = true)
     public Result<String> removeSongs(Long playlistId, java.util.List<Long> songIds) {
         if (playlistId == null || songIds == null || songIds.isEmpty()) return Result.success("OK");
         remove(new LambdaQueryWrapper<PlaylistBinding>()
                 .eq(PlaylistBinding::getPlaylistId, playlistId)
                 .in(PlaylistBinding::getSongId, songIds));
+        cacheInvalidator.evictPlaylist(playlistId);
         return Result.success("删除成功");
     }
 
@@ -72,7 +76,30 @@ public class PlaylistBindingServiceImpl extends ServiceImpl<PlaylistBindingMappe
     public Result<PageResult<SongAdminVO>> getSongsOfPlaylist(PlaylistSongQueryDTO dto) {
         int pageNum = dto.getPageNum() == null ? 1 : dto.getPageNum();
         int pageSize = dto.getPageSize() == null ? 10 : dto.getPageSize();
-        // 使用自定义 SQL 查询所有结果，再在内存分页（简化实现）
+        // 无关键字：只查绑定表的歌曲 id 分页，本页歌曲信息从歌曲卡片缓存批量读取
+        if (dto.getKeyword() == null || dto.getKeyword().trim().isEmpty()) {
+            java.util.List<Long> songIds = list(new LambdaQueryWrapper<PlaylistBinding>()
+                    .select(PlaylistBinding::getSongId)
+                    .eq(PlaylistBinding::getPlaylistId, dto.getPlaylistId())
+                    .orderByDesc(PlaylistBinding::getId))
+                    .stream().map(PlaylistBinding::getSongId).toList();
+            int from = Math.min(songIds.size(), Math.max(0, (pageNum - 1) * pageSize));
+            int to = Math.min(songIds.size(), from + pageSize);
+            java.util.List<SongAdminVO> pageItems = new java.util.ArrayList<>(to - from);
+            for (SongCardVO card : songCardCache.getCards(songIds.subList(from, to)).values()) {
+                SongAdminVO v = new SongAdminVO();
+                v.setSongId(card.getSongId());
+                v.setSongName(card.getSongName());
+                v.setArtistName(card.getArtistName());
+                v.setAlbum(card.getAlbum());
+                v.setCoverUrl(card.getCoverUrl());
+                v.setAudioUrl(card.getAudioUrl());
+                v.setReleaseTime(card.getReleaseTime());
+                pageItems.add(v);
+            }
+            return Result.success(new PageResult<>((long) songIds.size(), pageItems));
+        }
+        // 有关键字：使用自定义 SQL 查询所有结果，再在内存分页（简化实现）
         java.util.List<PlaylistSongVO> all = bindingMapper.selectSongsOfPlaylist(dto.getPlaylistId(), dto.getKeyword());
         java.util.List<SongAdminVO> mapped = all.stream().map(p -> {
             SongAdminVO v = new SongAdminVO();
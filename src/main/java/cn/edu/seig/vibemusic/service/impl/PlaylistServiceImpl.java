@@ -13,7 +13,6 @@ import cn.edu.seig.vibemusic.model.entity.Playlist;
 import cn.edu.seig.vibemusic.model.entity.UserFavorite;
 import cn.edu.seig.vibemusic.model.vo.PlaylistDetailVO;
 import cn.edu.seig.vibemusic.model.vo.PlaylistVO;
-import cn.edu.seig.vibemusic.model.vo.SongVO;
 import cn.edu.seig.vibemusic.result.PageResult;
 import cn.edu.seig.vibemusic.result.Result;
 import cn.edu.seig.vibemusic.service.IPlaylistService;
@@ -22,7 +21,7 @@ import cn.edu.seig.vibemusic.service.MinioService;
 import cn.edu.seig.vibemusic.service.IPlaylistBindingService;
 import cn.edu.seig.vibemusic.mapper.PlaylistRecommendationMapper;
 import cn.edu.seig.vibemusic.model.entity.PlaylistRecommendation;
-import cn.edu.seig.vibemusic.util.JwtUtil;
+import cn.edu.seig.vibemusic.util.ThreadLocalUtil;
 import cn.edu.seig.vibemusic.util.TypeConversionUtil;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
@@ -31,15 +30,15 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheConfig;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -66,9 +65,15 @@ public class PlaylistServiceImpl extends ServiceImpl<PlaylistMapper, Playlist> i
     @Autowired
     private PlaylistRecommendationMapper playlistRecommendationMapper;
     @Autowired
-    private cn.edu.seig.vibemusic.util.CachePurger cachePurger;
+    private cn.edu.seig.vibemusic.util.RandomSampler randomSampler;
+    @Autowired
+    private cn.edu.seig.vibemusic.util.CacheInvalidator cacheInvalidator;
+    @Autowired
+    private cn.edu.seig.vibemusic.util.FavoriteSongBitmap favoriteSongBitmap;
     @Autowired
     private ICommentService commentService;
+    @Autowired
+    private CacheManager cacheManager;
 
     /**
      * 获取所有歌单
@@ -149,16 +154,8 @@ public class PlaylistServiceImpl extends ServiceImpl<PlaylistMapper, Playlist> i
      */
     @Override
     public Result<List<PlaylistVO>> getRecommendedPlaylists(HttpServletRequest request) {
-        // 获取请求头中的 token
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);  // 去掉 "Bearer " 前缀
-        }
-
-        Map<String, Object> map = null;
-        if (token != null && !token.isEmpty()) {
-            map = JwtUtil.parseToken(token);
-        }
+        // 当前登录用户（拦截器已解析 token 并写入 ThreadLocal，未登录时为 null）
+        Map<String, Object> map = ThreadLocalUtil.get();
 
         Long userId = null;
         if (map != null) {
@@ -176,7 +173,7 @@ public class PlaylistServiceImpl extends ServiceImpl<PlaylistMapper, Playlist> i
         if (userId == null) {
             // 未登录：固定推荐 + 随机补足
             if (remain == 0) return Result.success(pinned);
-            List<PlaylistVO> random = playlistMapper.getRandomPlaylists(remain);
+            List<PlaylistVO> random = randomSampler.randomPlaylists(remain);
             java.util.LinkedHashMap<Long, PlaylistVO> mapVo = new java.util.LinkedHashMap<>();
             for (PlaylistVO vo : pinned) mapVo.put(vo.getPlaylistId(), vo);
             for (PlaylistVO vo : random) mapVo.putIfAbsent(vo.getPlaylistId(), vo);
@@ -188,7 +185,7 @@ public class PlaylistServiceImpl extends ServiceImpl<PlaylistMapper, Playlist> i
         if (favoritePlaylistIds.isEmpty()) {
             // 固定推荐 + 随机补足
             if (remain == 0) return Result.success(pinned);
-            List<PlaylistVO> random = playlistMapper.getRandomPlaylists(remain);
+            List<PlaylistVO> random = randomSampler.randomPlaylists(remain);
             java.util.LinkedHashMap<Long, PlaylistVO> mapVo = new java.util.LinkedHashMap<>();
             for (PlaylistVO vo : pinned) mapVo.put(vo.getPlaylistId(), vo);
             for (PlaylistVO vo : random) mapVo.putIfAbsent(vo.getPlaylistId(), vo);
@@ -219,7 +216,7 @@ public class PlaylistServiceImpl extends ServiceImpl<PlaylistMapper, Playlist> i
         }
         // 若仍不足再随机填充
         while (mapVo.size() < 10) {
-            List<PlaylistVO> random = playlistMapper.getRandomPlaylists(10);
+            List<PlaylistVO> random = randomSampler.randomPlaylists(10);
             for (PlaylistVO vo : random) {
                 if (mapVo.size() >= 10) break;
                 mapVo.putIfAbsent(vo.getPlaylistId(), vo);
@@ -229,6 +226,21 @@ public class PlaylistServiceImpl extends ServiceImpl<PlaylistMapper, Playlist> i
         return Result.success(new java.util.ArrayList<>(mapVo.values()));
     }
 
+    /** 歌单详情的基础信息（不含评论与收藏状态），缓存于 playlistCache 的 detail-{playlistId} */
+    private PlaylistDetailVO loadPlaylistDetail(Long playlistId) {
+        Cache cache = cacheManager.getCache("playlistCache");
+        String key = "detail-" + playlistId;
+        if (cache != null) {
+            PlaylistDetailVO cached = cache.get(key, PlaylistDetailVO.class);
+            if (cached != null) return cached;
+        }
+        PlaylistDetailVO detail = playlistMapper.getPlaylistDetailById(playlistId);
+        if (detail != null && cache != null) {
+            cache.put(key, detail);
+        }
+        return detail;
+    }
+
     /**
      * 获取歌单详情
      *
@@ -237,32 +249,20 @@ public class PlaylistServiceImpl extends ServiceImpl<PlaylistMapper, Playlist> i
      * @return 歌单详情
      */
     @Override
-    @Cacheable(key = "#playlistId")
     public Result<PlaylistDetailVO> getPlaylistDetail(Long playlistId, HttpServletRequest request) {
-        PlaylistDetailVO playlistDetailVO = playlistMapper.getPlaylistDetailById(playlistId);
-        if (playlistDetailVO == null) {
+        PlaylistDetailVO cached = loadPlaylistDetail(playlistId);
+        if (cached == null) {
             return Result.error(MessageConstant.PLAYLIST + MessageConstant.NOT_FOUND);
         }
 
-        // 设置默认状态，兜底空集合
-        List<SongVO> songVOList = playlistDetailVO.getSongs();
-        if (songVOList == null) {
-            songVOList = new ArrayList<>();
-            playlistDetailVO.setSongs(songVOList);
-        }
-        songVOList.forEach(songVO -> songVO.setLikeStatus(LikeStatusEnum.DEFAULT.getId()));
+        // 复制一份（含歌曲列表）再补充评论与收藏状态，不修改缓存中的对象；评论只取自评论分页，兜底空集合
+        PlaylistDetailVO playlistDetailVO = new PlaylistDetailVO();
+        BeanUtils.copyProperties(cached, playlistDetailVO, "comments", "commentTotal", "commentNextCursor");
+        playlistDetailVO.setSongs(favoriteSongBitmap.withLikeStatus(cached.getSongs()));
         playlistDetailVO.setLikeStatus(LikeStatusEnum.DEFAULT.getId());
 
-        // 获取请求头中的 token
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);  // 去掉 "Bearer " 前缀
-        }
-
-        Map<String, Object> map = null;
-        if (token != null && !token.isEmpty()) {
-            map = JwtUtil.parseToken(token);
-        }
+        // 当前登录用户（拦截器已解析 token 并写入 ThreadLocal，未登录时为 null）
+        Map<String, Object> map = ThreadLocalUtil.get();
 
         // 如果 token 解析成功且用户为登录状态，进一步操作
         if (map != null) {
@@ -279,31 +279,16 @@ public class PlaylistServiceImpl extends ServiceImpl<PlaylistMapper, Playlist> i
                 if (favoritePlaylist != null) {
                     playlistDetailVO.setLikeStatus(LikeStatusEnum.LIKE.getId());
                 }
-
-                // 获取用户收藏的歌曲
-                List<UserFavorite> favoriteSongs = userFavoriteMapper.selectList(new QueryWrapper<UserFavorite>()
-                        .eq("user_id", userId)
-                        .eq("type", 0));
-
-                // 获取用户收藏的歌曲 id
-                Set<Long> favoriteSongIds = favoriteSongs.stream()
-                        .map(UserFavorite::getSongId)
-                        .collect(Collectors.toSet());
-
-                // 检查并更新状态
-                for (SongVO songVO : songVOList) {
-                    if (favoriteSongIds.contains(songVO.getSongId())) {
-                        songVO.setLikeStatus(LikeStatusEnum.LIKE.getId());
-                    }
-                }
             }
         }
 
-        // 追加：加载歌单评论（树形）
+        // 追加：歌单评论第一页（评论单独缓存，评论变更不会失效歌单详情）
         try {
-            var comments = commentService.getPlaylistComments(playlistId);
-            if (comments != null && comments.getCode() == 0) {
-                playlistDetailVO.setComments(comments.getData());
+            var comments = commentService.getPlaylistCommentPage(playlistId, null, null);
+            if (comments != null && comments.getCode() == 0 && comments.getData() != null) {
+                playlistDetailVO.setComments(comments.getData().getItems());
+                playlistDetailVO.setCommentTotal(comments.getData().getTotal());
+                playlistDetailVO.setCommentNextCursor(comments.getData().getNextCursor());
             }
         } catch (Exception ignored) {}
 
@@ -333,7 +318,6 @@ public class PlaylistServiceImpl extends ServiceImpl<PlaylistMapper, Playlist> i
      * @return 添加结果
      */
     @Override
-    @CacheEvict(cacheNames = "playlistCache", allEntries = true)
     public Result addPlaylist(PlaylistAddDTO playlistAddDTOO) {
         QueryWrapper<Playlist> queryWrapper = new QueryWrapper<>();
         queryWrapper.eq("title", playlistAddDTOO.getTitle());
@@ -344,7 +328,9 @@ public class PlaylistServiceImpl extends ServiceImpl<PlaylistMapper, Playlist> i
         Playlist playlist = new Playlist();
         BeanUtils.copyProperties(playlistAddDTOO, playlist);
         playlistMapper.insert(playlist);
+        randomSampler.invalidatePlaylists();
 
+        cacheInvalidator.evictLists("playlistCache");
         return Result.success(MessageConstant.ADD + MessageConstant.SUCCESS);
     }
 
@@ -355,7 +341,6 @@ public class PlaylistServiceImpl extends ServiceImpl<PlaylistMapper, Playlist> i
      * @return 更新结果
      */
     @Override
-    @CacheEvict(cacheNames = "playlistCache", allEntries = true)
     public Result updatePlaylist(PlaylistUpdateDTO playlistUpdateDTO) {
         Long playlistId = playlistUpdateDTO.getPlaylistId();
 
@@ -370,6 +355,8 @@ public class PlaylistServiceImpl extends ServiceImpl<PlaylistMapper, Playlist> i
             return Result.error(MessageConstant.UPDATE + MessageConstant.FAILED);
         }
 
+        cacheInvalidator.evictPlaylist(playlistId);
+        cacheInvalidator.evictLists("playlistCache");
         return Result.success(MessageConstant.UPDATE + MessageConstant.SUCCESS);
     }
 
@@ -381,7 +368,6 @@ public class PlaylistServiceImpl extends ServiceImpl<PlaylistMapper, Playlist> i
      * @return 更新结果
      */
     @Override
-    @CacheEvict(cacheNames = "playlistCache", allEntries = true)
     public Result updatePlaylistCover(Long playlistId, String coverUrl) {
         Playlist playlist = playlistMapper.selectById(playlistId);
         String cover = playlist.getCoverUrl();
@@ -394,6 +380,7 @@ public class PlaylistServiceImpl extends ServiceImpl<PlaylistMapper, Playlist> i
             return Result.error(MessageConstant.UPDATE + MessageConstant.FAILED);
         }
 
+        cacheInvalidator.evictPlaylist(playlistId);
         return Result.success(MessageConstant.UPDATE + MessageConstant.SUCCESS);
     }
 
@@ -404,7 +391,6 @@ public class PlaylistServiceImpl extends ServiceImpl<PlaylistMapper, Playlist> i
      * @return 删除结果
      */
     @Override
-    @CacheEvict(cacheNames = "playlistCache", allEntries = true)
     public Result deletePlaylist(Long playlistId) {
         // 1. 查询歌单信息，获取封面 URL
         Playlist playlist = playlistMapper.selectById(playlistId);
@@ -423,7 +409,9 @@ public class PlaylistServiceImpl extends ServiceImpl<PlaylistMapper, Playlist> i
             return Result.error(MessageConstant.DELETE + MessageConstant.FAILED);
         }
 
-        try { cachePurger.purgeForPlaylist(playlistId); } catch (Exception ignored) {}
+        randomSampler.invalidatePlaylists();
+        cacheInvalidator.evictPlaylist(playlistId);
+        cacheInvalidator.evictLists("playlistCache");
         return Result.success(MessageConstant.DELETE + MessageConstant.SUCCESS);
     }
 
@@ -434,7 +422,6 @@ public class PlaylistServiceImpl extends ServiceImpl<PlaylistMapper, Playlist> i
      * @return 删除结果
      */
     @Override
-    @CacheEvict(cacheNames = "playlistCache", allEntries = true)
     public Result deletePlaylists(List<Long> playlistIds) {
         List<Playlist> playlists = playlistMapper.selectBatchIds(playlistIds);
         List<String> coverUrlList = playlists.stream()
@@ -451,14 +438,15 @@ public class PlaylistServiceImpl extends ServiceImpl<PlaylistMapper, Playlist> i
         if (playlistMapper.deleteBatchIds(playlistIds) == 0) {
             return Result.error(MessageConstant.DELETE + MessageConstant.FAILED);
         }
-        try { cachePurger.purgeForPlaylist(null); } catch (Exception ignored) {}
+        randomSampler.invalidatePlaylists();
+        playlistIds.forEach(cacheInvalidator::evictPlaylist);
+        cacheInvalidator.evictLists("playlistCache");
         return Result.success(MessageConstant.DELETE + MessageConstant.SUCCESS);
     }
 
     // =================== 用户侧：我的歌单 ===================
 
     @Override
-    @CacheEvict(cacheNames = "playlistCache", allEntries = true)
     public Result<String> addUserPlaylist(PlaylistAddDTO playlistAddDTO) {
         Map<String, Object> map = cn.edu.seig.vibemusic.util.ThreadLocalUtil.get();
         Object userIdObj = map.get(JwtClaimsConstant.USER_ID);
@@ -478,11 +466,12 @@ public class PlaylistServiceImpl extends ServiceImpl<PlaylistMapper, Playlist> i
         BeanUtils.copyProperties(playlistAddDTO, playlist);
         playlist.setUserId(userId);
         playlistMapper.insert(playlist);
+        randomSampler.invalidatePlaylists();
+        cacheInvalidator.evictLists("playlistCache");
         return Result.success(MessageConstant.ADD + MessageConstant.SUCCESS);
     }
 
     @Override
-    @CacheEvict(cacheNames = "playlistCache", allEntries = true)
     public Result<String> updateUserPlaylist(PlaylistUpdateDTO playlistUpdateDTO) {
         Map<String, Object> map = cn.edu.seig.vibemusic.util.ThreadLocalUtil.get();
         Object userIdObj = map.get(JwtClaimsConstant.USER_ID);
@@ -512,11 +501,12 @@ public class PlaylistServiceImpl extends ServiceImpl<PlaylistMapper, Playlist> i
         BeanUtils.copyProperties(playlistUpdateDTO, toUpdate);
         int n = playlistMapper.updateById(toUpdate);
         if (n == 0) return Result.error(MessageConstant.UPDATE + MessageConstant.FAILED);
+        cacheInvalidator.evictPlaylist(playlistId);
+        cacheInvalidator.evictLists("playlistCache");
         return Result.success(MessageConstant.UPDATE + MessageConstant.SUCCESS);
     }
 
     @Override
-    @CacheEvict(cacheNames = "playlistCache", allEntries = true)
     public Result<String> deleteUserPlaylist(Long playlistId) {
         Map<String, Object> map = cn.edu.seig.vibemusic.util.ThreadLocalUtil.get();
         Object userIdObj = map.get(JwtClaimsConstant.USER_ID);
@@ -540,6 +530,9 @@ public class PlaylistServiceImpl extends ServiceImpl<PlaylistMapper, Playlist> i
         // 删除歌单本身
         int n = playlistMapper.deleteById(playlistId);
         if (n == 0) return Result.error(MessageConstant.DELETE + MessageConstant.FAILED);
+        randomSampler.invalidatePlaylists();
+        cacheInvalidator.evictPlaylist(playlistId);
+        cacheInvalidator.evictLists("playlistCache");
         return Result.success(MessageConstant.DELETE + MessageConstant.SUCCESS);
     }
 
@@ -573,7 +566,6 @@ public class PlaylistServiceImpl extends ServiceImpl<PlaylistMapper, Playlist> i
     }
 
     @Override
-    @CacheEvict(cacheNames = "playlistCache", allEntries = true)
     public Result<String> addSongToMyPlaylist(Long playlistId, Long songId) {
         Map<String, Object> map = cn.edu.seig.vibemusic.util.ThreadLocalUtil.get();
         Object userIdObj = map.get(JwtClaimsConstant.USER_ID);
@@ -590,7 +582,6 @@ public class PlaylistServiceImpl extends ServiceImpl<PlaylistMapper, Playlist> i
     }
 
     @Override
-    @CacheEvict(cacheNames = "playlistCache", allEntries = true)
     public Result<String> removeSongFromMyPlaylist(Long playlistId, Long songId) {
         Map<String, Object> map = cn.edu.seig.vibemusic.util.ThreadLocalUtil.get();
         Object userIdObj = map.get(JwtClaimsConstant.USER_ID);
@@ -631,7 +622,6 @@ public class PlaylistServiceImpl extends ServiceImpl<PlaylistMapper, Playlist> i
 
     // ================= 管理端：推荐开关 =================
     @Override
-    @CacheEvict(cacheNames = {"playlistCache"}, allEntries = true)
     public Result<String> recommendPlaylist(Long playlistId, Integer weight) {
         if (weight == null) weight = 100;
         PlaylistRecommendation rec = new PlaylistRecommendation();
@@ -649,14 +639,15 @@ public class PlaylistServiceImpl extends ServiceImpl<PlaylistMapper, Playlist> i
                             .eq("playlist_id", playlistId)
                             .set("weight", weight));
         }
+        cacheInvalidator.evictPlaylist(playlistId);
         return Result.success("设置为推荐成功");
     }
 
     @Override
-    @CacheEvict(cacheNames = {"playlistCache"}, allEntries = true)
     public Result<String> cancelRecommendPlaylist(Long playlistId) {
         playlistRecommendationMapper.delete(new com.baomidou.mybatisplus.core.conditions.query.QueryWrapper<PlaylistRecommendation>()
                 .eq("playlist_id", playlistId));
+        cacheInvalidator.evictPlaylist(playlistId);
         return Result.success("取消推荐成功");
     }
 
@@ -1,124 +1,251 @@
 package cn.edu.seig.vibemusic.service.impl;
 
-import cn.edu.seig.vibemusic.mapper.SongMapper;
+import cn.edu.seig.vibemusic.constant.RedisKeyConstant;
 import cn.edu.seig.vibemusic.mapper.UserRecentPlayMapper;
-import cn.edu.seig.vibemusic.model.entity.Song;
 import cn.edu.seig.vibemusic.model.entity.UserRecentPlay;
-import cn.edu.seig.vibemusic.model.entity.Artist;
-import cn.edu.seig.vibemusic.mapper.ArtistMapper;
+import cn.edu.seig.vibemusic.model.vo.RecentPlayVO;
+import cn.edu.seig.vibemusic.model.vo.SongCardVO;
 import cn.edu.seig.vibemusic.result.PageResult;
 import cn.edu.seig.vibemusic.service.IRecentPlayService;
+import cn.edu.seig.vibemusic.util.SongCardCache;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+/**
+ * 最近播放：Redis ZSET（recent:play:{userId}，member 为歌曲id，score 为播放时间）保存每个用户最近的 MAX_RECENT 首，
+ * 上报播放只需一次 pipeline（ZADD + ZREMRANGEBYRANK + 标记用户待同步）；MySQL 仅作归档。
+ * 待同步的用户记在 Redis ZSET（recent:play:dirty）中，进程崩溃不丢失，占用随活跃用户数而非播放次数增长；
+ * 定时任务把这些用户的最近播放整体同步到归档表（按用户+歌曲 upsert，删除已不在 Redis 中的歌曲），
+ * 因此归档表每个用户最多 MAX_RECENT 行。同步失败的用户保留标记，下一轮重试；
+ * 同步期间用户又有变化（播放/删除/清空）时标记的 score 会更新，本轮不移除标记，下一轮按最新数据再同步。
+ * Redis 中没有该用户数据时（首次访问/数据丢失）从归档表重建一次。
+ */
 @Service
 @RequiredArgsConstructor
 public class RecentPlayServiceImpl implements IRecentPlayService {
 
+    private static final Logger log = LoggerFactory.getLogger(RecentPlayServiceImpl.class);
+
     private final UserRecentPlayMapper recentMapper;
-    private final SongMapper songMapper;
-    private final ArtistMapper artistMapper;
+    private final SongCardCache songCardCache;
+    private final StringRedisTemplate stringRedisTemplate;
 
     private static final int MAX_RECENT = 200;
+    // 长期不活跃用户的最近播放从 Redis 过期，需要时再从归档重建
+    private static final long TTL_DAYS = 30;
+    // 每轮从待同步集合中取出的用户数
+    private static final int ARCHIVE_BATCH_SIZE = 200;
+    // 每轮最多同步的批次数，避免单轮占用过久
+    private static final int ARCHIVE_MAX_BATCHES = 10;
+    // 同步期间标记未变化时才移除（score 变化说明有新的修改，需要再同步一次）
+    private static final DefaultRedisScript<Long> ACK_SCRIPT = new DefaultRedisScript<>(
+            "local s = redis.call('zscore', KEYS[1], ARGV[1]) " +
+            "if s and tonumber(s) == tonumber(ARGV[2]) then return redis.call('zrem', KEYS[1], ARGV[1]) end " +
+            "return 0",
+            Long.class);
+    // 本节点已确认 Redis 中存在最近播放数据的用户，避免每次上报都检查
+    private final Cache<Long, Boolean> loadedUsers = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
 
     @Override
     public void reportRecent(Long userId, Long songId) {
         if (userId == null || songId == null) return;
-        // 去重：删除已有记录
-        recentMapper.delete(new LambdaQueryWrapper<UserRecentPlay>()
-                .eq(UserRecentPlay::getUserId, userId)
-                .eq(UserRecentPlay::getSongId, songId));
-        // 插入最新
-        UserRecentPlay rec = new UserRecentPlay();
-        rec.setUserId(userId);
-        rec.setSongId(songId);
-        rec.setCreateTime(LocalDateTime.now());
-        recentMapper.insert(rec);
-        // 超限截断（按最早的删除）
-        int count = recentMapper.countByUser(userId);
-        if (count > MAX_RECENT) {
-            List<Long> ids = recentMapper.findOldestIds(userId, count - MAX_RECENT);
-            if (ids != null && !ids.isEmpty()) {
-                recentMapper.delete(new LambdaQueryWrapper<UserRecentPlay>().in(UserRecentPlay::getId, ids));
-            }
-        }
+        ensureLoaded(userId);
+        long now = System.currentTimeMillis();
+        byte[] key = key(userId).getBytes(StandardCharsets.UTF_8);
+        byte[] member = String.valueOf(songId).getBytes(StandardCharsets.UTF_8);
+        byte[] dirtyKey = RedisKeyConstant.RECENT_PLAY_DIRTY.getBytes(StandardCharsets.UTF_8);
+        byte[] user = String.valueOf(userId).getBytes(StandardCharsets.UTF_8);
+        // 同一首歌只保留最后一次播放（ZADD 覆盖 score），超出上限时按最早的截断
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.zSetCommands().zAdd(key, now, member);
+            connection.zSetCommands().zRemRange(key, 0, -(MAX_RECENT + 1));
+            connection.keyCommands().expire(key, TimeUnit.DAYS.toSeconds(TTL_DAYS));
+            connection.zSetCommands().zAdd(dirtyKey, now, user);
+            return null;
+        });
     }
 
     @Override
     public PageResult<?> page(Long userId, Integer pageNum, Integer pageSize) {
-        Page<UserRecentPlay> page = new Page<>(pageNum == null ? 1 : pageNum, pageSize == null ? 20 : pageSize);
-        Page<UserRecentPlay> res = recentMapper.selectPage(page, new LambdaQueryWrapper<UserRecentPlay>()
-                .eq(UserRecentPlay::getUserId, userId)
-                .orderByDesc(UserRecentPlay::getCreateTime));
-
-        List<Long> songIds = res.getRecords().stream().map(UserRecentPlay::getSongId).collect(Collectors.toList());
-        List<Song> songs = songIds.isEmpty() ? java.util.Collections.emptyList() : songMapper.selectBatchIds(songIds);
-        Map<Long, Song> songMap = songs.stream().collect(Collectors.toMap(Song::getSongId, s -> s));
-        // 批量查询歌手名称
-        java.util.Set<Long> artistIds = songs.stream()
-                .map(Song::getArtistId)
-                .filter(java.util.Objects::nonNull)
-                .collect(java.util.stream.Collectors.toSet());
-        List<Artist> artists = artistIds.isEmpty() ? java.util.Collections.emptyList() : artistMapper.selectBatchIds(artistIds);
-        Map<Long, String> artistNameMap = artists.stream().collect(Collectors.toMap(Artist::getArtistId, Artist::getArtistName));
-
-        List<Map<String, Object>> items = res.getRecords().stream().map(r -> {
-            Song s = songMap.getOrDefault(r.getSongId(), null);
-            java.util.HashMap<String, Object> m = new java.util.HashMap<>();
-            m.put("songId", r.getSongId());
-            m.put("songName", s != null ? s.getSongName() : "");
-            Long aid = s != null ? s.getArtistId() : null;
-            m.put("artistId", aid);
-            m.put("artistName", s != null ? artistNameMap.getOrDefault(aid, "") : "");
-            m.put("album", s != null ? s.getAlbum() : "");
-            String durStr = s != null ? s.getDuration() : null;
-            long seconds = 0;
-            try {
-                if (durStr != null && !durStr.isBlank()) {
-                    seconds = Math.round(Double.parseDouble(durStr));
-                }
-            } catch (Exception ignore) {}
-            m.put("duration", String.valueOf(seconds));
-            m.put("coverUrl", s != null ? s.getCoverUrl() : null);
-            m.put("audioUrl", s != null ? s.getAudioUrl() : null);
-            m.put("style", s != null ? s.getStyle() : null);
-            m.put("createTime", r.getCreateTime() != null ? r.getCreateTime().toString() : null);
-            // 附带歌手头像
-            String artistAvatar = null;
-            if (aid != null) {
-                for (Artist a : artists) {
-                    if (aid.equals(a.getArtistId())) { artistAvatar = a.getAvatar(); break; }
-                }
+        int current = pageNum == null || pageNum < 1 ? 1 : pageNum;
+        int size = pageSize == null || pageSize < 1 ? 20 : pageSize;
+        ensureLoaded(userId);
+        String key = key(userId);
+        Long total = stringRedisTemplate.opsForZSet().zCard(key);
+        long start = (long) (current - 1) * size;
+        Set<ZSetOperations.TypedTuple<String>> tuples =
+                stringRedisTemplate.opsForZSet().reverseRangeWithScores(key, start, start + size - 1);
+        List<UserRecentPlay> records = new ArrayList<>();
+        if (tuples != null) {
+            for (ZSetOperations.TypedTuple<String> t : tuples) {
+                if (t.getValue() == null || t.getScore() == null) continue;
+                UserRecentPlay r = new UserRecentPlay();
+                r.setUserId(userId);
+                r.setSongId(Long.valueOf(t.getValue()));
+                r.setCreateTime(toTime(t.getScore().longValue()));
+                records.add(r);
             }
-            m.put("artistAvatar", artistAvatar);
-            m.put("likeStatus", 0);
-            return m;
-        }).collect(Collectors.toList());
+        }
 
-        return new PageResult<>(res.getTotal(), items);
+        // 批量读取歌曲卡片（含歌手名与头像）
+        Map<Long, SongCardVO> cards = songCardCache.getCards(records.stream().map(UserRecentPlay::getSongId).toList());
+        List<RecentPlayVO> items = new ArrayList<>(records.size());
+        for (UserRecentPlay r : records) {
+            RecentPlayVO item = new RecentPlayVO();
+            SongCardVO card = cards.get(r.getSongId());
+            if (card != null) {
+                BeanUtils.copyProperties(card, item);
+            } else {
+                // 歌曲已不存在
+                item.setSongId(r.getSongId());
+                item.setSongName("");
+                item.setArtistName("");
+                item.setAlbum("");
+            }
+            item.setDuration(toSeconds(card == null ? null : card.getDuration()));
+            item.setCreateTime(r.getCreateTime() != null ? r.getCreateTime().toString() : null);
+            item.setLikeStatus(0);
+            items.add(item);
+        }
+
+        return new PageResult<>(total == null ? 0L : total, items);
     }
 
     @Override
     public void removeOne(Long userId, Long songId) {
         if (userId == null || songId == null) return;
+        stringRedisTemplate.opsForZSet().remove(key(userId), String.valueOf(songId));
         recentMapper.delete(new LambdaQueryWrapper<UserRecentPlay>()
                 .eq(UserRecentPlay::getUserId, userId)
                 .eq(UserRecentPlay::getSongId, songId));
+        // 进行中的同步可能读到删除前的数据并写回该歌曲，重新标记后下一轮按 Redis 再同步一次
+        markDirty(userId);
     }
 
     @Override
     public void clearAll(Long userId) {
         if (userId == null) return;
+        stringRedisTemplate.delete(key(userId));
         recentMapper.delete(new LambdaQueryWrapper<UserRecentPlay>()
                 .eq(UserRecentPlay::getUserId, userId));
+        markDirty(userId);
+        // 已清空，后续上报直接写入 Redis，无需再从归档重建
+        loadedUsers.put(userId, Boolean.TRUE);
+    }
+
+    /**
+     * 把待同步用户的最近播放写入归档表。
+     * 同步失败的用户保留在待同步集合中，下一轮重试；同步成功且期间无新变化的用户移出集合。
+     */
+    @Override
+    public void flushArchive() {
+        for (int round = 0; round < ARCHIVE_MAX_BATCHES; round++) {
+            Set<ZSetOperations.TypedTuple<String>> dirty = stringRedisTemplate.opsForZSet()
+                    .rangeWithScores(RedisKeyConstant.RECENT_PLAY_DIRTY, 0, ARCHIVE_BATCH_SIZE - 1);
+            if (dirty == null || dirty.isEmpty()) return;
+            int failed = 0;
+            for (ZSetOperations.TypedTuple<String> t : dirty) {
+                if (t.getValue() == null || t.getScore() == null) continue;
+                try {
+                    archiveUser(Long.valueOf(t.getValue()));
+                    stringRedisTemplate.execute(ACK_SCRIPT, List.of(RedisKeyConstant.RECENT_PLAY_DIRTY),
+                            t.getValue(), String.valueOf(t.getScore().longValue()));
+                } catch (Exception e) {
+                    failed++;
+                    log.warn("[RecentPlay] Archive userId={} failed, will retry: {}", t.getValue(), e.getMessage());
+                }
+            }
+            // 本批有失败时停止，失败的用户仍排在最前，避免本轮反复重试
+            if (failed > 0 || dirty.size() < ARCHIVE_BATCH_SIZE) return;
+        }
+    }
+
+    /** 用 Redis 中的最近播放覆盖该用户的归档（Redis 中已无数据时清空归档） */
+    private void archiveUser(Long userId) {
+        Set<ZSetOperations.TypedTuple<String>> plays = stringRedisTemplate.opsForZSet().rangeWithScores(key(userId), 0, -1);
+        List<UserRecentPlay> records = new ArrayList<>();
+        List<Long> songIds = new ArrayList<>();
+        if (plays != null) {
+            for (ZSetOperations.TypedTuple<String> t : plays) {
+                if (t.getValue() == null || t.getScore() == null) continue;
+                UserRecentPlay r = new UserRecentPlay();
+                r.setUserId(userId);
+                r.setSongId(Long.valueOf(t.getValue()));
+                r.setCreateTime(toTime(t.getScore().longValue()));
+                records.add(r);
+                songIds.add(r.getSongId());
+            }
+        }
+        if (!records.isEmpty()) recentMapper.upsertBatch(records);
+        recentMapper.deleteOtherSongs(userId, songIds);
+    }
+
+    private void markDirty(Long userId) {
+        stringRedisTemplate.opsForZSet().add(RedisKeyConstant.RECENT_PLAY_DIRTY, String.valueOf(userId), System.currentTimeMillis());
+    }
+
+    /** Redis 中没有该用户的最近播放时，从归档表加载最近的 MAX_RECENT 首 */
+    private void ensureLoaded(Long userId) {
+        if (loadedUsers.getIfPresent(userId) != null) return;
+        String key = key(userId);
+        if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(key))) {
+            List<UserRecentPlay> latest = recentMapper.findLatestSongs(userId, MAX_RECENT);
+            Set<ZSetOperations.TypedTuple<String>> tuples = latest.stream()
+                    .filter(r -> r.getSongId() != null && r.getCreateTime() != null)
+                    .map(r -> ZSetOperations.TypedTuple.of(String.valueOf(r.getSongId()),
+                            (double) r.getCreateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()))
+                    .collect(Collectors.toSet());
+            if (!tuples.isEmpty()) {
+                stringRedisTemplate.opsForZSet().add(key, tuples);
+                stringRedisTemplate.expire(key, TTL_DAYS, TimeUnit.DAYS);
+            }
+        }
+        loadedUsers.put(userId, Boolean.TRUE);
     }
-}
 
+    // 时长统一为整数秒
+    private static String toSeconds(String duration) {
+        long seconds = 0;
+        try {
+            if (duration != null && !duration.isBlank()) {
+                seconds = Math.round(Double.parseDouble(duration));
+            }
+        } catch (Exception ignore) {}
+        return String.valueOf(seconds);
+    }
 
+    // 与归档表 datetime 精度一致，保留到秒
+    private static LocalDateTime toTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private static String key(Long userId) {
+        return RedisKeyConstant.RECENT_PLAY_PREFIX + userId;
+    }
+}
@@ -19,7 +19,6 @@ import cn.edu.seig.vibemusic.model.entity.Genre;
 import cn.edu.seig.vibemusic.model.entity.Album;
 import cn.edu.seig.vibemusic.model.entity.Song;
 import cn.edu.seig.vibemusic.model.entity.Style;
-import cn.edu.seig.vibemusic.model.entity.UserFavorite;
 import cn.edu.seig.vibemusic.model.vo.SongAdminVO;
 import cn.edu.seig.vibemusic.model.vo.SongBatchImportResultVO;
 import cn.edu.seig.vibemusic.model.vo.SongDetailVO;
@@ -29,27 +28,29 @@ import cn.edu.seig.vibemusic.result.PageResult;
 import cn.edu.seig.vibemusic.result.Result;
 import cn.edu.seig.vibemusic.service.ISongService;
 import cn.edu.seig.vibemusic.service.MinioService;
-import cn.edu.seig.vibemusic.util.JwtUtil;
+import cn.edu.seig.vibemusic.util.LyricTimeline;
+import cn.edu.seig.vibemusic.util.TextDecodeUtil;
+import cn.edu.seig.vibemusic.util.ThreadLocalUtil;
 import cn.edu.seig.vibemusic.util.TypeConversionUtil;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * <p>
@@ -63,6 +64,8 @@ import java.util.regex.Pattern;
 @CacheConfig(cacheNames = "songCache")
 public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements ISongService {
 
+    private static final Logger log = LoggerFactory.getLogger(SongServiceImpl.class);
+
     @Autowired
     private SongMapper songMapper;
     @Autowired
@@ -80,16 +83,26 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
     @Autowired
     private MinioService minioService;
     @Autowired
-    private RedisTemplate<String, SongVO> redisTemplate;
-    @Autowired
     private cn.edu.seig.vibemusic.util.CachePurger cachePurger;
     @Autowired
     private cn.edu.seig.vibemusic.service.HotSearchService hotSearchService;
     @Autowired
     private cn.edu.seig.vibemusic.mapper.ArtistMapper artistMapper;
+    @Autowired
+    private cn.edu.seig.vibemusic.util.SongSearchIndex songSearchIndex;
+    @Autowired
+    private cn.edu.seig.vibemusic.util.RecommendationPipeline recommendationPipeline;
+    @Autowired
+    private cn.edu.seig.vibemusic.util.RandomSampler randomSampler;
+    @Autowired
+    private cn.edu.seig.vibemusic.util.CacheInvalidator cacheInvalidator;
+    @Autowired
+    private cn.edu.seig.vibemusic.util.FavoriteSongBitmap favoriteSongBitmap;
 
     @Autowired
     private cn.edu.seig.vibemusic.service.ICommentService commentService;
+    @Autowired
+    private CacheManager cacheManager;
 
     /**
      * 获取所有歌曲
@@ -98,65 +111,48 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
      * @return 歌曲列表
      */
     @Override
-    @Cacheable(key = "#songDTO.pageNum + '-' + #songDTO.pageSize + '-' + #songDTO.keyword + '-' + #songDTO.songName + '-' + #songDTO.artistName + '-' + #songDTO.album")
     public Result<PageResult<SongVO>> getAllSongs(SongDTO songDTO, HttpServletRequest request) {
-        // 获取请求头中的 token
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7); // 去掉 "Bearer " 前缀
+        if (songDTO.getKeyword() != null && !songDTO.getKeyword().isEmpty()) {
+            // 热搜计数 +1（关键词统一用去首尾空格的小写计数，避免重复）
+            try { hotSearchService.increaseKeyword(songDTO.getKeyword().trim().toLowerCase()); } catch (Exception ignored) {}
         }
 
-        Map<String, Object> map = null;
-        if (token != null && !token.isEmpty()) {
-            map = JwtUtil.parseToken(token);
+        PageResult<SongVO> songPage = loadSongPage(songDTO);
+        if (songPage.getItems() == null || songPage.getItems().isEmpty()) {
+            return Result.success(MessageConstant.DATA_NOT_FOUND, new PageResult<>(0L, null));
+        }
+
+        // 在副本上补充当前用户的收藏状态，缓存中的分页与用户无关
+        return Result.success(new PageResult<>(songPage.getTotal(), favoriteSongBitmap.withLikeStatus(songPage.getItems())));
+    }
+
+    /** 歌曲分页的公共部分（不含收藏状态），所有用户共用一份，缓存于 songCache 的 page-{查询条件} */
+    private PageResult<SongVO> loadSongPage(SongDTO songDTO) {
+        Cache cache = cacheManager.getCache("songCache");
+        String key = "page-" + songDTO.getPageNum() + "-" + songDTO.getPageSize() + "-" + songDTO.getKeyword()
+                + "-" + songDTO.getSongName() + "-" + songDTO.getArtistName() + "-" + songDTO.getAlbum();
+        if (cache != null) {
+            PageResult<SongVO> cached = cache.get(key, PageResult.class);
+            if (cached != null) return cached;
         }
 
         // 查询歌曲列表：若传 keyword 则按统一关键字（歌名/歌手/专辑）搜索，否则走原有精确字段
         Page<SongVO> page = new Page<>(songDTO.getPageNum(), songDTO.getPageSize());
         IPage<SongVO> songPage;
         if (songDTO.getKeyword() != null && !songDTO.getKeyword().isEmpty()) {
-            // 热搜计数 +1（关键词统一用去首尾空格的小写计数，避免重复）
-            try { hotSearchService.increaseKeyword(songDTO.getKeyword().trim().toLowerCase()); } catch (Exception ignored) {}
-            songPage = songMapper.getSongsByKeyword(page, songDTO.getKeyword());
+            // 优先走内存倒排索引；索引未就绪时回退 SQL LIKE
+            songPage = songSearchIndex.search(page, songDTO.getKeyword());
+            if (songPage == null) {
+                songPage = songMapper.getSongsByKeyword(page, songDTO.getKeyword());
+            }
         } else {
             songPage = songMapper.getSongsWithArtist(page, songDTO.getSongName(), songDTO.getArtistName(), songDTO.getAlbum());
         }
-        if (songPage.getRecords().isEmpty()) {
-            return Result.success(MessageConstant.DATA_NOT_FOUND, new PageResult<>(0L, null));
+        PageResult<SongVO> result = new PageResult<>(songPage.getTotal(), new ArrayList<>(songPage.getRecords()));
+        if (cache != null) {
+            try { cache.put(key, result); } catch (Exception ignored) {}
         }
-
-        // 设置默认状态
-        List<SongVO> songVOList = songPage.getRecords().stream()
-                .peek(songVO -> songVO.setLikeStatus(LikeStatusEnum.DEFAULT.getId()))
-                .toList();
-
-        // 如果 token 解析成功且用户为登录状态，进一步操作
-        if (map != null) {
-            String role = (String) map.get(JwtClaimsConstant.ROLE);
-            if (role.equals(RoleEnum.USER.getRole())) {
-                Object userIdObj = map.get(JwtClaimsConstant.USER_ID);
-                Long userId = TypeConversionUtil.toLong(userIdObj);
-
-                // 获取用户收藏的歌曲
-                List<UserFavorite> favoriteSongs = userFavoriteMapper.selectList(new QueryWrapper<UserFavorite>()
-                        .eq("user_id", userId)
-                        .eq("type", 0));
-
-                // 获取用户收藏的歌曲 id
-                Set<Long> favoriteSongIds = favoriteSongs.stream()
-                        .map(UserFavorite::getSongId)
-                        .collect(Collectors.toSet());
-
-                // 检查并更新状态
-                for (SongVO songVO : songVOList) {
-                    if (favoriteSongIds.contains(songVO.getSongId())) {
-                        songVO.setLikeStatus(LikeStatusEnum.LIKE.getId());
-                    }
-                }
-            }
-        }
-
-        return Result.success(new PageResult<>(songPage.getTotal(), songVOList));
+        return result;
     }
 
     /**
@@ -188,61 +184,36 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
      */
     @Override
     public Result<List<SongVO>> getRecommendedSongs(HttpServletRequest request) {
-        // 获取请求头中的 token
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);  // 去掉 "Bearer " 前缀
-        }
-
-        Map<String, Object> map = null;
-        if (token != null && !token.isEmpty()) {
-            map = JwtUtil.parseToken(token);
-        }
+        // 当前登录用户（拦截器已解析 token 并写入 ThreadLocal，未登录时为 null）
+        Map<String, Object> map = ThreadLocalUtil.get();
 
         // 用户未登录，返回随机歌曲列表
         if (map == null) {
-            return Result.success(songMapper.getRandomSongsWithArtist());
+            return Result.success(randomSampler.randomSongs(20));
         }
 
         // 获取用户 ID
         Long userId = TypeConversionUtil.toLong(map.get(JwtClaimsConstant.USER_ID));
 
-        // 查询用户收藏的歌曲 ID
-        List<Long> favoriteSongIds = userFavoriteMapper.getFavoriteSongIdsByUserId(userId);
-        if (favoriteSongIds.isEmpty()) {
-            return Result.success(songMapper.getRandomSongsWithArtist());
+        // 读取后台预计算的候选集（按风格偏好打分），尚未构建或无收藏时返回随机歌曲
+        List<Long> candidateIds = recommendationPipeline.topCandidates(userId, 80);
+        if (candidateIds == null || candidateIds.isEmpty()) {
+            return Result.success(randomSampler.randomSongs(20));
         }
 
-        // 查询用户收藏的歌曲风格并统计频率
-        List<Long> favoriteStyleIds = songMapper.getFavoriteSongStyles(favoriteSongIds);
-        Map<Long, Long> styleFrequency = favoriteStyleIds.stream()
-                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
-
-        // 按风格出现次数降序排序
-        List<Long> sortedStyleIds = styleFrequency.entrySet().stream()
-                .sorted((a, b) -> Long.compare(b.getValue(), a.getValue()))
-                .map(Map.Entry::getKey)
+        // 随机选取 20 首，一次查询取回
+        Collections.shuffle(candidateIds);
+        List<Long> pickedIds = candidateIds.subList(0, Math.min(20, candidateIds.size()));
+        Map<Long, SongVO> songById = songMapper.getSongsWithArtistByIds(pickedIds).stream()
+                .collect(Collectors.toMap(SongVO::getSongId, Function.identity(), (a, b) -> a));
+        List<SongVO> recommendedSongs = pickedIds.stream()
+                .map(songById::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
 
-        // 从 Redis 获取缓存的推荐列表
-        String redisKey = "recommended_songs:" + userId;
-        List<SongVO> cachedSongs = redisTemplate.opsForList().range(redisKey, 0, -1);
-
-        // 如果 Redis 没有缓存，则查询数据库并缓存
-        if (cachedSongs == null || cachedSongs.isEmpty()) {
-            // 根据排序后的风格推荐歌曲（排除已收藏歌曲）
-            cachedSongs = songMapper.getRecommendedSongsByStyles(sortedStyleIds, favoriteSongIds, 80);
-            redisTemplate.opsForList().rightPushAll(redisKey, cachedSongs);
-            redisTemplate.expire(redisKey, 30, TimeUnit.MINUTES); // 设置过期时间 30 分钟
-        }
-
-        // 随机选取 20 首
-        Collections.shuffle(cachedSongs);
-        List<SongVO> recommendedSongs = cachedSongs.subList(0, Math.min(20, cachedSongs.size()));
-
         // 如果推荐的歌曲不足 20 首，则用随机歌曲填充
         if (recommendedSongs.size() < 20) {
-            List<SongVO> randomSongs = songMapper.getRandomSongsWithArtist();
+            List<SongVO> randomSongs = randomSampler.randomSongs(20);
             Set<Long> addedSongIds = recommendedSongs.stream().map(SongVO::getSongId).collect(Collectors.toSet());
             for (SongVO song : randomSongs) {
                 if (recommendedSongs.size() >= 20) break;
@@ -255,6 +226,21 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
         return Result.success(recommendedSongs);
     }
 
+    /** 歌曲详情的基础信息（不含评论与收藏状态），缓存于 songCache 的 detail-{songId} */
+    private SongDetailVO loadSongDetail(Long songId) {
+        Cache cache = cacheManager.getCache("songCache");
+        String key = "detail-" + songId;
+        if (cache != null) {
+            SongDetailVO cached = cache.get(key, SongDetailVO.class);
+            if (cached != null) return cached;
+        }
+        SongDetailVO detail = songMapper.getSongDetailById(songId);
+        if (detail != null && cache != null) {
+            cache.put(key, detail);
+        }
+        return detail;
+    }
+
     /**
      * 获取歌曲详情
      *
@@ -263,30 +249,27 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
      * @return 歌曲详情
      */
     @Override
-    @Cacheable(key = "#songId")
     public Result<SongDetailVO> getSongDetail(Long songId, HttpServletRequest request) {
-        SongDetailVO songDetailVO = songMapper.getSongDetailById(songId);
-        // 补充：加载歌曲评论（带children）
+        SongDetailVO cached = loadSongDetail(songId);
+        if (cached == null) {
+            return Result.error(MessageConstant.SONG + MessageConstant.NOT_FOUND);
+        }
+        // 复制一份再补充评论与收藏状态，不修改缓存中的对象；评论只取自评论分页，不沿用缓存中的任何评论字段
+        SongDetailVO songDetailVO = new SongDetailVO();
+        BeanUtils.copyProperties(cached, songDetailVO, "comments", "commentTotal", "commentNextCursor");
+
+        // 补充：评论第一页（评论单独缓存，评论变更不会失效歌曲详情）
         try {
-            var commentService = this.commentService;
-            if (commentService != null) {
-                var comments = commentService.getSongComments(songId);
-                if (comments != null && comments.getCode() == 0) {
-                    songDetailVO.setComments(comments.getData());
-                }
+            var comments = commentService.getSongCommentPage(songId, null, null);
+            if (comments != null && comments.getCode() == 0 && comments.getData() != null) {
+                songDetailVO.setComments(comments.getData().getItems());
+                songDetailVO.setCommentTotal(comments.getData().getTotal());
+                songDetailVO.setCommentNextCursor(comments.getData().getNextCursor());
             }
         } catch (Exception ignored) {}
 
-        // 获取请求头中的 token
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);  // 去掉 "Bearer " 前缀
-        }
-
-        Map<String, Object> map = null;
-        if (token != null && !token.isEmpty()) {
-            map = JwtUtil.parseToken(token);
-        }
+        // 当前登录用户（拦截器已解析 token 并写入 ThreadLocal，未登录时为 null）
+        Map<String, Object> map = ThreadLocalUtil.get();
 
         // 如果 token 解析成功且用户为登录状态，进一步操作
         if (map != null) {
@@ -296,11 +279,7 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
                 Long userId = TypeConversionUtil.toLong(userIdObj);
 
                 // 获取用户收藏的歌曲
-                UserFavorite favoriteSong = userFavoriteMapper.selectOne(new QueryWrapper<UserFavorite>()
-                        .eq("user_id", userId)
-                        .eq("type", 0)
-                        .eq("song_id", songId));
-                if (favoriteSong != null) {
+                if (favoriteSongBitmap.isLiked(userId, songId)) {
                     songDetailVO.setLikeStatus(LikeStatusEnum.LIKE.getId());
                 }
             }
@@ -338,7 +317,7 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
     }
 
     /**
-     * 获取歌词（优先 lyric_url -> 否则 lyric 字段），解析 LRC 并缓存
+     * 获取歌词（优先 lyric_url 的预解析时间轴 -> 原始 LRC -> lyric 字段）并缓存
      */
     @Override
     @Cacheable(cacheNames = "lyricCache", key = "'lyric-' + #songId")
@@ -348,46 +327,47 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
 
         String raw = null;
         if (song.getLyricUrl() != null && !song.getLyricUrl().isEmpty()) {
-            raw = minioService.readText(song.getLyricUrl());
+            String timelineUrl = LyricTimeline.timelineUrl(song.getLyricUrl());
+            // 只有对象不存在才视为时间轴缺失，MinIO 其他错误直接抛出，不用 LRC 掩盖
+            byte[] timeline = minioService.readBytesIfExists(timelineUrl);
+            if (timeline != null) {
+                try {
+                    return Result.success(LyricTimeline.decode(timeline));
+                } catch (IllegalArgumentException e) {
+                    log.warn("[Lyric] Corrupt timeline {}, rebuilding from LRC: {}", timelineUrl, e.getMessage());
+                }
+            }
+            // 时间轴缺失（早于时间轴上传的歌词）或已损坏：解析原始 LRC 并补写时间轴
+            byte[] bytes = minioService.readBytes(song.getLyricUrl());
+            raw = TextDecodeUtil.smartDecode(bytes);
+            if (!raw.isEmpty()) {
+                List<LyricLine> lines = LyricTimeline.parse(raw);
+                try {
+                    minioService.putBytes(timelineUrl, LyricTimeline.encode(lines), LyricTimeline.CONTENT_TYPE);
+                } catch (Exception e) {
+                    log.warn("[Lyric] Failed to write timeline {}: {}", timelineUrl, e.getMessage());
+                }
+                return Result.success(lines);
+            }
         }
         if ((raw == null || raw.isEmpty()) && song.getLyric() != null) {
             raw = song.getLyric();
         }
-        List<LyricLine> lines = parseLrc(raw);
-        return Result.success(lines);
+        return Result.success(LyricTimeline.parse(raw));
     }
 
-    private List<LyricLine> parseLrc(String lrc) {
-        List<LyricLine> list = new ArrayList<>();
-        if (lrc == null || lrc.isBlank()) return list;
-
-        long globalOffset = 0;
-        Matcher off = Pattern.compile("(?m)^\\[offset:(-?\\d+)]\\s*$").matcher(lrc);
-        if (off.find()) globalOffset = Long.parseLong(off.group(1));
-
-        // 允许毫秒为 1-3 位：如 [01:23.4] / [01:23.45] / [01:23.456]
-        Pattern p = Pattern.compile("(?m)^((?:\\[\\d{1,2}:\\d{2}(?:[.:]\\d{1,3})?])+)(.*)$");
-        Matcher m = p.matcher(lrc);
-        while (m.find()) {
-            String tsGroup = m.group(1);
-            String text = m.group(2).trim();
-            Matcher tm = Pattern.compile("\\[(\\d{1,2}):(\\d{2})(?:[.:](\\d{1,3}))?]").matcher(tsGroup);
-            while (tm.find()) {
-                int min = Integer.parseInt(tm.group(1));
-                int sec = Integer.parseInt(tm.group(2));
-                String frac = tm.group(3);
-                int fracLen = frac == null ? 0 : frac.length();
-                int fracVal = frac == null ? 0 : Integer.parseInt(frac);
-                long extraMs = 0;
-                if (fracLen == 3) extraMs = fracVal;           // 毫秒
-                else if (fracLen == 2) extraMs = fracVal * 10L; // 厘秒 -> 毫秒
-                else if (fracLen == 1) extraMs = fracVal * 100L; // 十分之一秒 -> 毫秒
-                long ms = min * 60_000L + sec * 1_000L + extraMs;
-                list.add(new LyricLine(ms + globalOffset, text));
-            }
+    /**
+     * 上传歌词时解析一次，把二进制时间轴写在原始 LRC 旁边
+     */
+    private void storeLyricTimeline(String lyricUrl, org.springframework.web.multipart.MultipartFile lyricFile) {
+        if (lyricUrl == null || lyricUrl.isEmpty() || lyricFile == null || lyricFile.isEmpty()) return;
+        try {
+            List<LyricLine> lines = LyricTimeline.parse(TextDecodeUtil.smartDecode(lyricFile.getBytes()));
+            minioService.putBytes(LyricTimeline.timelineUrl(lyricUrl), LyricTimeline.encode(lines), LyricTimeline.CONTENT_TYPE);
+        } catch (Exception e) {
+            // 时间轴写入失败不影响歌词上传，首次读取歌词时会补写
+            log.warn("[Lyric] Failed to store timeline for {}: {}", lyricUrl, e.getMessage());
         }
-        list.sort(Comparator.comparingLong(LyricLine::getTimeMs));
-        return list;
     }
 
     /**
@@ -413,7 +393,6 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
      * @return 结果
      */
     @Override
-    @CacheEvict(cacheNames = {"songCache", "artistCache", "albumCache"}, allEntries = true)
     public Result<String> addSong(SongAddDTO songAddDTO) {
         // 先解析/创建专辑，拿到 albumId
         Long resolvedAlbumId = ensureAlbumId(songAddDTO.getArtistId(), songAddDTO.getAlbum(), songAddDTO.getReleaseTime());
@@ -491,6 +470,11 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
             }
         }
 
+        try { songSearchIndex.refreshSong(songId); } catch (Exception ignored) {}
+        randomSampler.invalidateSongs();
+        // 新增只影响列表与所属歌手详情
+        cacheInvalidator.evictLists("songCache");
+        cacheInvalidator.evictKey("artistCache", "detail-" + songAddDTO.getArtistId());
         return Result.success(MessageConstant.ADD + MessageConstant.SUCCESS);
     }
 
@@ -501,7 +485,6 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
      * @return 结果
      */
     @Override
-    @CacheEvict(cacheNames = {"songCache", "artistCache", "albumCache"}, allEntries = true)
     public Result<String> updateSong(SongUpdateDTO songUpdateDTO) {
         // 查询数据库中是否存在该歌曲
         Song songInDB = songMapper.selectById(songUpdateDTO.getSongId());
@@ -542,6 +525,7 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
         }
 
         Long songId = songUpdateDTO.getSongId();
+        try { songSearchIndex.refreshSong(songId); } catch (Exception ignored) {}
 
         // 删除 tb_genre 中该歌曲的原有风格映射
         genreMapper.delete(new QueryWrapper<Genre>().eq("song_id", songId));
@@ -592,6 +576,10 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
             }
         }
 
+        // 歌名/专辑变化可能改变列表成员，另失效含该歌曲的条目与新歌手详情
+        cacheInvalidator.evictSong(songUpdateDTO.getSongId());
+        cacheInvalidator.evictLists("songCache");
+        cacheInvalidator.evictKey("artistCache", "detail-" + songUpdateDTO.getArtistId());
         return Result.success(MessageConstant.UPDATE + MessageConstant.SUCCESS);
     }
 
@@ -624,7 +612,6 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
      * @return 更新结果
      */
     @Override
-    @CacheEvict(cacheNames = {"songCache", "artistCache"}, allEntries = true)
     public Result<String> updateSongCover(Long songId, String coverUrl) {
         Song song = songMapper.selectById(songId);
         String cover = song.getCoverUrl();
@@ -648,6 +635,8 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
             }
         } catch (Exception ignored) {}
 
+        try { songSearchIndex.refreshSong(songId); } catch (Exception ignored) {}
+        cacheInvalidator.evictSong(songId);
         return Result.success(MessageConstant.UPDATE + MessageConstant.SUCCESS);
     }
 
@@ -659,8 +648,7 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
      * @return 更新结果
      */
     @Override
-    @CacheEvict(cacheNames = {"songCache", "artistCache"}, allEntries = true)
-    public Result<String> updateSongAudio(Long songId, String audioUrl, org.springframework.web.multipart.MultipartFile audioFile) {
+    public Result<String> updateSongAudio(Long songId, String audioUrl, Integer durationSeconds, org.springframework.web.multipart.MultipartFile audioFile) {
         Song song = songMapper.selectById(songId);
         String audio = song.getAudioUrl();
         if (audio != null && !audio.isEmpty()) {
@@ -668,9 +656,11 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
         }
 
         song.setAudioUrl(audioUrl);
-        // 提取音频时长（秒）并写入 duration（支持 mp3、flac 等）
+        // 音频时长（秒）：优先使用上传时解析的结果，解析不出时再从文件提取
         try {
-            String seconds = cn.edu.seig.vibemusic.util.AudioDurationUtil.extractDurationSeconds(audioFile);
+            String seconds = durationSeconds != null
+                    ? String.valueOf(durationSeconds)
+                    : cn.edu.seig.vibemusic.util.AudioDurationUtil.extractDurationSeconds(audioFile);
             if (seconds != null && !seconds.isEmpty()) {
                 long s;
                 try { s = Long.parseLong(seconds); } catch (NumberFormatException e) { s = -1L; }
@@ -689,6 +679,8 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
             return Result.error(MessageConstant.UPDATE + MessageConstant.FAILED);
         }
 
+        try { songSearchIndex.refreshSong(songId); } catch (Exception ignored) {}
+        cacheInvalidator.evictSong(songId);
         return Result.success(MessageConstant.UPDATE + MessageConstant.SUCCESS);
     }
 
@@ -697,11 +689,12 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
      */
     @Override
     @CacheEvict(cacheNames = {"songCache", "lyricCache"}, key = "'lyric-' + #songId", allEntries = false)
-    public Result<String> updateSongLyric(Long songId, String lyricUrl) {
+    public Result<String> updateSongLyric(Long songId, String lyricUrl, org.springframework.web.multipart.MultipartFile lyricFile) {
         Song song = songMapper.selectById(songId);
         if (song == null) {
             return Result.error(MessageConstant.SONG + MessageConstant.NOT_FOUND);
         }
+        storeLyricTimeline(lyricUrl, lyricFile);
         song.setLyricUrl(lyricUrl);
         // 可选：清空旧内嵌歌词字段
         // song.setLyric(null);
@@ -718,7 +711,6 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
      * @return 删除结果
      */
     @Override
-    @CacheEvict(cacheNames = {"songCache", "artistCache"}, allEntries = true)
     public Result<String> deleteSong(Long songId) {
         Song song = songMapper.selectById(songId);
         if (song == null) {
@@ -736,6 +728,7 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
         }
         if (lyric != null && !lyric.isEmpty()) {
             minioService.deleteFile(lyric);
+            minioService.deleteFile(LyricTimeline.timelineUrl(lyric));
         }
 
         // 关联清理：tb_genre、歌单绑定、评论(歌曲)、用户收藏(歌曲)
@@ -748,7 +741,11 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
             return Result.error(MessageConstant.DELETE + MessageConstant.FAILED);
         }
 
+        try { songSearchIndex.removeSongs(List.of(songId)); } catch (Exception ignored) {}
+        randomSampler.invalidateSongs();
         try { cachePurger.purgeForSong(songId); } catch (Exception ignored) {}
+        cacheInvalidator.evictSong(songId);
+        cacheInvalidator.evictLists("songCache");
         return Result.success(MessageConstant.DELETE + MessageConstant.SUCCESS);
     }
 
@@ -759,7 +756,6 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
      * @return 删除结果
      */
     @Override
-    @CacheEvict(cacheNames = {"songCache", "artistCache"}, allEntries = true)
     public Result<String> deleteSongs(List<Long> songIds) {
         // 1. 查询歌曲信息，获取歌曲相关 URL 列表
         List<Song> songs = songMapper.selectByIds(songIds);
@@ -785,6 +781,7 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
         }
         for (String u : lyricUrlList) {
             minioService.deleteFile(u);
+            minioService.deleteFile(LyricTimeline.timelineUrl(u));
         }
 
         // 2.5 关联清理：tb_genre、歌单绑定、评论(歌曲)、用户收藏(歌曲)
@@ -798,7 +795,11 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
             return Result.error(MessageConstant.DELETE + MessageConstant.FAILED);
         }
 
-        try { cachePurger.purgeForSong(null); } catch (Exception ignored) {}
+        try { songSearchIndex.removeSongs(songIds); } catch (Exception ignored) {}
+        randomSampler.invalidateSongs();
+        try { cachePurger.purgeForSongs(songIds); } catch (Exception ignored) {}
+        cacheInvalidator.evictSongs(songIds);
+        cacheInvalidator.evictLists("songCache");
         return Result.success(MessageConstant.DELETE + MessageConstant.SUCCESS);
     }
 
@@ -815,7 +816,6 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
      * @return 导入结果
      */
     @Override
-    @CacheEvict(allEntries = true)
     public Result<SongBatchImportResultVO> batchImportSongsWithFiles(Long artistId, String albumName, String songNames, String songStyles,
                                                                     List<org.springframework.web.multipart.MultipartFile> audioFiles,
                                                                     List<org.springframework.web.multipart.MultipartFile> lyricFiles) {
@@ -864,6 +864,7 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
 
         List<SongBatchImportResultVO.ImportFailureItem> failures = new ArrayList<>();
         int successCount = 0;
+        List<Long> importedIds = new ArrayList<>();
         int totalCount = songNameList.size();
 
         // 获取专辑发行日期（从现有歌曲中获取，如果没有则使用当前日期）
@@ -908,7 +909,8 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
                 }
 
                 // 上传音频文件
-                String audioUrl = minioService.uploadFile(audioFile, "songs");
+                MinioService.MediaUpload audioUpload = minioService.uploadMedia(audioFile, "songs");
+                String audioUrl = audioUpload.url();
                 
                 // 上传歌词文件（如果存在）
                 String lyricUrl = "";
@@ -916,13 +918,14 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
                     String lyricFileName = lyricFile.getOriginalFilename();
                     if (lyricFileName != null && lyricFileName.toLowerCase().endsWith(".lrc")) {
                         lyricUrl = minioService.uploadFile(lyricFile, "songLyrics");
+                        storeLyricTimeline(lyricUrl, lyricFile);
                     }
                 }
 
                 // 获取音频时长
                 String duration = "";
                 try {
-                    duration = getAudioDuration(audioFile);
+                    duration = getAudioDuration(audioUpload.durationSeconds(), audioFile);
                 } catch (Exception e) {
                     // 如果无法获取时长，使用默认值
                     duration = "00:00";
@@ -947,6 +950,7 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
                 // 保存歌曲
                 if (songMapper.insert(song) > 0) {
                     successCount++;
+                    importedIds.add(song.getSongId());
                 } else {
                     failures.add(createFailureItem(i + 1, songName, "保存失败"));
                 }
@@ -963,9 +967,13 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
         result.setFailureCount(failures.size());
         result.setFailures(failures);
 
-        // 清理缓存
-        try { cachePurger.purgeForSong(null); } catch (Exception ignored) {}
+        // 同步搜索索引并清理缓存
+        try { songSearchIndex.refreshSongs(importedIds); } catch (Exception ignored) {}
+        randomSampler.invalidateSongs();
+        try { cachePurger.purgeRecommendations(); } catch (Exception ignored) {}
 
+        cacheInvalidator.evictLists("songCache");
+        cacheInvalidator.evictKey("artistCache", "detail-" + artistId);
         return Result.success("批量导入完成", result);
     }
 
@@ -1029,12 +1037,14 @@ public class SongServiceImpl extends ServiceImpl<SongMapper, Song> implements IS
     }
 
     /**
-     * 获取音频文件时长
+     * 获取音频文件时长：优先使用上传时解析的结果
      */
-    private String getAudioDuration(org.springframework.web.multipart.MultipartFile audioFile) {
+    private String getAudioDuration(Integer probedSeconds, org.springframework.web.multipart.MultipartFile audioFile) {
         try {
-            // 使用音频时长工具类获取真实的音频时长（秒）
-            String seconds = cn.edu.seig.vibemusic.util.AudioDurationUtil.extractDurationSeconds(audioFile);
+            // 上传时未能解析的格式，再用音频时长工具类从文件提取（秒）
+            String seconds = probedSeconds != null
+                    ? String.valueOf(probedSeconds)
+                    : cn.edu.seig.vibemusic.util.AudioDurationUtil.extractDurationSeconds(audioFile);
             if (seconds != null && !seconds.isEmpty()) {
                 long s;
                 try { 
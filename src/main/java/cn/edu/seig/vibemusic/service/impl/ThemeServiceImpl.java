@@ -8,6 +8,7 @@ import cn.edu.seig.vibemusic.model.entity.UserTheme;
 import cn.edu.seig.vibemusic.result.Result;
 import cn.edu.seig.vibemusic.service.IThemeService;
 import cn.edu.seig.vibemusic.service.MinioService;
+import cn.edu.seig.vibemusic.util.ObjectUrlSigner;
 import cn.edu.seig.vibemusic.util.ThreadLocalUtil;
 import cn.edu.seig.vibemusic.util.TypeConversionUtil;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
@@ -27,6 +28,9 @@ import cn.edu.seig.vibemusic.util.FFmpegUtils;
 @Service
 public class ThemeServiceImpl extends ServiceImpl<ThemeMapper, Theme> implements IThemeService {
 
+    // ffmpeg 读取视频对象所用预签名 URL 的有效期（秒）
+    private static final int FFMPEG_URL_EXPIRY_SECONDS = 600;
+
     @Autowired
     private ThemeMapper themeMapper;
     @Autowired
@@ -35,6 +39,8 @@ public class ThemeServiceImpl extends ServiceImpl<ThemeMapper, Theme> implements
     private MinioService minioService;
     @Autowired
     private FFmpegUtils ffmpegUtils;
+    @Autowired
+    private ObjectUrlSigner objectUrlSigner;
 
     @Override
     public Result<List<Theme>> listOfficialThemes() {
@@ -76,8 +82,8 @@ public class ThemeServiceImpl extends ServiceImpl<ThemeMapper, Theme> implements
     @Override
     public Result<String> uploadCustomBackground(MultipartFile file) {
         String url = minioService.uploadFile(file, "user-themes");
-        // 使用带 data 的 success 重载，避免把 URL 放到 message 字段
-        return Result.success("上传成功", url);
+        // 使用带 data 的 success 重载，避免把 URL 放到 message 字段；返回预签名 URL 供前端预览
+        return Result.success("上传成功", objectUrlSigner.sign(url));
     }
 
     @Override
@@ -87,7 +93,8 @@ public class ThemeServiceImpl extends ServiceImpl<ThemeMapper, Theme> implements
                 .setUserId(userId)
                 .setThemeType("custom")
                 .setThemeId(null)
-                .setImageUrl(imageUrl)
+                // 前端回传的是上传接口返回的预签名 URL，入库前还原
+                .setImageUrl(ObjectUrlSigner.unsign(imageUrl))
                 .setBlurhash(blurhash)
                 .setColorPrimary(colorPrimary)
                 .setUpdatedAt(LocalDateTime.now());
@@ -109,7 +116,13 @@ public class ThemeServiceImpl extends ServiceImpl<ThemeMapper, Theme> implements
     // ================= 管理端 =================
     @Override
     public Result<Void> adminAddTheme(MultipartFile file, String name) {
-        String objectUrl = minioService.uploadFile(file, "themes");
+        String contentType = file.getContentType() == null ? "" : file.getContentType();
+        boolean video = contentType.startsWith("video/");
+        // 视频在上传的同时解析时长，不再另存一份临时文件
+        MinioService.MediaUpload upload = video
+                ? minioService.uploadMedia(file, "themes")
+                : new MinioService.MediaUpload(minioService.uploadFile(file, "themes"), null);
+        String objectUrl = upload.url();
         Theme theme = new Theme();
         String themeName = (name != null && !name.isBlank())
                 ? name
@@ -117,30 +130,44 @@ public class ThemeServiceImpl extends ServiceImpl<ThemeMapper, Theme> implements
                     ? file.getOriginalFilename()
                     : "主题壁纸");
         theme.setName(themeName);
-        String contentType = file.getContentType() == null ? "" : file.getContentType();
-        if (contentType.startsWith("video/")) {
+        if (video) {
             // 视频主题：生成首帧 poster 与时长
             theme.setType(1);
             theme.setVideoUrl(objectUrl);
+            if (upload.durationSeconds() != null) {
+                theme.setDuration(upload.durationSeconds());
+            }
+            File poster = null;
+            File tmp = null;
             try {
-                // 将上传的文件保存到本地临时，再用 ffmpeg 处理（避免通过 URL 下载失败）
-                File tmp = Files.createTempFile("theme-video-", ".mp4").toFile();
-                try (var in = file.getInputStream()) {
-                    Files.copy(in, tmp.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+                // 首帧：ffmpeg 通过短时预签名 URL 读取已上传的对象（存储桶非公开读时裸 URL 无法访问；只按需读取开头与索引部分）
+                poster = Files.createTempFile("theme-poster-", ".jpg").toFile();
+                try {
+                    String signedUrl = minioService.getPresignedUrl(objectUrl, FFMPEG_URL_EXPIRY_SECONDS);
+                    ffmpegUtils.createVideoFirstFrame(signedUrl != null ? signedUrl : objectUrl, poster.getAbsolutePath(), 320);
+                } catch (Exception ignored) {}
+                if (poster.length() == 0 || upload.durationSeconds() == null) {
+                    // 通过 URL 读取失败或时长未能解析时，回退为本地临时文件处理
+                    tmp = Files.createTempFile("theme-video-", ".mp4").toFile();
+                    try (var in = file.getInputStream()) {
+                        Files.copy(in, tmp.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    if (upload.durationSeconds() == null) {
+                        theme.setDuration(ffmpegUtils.getDurationSeconds(tmp.getAbsolutePath()));
+                    }
+                    if (poster.length() == 0) {
+                        ffmpegUtils.createVideoFirstFrame(tmp.getAbsolutePath(), poster.getAbsolutePath(), 320);
+                    }
                 }
-                // 时长
-                int duration = ffmpegUtils.getDurationSeconds(tmp.getAbsolutePath());
-                theme.setDuration(duration);
-                // 海报
-                File poster = Files.createTempFile("theme-poster-", ".jpg").toFile();
-                ffmpegUtils.createVideoFirstFrame(tmp.getAbsolutePath(), poster.getAbsolutePath(), 320);
                 try (FileInputStream fis = new FileInputStream(poster)) {
                     String posterUrl = minioService.uploadStream(fis, "poster.jpg", "image/jpeg", "themes", poster.length());
                     theme.setPosterUrl(posterUrl);
                 }
-                poster.delete();
-                tmp.delete();
-            } catch (Exception ignored) {}
+            } catch (Exception ignored) {
+            } finally {
+                if (poster != null) poster.delete();
+                if (tmp != null) tmp.delete();
+            }
         } else {
             // 图片主题
             theme.setType(0);
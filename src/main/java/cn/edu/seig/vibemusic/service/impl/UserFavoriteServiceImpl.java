@@ -13,6 +13,7 @@ import cn.edu.seig.vibemusic.model.dto.SongDTO;
 import cn.edu.seig.vibemusic.model.entity.UserFavorite;
 import cn.edu.seig.vibemusic.model.vo.PlaylistVO;
 import cn.edu.seig.vibemusic.model.vo.ArtistVO;
+import cn.edu.seig.vibemusic.model.vo.SongCardVO;
 import cn.edu.seig.vibemusic.model.vo.SongVO;
 import cn.edu.seig.vibemusic.model.vo.AlbumVO;
 import cn.edu.seig.vibemusic.result.PageResult;
@@ -24,13 +25,14 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheConfig;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -57,6 +59,14 @@ public class UserFavoriteServiceImpl extends ServiceImpl<UserFavoriteMapper, Use
     private ArtistMapper artistMapper;
     @Autowired
     private AlbumMapper albumMapper;
+    @Autowired
+    private cn.edu.seig.vibemusic.util.RecommendationPipeline recommendationPipeline;
+    @Autowired
+    private cn.edu.seig.vibemusic.util.CacheInvalidator cacheInvalidator;
+    @Autowired
+    private cn.edu.seig.vibemusic.util.FavoriteSongBitmap favoriteSongBitmap;
+    @Autowired
+    private cn.edu.seig.vibemusic.util.SongCardCache songCardCache;
 
     /** 提供给 SpEL 的当前用户ID（用于缓存隔离） */
     public Long currentUserId() {
@@ -87,22 +97,52 @@ public class UserFavoriteServiceImpl extends ServiceImpl<UserFavoriteMapper, Use
         }
 
         // 分页查询收藏的歌曲，支持模糊查询
-        Page<SongVO> page = new Page<>(songDTO.getPageNum(), songDTO.getPageSize());
-        IPage<SongVO> songPage = songMapper.getSongsByIds(
-                page,
-                userId,
-                favoriteSongIds,
-                songDTO.getSongName(),
-                songDTO.getArtistName(),
-                songDTO.getAlbum()
-        );
+        PageResult<SongVO> songPage = favoriteSongPage(userId, favoriteSongIds, songDTO);
 
         // 遍历结果，设置 likeStatus
-        List<SongVO> songVOList = songPage.getRecords().stream()
-                .peek(songVO -> songVO.setLikeStatus(LikeStatusEnum.LIKE.getId())) // 设置为已收藏
-                .toList();
+        songPage.getItems().forEach(songVO -> songVO.setLikeStatus(LikeStatusEnum.LIKE.getId())); // 设置为已收藏
 
-        return Result.success(new PageResult<>(songPage.getTotal(), songVOList));
+        return Result.success(songPage);
+    }
+
+    /**
+     * 收藏歌曲分页：没有筛选条件时按收藏顺序对 id 分页，再批量读取歌曲卡片（不再关联查询）；有筛选条件时走 SQL 模糊查询
+     *
+     * @param userId          用户id
+     * @param favoriteSongIds 收藏的歌曲id（按收藏时间倒序，仅包含仍存在的歌曲）
+     * @param songDTO         分页与筛选条件
+     * @return 分页结果
+     */
+    private PageResult<SongVO> favoriteSongPage(Long userId, List<Long> favoriteSongIds, SongDTO songDTO) {
+        boolean filtered = hasText(songDTO.getSongName()) || hasText(songDTO.getArtistName()) || hasText(songDTO.getAlbum());
+        if (filtered) {
+            Page<SongVO> page = new Page<>(songDTO.getPageNum(), songDTO.getPageSize());
+            IPage<SongVO> songPage = songMapper.getSongsByIds(
+                    page,
+                    userId,
+                    favoriteSongIds,
+                    songDTO.getSongName(),
+                    songDTO.getArtistName(),
+                    songDTO.getAlbum()
+            );
+            return new PageResult<>(songPage.getTotal(), new ArrayList<>(songPage.getRecords()));
+        }
+
+        int pageNum = songDTO.getPageNum() == null ? 1 : Math.max(1, songDTO.getPageNum());
+        int pageSize = songDTO.getPageSize() == null ? 20 : Math.max(1, songDTO.getPageSize());
+        int from = Math.min(favoriteSongIds.size(), (pageNum - 1) * pageSize);
+        int to = Math.min(favoriteSongIds.size(), from + pageSize);
+        List<SongVO> songVOList = new ArrayList<>(to - from);
+        for (SongCardVO card : songCardCache.getCards(favoriteSongIds.subList(from, to)).values()) {
+            SongVO songVO = new SongVO();
+            BeanUtils.copyProperties(card, songVO);
+            songVOList.add(songVO);
+        }
+        return new PageResult<>((long) favoriteSongIds.size(), songVOList);
+    }
+
+    private static boolean hasText(String s) {
+        return s != null && !s.trim().isEmpty();
     }
 
     /** 判断是否已关注某歌手 */
@@ -156,7 +196,6 @@ public class UserFavoriteServiceImpl extends ServiceImpl<UserFavoriteMapper, Use
      * @return 成功或失败
      */
     @Override
-    @CacheEvict(cacheNames = {"userFavoriteCache", "songCache", "artistCache", "playlistCache"}, allEntries = true)
     public Result<String> collectSong(Long songId) {
         Map<String, Object> map = ThreadLocalUtil.get();
         Object userIdObj = map.get(JwtClaimsConstant.USER_ID);
@@ -171,7 +210,13 @@ public class UserFavoriteServiceImpl extends ServiceImpl<UserFavoriteMapper, Use
         UserFavorite userFavorite = new UserFavorite();
         userFavorite.setUserId(userId).setType(0).setSongId(songId).setCreateTime(LocalDateTime.now());
         userFavoriteMapper.insert(userFavorite);
+        try { favoriteSongBitmap.onCollected(userId, songId); } catch (Exception ignored) {}
 
+        // 异步增量更新推荐候选集
+        try { recommendationPipeline.onSongCollected(userId, songId); } catch (Exception ignored) {}
+
+        // 只失效该用户的收藏缓存；公共列表/详情不含收藏状态（按请求从收藏位图补充），无需失效
+        cacheInvalidator.evictUser(userId);
         return Result.success(MessageConstant.ADD + MessageConstant.SUCCESS);
     }
 
@@ -182,7 +227,6 @@ public class UserFavoriteServiceImpl extends ServiceImpl<UserFavoriteMapper, Use
      * @return 成功或失败
      */
     @Override
-    @CacheEvict(cacheNames = {"userFavoriteCache", "songCache", "artistCache", "playlistCache"}, allEntries = true)
     public Result<String> cancelCollectSong(Long songId) {
         Map<String, Object> map = ThreadLocalUtil.get();
         Object userIdObj = map.get(JwtClaimsConstant.USER_ID);
@@ -193,7 +237,11 @@ public class UserFavoriteServiceImpl extends ServiceImpl<UserFavoriteMapper, Use
         if (userFavoriteMapper.delete(queryWrapper) == 0) {
             return Result.error(MessageConstant.DELETE + MessageConstant.FAILED);
         }
+        try { favoriteSongBitmap.onUncollected(userId, songId); } catch (Exception ignored) {}
+
+        try { recommendationPipeline.onSongUncollected(userId, songId); } catch (Exception ignored) {}
 
+        cacheInvalidator.evictUser(userId);
         return Result.success(MessageConstant.DELETE + MessageConstant.SUCCESS);
     }
 
@@ -236,7 +284,6 @@ public class UserFavoriteServiceImpl extends ServiceImpl<UserFavoriteMapper, Use
      * @return 成功或失败
      */
     @Override
-    @CacheEvict(cacheNames = {"userFavoriteCache", "songCache", "artistCache", "playlistCache"}, allEntries = true)
     public Result<String> collectPlaylist(Long playlistId) {
         Map<String, Object> map = ThreadLocalUtil.get();
         Object userIdObj = map.get(JwtClaimsConstant.USER_ID);
@@ -252,6 +299,8 @@ public class UserFavoriteServiceImpl extends ServiceImpl<UserFavoriteMapper, Use
         userFavorite.setUserId(userId).setType(1).setPlaylistId(playlistId).setCreateTime(LocalDateTime.now());
         userFavoriteMapper.insert(userFavorite);
 
+        cacheInvalidator.evictUser(userId);
+        cacheInvalidator.evictPlaylist(playlistId);
         return Result.success(MessageConstant.ADD + MessageConstant.SUCCESS);
     }
 
@@ -262,7 +311,6 @@ public class UserFavoriteServiceImpl extends ServiceImpl<UserFavoriteMapper, Use
      * @return 成功或失败
      */
     @Override
-    @CacheEvict(cacheNames = {"userFavoriteCache", "songCache", "artistCache", "playlistCache"}, allEntries = true)
     public Result<String> cancelCollectPlaylist(Long playlistId) {
         Map<String, Object> map = ThreadLocalUtil.get();
         Object userIdObj = map.get(JwtClaimsConstant.USER_ID);
@@ -274,6 +322,8 @@ public class UserFavoriteServiceImpl extends ServiceImpl<UserFavoriteMapper, Use
             return Result.error(MessageConstant.DELETE + MessageConstant.FAILED);
         }
 
+        cacheInvalidator.evictUser(userId);
+        cacheInvalidator.evictPlaylist(playlistId);
         return Result.success(MessageConstant.DELETE + MessageConstant.SUCCESS);
     }
 
@@ -312,7 +362,6 @@ public class UserFavoriteServiceImpl extends ServiceImpl<UserFavoriteMapper, Use
 
     /** 关注歌手 */
     @Override
-    @CacheEvict(cacheNames = {"userFavoriteCache", "artistCache"}, allEntries = true)
     public Result<String> followArtist(Long artistId) {
         Map<String, Object> map = ThreadLocalUtil.get();
         Long userId = TypeConversionUtil.toLong(map.get(JwtClaimsConstant.USER_ID));
@@ -326,12 +375,13 @@ public class UserFavoriteServiceImpl extends ServiceImpl<UserFavoriteMapper, Use
         UserFavorite uf = new UserFavorite();
         uf.setUserId(userId).setType(2).setArtistId(artistId).setCreateTime(LocalDateTime.now());
         userFavoriteMapper.insert(uf);
+        cacheInvalidator.evictUser(userId);
+        cacheInvalidator.evictKey("artistCache", "detail-" + artistId);
         return Result.success(MessageConstant.ADD + MessageConstant.SUCCESS);
     }
 
     /** 取消关注歌手 */
     @Override
-    @CacheEvict(cacheNames = {"userFavoriteCache", "artistCache"}, allEntries = true)
     public Result<String> cancelFollowArtist(Long artistId) {
         Map<String, Object> map = ThreadLocalUtil.get();
         Long userId = TypeConversionUtil.toLong(map.get(JwtClaimsConstant.USER_ID));
@@ -341,12 +391,13 @@ public class UserFavoriteServiceImpl extends ServiceImpl<UserFavoriteMapper, Use
         if (userFavoriteMapper.delete(qw) == 0) {
             return Result.error(MessageConstant.DELETE + MessageConstant.FAILED);
         }
+        cacheInvalidator.evictUser(userId);
+        cacheInvalidator.evictKey("artistCache", "detail-" + artistId);
         return Result.success(MessageConstant.DELETE + MessageConstant.SUCCESS);
     }
 
     /** 收藏专辑 */
     @Override
-    @CacheEvict(cacheNames = {"userFavoriteCache", "albumCache"}, allEntries = true)
     public Result<String> collectAlbum(Long albumId) {
         Map<String, Object> map = ThreadLocalUtil.get();
         Long userId = TypeConversionUtil.toLong(map.get(JwtClaimsConstant.USER_ID));
@@ -360,12 +411,12 @@ public class UserFavoriteServiceImpl extends ServiceImpl<UserFavoriteMapper, Use
         UserFavorite uf = new UserFavorite();
         uf.setUserId(userId).setType(3).setAlbumId(albumId).setCreateTime(LocalDateTime.now());
         userFavoriteMapper.insert(uf);
+        cacheInvalidator.evictUser(userId);
         return Result.success(MessageConstant.ADD + MessageConstant.SUCCESS);
     }
 
     /** 取消收藏专辑 */
     @Override
-    @CacheEvict(cacheNames = {"userFavoriteCache", "albumCache"}, allEntries = true)
     public Result<String> cancelCollectAlbum(Long albumId) {
         Map<String, Object> map = ThreadLocalUtil.get();
         Long userId = TypeConversionUtil.toLong(map.get(JwtClaimsConstant.USER_ID));
@@ -375,6 +426,7 @@ public class UserFavoriteServiceImpl extends ServiceImpl<UserFavoriteMapper, Use
         if (userFavoriteMapper.delete(qw) == 0) {
             return Result.error(MessageConstant.DELETE + MessageConstant.FAILED);
         }
+        cacheInvalidator.evictUser(userId);
         return Result.success(MessageConstant.DELETE + MessageConstant.SUCCESS);
     }
 
@@ -423,17 +475,7 @@ public class UserFavoriteServiceImpl extends ServiceImpl<UserFavoriteMapper, Use
             return Result.success(new PageResult<>(0L, java.util.Collections.emptyList()));
         }
         // 分页查询收藏的歌曲
-        com.baomidou.mybatisplus.extension.plugins.pagination.Page<SongVO> page = new com.baomidou.mybatisplus.extension.plugins.pagination.Page<>(songDTO.getPageNum(), songDTO.getPageSize());
-        com.baomidou.mybatisplus.core.metadata.IPage<SongVO> songPage = songMapper.getSongsByIds(
-                page,
-                userId,
-                favoriteSongIds,
-                songDTO.getSongName(),
-                songDTO.getArtistName(),
-                songDTO.getAlbum()
-        );
-        java.util.List<SongVO> songVOList = songPage.getRecords();
-        return Result.success(new PageResult<>(songPage.getTotal(), songVOList));
+        return Result.success(favoriteSongPage(userId, favoriteSongIds, songDTO));
     }
 
     /** 公开：按 userId 查询其收藏的歌单 */
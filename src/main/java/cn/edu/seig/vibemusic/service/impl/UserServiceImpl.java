@@ -62,6 +62,10 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
     private MinioService minioService;
     @Autowired
     private UserFollowMapper userFollowMapper;
+    @Autowired
+    private cn.edu.seig.vibemusic.util.CacheInvalidator cacheInvalidator;
+    @Autowired
+    private cn.edu.seig.vibemusic.util.TokenSessionCache tokenSessionCache;
 
     /**
      * 发送验证码
@@ -155,6 +159,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
 
             // 将token存入redis
             stringRedisTemplate.opsForValue().set(token, token, 6, TimeUnit.HOURS);
+            tokenSessionCache.register(user.getUserId(), token);
 
             return Result.success(MessageConstant.LOGIN + MessageConstant.SUCCESS, token);
         }
@@ -192,27 +197,13 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
 
         Boolean followedByMe = null;
         try {
-            // 优先从 ThreadLocal（拦截器）读取；若未拦截（公开接口），则从请求头解析 token
+            // 当前登录用户由拦截器写入 ThreadLocal
             Long meId = null;
             try {
                 Map<String, Object> local = ThreadLocalUtil.get();
                 meId = TypeConversionUtil.toLong(local.get(JwtClaimsConstant.USER_ID));
             } catch (Exception ignored) {}
 
-            if (meId == null || meId == 0L) {
-                org.springframework.web.context.request.ServletRequestAttributes attrs = (org.springframework.web.context.request.ServletRequestAttributes) org.springframework.web.context.request.RequestContextHolder.getRequestAttributes();
-                if (attrs != null) {
-                    String token = attrs.getRequest().getHeader("Authorization");
-                    if (token != null && token.startsWith("Bearer ")) token = token.substring(7);
-                    if (token != null && !token.isEmpty()) {
-                        Map<String, Object> claims = JwtUtil.parseToken(token);
-                        if (claims != null) {
-                            meId = TypeConversionUtil.toLong(claims.get(JwtClaimsConstant.USER_ID));
-                        }
-                    }
-                }
-            }
-
             if (meId != null && meId > 0 && !meId.equals(profileUserId)) {
                 followedByMe = userFollowMapper.exists(meId, profileUserId) > 0;
             }
@@ -401,8 +392,10 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
             return Result.error(MessageConstant.UPDATE + MessageConstant.FAILED);
         }
 
-        // 注销token
+        // 注销token：密码已变更，该用户的全部会话均失效
         stringRedisTemplate.delete(token);
+        tokenSessionCache.revokeToken(token);
+        tokenSessionCache.revokeUser(userId);
 
         return Result.success(MessageConstant.UPDATE + MessageConstant.SUCCESS);
     }
@@ -431,6 +424,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
                 new QueryWrapper<User>().eq("id", user.getUserId())) == 0) {
             return Result.error(MessageConstant.PASSWORD + MessageConstant.RESET + MessageConstant.FAILED);
         }
+        // 密码已重置，注销该用户的全部会话
+        tokenSessionCache.revokeUser(user.getUserId());
 
         return Result.success(MessageConstant.PASSWORD + MessageConstant.RESET + MessageConstant.SUCCESS);
     }
@@ -442,10 +437,17 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
      * @return 结果
      */
     @Override
-    @CacheEvict(cacheNames = {"userCache", "userFavoriteCache", "songCache", "artistCache", "playlistCache"}, allEntries = true)
+    @CacheEvict(cacheNames = "userCache", allEntries = true)
     public Result logout(String token) {
+        // 仅失效当前用户的个人缓存，不再清空公共缓存；/user/logout 不经过登录拦截器，用户 id 从 token 解析（须在注销前）
+        try {
+            Map<String, Object> claims = JwtUtil.parseToken(token);
+            cacheInvalidator.evictUser(TypeConversionUtil.toLong(claims.get(JwtClaimsConstant.USER_ID)));
+        } catch (Exception ignored) {}
+
         // 注销token
         Boolean result = stringRedisTemplate.delete(token);
+        tokenSessionCache.revokeToken(token);
         if (result != null && result) {
             return Result.success(MessageConstant.LOGOUT + MessageConstant.SUCCESS);
         } else {
@@ -481,6 +483,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
         if (userMapper.deleteById(userId) == 0) {
             return Result.error(MessageConstant.DELETE + MessageConstant.FAILED);
         }
+        tokenSessionCache.revokeUser(userId);
         return Result.success(MessageConstant.DELETE + MessageConstant.SUCCESS);
     }
 
@@ -691,6 +694,10 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
         if (rows == 0) {
             return Result.error(MessageConstant.UPDATE + MessageConstant.FAILED);
         }
+        // 禁用后立即注销该用户的全部会话
+        if (statusEnum == UserStatusEnum.DISABLE) {
+            tokenSessionCache.revokeUser(userId);
+        }
         return Result.success(MessageConstant.UPDATE + MessageConstant.SUCCESS);
     }
 
@@ -706,6 +713,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
         if (userMapper.deleteById(userId) == 0) {
             return Result.error(MessageConstant.DELETE + MessageConstant.FAILED);
         }
+        tokenSessionCache.revokeUser(userId);
         return Result.success(MessageConstant.DELETE + MessageConstant.SUCCESS);
     }
 
@@ -721,6 +729,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
         if (userMapper.deleteByIds(userIds) == 0) {
             return Result.error(MessageConstant.DELETE + MessageConstant.FAILED);
         }
+        userIds.forEach(tokenSessionCache::revokeUser);
         return Result.success(MessageConstant.DELETE + MessageConstant.SUCCESS);
     }
 
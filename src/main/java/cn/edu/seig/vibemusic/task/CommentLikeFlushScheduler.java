@@ -0,0 +1,32 @@
+package cn.edu.seig.vibemusic.task;
+
+import cn.edu.seig.vibemusic.service.ICommentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 评论点赞写回定时任务：周期性地把 Redis 中缓冲的点赞增量批量写入数据库
+ */
+@Component
+public class CommentLikeFlushScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(CommentLikeFlushScheduler.class);
+
+    @Autowired
+    private ICommentService commentService;
+
+    /**
+     * 上一次写回结束后间隔 comment-like.flush-interval-ms 毫秒再次执行（默认 5 秒）
+     */
+    @Scheduled(fixedDelayString = "${comment-like.flush-interval-ms:5000}", initialDelayString = "${comment-like.flush-interval-ms:5000}")
+    public void flushPendingLikes() {
+        try {
+            commentService.flushPendingLikes();
+        } catch (Exception e) {
+            log.error("[CommentLike] Flush failed, pending deltas will be replayed next round.", e);
+        }
+    }
+}
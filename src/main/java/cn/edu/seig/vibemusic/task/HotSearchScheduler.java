@@ -8,7 +8,7 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 /**
- * 热搜榜定时任务：每日 0 点清空
+ * 热搜榜定时任务：周期性地由滑动窗口重新计算快照（分桶滑出窗口后自然过期，不再每日清空）
  */
 @Component
 public class HotSearchScheduler {
@@ -19,17 +19,14 @@ public class HotSearchScheduler {
     private HotSearchService hotSearchService;
 
     /**
-     * 每日 0 点执行（服务器时区）
+     * 每隔 hot-search.refresh-interval-ms 毫秒刷新一次（默认 1 分钟），启动后立即执行一次
      */
-    @Scheduled(cron = "0 0 0 * * *")
-    public void clearDailyHotSearch() {
+    @Scheduled(fixedDelayString = "${hot-search.refresh-interval-ms:60000}")
+    public void refreshSnapshot() {
         try {
-            hotSearchService.clearAll();
-            log.info("[HotSearch] Daily clear executed.");
+            hotSearchService.refreshSnapshot();
         } catch (Exception e) {
-            log.error("[HotSearch] Daily clear failed.", e);
+            log.error("[HotSearch] Snapshot refresh failed.", e);
         }
     }
 }
-
-
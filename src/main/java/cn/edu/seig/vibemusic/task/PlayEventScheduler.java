@@ -0,0 +1,44 @@
+package cn.edu.seig.vibemusic.task;
+
+import cn.edu.seig.vibemusic.service.PlayChartService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 播放事件定时任务：周期性地把采集队列写入 Stream 并聚合，以及重新计算飙升榜
+ */
+@Component
+public class PlayEventScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(PlayEventScheduler.class);
+
+    @Autowired
+    private PlayChartService playChartService;
+
+    /**
+     * 上一次聚合结束后间隔 play-event.ingest-interval-ms 毫秒再次执行（默认 1 秒）
+     */
+    @Scheduled(fixedDelayString = "${play-event.ingest-interval-ms:1000}", initialDelayString = "${play-event.ingest-interval-ms:1000}")
+    public void ingest() {
+        try {
+            playChartService.ingest();
+        } catch (Exception e) {
+            log.error("[PlayEvent] Ingest failed.", e);
+        }
+    }
+
+    /**
+     * 每隔 play-event.trending-refresh-ms 毫秒重新计算飙升榜（默认 1 分钟）
+     */
+    @Scheduled(fixedDelayString = "${play-event.trending-refresh-ms:60000}", initialDelayString = "${play-event.ingest-interval-ms:1000}")
+    public void refreshTrending() {
+        try {
+            playChartService.refreshTrending();
+        } catch (Exception e) {
+            log.error("[PlayEvent] Trending chart refresh failed.", e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package cn.edu.seig.vibemusic.task;
+
+import cn.edu.seig.vibemusic.service.IRecentPlayService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 最近播放归档定时任务：周期性地把最近播放有变化的用户同步到 tb_user_recent_play
+ */
+@Component
+public class RecentPlayArchiveScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(RecentPlayArchiveScheduler.class);
+
+    @Autowired
+    private IRecentPlayService recentPlayService;
+
+    /**
+     * 上一次归档结束后间隔 recent-play.archive-interval-ms 毫秒再次执行（默认 5 秒）
+     */
+    @Scheduled(fixedDelayString = "${recent-play.archive-interval-ms:5000}", initialDelayString = "${recent-play.archive-interval-ms:5000}")
+    public void flushArchive() {
+        try {
+            recentPlayService.flushArchive();
+        } catch (Exception e) {
+            log.error("[RecentPlay] Archive flush failed.", e);
+        }
+    }
+}
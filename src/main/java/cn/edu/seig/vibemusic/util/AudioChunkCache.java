@@ -0,0 +1,125 @@
+package cn.edu.seig.vibemusic.util;
+
+import cn.edu.seig.vibemusic.service.MinioService;
+import cn.edu.seig.vibemusic.service.MinioService.ObjectStat;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 音频分块的本地磁盘缓存。
+ * 对象按固定大小切块，每块首次被请求时从 MinIO 按 offset/length 读取并写入本地文件，之后直接读本地文件；
+ * 按总字节数做 LRU 淘汰（淘汰时删除文件）。同一块并发未命中时只下载一次。
+ * 对象名带 UUID，替换音频会生成新对象，缓存块不会过期失效。
+ */
+@Component
+public class AudioChunkCache {
+
+    private static final Logger log = LoggerFactory.getLogger(AudioChunkCache.class);
+
+    private final MinioService minioService;
+    private final Path dir;
+    private final long chunkSize;
+    // objectKey:chunkIndex -> 本地文件
+    private final Cache<String, Path> chunks;
+    // 文件 URL -> 对象元信息
+    private final Cache<String, ObjectStat> stats = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(10, TimeUnit.MINUTES)
+            .build();
+
+    @Autowired
+    public AudioChunkCache(MinioService minioService,
+                           @Value("${audio-stream.cache-dir:${java.io.tmpdir}/vibe-audio-cache}") String cacheDir,
+                           @Value("${audio-stream.chunk-size-kb:1024}") long chunkSizeKb,
+                           @Value("${audio-stream.max-cache-mb:2048}") long maxCacheMb) throws IOException {
+        this.minioService = minioService;
+        this.dir = Paths.get(cacheDir);
+        this.chunkSize = Math.max(64, chunkSizeKb) * 1024;
+        // 上次运行留下的块文件不在缓存索引中，启动时删除
+        clearDirectory(dir);
+        Files.createDirectories(dir);
+        this.chunks = Caffeine.newBuilder()
+                .maximumWeight(Math.max(1, maxCacheMb) * 1024)
+                // 权重单位为 KB
+                .weigher((String key, Path path) -> (int) Math.max(1, path.toFile().length() / 1024))
+                .removalListener((String key, Path path, RemovalCause cause) -> {
+                    // 正在发送的块已打开文件通道，删除不影响本次传输
+                    if (path != null) {
+                        try { Files.deleteIfExists(path); } catch (IOException ignored) {}
+                    }
+                })
+                .build();
+    }
+
+    public long chunkSize() {
+        return chunkSize;
+    }
+
+    /** 查询音频对象元信息（短时缓存） */
+    public ObjectStat stat(String audioUrl) {
+        return stats.get(audioUrl, minioService::statObject);
+    }
+
+    /**
+     * 获取对象的第 index 块对应的本地文件，未命中时从 MinIO 读取
+     *
+     * @param stat  对象元信息
+     * @param index 块序号（从 0 开始）
+     */
+    public Path chunk(ObjectStat stat, long index) {
+        return chunks.get(key(stat, index), key -> download(stat, index));
+    }
+
+    /**
+     * 丢弃已失效的块（文件已不存在），下次 chunk 时重新下载。
+     * 仅当该块仍指向 stale 时移除，不影响其他线程已重新加载的文件。
+     */
+    public void invalidate(ObjectStat stat, long index, Path stale) {
+        chunks.asMap().remove(key(stat, index), stale);
+    }
+
+    private static String key(ObjectStat stat, long index) {
+        return stat.objectKey() + ":" + index;
+    }
+
+    private Path download(ObjectStat stat, long index) {
+        long offset = index * chunkSize;
+        long length = Math.min(chunkSize, stat.size() - offset);
+        Path target = dir.resolve(UUID.randomUUID() + ".chunk");
+        Path tmp = dir.resolve(target.getFileName() + ".part");
+        try (InputStream in = minioService.getObjectRange(stat.objectKey(), offset, length)) {
+            Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            return target;
+        } catch (IOException e) {
+            try { Files.deleteIfExists(tmp); } catch (IOException ignored) {}
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** 只删除本缓存生成的 *.chunk / *.part 文件，不递归、不跟随符号链接，目录中的其他内容保持不变 */
+    private static void clearDirectory(Path dir) {
+        if (!Files.isDirectory(dir)) return;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.{chunk,part}")) {
+            for (Path p : files) {
+                if (!Files.isRegularFile(p, LinkOption.NOFOLLOW_LINKS)) continue;
+                try { Files.deleteIfExists(p); } catch (IOException ignored) {}
+            }
+        } catch (IOException e) {
+            log.warn("[AudioChunkCache] Failed to clear cache directory {}: {}", dir, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package cn.edu.seig.vibemusic.util;
+
+import cn.edu.seig.vibemusic.config.DependencyTrackingCacheManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * 按实体精确失效 Spring Cache 条目（替代 @CacheEvict(allEntries = true)）。
+ * 依赖关系由 DependencyTrackingCacheManager 在写入缓存时记录。
+ */
+@Component
+public class CacheInvalidator {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidator.class);
+
+    @Autowired
+    private DependencyTrackingCacheManager cacheManager;
+
+    /** 失效包含该歌曲的详情与列表 */
+    public void evictSong(Long songId) {
+        if (songId != null) evictTag("song:" + songId);
+    }
+
+    public void evictSongs(Collection<Long> songIds) {
+        if (songIds == null) return;
+        songIds.forEach(this::evictSong);
+    }
+
+    /** 失效该歌手的详情，以及包含其歌曲/专辑的条目 */
+    public void evictArtist(Long artistId) {
+        if (artistId != null) evictTag("artist:" + artistId);
+    }
+
+    public void evictAlbum(Long albumId) {
+        if (albumId != null) evictTag("album:" + albumId);
+    }
+
+    public void evictPlaylist(Long playlistId) {
+        if (playlistId != null) evictTag("playlist:" + playlistId);
+    }
+
+    /** 失效某用户的个人缓存（收藏/关注等） */
+    public void evictUser(Long userId) {
+        if (userId != null) evictTag("user:" + userId);
+    }
+
+    /** 失效指定缓存中的全部分页/列表条目（新增、重命名等会改变列表成员的写操作） */
+    public void evictLists(String... cacheNames) {
+        for (String cacheName : cacheNames) {
+            evictTag("list:" + cacheName);
+        }
+    }
+
+    /** 失效单个条目 */
+    public void evictKey(String cacheName, Object key) {
+        if (key == null) return;
+        try {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) cache.evict(key);
+        } catch (Exception e) {
+            log.warn("[CacheInvalidator] Evict {}::{} failed: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    private void evictTag(String tag) {
+        try {
+            cacheManager.evictTag(tag);
+        } catch (Exception e) {
+            log.warn("[CacheInvalidator] Evict tag {} failed: {}", tag, e.getMessage());
+        }
+    }
+}
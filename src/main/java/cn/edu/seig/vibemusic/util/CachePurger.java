@@ -1,14 +1,35 @@
 package cn.edu.seig.vibemusic.util;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * 自定义 Redis Key（推荐候选集等）的清理。
+ * 不使用 KEYS：前缀清理走 SCAN 游标 + 分批 UNLINK（后台释放内存）；
+ * 删除歌曲/歌手时只从已登记用户的候选集中 ZREM 对应歌曲，不再清空所有用户的推荐。
+ */
 @Component
 public class CachePurger {
 
+    private static final Logger log = LoggerFactory.getLogger(CachePurger.class);
+
+    // SCAN 每次返回的建议数量 / 每批 UNLINK、ZREM 的数量
+    private static final int SCAN_COUNT = 500;
+    private static final int BATCH_SIZE = 500;
+
     private final StringRedisTemplate stringRedisTemplate;
 
     @Autowired
@@ -16,35 +37,73 @@ public class CachePurger {
         this.stringRedisTemplate = stringRedisTemplate;
     }
 
-    // 通用：按前缀批量删除
+    // 通用：按前缀批量删除（SCAN 非阻塞遍历，分批 UNLINK）；跳过正在重建的临时键，否则重建最后的 RENAME 会因键不存在而失败
     private void deleteByPrefix(String prefix) {
         if (prefix == null || prefix.isEmpty()) return;
-        Set<String> keys = stringRedisTemplate.keys(prefix + "*");
-        if (keys != null && !keys.isEmpty()) {
-            stringRedisTemplate.delete(keys);
+        ScanOptions options = ScanOptions.scanOptions().match(prefix + "*").count(SCAN_COUNT).build();
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                String key = cursor.next();
+                if (key.contains(RecommendationPipeline.TMP_KEY_MARKER)) continue;
+                batch.add(key);
+                if (batch.size() >= BATCH_SIZE) {
+                    stringRedisTemplate.unlink(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            stringRedisTemplate.unlink(batch);
         }
     }
 
-    // 删除与用户推荐/榜单等有关的列表缓存
-    private void purgeRecommendationLists() {
-        deleteByPrefix("recommended_songs:");
+    /** 清空全部用户的推荐数据（下次访问时后台重建），用于批量导入等会引入新候选的场景 */
+    public void purgeRecommendations() {
+        deleteByPrefix(RecommendationPipeline.CANDIDATE_KEY_PREFIX);
+        deleteByPrefix(RecommendationPipeline.STYLE_KEY_PREFIX);
+        stringRedisTemplate.delete(RecommendationPipeline.USER_REGISTRY_KEY);
     }
 
-    public void purgeForArtist(Long artistId) {
-        purgeRecommendationLists();
+    public void purgeForSong(Long songId) {
+        if (songId != null) purgeForSongs(List.of(songId));
     }
 
-    public void purgeForAlbum(Long albumId) {
-        purgeRecommendationLists();
-    }
+    /** 从所有已登记用户的候选集中移除给定歌曲（pipeline 分批 ZREM） */
+    public void purgeForSongs(Collection<Long> songIds) {
+        if (songIds == null || songIds.isEmpty()) return;
+        String registryKey = RecommendationPipeline.USER_REGISTRY_KEY;
+        // 候选集已过期的用户无需处理，顺带从登记表中移除
+        long expiredBefore = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(RecommendationPipeline.TTL_DAYS);
+        stringRedisTemplate.opsForZSet().removeRangeByScore(registryKey, 0, expiredBefore);
+        Set<String> userIds = stringRedisTemplate.opsForZSet().range(registryKey, 0, -1);
+        if (userIds == null || userIds.isEmpty()) return;
 
-    public void purgeForSong(Long songId) {
-        purgeRecommendationLists();
+        byte[][] members = songIds.stream()
+                .map(id -> String.valueOf(id).getBytes(StandardCharsets.UTF_8))
+                .toArray(byte[][]::new);
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        for (String userId : userIds) {
+            batch.add(userId);
+            if (batch.size() >= BATCH_SIZE) {
+                zremBatch(batch, members);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) zremBatch(batch, members);
     }
 
-    public void purgeForPlaylist(Long playlistId) {
-        purgeRecommendationLists();
+    private void zremBatch(List<String> userIds, byte[][] members) {
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String userId : userIds) {
+                    byte[] key = (RecommendationPipeline.CANDIDATE_KEY_PREFIX + userId).getBytes(StandardCharsets.UTF_8);
+                    connection.zSetCommands().zRem(key, members);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("[CachePurger] Remove songs from candidates failed, users={}: {}", userIds.size(), e.getMessage());
+        }
     }
 }
-
-
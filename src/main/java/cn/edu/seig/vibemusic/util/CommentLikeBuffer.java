@@ -0,0 +1,187 @@
+package cn.edu.seig.vibemusic.util;
+
+import cn.edu.seig.vibemusic.constant.RedisKeyConstant;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 评论点赞数的写缓冲（write-behind）。
+ * 点赞/取消点赞只对 Redis Hash 做 HINCRBY，由定时任务批量合并写回 MySQL，热门评论不再在同一行锁上排队。
+ * 写回流程（崩溃安全）：
+ * 1. 获取分布式锁，保证同一时刻只有一个节点写回；
+ * 2. 若上次写回中断遗留了 flushing Hash，先重放它；否则把 pending Hash RENAME 为 flushing（原子交接，新的点赞写入新的 pending）；
+ *    flushing Hash 内记录本轮的轮次 id，重放时沿用同一个 id；
+ * 3. 每批写库前校验并续期锁；写库时在同一事务中记录（轮次 id, 评论 id），重放时跳过已落库的评论，
+ *    因此写库成功但 HDEL 前崩溃不会重复累加；
+ * 4. 全部确认后删除 flushing Hash，再清理本轮的写库记录。
+ * 读取时合并 pending 与 flushing 中尚未落库的增量。
+ * 一致性窗口：每批提交后，删除已落库字段与递增分页缓存版本号在同一个 Lua 脚本中完成，
+ * 因此不会出现"增量已删除、分页缓存仍是旧点赞数"（少计）的中间状态；
+ * 但事务提交与该脚本之间仍有一次 Redis 往返，期间未命中缓存、直接读库的请求会把已落库的增量再加一次（短暂多计），
+ * 脚本执行后即恢复一致。不把删除提前到提交前，是因为那样在提交前崩溃会丢失增量。
+ */
+@Component
+public class CommentLikeBuffer {
+
+    // 写回锁的超时时间，需长于单批写回耗时（每批写库前续期）
+    private static final long LOCK_TTL_SECONDS = 60;
+    // flushing Hash 中保存轮次 id 的字段（评论 id 均为数字，不会冲突）
+    private static final String ROUND_FIELD = "round";
+    // 锁仍属于自己时续期
+    private static final DefaultRedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('expire', KEYS[1], ARGV[2]) else return 0 end",
+            Long.class);
+    // 删除已落库的字段并递增相关目标的版本号（KEYS[1] 为 flushing，其余为版本号 key；ARGV[1] 为版本号过期秒数，其余为字段）
+    private static final DefaultRedisScript<Long> ACKNOWLEDGE_SCRIPT = new DefaultRedisScript<>(
+            "for i = 2, #ARGV do redis.call('hdel', KEYS[1], ARGV[i]) end " +
+                    "for i = 2, #KEYS do redis.call('incr', KEYS[i]) redis.call('expire', KEYS[i], ARGV[1]) end " +
+                    "return 1",
+            Long.class);
+    // 锁仍属于自己时释放
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    /** 累加点赞增量（+1 点赞 / -1 取消） */
+    public void add(Long commentId, long delta) {
+        stringRedisTemplate.opsForHash().increment(RedisKeyConstant.COMMENT_LIKE_PENDING, String.valueOf(commentId), delta);
+    }
+
+    /**
+     * 查询一批评论尚未落库的点赞增量
+     *
+     * @param commentIds 评论id
+     * @return commentId -> 增量，仅包含增量不为 0 的评论
+     */
+    public Map<Long, Long> pendingDeltas(Collection<Long> commentIds) {
+        if (commentIds == null || commentIds.isEmpty()) return Map.of();
+        List<Object> fields = new ArrayList<>(commentIds.size());
+        for (Long id : commentIds) {
+            fields.add(String.valueOf(id));
+        }
+        List<Object> pending = stringRedisTemplate.opsForHash().multiGet(RedisKeyConstant.COMMENT_LIKE_PENDING, fields);
+        List<Object> flushing = stringRedisTemplate.opsForHash().multiGet(RedisKeyConstant.COMMENT_LIKE_FLUSHING, fields);
+        Map<Long, Long> deltas = new HashMap<>();
+        int i = 0;
+        for (Long id : commentIds) {
+            long delta = toLong(pending.get(i)) + toLong(flushing.get(i));
+            if (delta != 0) deltas.put(id, delta);
+            i++;
+        }
+        return deltas;
+    }
+
+    /**
+     * 开始一轮写回：获取锁并取出待写回的增量
+     *
+     * @return 写回令牌与增量；未获取到锁或没有增量时返回 null
+     */
+    public Flush beginFlush() {
+        String token = UUID.randomUUID().toString();
+        Boolean locked = stringRedisTemplate.opsForValue()
+                .setIfAbsent(RedisKeyConstant.COMMENT_LIKE_FLUSH_LOCK, token, LOCK_TTL_SECONDS, TimeUnit.SECONDS);
+        if (!Boolean.TRUE.equals(locked)) return null;
+
+        // 有遗留的 flushing 时先重放，不接收新的 pending
+        if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(RedisKeyConstant.COMMENT_LIKE_FLUSHING))) {
+            if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(RedisKeyConstant.COMMENT_LIKE_PENDING))
+                    || !Boolean.TRUE.equals(stringRedisTemplate.renameIfAbsent(
+                    RedisKeyConstant.COMMENT_LIKE_PENDING, RedisKeyConstant.COMMENT_LIKE_FLUSHING))) {
+                releaseLock(token);
+                return null;
+            }
+        }
+
+        // 重放时保留原轮次 id，已落库的评论据此跳过
+        stringRedisTemplate.opsForHash().putIfAbsent(RedisKeyConstant.COMMENT_LIKE_FLUSHING, ROUND_FIELD, UUID.randomUUID().toString());
+        String flushId = null;
+        Map<Long, Long> deltas = new HashMap<>();
+        for (Map.Entry<Object, Object> entry : stringRedisTemplate.opsForHash().entries(RedisKeyConstant.COMMENT_LIKE_FLUSHING).entrySet()) {
+            if (ROUND_FIELD.equals(entry.getKey())) {
+                flushId = String.valueOf(entry.getValue());
+                continue;
+            }
+            long delta = toLong(entry.getValue());
+            if (delta != 0) deltas.put(Long.valueOf(entry.getKey().toString()), delta);
+        }
+        if (deltas.isEmpty() || flushId == null) {
+            stringRedisTemplate.delete(RedisKeyConstant.COMMENT_LIKE_FLUSHING);
+            releaseLock(token);
+            return null;
+        }
+        return new Flush(token, flushId, deltas);
+    }
+
+    /**
+     * 校验写回锁仍由本轮持有并续期，每批写库前调用
+     *
+     * @return 锁已过期或被其他节点持有时返回 false，调用方应停止写回
+     */
+    public boolean renew(Flush flush) {
+        Long renewed = stringRedisTemplate.execute(RENEW_SCRIPT,
+                List.of(RedisKeyConstant.COMMENT_LIKE_FLUSH_LOCK), flush.token(), String.valueOf(LOCK_TTL_SECONDS));
+        return renewed != null && renewed > 0;
+    }
+
+    /**
+     * 确认一批增量已写入数据库：删除对应字段（读取时不再合并），并在同一脚本中递增相关目标的分页缓存版本号
+     *
+     * @param commentIds     已落库的评论id
+     * @param versionKeys    需要递增的版本号 key
+     * @param versionTtlSecs 版本号过期时间（秒）
+     */
+    public void acknowledge(Collection<Long> commentIds, Collection<String> versionKeys, long versionTtlSecs) {
+        if (commentIds == null || commentIds.isEmpty()) return;
+        List<String> keys = new ArrayList<>(versionKeys.size() + 1);
+        keys.add(RedisKeyConstant.COMMENT_LIKE_FLUSHING);
+        keys.addAll(versionKeys);
+        Object[] args = new Object[commentIds.size() + 1];
+        args[0] = String.valueOf(versionTtlSecs);
+        int i = 1;
+        for (Long id : commentIds) {
+            args[i++] = String.valueOf(id);
+        }
+        stringRedisTemplate.execute(ACKNOWLEDGE_SCRIPT, keys, args);
+    }
+
+    /**
+     * 本轮增量全部确认后删除 flushing Hash（只剩轮次 id），之后才能清理本轮的写库记录
+     *
+     * @return 锁已丢失时返回 false，flushing 留给持锁节点处理
+     */
+    public boolean complete(Flush flush) {
+        if (!renew(flush)) return false;
+        stringRedisTemplate.delete(RedisKeyConstant.COMMENT_LIKE_FLUSHING);
+        return true;
+    }
+
+    /** 结束本轮写回，释放锁 */
+    public void endFlush(Flush flush) {
+        if (flush != null) releaseLock(flush.token());
+    }
+
+    private void releaseLock(String token) {
+        stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(RedisKeyConstant.COMMENT_LIKE_FLUSH_LOCK), token);
+    }
+
+    private static long toLong(Object value) {
+        if (value == null) return 0L;
+        try {
+            return Long.parseLong(value.toString());
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    /** 一轮写回：锁令牌 + 轮次 id + 待写回增量（commentId -> delta） */
+    public record Flush(String token, String flushId, Map<Long, Long> deltas) {
+    }
+}
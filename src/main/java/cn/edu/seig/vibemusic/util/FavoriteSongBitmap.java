@@ -0,0 +1,202 @@
+package cn.edu.seig.vibemusic.util;
+
+import cn.edu.seig.vibemusic.constant.JwtClaimsConstant;
+import cn.edu.seig.vibemusic.enumeration.LikeStatusEnum;
+import cn.edu.seig.vibemusic.enumeration.RoleEnum;
+import cn.edu.seig.vibemusic.mapper.UserFavoriteMapper;
+import cn.edu.seig.vibemusic.model.vo.SongVO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.BitFieldSubCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户收藏歌曲的 Redis 位图（fav:song:{userId}，第 songId 位为 1 表示已收藏），用于列表/详情的 likeStatus 标记。
+ * 一页歌曲只需一条 BITFIELD 批量探测，不再每次加载用户的全部收藏记录。
+ * - 第 0 位为“已构建”标记（歌曲 id 从 1 开始）：未构建或已过期时从数据库加载一次；
+ * - 收藏/取消收藏时递增用户的版本号，并在位图已构建时置位/清位（Lua 原子执行）；
+ * - 构建时先记下版本号再读库，写入临时键后仅在版本号未变时 RENAME 为正式键，
+ *   读库与发布之间发生的收藏变更会使本次构建作废，由下次读取重新加载，不会被旧数据覆盖。
+ * 同一用户的键使用相同的 hash tag，集群模式下落在同一个槽。
+ */
+@Component
+public class FavoriteSongBitmap {
+
+    private static final Logger log = LoggerFactory.getLogger(FavoriteSongBitmap.class);
+
+    private static final String KEY_PREFIX = "fav:song:";
+    private static final long TTL_DAYS = 7;
+    // 构建中临时键的过期时间，进程在发布前崩溃时自动清理
+    private static final long BUILD_TMP_TTL_SECONDS = 60;
+    // 递增版本号；位图已构建时同步置位/清位
+    private static final DefaultRedisScript<Long> MUTATE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('incr', KEYS[2]) " +
+            "redis.call('expire', KEYS[2], ARGV[3]) " +
+            "if redis.call('getbit', KEYS[1], 0) == 1 then redis.call('setbit', KEYS[1], ARGV[1], ARGV[2]) end " +
+            "return 1",
+            Long.class);
+    // 版本号未变时把临时键发布为正式位图，否则丢弃
+    private static final DefaultRedisScript<Long> PUBLISH_SCRIPT = new DefaultRedisScript<>(
+            "local v = redis.call('get', KEYS[3]) or '' " +
+            "if v ~= ARGV[1] then redis.call('del', KEYS[1]) return 0 end " +
+            "redis.call('rename', KEYS[1], KEYS[2]) " +
+            "redis.call('expire', KEYS[2], ARGV[2]) " +
+            "return 1",
+            Long.class);
+    // 单条 BITFIELD 携带的 GET 子命令数量上限
+    private static final int PROBE_BATCH_SIZE = 512;
+    private static final BitFieldSubCommands.BitFieldType BIT = BitFieldSubCommands.BitFieldType.unsigned(1);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private UserFavoriteMapper userFavoriteMapper;
+
+    /**
+     * 返回给定歌曲中该用户已收藏的歌曲 id
+     *
+     * @param userId  用户id
+     * @param songIds 待探测的歌曲id
+     * @return 已收藏的歌曲id
+     */
+    public Set<Long> likedAmong(Long userId, Collection<Long> songIds) {
+        if (userId == null || songIds == null || songIds.isEmpty()) return Set.of();
+        List<Long> ids = new ArrayList<>(songIds.size());
+        for (Long id : songIds) {
+            if (id != null && id > 0) ids.add(id);
+        }
+        if (ids.isEmpty()) return Set.of();
+
+        String key = bitmapKey(userId);
+        try {
+            Set<Long> liked = new HashSet<>();
+            for (int i = 0; i < ids.size(); i += PROBE_BATCH_SIZE) {
+                List<Long> batch = ids.subList(i, Math.min(i + PROBE_BATCH_SIZE, ids.size()));
+                // 第一个子命令读取构建标记
+                BitFieldSubCommands commands = BitFieldSubCommands.create().get(BIT).valueAt(0);
+                for (Long id : batch) {
+                    commands = commands.get(BIT).valueAt(id);
+                }
+                List<Long> bits = stringRedisTemplate.opsForValue().bitField(key, commands);
+                if (bits == null || bits.isEmpty() || bits.get(0) == 0L) {
+                    return intersect(build(userId), ids);
+                }
+                for (int j = 0; j < batch.size(); j++) {
+                    if (bits.get(j + 1) == 1L) liked.add(batch.get(j));
+                }
+            }
+            return liked;
+        } catch (Exception e) {
+            log.warn("[FavoriteSongBitmap] Probe failed, userId={}: {}", userId, e.getMessage());
+            return intersect(new HashSet<>(userFavoriteMapper.getFavoriteSongIdsByUserId(userId)), ids);
+        }
+    }
+
+    /**
+     * 为歌曲列表补充当前登录用户的收藏状态。
+     * 传入的列表通常来自共享缓存，这里返回副本，缓存中始终是与用户无关的数据。
+     *
+     * @param songs 歌曲列表
+     * @return 带 likeStatus 的歌曲副本；未登录或非普通用户时均为默认状态
+     */
+    public List<SongVO> withLikeStatus(List<SongVO> songs) {
+        List<SongVO> result = new ArrayList<>(songs == null ? 0 : songs.size());
+        if (songs == null || songs.isEmpty()) return result;
+        Long userId = currentUserId();
+        Set<Long> liked = userId == null ? Set.of() : likedAmong(userId, songs.stream().map(SongVO::getSongId).toList());
+        for (SongVO song : songs) {
+            SongVO copy = new SongVO();
+            BeanUtils.copyProperties(song, copy);
+            copy.setLikeStatus(liked.contains(song.getSongId()) ? LikeStatusEnum.LIKE.getId() : LikeStatusEnum.DEFAULT.getId());
+            result.add(copy);
+        }
+        return result;
+    }
+
+    /** 当前登录的普通用户 id（拦截器已解析 token 并写入 ThreadLocal），未登录或管理员时为 null */
+    private static Long currentUserId() {
+        Map<String, Object> map = ThreadLocalUtil.get();
+        if (map == null || !RoleEnum.USER.getRole().equals(map.get(JwtClaimsConstant.ROLE))) return null;
+        Object userIdObj = map.get(JwtClaimsConstant.USER_ID);
+        return userIdObj == null ? null : TypeConversionUtil.toLong(userIdObj);
+    }
+
+    /** 判断单首歌曲是否已收藏 */
+    public boolean isLiked(Long userId, Long songId) {
+        if (songId == null) return false;
+        return likedAmong(userId, List.of(songId)).contains(songId);
+    }
+
+    /** 收藏歌曲后调用（数据库已写入） */
+    public void onCollected(Long userId, Long songId) {
+        setBitIfBuilt(userId, songId, true);
+    }
+
+    /** 取消收藏后调用（数据库已删除） */
+    public void onUncollected(Long userId, Long songId) {
+        setBitIfBuilt(userId, songId, false);
+    }
+
+    private void setBitIfBuilt(Long userId, Long songId, boolean value) {
+        if (userId == null || songId == null || songId <= 0) return;
+        String key = bitmapKey(userId);
+        try {
+            stringRedisTemplate.execute(MUTATE_SCRIPT, List.of(key, versionKey(userId)),
+                    String.valueOf(songId), value ? "1" : "0", String.valueOf(TimeUnit.DAYS.toSeconds(TTL_DAYS)));
+        } catch (Exception e) {
+            // 写入失败时删除位图，下次读取重新从数据库构建
+            try { stringRedisTemplate.delete(key); } catch (Exception ignored) {}
+        }
+    }
+
+    /**
+     * 从数据库加载用户收藏的歌曲，写入临时位图并设置构建标记，版本号未变时发布为正式位图。
+     * 返回的是数据库中的收藏集合，发布被放弃时本次请求仍使用它。
+     */
+    private Set<Long> build(Long userId) {
+        String versionKey = versionKey(userId);
+        String observed = stringRedisTemplate.opsForValue().get(versionKey);
+        Set<Long> songIds = new HashSet<>(userFavoriteMapper.getFavoriteSongIdsByUserId(userId));
+        String tmpKey = bitmapKey(userId) + ":tmp:" + UUID.randomUUID();
+        byte[] tmp = tmpKey.getBytes(StandardCharsets.UTF_8);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Long songId : songIds) {
+                if (songId != null && songId > 0) connection.stringCommands().setBit(tmp, songId, true);
+            }
+            connection.stringCommands().setBit(tmp, 0, true);
+            connection.keyCommands().expire(tmp, BUILD_TMP_TTL_SECONDS);
+            return null;
+        });
+        Long published = stringRedisTemplate.execute(PUBLISH_SCRIPT, List.of(tmpKey, bitmapKey(userId), versionKey),
+                observed == null ? "" : observed, String.valueOf(TimeUnit.DAYS.toSeconds(TTL_DAYS)));
+        if (published == null || published == 0L) {
+            log.debug("[FavoriteSongBitmap] Favorites changed during build, discarded, userId={}", userId);
+        }
+        return songIds;
+    }
+
+    private static String bitmapKey(Long userId) {
+        return KEY_PREFIX + "{" + userId + "}";
+    }
+
+    private static String versionKey(Long userId) {
+        return bitmapKey(userId) + ":ver";
+    }
+
+    private static Set<Long> intersect(Set<Long> liked, List<Long> ids) {
+        Set<Long> result = new HashSet<>();
+        for (Long id : ids) {
+            if (liked.contains(id)) result.add(id);
+        }
+        return result;
+    }
+}
@@ -1,9 +1,19 @@
 package cn.edu.seig.vibemusic.util;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HexFormat;
 import java.util.Map;
 
 /**
@@ -16,6 +26,19 @@ public class JwtUtil {
     // 设置 JWT 的过期时间 6 小时
     private static final long EXPIRATION_TIME = 1000 * 60 * 60 * 6;
 
+    // 算法与校验器均线程安全，全局复用
+    private static final Algorithm ALGORITHM = Algorithm.HMAC256(SECRET_KEY);
+    private static final JWTVerifier VERIFIER = JWT.require(ALGORITHM).build();
+
+    // 已校验 token 的解析结果缓存：key 为 token 的 SHA-256，不在内存中保留原始 token
+    private static final Cache<String, VerifiedClaims> CLAIMS_CACHE = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(5))
+            .build();
+
+    private record VerifiedClaims(Map<String, Object> claims, long expiresAt) {
+    }
+
     /**
      * 生成 JWT token
      *
@@ -26,21 +49,56 @@ public class JwtUtil {
         return JWT.create()
                 .withClaim("claims", claims) // 自定义的业务数据
                 .withExpiresAt(new Date(System.currentTimeMillis() + EXPIRATION_TIME)) // 设置过期时间
-                .sign(Algorithm.HMAC256(SECRET_KEY)); // 使用 HMAC256 算法加密
+                .sign(ALGORITHM); // 使用 HMAC256 算法加密
     }
 
     /**
-     * 解析 JWT token
+     * 解析 JWT token（同一 token 短时间内重复解析时直接返回缓存结果）
      *
      * @param token JWT token
-     * @return 自定义的业务数据
+     * @return 自定义的业务数据（只读）
      */
     public static Map<String, Object> parseToken(String token) {
-        return JWT.require(Algorithm.HMAC256(SECRET_KEY))
-                .build()
-                .verify(token)
-                .getClaim("claims")
-                .asMap();
+        String cacheKey = tokenHash(token);
+        VerifiedClaims cached = CLAIMS_CACHE.getIfPresent(cacheKey);
+        if (cached != null) {
+            if (cached.expiresAt() > System.currentTimeMillis()) {
+                return cached.claims();
+            }
+            CLAIMS_CACHE.invalidate(cacheKey);
+        }
+
+        DecodedJWT jwt = VERIFIER.verify(token);
+        Map<String, Object> claims = Collections.unmodifiableMap(jwt.getClaim("claims").asMap());
+        long expiresAt = jwt.getExpiresAt() == null ? Long.MAX_VALUE : jwt.getExpiresAt().getTime();
+        CLAIMS_CACHE.put(cacheKey, new VerifiedClaims(claims, expiresAt));
+        return claims;
+    }
+
+    /**
+     * 获取 token 的过期时间（毫秒时间戳），不校验签名，仅用于已校验过的 token
+     *
+     * @param token JWT token
+     * @return 过期时间；未设置时返回 Long.MAX_VALUE
+     */
+    public static long getExpiresAt(String token) {
+        Date expiresAt = JWT.decode(token).getExpiresAt();
+        return expiresAt == null ? Long.MAX_VALUE : expiresAt.getTime();
+    }
+
+    /**
+     * token 的 SHA-256 摘要（十六进制），用作本地缓存与失效消息中的 token 标识
+     *
+     * @param token JWT token
+     * @return 摘要
+     */
+    public static String tokenHash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
 }
@@ -0,0 +1,145 @@
+package cn.edu.seig.vibemusic.util;
+
+import cn.edu.seig.vibemusic.model.vo.LyricLine;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * LRC 歌词解析与二进制时间轴。
+ * 歌词在上传时解析一次，时间轴以 "{lrc 对象}.tl" 存在原始 LRC 旁边，读取歌词时直接解码，不再做正则解析。
+ * 格式：1 字节版本号 + varint 行数 + 每行 [zigzag varint 与上一行的毫秒差, varint 文本字节数, UTF-8 文本]。
+ */
+public class LyricTimeline {
+
+    public static final String SUFFIX = ".tl";
+    public static final String CONTENT_TYPE = "application/octet-stream";
+
+    private static final int VERSION = 1;
+
+    private static final Pattern OFFSET = Pattern.compile("\\[offset:(-?\\d+)]\\s*");
+    // 允许毫秒为 1-3 位：如 [01:23.4] / [01:23.45] / [01:23.456]
+    private static final Pattern TIME_TAG = Pattern.compile("\\[(\\d{1,2}):(\\d{2})(?:[.:](\\d{1,3}))?]");
+
+    /** 原始 LRC URL 对应的时间轴 URL */
+    public static String timelineUrl(String lyricUrl) {
+        return lyricUrl + SUFFIX;
+    }
+
+    /**
+     * 解析 LRC：行首可有多个时间标签，[offset:n] 作用于全部行，结果按时间排序
+     */
+    public static List<LyricLine> parse(String lrc) {
+        List<LyricLine> list = new ArrayList<>();
+        if (lrc == null || lrc.isBlank()) return list;
+
+        long globalOffset = 0;
+        boolean offsetFound = false;
+        Matcher tm = TIME_TAG.matcher("");
+        Matcher om = OFFSET.matcher("");
+        for (String line : (Iterable<String>) lrc.lines()::iterator) {
+            if (line.isEmpty() || line.charAt(0) != '[') continue;
+            if (!offsetFound && om.reset(line).matches()) {
+                globalOffset = Long.parseLong(om.group(1));
+                offsetFound = true;
+                continue;
+            }
+            int start = list.size();
+            int pos = 0;
+            tm.reset(line);
+            while (pos < line.length() && tm.region(pos, line.length()).lookingAt()) {
+                list.add(new LyricLine(toMillis(tm), null));
+                pos = tm.end();
+            }
+            if (pos == 0) continue;
+            String text = line.substring(pos).trim();
+            for (int i = start; i < list.size(); i++) list.get(i).setText(text);
+        }
+        if (globalOffset != 0) {
+            for (LyricLine l : list) l.setTimeMs(l.getTimeMs() + globalOffset);
+        }
+        list.sort(Comparator.comparingLong(LyricLine::getTimeMs));
+        return list;
+    }
+
+    private static long toMillis(Matcher tm) {
+        int min = Integer.parseInt(tm.group(1));
+        int sec = Integer.parseInt(tm.group(2));
+        String frac = tm.group(3);
+        long extraMs = 0;
+        if (frac != null) {
+            int fracVal = Integer.parseInt(frac);
+            if (frac.length() == 3) extraMs = fracVal;            // 毫秒
+            else if (frac.length() == 2) extraMs = fracVal * 10L; // 厘秒 -> 毫秒
+            else extraMs = fracVal * 100L;                        // 十分之一秒 -> 毫秒
+        }
+        return min * 60_000L + sec * 1_000L + extraMs;
+    }
+
+    /** 编码为二进制时间轴 */
+    public static byte[] encode(List<LyricLine> lines) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(lines.size() * 24 + 8);
+        out.write(VERSION);
+        writeVarint(out, lines.size());
+        long prev = 0;
+        for (LyricLine line : lines) {
+            long delta = line.getTimeMs() - prev;
+            writeVarint(out, (delta << 1) ^ (delta >> 63));
+            prev = line.getTimeMs();
+            byte[] text = line.getText() == null ? new byte[0] : line.getText().getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, text.length);
+            out.write(text, 0, text.length);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 解码二进制时间轴
+     *
+     * @throws IllegalArgumentException 版本不支持或数据不完整
+     */
+    public static List<LyricLine> decode(byte[] data) {
+        if (data == null || data.length == 0 || data[0] != VERSION) {
+            throw new IllegalArgumentException("Unsupported lyric timeline");
+        }
+        int[] pos = {1};
+        long count = readVarint(data, pos);
+        // 每行至少占 2 字节（时间差与文本长度各一个 varint），据此校验行数，避免损坏数据导致超大预分配
+        if (count < 0 || count > (data.length - pos[0]) / 2) throw new IllegalArgumentException("Malformed lyric timeline");
+        List<LyricLine> lines = new ArrayList<>((int) count);
+        long time = 0;
+        for (int i = 0; i < count; i++) {
+            long zigzag = readVarint(data, pos);
+            time += (zigzag >>> 1) ^ -(zigzag & 1);
+            int length = (int) readVarint(data, pos);
+            if (length < 0 || length > data.length - pos[0]) throw new IllegalArgumentException("Truncated lyric timeline");
+            lines.add(new LyricLine(time, new String(data, pos[0], length, StandardCharsets.UTF_8)));
+            pos[0] += length;
+        }
+        return lines;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] data, int[] pos) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (pos[0] >= data.length) throw new IllegalArgumentException("Truncated lyric timeline");
+            byte b = data[pos[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalArgumentException("Malformed lyric timeline");
+    }
+}
@@ -0,0 +1,346 @@
+package cn.edu.seig.vibemusic.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * 媒体文件头探测器：在上传流经过时增量解析时长，不落盘、不回读。
+ * 只持有一个固定大小的小缓冲，按需“收集 N 字节 / 跳过 N 字节”，拿到所需的头部后忽略后续数据。
+ * - MP3：跳过 ID3v2，读取首帧的 Xing/Info/VBRI 帧数；没有时按 CBR 码率与文件大小估算；
+ * - FLAC：跳过 ID3v2，读取 STREAMINFO 的采样率与总采样数；
+ * - MP4/MOV：逐个跳过顶层 box，读取 moov/mvhd 的 timescale 与 duration（moov 在文件尾部时同样适用）。
+ * 非线程安全，每次上传新建一个。
+ */
+public abstract class MediaHeaderProbe {
+
+    private final byte[] buf = new byte[64];
+    private int need;
+    private int have;
+    private long skip;
+    private boolean done;
+    // 已经过探测器的字节数
+    protected long position;
+
+    /**
+     * 按文件名或 Content-Type 选择探测器
+     *
+     * @return 不支持的格式返回 null
+     */
+    public static MediaHeaderProbe forFile(String filename, String contentType) {
+        String name = filename == null ? "" : filename.toLowerCase(Locale.ROOT);
+        String type = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".mp3") || type.equals("audio/mpeg") || type.equals("audio/mp3")) return new Mp3();
+        if (name.endsWith(".flac") || type.contains("flac")) return new Flac();
+        if (name.endsWith(".mp4") || name.endsWith(".m4a") || name.endsWith(".mov")
+                || type.equals("video/mp4") || type.equals("video/quicktime") || type.equals("audio/mp4")) return new Mp4();
+        return null;
+    }
+
+    /** 送入一段数据（上传流每读到一段即调用） */
+    public final void update(byte[] b, int off, int len) {
+        while (len > 0 && !done) {
+            if (skip > 0) {
+                int n = (int) Math.min(skip, len);
+                skip -= n;
+                off += n;
+                len -= n;
+                position += n;
+                continue;
+            }
+            int n = Math.min(need - have, len);
+            System.arraycopy(b, off, buf, have, n);
+            have += n;
+            off += n;
+            len -= n;
+            position += n;
+            if (have == need) {
+                int got = have;
+                have = 0;
+                onBytes(buf, got);
+            }
+        }
+    }
+
+    /**
+     * 探测结果
+     *
+     * @param totalSize 文件总字节数（CBR 估算使用）
+     * @return 时长（秒），无法确定时为 null
+     */
+    public abstract Integer durationSeconds(long totalSize);
+
+    /** 收集到 request 指定的字节数后回调，b 为内部缓冲 */
+    protected abstract void onBytes(byte[] b, int len);
+
+    /** 下一步收集 n 字节（n 不超过缓冲大小） */
+    protected final void request(int n) {
+        need = n;
+    }
+
+    /** 下一步先跳过 n 字节 */
+    protected final void skip(long n) {
+        skip = n;
+    }
+
+    /** 把缓冲中 [from, from + count) 的字节保留为下一次收集的开头 */
+    protected final void keep(byte[] b, int from, int count) {
+        System.arraycopy(b, from, buf, 0, count);
+        have = count;
+    }
+
+    /** 结束探测，忽略后续数据 */
+    protected final void finish() {
+        done = true;
+    }
+
+    private static boolean startsWith(byte[] b, int off, String magic) {
+        byte[] m = magic.getBytes(StandardCharsets.ISO_8859_1);
+        for (int i = 0; i < m.length; i++) {
+            if (b[off + i] != m[i]) return false;
+        }
+        return true;
+    }
+
+    private static long u32(byte[] b, int off) {
+        return ((long) (b[off] & 0xFF) << 24) | ((b[off + 1] & 0xFF) << 16) | ((b[off + 2] & 0xFF) << 8) | (b[off + 3] & 0xFF);
+    }
+
+    private static long u64(byte[] b, int off) {
+        return (u32(b, off) << 32) | u32(b, off + 4);
+    }
+
+    private static Integer toSeconds(double seconds) {
+        return seconds > 0 && seconds < Integer.MAX_VALUE ? (int) Math.round(seconds) : null;
+    }
+
+    // ================= ID3v2 =================
+
+    /** 先读取 10 字节判断是否为 ID3v2 标签，是则整体跳过（内嵌封面不进入缓冲） */
+    private abstract static class Id3Aware extends MediaHeaderProbe {
+
+        private boolean tagChecked;
+
+        Id3Aware() {
+            request(10);
+        }
+
+        @Override
+        protected final void onBytes(byte[] b, int len) {
+            if (tagChecked) {
+                onContent(b, len);
+                return;
+            }
+            tagChecked = true;
+            if (startsWith(b, 0, "ID3")) {
+                long size = ((b[6] & 0x7F) << 21) | ((b[7] & 0x7F) << 14) | ((b[8] & 0x7F) << 7) | (b[9] & 0x7F);
+                boolean footer = (b[5] & 0x10) != 0;
+                skip(size + (footer ? 10 : 0));
+                request(contentHeaderSize());
+            } else {
+                // 不是标签：这 10 字节属于正文
+                keep(b, 0, 10);
+                request(contentHeaderSize());
+            }
+        }
+
+        /** 正文开头需要收集的字节数 */
+        abstract int contentHeaderSize();
+
+        abstract void onContent(byte[] b, int len);
+    }
+
+    // ================= MP3 =================
+
+    private static final class Mp3 extends Id3Aware {
+
+        // 帧头(4) + 最大 side info(32) + VBRI 头(18)
+        private static final int WINDOW = 54;
+        // 寻找首帧同步字的最大范围
+        private static final int MAX_SCAN = 64 * 1024;
+        private static final int[] BITRATE_V1 = {0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320};
+        private static final int[] BITRATE_V2 = {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160};
+        private static final int[] SAMPLE_RATE = {44100, 48000, 32000};
+
+        private long scanned;
+        private long audioStart = -1;
+        private int bitrateKbps;
+        private long frames = -1;
+        private int samplesPerFrame;
+        private int sampleRate;
+
+        @Override
+        int contentHeaderSize() {
+            return WINDOW;
+        }
+
+        @Override
+        void onContent(byte[] b, int len) {
+            for (int i = 0; i + 4 <= len; i++) {
+                if (!parseHeader(b, i)) continue;
+                if (i > 0) {
+                    // 帧头之后的数据还不够，移到开头再补齐
+                    keep(b, i, len - i);
+                    request(WINDOW);
+                    return;
+                }
+                audioStart = position - len;
+                readVbrHeader(b, len);
+                finish();
+                return;
+            }
+            scanned += len - 3;
+            if (scanned > MAX_SCAN) {
+                finish();
+                return;
+            }
+            keep(b, len - 3, 3);
+            request(WINDOW);
+        }
+
+        /** 仅识别 MPEG Layer III 帧头 */
+        private boolean parseHeader(byte[] b, int i) {
+            if ((b[i] & 0xFF) != 0xFF || (b[i + 1] & 0xE0) != 0xE0) return false;
+            int version = (b[i + 1] >> 3) & 0x03;     // 3: MPEG1, 2: MPEG2, 0: MPEG2.5
+            int layer = (b[i + 1] >> 1) & 0x03;       // 1: Layer III
+            int bitrateIndex = (b[i + 2] >> 4) & 0x0F;
+            int sampleRateIndex = (b[i + 2] >> 2) & 0x03;
+            if (version == 1 || layer != 1 || bitrateIndex == 0 || bitrateIndex == 15 || sampleRateIndex == 3) return false;
+            boolean mpeg1 = version == 3;
+            bitrateKbps = (mpeg1 ? BITRATE_V1 : BITRATE_V2)[bitrateIndex];
+            sampleRate = SAMPLE_RATE[sampleRateIndex] >> (mpeg1 ? 0 : version == 2 ? 1 : 2);
+            samplesPerFrame = mpeg1 ? 1152 : 576;
+            return true;
+        }
+
+        private void readVbrHeader(byte[] b, int len) {
+            boolean mpeg1 = ((b[1] >> 3) & 0x03) == 3;
+            boolean mono = ((b[3] >> 6) & 0x03) == 3;
+            int xing = 4 + (mpeg1 ? (mono ? 17 : 32) : (mono ? 9 : 17));
+            if (xing + 12 <= len && (startsWith(b, xing, "Xing") || startsWith(b, xing, "Info"))) {
+                if ((u32(b, xing + 4) & 0x01) != 0) frames = u32(b, xing + 8);
+                return;
+            }
+            int vbri = 4 + 32;
+            if (vbri + 18 <= len && startsWith(b, vbri, "VBRI")) {
+                frames = u32(b, vbri + 14);
+            }
+        }
+
+        @Override
+        public Integer durationSeconds(long totalSize) {
+            if (audioStart < 0 || sampleRate <= 0) return null;
+            if (frames > 0) {
+                return toSeconds((double) frames * samplesPerFrame / sampleRate);
+            }
+            // CBR：音频数据长度 / 码率
+            if (bitrateKbps <= 0 || totalSize <= audioStart) return null;
+            return toSeconds((totalSize - audioStart) * 8.0 / (bitrateKbps * 1000.0));
+        }
+    }
+
+    // ================= FLAC =================
+
+    private static final class Flac extends Id3Aware {
+
+        // "fLaC"(4) + 元数据块头(4) + STREAMINFO(34)
+        private static final int HEADER = 42;
+
+        private long totalSamples;
+        private int sampleRate;
+
+        @Override
+        int contentHeaderSize() {
+            return HEADER;
+        }
+
+        @Override
+        void onContent(byte[] b, int len) {
+            if (startsWith(b, 0, "fLaC") && (b[4] & 0x7F) == 0) {
+                sampleRate = ((b[18] & 0xFF) << 12) | ((b[19] & 0xFF) << 4) | ((b[20] & 0xF0) >> 4);
+                totalSamples = ((long) (b[21] & 0x0F) << 32) | u32(b, 22);
+            }
+            finish();
+        }
+
+        @Override
+        public Integer durationSeconds(long totalSize) {
+            if (sampleRate <= 0 || totalSamples <= 0) return null;
+            return toSeconds((double) totalSamples / sampleRate);
+        }
+    }
+
+    // ================= MP4 / MOV =================
+
+    private static final class Mp4 extends MediaHeaderProbe {
+
+        private static final int STATE_BOX = 0;
+        private static final int STATE_LARGE_SIZE = 1;
+        private static final int STATE_MVHD = 2;
+
+        private int state = STATE_BOX;
+        private String boxType;
+        private long timescale;
+        private long duration;
+
+        Mp4() {
+            request(8);
+        }
+
+        @Override
+        protected void onBytes(byte[] b, int len) {
+            switch (state) {
+                case STATE_BOX -> {
+                    long size = u32(b, 0);
+                    boxType = new String(b, 4, 4, StandardCharsets.ISO_8859_1);
+                    if (size == 1) {
+                        state = STATE_LARGE_SIZE;
+                        request(8);
+                    } else if (size == 0 && !"moov".equals(boxType)) {
+                        // 延伸到文件末尾的 box（通常是 mdat），之后不会再有 moov
+                        finish();
+                    } else {
+                        onBox(size, 8);
+                    }
+                }
+                case STATE_LARGE_SIZE -> {
+                    state = STATE_BOX;
+                    onBox(u64(b, 0), 16);
+                }
+                case STATE_MVHD -> {
+                    int version = b[0] & 0xFF;
+                    if (version == 1 && len >= 32) {
+                        timescale = u32(b, 20);
+                        duration = u64(b, 24);
+                    } else if (version == 0 && len >= 20) {
+                        timescale = u32(b, 12);
+                        duration = u32(b, 16);
+                    }
+                    finish();
+                }
+                default -> finish();
+            }
+        }
+
+        private void onBox(long size, int headerSize) {
+            long payload = size - headerSize;
+            if ("moov".equals(boxType)) {
+                // 进入 moov，逐个读取其子 box
+                request(8);
+            } else if ("mvhd".equals(boxType) && payload >= 20) {
+                state = STATE_MVHD;
+                request((int) Math.min(payload, 32));
+            } else if (payload >= 0) {
+                skip(payload);
+                request(8);
+            } else {
+                finish();
+            }
+        }
+
+        @Override
+        public Integer durationSeconds(long totalSize) {
+            if (timescale <= 0 || duration <= 0) return null;
+            return toSeconds((double) duration / timescale);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package cn.edu.seig.vibemusic.util;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import io.minio.MinioAsyncClient;
+import io.minio.messages.Part;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 大文件分片并发上传到 MinIO。
+ * - 调用线程顺序读取输入流，每读满一个分片就提交到线程池上传，同时继续读取下一个分片；
+ * - 每次上传最多 parallelism 个分片在途；所有上传共享 maxBufferedParts 个分片缓冲（全局信号量 + 缓冲池），
+ *   进程内分片缓冲的内存上限为 maxBufferedParts × partSize，缓冲用尽时读取线程等待，不会无限排队；
+ * - 单个分片失败时按退避时间单独重试，超过次数后中止整个分片上传（AbortMultipartUpload），不留下残片；
+ * - 全部分片完成后按分片号提交 CompleteMultipartUpload。
+ */
+@Component
+public class MultipartUploader {
+
+    private static final Logger log = LoggerFactory.getLogger(MultipartUploader.class);
+
+    // S3/MinIO 要求除最后一片外每片不小于 5MiB
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    private static final long RETRY_BACKOFF_MS = 500;
+
+    private final PartClient client;
+    private final long partSize;
+    private final long threshold;
+    private final int parallelism;
+    private final int maxRetries;
+    private final long retryBackoffMs;
+    // 全局在途分片缓冲：许可数即缓冲数，缓冲在各次上传之间复用
+    private final Semaphore bufferPermits;
+    private final BlockingQueue<byte[]> bufferPool;
+    private final ExecutorService executor;
+
+    @Autowired
+    public MultipartUploader(MinioAsyncClient minioAsyncClient,
+                             @Value("${minio.upload.part-size-mb:16}") long partSizeMb,
+                             @Value("${minio.upload.threshold-mb:32}") long thresholdMb,
+                             @Value("${minio.upload.parallelism:4}") int parallelism,
+                             @Value("${minio.upload.max-buffered-parts:8}") int maxBufferedParts,
+                             @Value("${minio.upload.max-retries:3}") int maxRetries) {
+        this(new MinioPartClient(minioAsyncClient), Math.max(MIN_PART_SIZE, partSizeMb * 1024 * 1024),
+                thresholdMb * 1024 * 1024, parallelism, maxBufferedParts, maxRetries, RETRY_BACKOFF_MS);
+    }
+
+    MultipartUploader(PartClient client, long partSize, long threshold, int parallelism, int maxBufferedParts,
+                      int maxRetries, long retryBackoffMs) {
+        this.client = client;
+        this.partSize = partSize;
+        this.threshold = Math.max(partSize, threshold);
+        this.parallelism = Math.max(1, parallelism);
+        this.maxRetries = Math.max(0, maxRetries);
+        this.retryBackoffMs = retryBackoffMs;
+        int buffers = Math.max(this.parallelism, maxBufferedParts);
+        this.bufferPermits = new Semaphore(buffers);
+        this.bufferPool = new ArrayBlockingQueue<>(buffers);
+        // 提交前已取得缓冲许可，排队的任务数不会超过缓冲数
+        this.executor = new ThreadPoolExecutor(buffers, buffers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(buffers), r -> {
+            Thread t = new Thread(r, "minio-part-upload");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** 是否应当走分片并发上传（大小未知或小于阈值时使用普通上传） */
+    public boolean accepts(long size) {
+        return size >= threshold;
+    }
+
+    /**
+     * 分片并发上传
+     *
+     * @param bucket      存储桶
+     * @param object      对象名
+     * @param in          数据流（顺序读取，由调用方关闭）
+     * @param size        总字节数
+     * @param contentType MIME 类型
+     */
+    public void upload(String bucket, String object, InputStream in, long size, String contentType) throws Exception {
+        Multimap<String, String> headers = HashMultimap.create();
+        if (contentType != null && !contentType.isEmpty()) headers.put("Content-Type", contentType);
+        String uploadId = client.createUpload(bucket, object, headers);
+
+        Semaphore inFlight = new Semaphore(parallelism);
+        List<PartTask> tasks = new ArrayList<>();
+        try {
+            long remaining = size;
+            int partNumber = 1;
+            while (remaining > 0) {
+                int length = (int) Math.min(partSize, remaining);
+                inFlight.acquire();
+                byte[] buffer;
+                try {
+                    buffer = borrowBuffer();
+                } catch (InterruptedException e) {
+                    inFlight.release();
+                    throw e;
+                }
+                PartTask task = new PartTask(bucket, object, uploadId, partNumber, buffer, length, inFlight);
+                try {
+                    readFully(in, buffer, length);
+                    task.future = executor.submit(task);
+                } catch (Exception e) {
+                    // 未能交给线程池时由读取线程归还
+                    task.releaseIfPending();
+                    throw e;
+                }
+                tasks.add(task);
+                remaining -= length;
+                partNumber++;
+                // 提前发现失败的分片，不再继续读取
+                for (PartTask t : tasks) {
+                    if (t.future.isDone()) t.future.get();
+                }
+            }
+
+            List<Part> parts = new ArrayList<>(tasks.size());
+            for (PartTask t : tasks) {
+                parts.add(t.future.get());
+            }
+            parts.sort(Comparator.comparingInt(Part::partNumber));
+            client.completeUpload(bucket, object, uploadId, parts.toArray(new Part[0]));
+        } catch (Exception e) {
+            for (PartTask t : tasks) {
+                // 尚未开始的分片不会再执行，由这里归还缓冲；执行中的分片被中断后自行归还
+                t.releaseIfPending();
+                t.future.cancel(true);
+            }
+            try {
+                client.abortUpload(bucket, object, uploadId);
+            } catch (Exception abortError) {
+                log.warn("[MultipartUploader] Abort failed, object={}, uploadId={}: {}", object, uploadId, abortError.getMessage());
+            }
+            throw e instanceof ExecutionException && e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    /**
+     * 单个分片的上传任务。缓冲与许可只归还一次：
+     * 任务开始执行时占有它们，执行结束后归还；取消时若任务尚未开始，由取消方归还。
+     */
+    private final class PartTask implements Callable<Part> {
+        private final String bucket;
+        private final String object;
+        private final String uploadId;
+        private final int partNumber;
+        private final byte[] data;
+        private final int length;
+        private final Semaphore inFlight;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private Future<Part> future;
+
+        PartTask(String bucket, String object, String uploadId, int partNumber, byte[] data, int length, Semaphore inFlight) {
+            this.bucket = bucket;
+            this.object = object;
+            this.uploadId = uploadId;
+            this.partNumber = partNumber;
+            this.data = data;
+            this.length = length;
+            this.inFlight = inFlight;
+        }
+
+        @Override
+        public Part call() throws Exception {
+            if (!claimed.compareAndSet(false, true)) throw new CancellationException();
+            try {
+                return uploadPart(bucket, object, uploadId, partNumber, data, length);
+            } finally {
+                release();
+            }
+        }
+
+        void releaseIfPending() {
+            if (claimed.compareAndSet(false, true)) release();
+        }
+
+        private void release() {
+            returnBuffer(data);
+            inFlight.release();
+        }
+    }
+
+    /** 取得一个全局缓冲许可并借用缓冲，缓冲用尽时等待 */
+    private byte[] borrowBuffer() throws InterruptedException {
+        bufferPermits.acquire();
+        byte[] buffer = bufferPool.poll();
+        return buffer != null ? buffer : new byte[(int) partSize];
+    }
+
+    private void returnBuffer(byte[] buffer) {
+        bufferPool.offer(buffer);
+        bufferPermits.release();
+    }
+
+    /** 上传单个分片，失败时单独重试 */
+    private Part uploadPart(String bucket, String object, String uploadId, int partNumber, byte[] data, int length) throws Exception {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                String etag = client.uploadPart(bucket, object, uploadId, partNumber, data, length);
+                return new Part(partNumber, etag);
+            } catch (Exception e) {
+                if (attempt >= maxRetries || Thread.currentThread().isInterrupted()) throw e;
+                log.warn("[MultipartUploader] Part {} of {} failed (attempt {}), retrying: {}", partNumber, object, attempt + 1, e.getMessage());
+                Thread.sleep(retryBackoffMs * (attempt + 1));
+            }
+        }
+    }
+
+    private static void readFully(InputStream in, byte[] buffer, int length) throws IOException {
+        int read = 0;
+        while (read < length) {
+            int n = in.read(buffer, read, length - read);
+            if (n < 0) throw new IOException("Unexpected end of stream: expected " + length + " bytes, got " + read);
+            read += n;
+        }
+    }
+
+    /** 分片上传操作 */
+    interface PartClient {
+
+        String createUpload(String bucket, String object, Multimap<String, String> headers) throws Exception;
+
+        String uploadPart(String bucket, String object, String uploadId, int partNumber, byte[] data, int length) throws Exception;
+
+        void completeUpload(String bucket, String object, String uploadId, Part[] parts) throws Exception;
+
+        void abortUpload(String bucket, String object, String uploadId) throws Exception;
+    }
+
+    /** 暴露 MinIO 客户端的分片上传接口（SDK 中为 protected） */
+    private static final class MinioPartClient extends MinioAsyncClient implements PartClient {
+
+        MinioPartClient(MinioAsyncClient client) {
+            super(client);
+        }
+
+        @Override
+        public String createUpload(String bucket, String object, Multimap<String, String> headers) throws Exception {
+            return createMultipartUploadAsync(bucket, null, object, headers, null).get().result().uploadId();
+        }
+
+        @Override
+        public String uploadPart(String bucket, String object, String uploadId, int partNumber, byte[] data, int length) throws Exception {
+            return uploadPartAsync(bucket, null, object, data, length, uploadId, partNumber, null, null).get().etag();
+        }
+
+        @Override
+        public void completeUpload(String bucket, String object, String uploadId, Part[] parts) throws Exception {
+            completeMultipartUploadAsync(bucket, null, object, uploadId, parts, null, null).get();
+        }
+
+        @Override
+        public void abortUpload(String bucket, String object, String uploadId) throws Exception {
+            abortMultipartUploadAsync(bucket, null, object, uploadId, null, null).get();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package cn.edu.seig.vibemusic.util;
+
+import cn.edu.seig.vibemusic.service.MinioService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对象 URL 签名：把存储桶内对象的原始 URL 换成限时的预签名 GET URL，存储桶因此可以设为私有。
+ * - 数据库与各级缓存中保存的仍是原始 URL，只在接口响应序列化 URL 字段时签名（见 SignedUrlSerializer），
+ *   请求中回传的 URL 字段由 UnsignedUrlDeserializer 还原；
+ * - 签名按“对象 + 时间桶”缓存：同一时间桶内同一对象返回同一个 URL，热门列表不会每次渲染都重新签名，浏览器缓存也能命中；
+ * - URL 有效期为 时间桶长度 + expiry，保证任何时刻拿到的 URL 至少还有 expiry 的有效期。
+ */
+@Component
+public class ObjectUrlSigner {
+
+    private static final Logger log = LoggerFactory.getLogger(ObjectUrlSigner.class);
+
+    // S3 预签名 URL 的最长有效期为 7 天
+    private static final int MAX_EXPIRY_SECONDS = 7 * 24 * 3600;
+    private static final String SIGNATURE_PARAM = "X-Amz-Signature=";
+
+    private final MinioService minioService;
+    private final boolean enabled;
+    private final long bucketMillis;
+    private final int expirySeconds;
+    // 原始 URL@时间桶 -> 签名 URL（不属于本存储桶的 URL 映射为自身）
+    private final Cache<String, String> signatures;
+
+    @Autowired
+    public ObjectUrlSigner(MinioService minioService,
+                           @Value("${minio.presign.enabled:true}") boolean enabled,
+                           @Value("${minio.presign.bucket-minutes:30}") long bucketMinutes,
+                           @Value("${minio.presign.expiry-minutes:120}") long expiryMinutes,
+                           @Value("${minio.presign.cache-size:100000}") long cacheSize) {
+        this.minioService = minioService;
+        this.enabled = enabled;
+        this.bucketMillis = TimeUnit.MINUTES.toMillis(Math.max(1, bucketMinutes));
+        this.expirySeconds = (int) Math.min(MAX_EXPIRY_SECONDS, TimeUnit.MINUTES.toSeconds(Math.max(1, bucketMinutes) + Math.max(1, expiryMinutes)));
+        this.signatures = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, cacheSize))
+                .expireAfterWrite(bucketMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * 签名对象 URL
+     *
+     * @param url 原始 URL
+     * @return 预签名 URL；未启用、不是本存储桶的对象或签名失败时原样返回
+     */
+    public String sign(String url) {
+        if (!enabled || url == null || !url.startsWith("http")) return url;
+        long bucket = System.currentTimeMillis() / bucketMillis;
+        return signatures.get(url + "@" + bucket, key -> {
+            try {
+                String signed = minioService.getPresignedUrl(url, expirySeconds);
+                return signed != null ? signed : url;
+            } catch (Exception e) {
+                log.warn("[ObjectUrlSigner] Sign failed, url={}: {}", url, e.getMessage());
+                return url;
+            }
+        });
+    }
+
+    /**
+     * 去掉预签名参数，还原为原始 URL（客户端把接口返回的 URL 原样提交回来时使用）
+     */
+    public static String unsign(String url) {
+        if (url == null) return null;
+        int query = url.indexOf('?');
+        return query >= 0 && url.indexOf(SIGNATURE_PARAM, query) >= 0 ? url.substring(0, query) : url;
+    }
+}
@@ -0,0 +1,132 @@
+package cn.edu.seig.vibemusic.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 不可变的路径前缀树，用于请求路径的放行/权限判断。
+ * 构建后只读、线程安全；匹配时逐字符下行，不创建任何对象。
+ * 支持两种规则：
+ * - 前缀：path.startsWith(prefix)（role-path-permissions 的写法）；
+ * - Ant 风格：精确路径，或以 "/**" 结尾的目录通配（如 "/song/getSongDetail/**"），不支持其它通配符。
+ */
+public final class PathPrefixTrie {
+
+    private static final PathPrefixTrie EMPTY = new PathPrefixTrie(new Node(new char[0], new Node[0], false, false));
+
+    private final Node root;
+
+    private PathPrefixTrie(Node root) {
+        this.root = root;
+    }
+
+    public static PathPrefixTrie empty() {
+        return EMPTY;
+    }
+
+    /** 按 startsWith 语义编译一组前缀 */
+    public static PathPrefixTrie ofPrefixes(Collection<String> prefixes) {
+        Builder root = new Builder();
+        if (prefixes != null) {
+            for (String prefix : prefixes) {
+                if (prefix != null) root.insert(prefix).prefix = true;
+            }
+        }
+        return new PathPrefixTrie(root.freeze());
+    }
+
+    /** 编译一组 Ant 风格路径（仅支持精确路径与结尾的 "/**"） */
+    public static PathPrefixTrie ofAntPatterns(Collection<String> patterns) {
+        Builder root = new Builder();
+        if (patterns != null) {
+            for (String pattern : patterns) {
+                if (pattern == null) continue;
+                if (pattern.endsWith("/**")) {
+                    String dir = pattern.substring(0, pattern.length() - 3);
+                    checkLiteral(pattern, dir);
+                    // "/a/**" 同时匹配 "/a" 与 "/a/..."
+                    root.insert(dir).exact = true;
+                    root.insert(dir + "/").prefix = true;
+                } else if (pattern.equals("**")) {
+                    root.prefix = true;
+                } else {
+                    checkLiteral(pattern, pattern);
+                    root.insert(pattern).exact = true;
+                }
+            }
+        }
+        return new PathPrefixTrie(root.freeze());
+    }
+
+    private static void checkLiteral(String pattern, String literal) {
+        for (int i = 0; i < literal.length(); i++) {
+            char c = literal.charAt(i);
+            if (c == '*' || c == '?' || c == '{') {
+                throw new IllegalArgumentException("Unsupported path pattern: " + pattern);
+            }
+        }
+    }
+
+    /** 判断路径是否命中任一规则 */
+    public boolean matches(String path) {
+        if (path == null) return false;
+        Node node = root;
+        if (node.prefix) return true;
+        for (int i = 0, n = path.length(); i < n; i++) {
+            node = node.child(path.charAt(i));
+            if (node == null) return false;
+            if (node.prefix) return true;
+        }
+        return node.exact;
+    }
+
+    // ================= 节点 =================
+
+    private static final class Node {
+        private final char[] keys;     // 已排序的子节点字符
+        private final Node[] children;
+        private final boolean exact;   // 路径恰好在此结束时命中
+        private final boolean prefix;  // 以此为前缀的任意路径均命中
+
+        Node(char[] keys, Node[] children, boolean exact, boolean prefix) {
+            this.keys = keys;
+            this.children = children;
+            this.exact = exact;
+            this.prefix = prefix;
+        }
+
+        Node child(char c) {
+            int idx = Arrays.binarySearch(keys, c);
+            return idx >= 0 ? children[idx] : null;
+        }
+    }
+
+    /** 构建期使用的可变节点 */
+    private static final class Builder {
+        private final Map<Character, Builder> children = new TreeMap<>();
+        private boolean exact;
+        private boolean prefix;
+
+        Builder insert(String path) {
+            Builder node = this;
+            for (int i = 0; i < path.length(); i++) {
+                node = node.children.computeIfAbsent(path.charAt(i), k -> new Builder());
+            }
+            return node;
+        }
+
+        Node freeze() {
+            char[] keys = new char[children.size()];
+            Node[] nodes = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Builder> e : children.entrySet()) {
+                keys[i] = e.getKey();
+                nodes[i] = e.getValue().freeze();
+                i++;
+            }
+            return new Node(keys, nodes, exact, prefix);
+        }
+    }
+}
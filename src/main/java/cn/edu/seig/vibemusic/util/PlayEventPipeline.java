@@ -0,0 +1,251 @@
+package cn.edu.seig.vibemusic.util;
+
+import cn.edu.seig.vibemusic.constant.RedisKeyConstant;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.stream.*;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 播放事件采集管道。
+ * 1. 上报接口只把事件放入有界内存队列（队列满时丢弃并计数，不阻塞请求线程）；
+ * 2. 定时任务把队列中的事件按批次一次管道 XADD 写入 Redis Stream（play:events，近似截断到固定长度），
+ *    写入失败的批次放回队列下次重试（放不下的计入丢弃）；
+ * 3. 各节点以同一消费组读取 Stream，聚合后 XACK。每轮消费先认领其他消费者长时间未确认的事件（消费者已下线，
+ *    如主机名变化、容器重新调度），再重读本消费者未确认的事件，最后读取新事件，保证至少一次处理。
+ */
+@Component
+public class PlayEventPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(PlayEventPipeline.class);
+
+    public static final String CONSUMER_GROUP = "play-agg";
+
+    private static final byte[] STREAM_KEY = RedisKeyConstant.PLAY_EVENT_STREAM.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FIELD_USER = "u".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FIELD_SONG = "s".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FIELD_TIME = "t".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Value("${play-event.batch-size:500}")
+    private int batchSize;
+
+    @Value("${play-event.stream-max-length:100000}")
+    private long streamMaxLength;
+
+    @Value("${play-event.claim-idle-ms:300000}")
+    private long claimIdleMs;
+
+    private final BlockingQueue<PlayEvent> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    private final String consumerName = resolveConsumerName();
+    private volatile boolean groupReady;
+    // 先读取本消费者已投递但未确认的事件，读完后再读新事件；每轮消费开始时重置（见 beginRound）
+    private volatile boolean replayingPending = true;
+
+    public PlayEventPipeline(@Value("${play-event.queue-capacity:10000}") int queueCapacity) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * 提交一次播放事件（非阻塞）
+     *
+     * @return 是否已入队；队列已满时返回 false
+     */
+    public boolean submit(Long userId, Long songId) {
+        if (userId == null || songId == null) return false;
+        if (queue.offer(new PlayEvent(null, userId, songId, System.currentTimeMillis()))) {
+            return true;
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * 把内存队列中的事件分批写入 Stream
+     *
+     * @return 本次写入的事件数
+     */
+    public int publish() {
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            log.warn("[PlayEvent] Queue full, {} play events dropped.", lost);
+        }
+        int total = 0;
+        List<PlayEvent> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                xAdd(batch);
+            } catch (Exception e) {
+                // 批次已从队列取出：放回队列等下次写入，放不下的计入丢弃（管道可能已部分写入，重试时允许重复）
+                int requeued = 0;
+                for (PlayEvent event : batch) {
+                    if (queue.offer(event)) requeued++;
+                    else dropped.incrementAndGet();
+                }
+                log.warn("[PlayEvent] Failed to publish {} play events, {} requeued: {}", batch.size(), requeued, e.getMessage());
+                break;
+            }
+            total += batch.size();
+            batch.clear();
+        }
+        return total;
+    }
+
+    private void xAdd(List<PlayEvent> batch) {
+        RedisStreamCommands.XAddOptions options = RedisStreamCommands.XAddOptions.maxlen(streamMaxLength).approximateTrimming(true);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (PlayEvent event : batch) {
+                Map<byte[], byte[]> fields = new HashMap<>(4);
+                fields.put(FIELD_USER, bytes(event.userId()));
+                fields.put(FIELD_SONG, bytes(event.songId()));
+                fields.put(FIELD_TIME, bytes(event.time()));
+                connection.streamCommands().xAdd(StreamRecords.rawBytes(fields).withStreamKey(STREAM_KEY), options);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 开始一轮消费：认领其他消费者空闲超过 play-event.claim-idle-ms 的未确认事件，
+     * 并从本消费者的未确认事件开始读取（包括上一轮聚合失败未确认的事件）
+     */
+    public void beginRound() {
+        ensureGroup();
+        try {
+            claimIdle();
+        } catch (Exception e) {
+            log.warn("[PlayEvent] Failed to claim idle pending events: {}", e.getMessage());
+        }
+        replayingPending = true;
+    }
+
+    private void claimIdle() {
+        PendingMessages pending = stringRedisTemplate.opsForStream().pending(
+                RedisKeyConstant.PLAY_EVENT_STREAM, CONSUMER_GROUP, Range.unbounded(), batchSize);
+        if (pending == null || pending.isEmpty()) return;
+        Duration minIdle = Duration.ofMillis(claimIdleMs);
+        RecordId[] ids = pending.stream()
+                .filter(m -> !consumerName.equals(m.getConsumerName()))
+                .filter(m -> m.getElapsedTimeSinceLastDelivery().compareTo(minIdle) >= 0)
+                .map(PendingMessage::getId)
+                .toArray(RecordId[]::new);
+        if (ids.length == 0) return;
+        // XCLAIM 会再次校验空闲时间，期间被原消费者确认或重新投递的事件不会被认领
+        List<MapRecord<String, Object, Object>> claimed = stringRedisTemplate.opsForStream().claim(
+                RedisKeyConstant.PLAY_EVENT_STREAM, CONSUMER_GROUP, consumerName, minIdle, ids);
+        log.info("[PlayEvent] Claimed {} idle pending events from other consumers.", claimed == null ? 0 : claimed.size());
+    }
+
+    /**
+     * 以消费组读取一批事件（不阻塞等待）
+     *
+     * @return 事件列表，携带 Stream 记录 id，处理完成后需调用 {@link #acknowledge}
+     */
+    public List<PlayEvent> read() {
+        ensureGroup();
+        ReadOffset offset = replayingPending ? ReadOffset.from("0") : ReadOffset.lastConsumed();
+        List<MapRecord<String, Object, Object>> records;
+        try {
+            records = stringRedisTemplate.opsForStream().read(
+                    Consumer.from(CONSUMER_GROUP, consumerName),
+                    StreamReadOptions.empty().count(batchSize),
+                    StreamOffset.create(RedisKeyConstant.PLAY_EVENT_STREAM, offset));
+        } catch (Exception e) {
+            // Stream 或消费组被删除（NOGROUP）时，下次重新创建
+            groupReady = false;
+            throw e;
+        }
+        if (records == null || records.isEmpty()) {
+            if (replayingPending) {
+                replayingPending = false;
+                return read();
+            }
+            return List.of();
+        }
+
+        List<PlayEvent> events = new ArrayList<>(records.size());
+        for (MapRecord<String, Object, Object> record : records) {
+            Map<Object, Object> value = record.getValue();
+            try {
+                events.add(new PlayEvent(record.getId().getValue(),
+                        TypeConversionUtil.toLong(value.get("u")),
+                        TypeConversionUtil.toLong(value.get("s")),
+                        TypeConversionUtil.toLong(value.get("t"))));
+            } catch (Exception e) {
+                // 格式错误的事件直接确认丢弃，避免反复投递
+                stringRedisTemplate.opsForStream().acknowledge(RedisKeyConstant.PLAY_EVENT_STREAM, CONSUMER_GROUP, record.getId());
+            }
+        }
+        return events;
+    }
+
+    /** 确认一批事件已处理 */
+    public void acknowledge(List<PlayEvent> events) {
+        if (events == null || events.isEmpty()) return;
+        String[] ids = events.stream().map(PlayEvent::recordId).filter(Objects::nonNull).toArray(String[]::new);
+        if (ids.length > 0) {
+            stringRedisTemplate.opsForStream().acknowledge(RedisKeyConstant.PLAY_EVENT_STREAM, CONSUMER_GROUP, ids);
+        }
+    }
+
+    private void ensureGroup() {
+        if (groupReady) return;
+        try {
+            // Stream 不存在时一并创建（MKSTREAM）
+            stringRedisTemplate.opsForStream().createGroup(RedisKeyConstant.PLAY_EVENT_STREAM, ReadOffset.from("0"), CONSUMER_GROUP);
+        } catch (Exception e) {
+            // 消费组已存在（BUSYGROUP）
+        }
+        groupReady = true;
+    }
+
+    /** 停机前把队列中剩余的事件写入 Stream */
+    @PreDestroy
+    public void shutdown() {
+        try {
+            publish();
+        } catch (Exception e) {
+            log.warn("[PlayEvent] Failed to publish remaining events on shutdown: {}", e.getMessage());
+        }
+    }
+
+    private static String resolveConsumerName() {
+        // 使用主机名，进程重启后仍能读回自己未确认的事件；主机名变化后旧消费者的事件由 claimIdle 认领
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return UUID.randomUUID().toString();
+        }
+    }
+
+    private static byte[] bytes(long value) {
+        return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 一次播放事件
+     *
+     * @param recordId Stream 记录 id，入队时为 null
+     * @param time     播放时间（毫秒时间戳）
+     */
+    public record PlayEvent(String recordId, Long userId, Long songId, Long time) {
+    }
+}
@@ -0,0 +1,52 @@
+package cn.edu.seig.vibemusic.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 上传流的旁路：数据照常交给读取方（MinIO 客户端），读到的每一段同时送入 MediaHeaderProbe，
+ * 一次读取完成上传与时长解析。
+ */
+public class ProbingInputStream extends FilterInputStream {
+
+    private final MediaHeaderProbe probe;
+
+    public ProbingInputStream(InputStream in, MediaHeaderProbe probe) {
+        super(in);
+        this.probe = probe;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) probe.update(new byte[]{(byte) b}, 0, 1);
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) probe.update(b, off, n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // 跳过的字节也需要经过探测器
+        byte[] tmp = new byte[(int) Math.min(n, 8192)];
+        long skipped = 0;
+        while (skipped < n) {
+            int r = read(tmp, 0, (int) Math.min(tmp.length, n - skipped));
+            if (r < 0) break;
+            skipped += r;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        // reset 会让探测器重复看到同一段数据
+        return false;
+    }
+}
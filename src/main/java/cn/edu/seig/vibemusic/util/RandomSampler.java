@@ -0,0 +1,160 @@
+package cn.edu.seig.vibemusic.util;
+
+import cn.edu.seig.vibemusic.mapper.ArtistMapper;
+import cn.edu.seig.vibemusic.mapper.PlaylistMapper;
+import cn.edu.seig.vibemusic.mapper.SongMapper;
+import cn.edu.seig.vibemusic.model.entity.Artist;
+import cn.edu.seig.vibemusic.model.entity.Playlist;
+import cn.edu.seig.vibemusic.model.entity.Song;
+import cn.edu.seig.vibemusic.model.vo.PlaylistVO;
+import cn.edu.seig.vibemusic.model.vo.SongVO;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 随机抽样：替代 ORDER BY RAND() LIMIT n（每次都要对全表排序）。
+ * 内存中为 歌曲/歌手/歌单 各维护一份存活 id 的 long[]，抽取 n 个不重复 id 后按主键批量取回。
+ * 写操作只需调用 invalidateXxx() 标记失效，下次抽样时重新加载 id 列表；另有定时兜底刷新。
+ */
+@Component
+public class RandomSampler {
+
+    @Autowired
+    private SongMapper songMapper;
+    @Autowired
+    private ArtistMapper artistMapper;
+    @Autowired
+    private PlaylistMapper playlistMapper;
+
+    private final IdPool songs = new IdPool();
+    private final IdPool artists = new IdPool();
+    private final IdPool playlists = new IdPool();
+
+    /** 单类实体的 id 池：ids 为 null 表示需要（重新）加载 */
+    private static final class IdPool {
+        volatile long[] ids;
+    }
+
+    // ================= 抽样 =================
+
+    /** 随机歌曲（带 artistName），顺序即抽样顺序 */
+    public List<SongVO> randomSongs(int n) {
+        long[] picked = sample(ids(songs, songMapper, new QueryWrapper<Song>().select("id")), n);
+        if (picked.length == 0) return new ArrayList<>();
+        return inPickedOrder(picked, songMapper.getSongsWithArtistByIds(toList(picked)), SongVO::getSongId);
+    }
+
+    /** 随机歌手 */
+    public List<Artist> randomArtists(int n) {
+        long[] picked = sample(ids(artists, artistMapper, new QueryWrapper<Artist>().select("id")), n);
+        if (picked.length == 0) return new ArrayList<>();
+        return inPickedOrder(picked, artistMapper.selectBatchIds(toList(picked)), Artist::getArtistId);
+    }
+
+    /** 随机歌单 */
+    public List<PlaylistVO> randomPlaylists(int n) {
+        long[] picked = sample(ids(playlists, playlistMapper, new QueryWrapper<Playlist>().select("id")), n);
+        if (picked.length == 0) return new ArrayList<>();
+        List<PlaylistVO> list = playlistMapper.selectBatchIds(toList(picked)).stream().map(p -> {
+            PlaylistVO vo = new PlaylistVO();
+            BeanUtils.copyProperties(p, vo);
+            return vo;
+        }).collect(Collectors.toList());
+        return inPickedOrder(picked, list, PlaylistVO::getPlaylistId);
+    }
+
+    // ================= 失效 =================
+
+    public void invalidateSongs() {
+        songs.ids = null;
+    }
+
+    public void invalidateArtists() {
+        artists.ids = null;
+    }
+
+    public void invalidatePlaylists() {
+        playlists.ids = null;
+    }
+
+    /** 兜底：每 10 分钟整体失效一次，纠正直接改库等未经过服务层的变更 */
+    @Scheduled(fixedDelay = 10 * 60 * 1000L)
+    public void scheduledRefresh() {
+        invalidateSongs();
+        invalidateArtists();
+        invalidatePlaylists();
+    }
+
+    // ================= 内部实现 =================
+
+    private <T> long[] ids(IdPool pool, BaseMapper<T> mapper, QueryWrapper<T> idOnly) {
+        long[] ids = pool.ids;
+        if (ids != null) return ids;
+        synchronized (pool) {
+            ids = pool.ids;
+            if (ids == null) {
+                ids = mapper.selectObjs(idOnly).stream()
+                        .filter(Objects::nonNull)
+                        .mapToLong(o -> ((Number) o).longValue())
+                        .toArray();
+                pool.ids = ids;
+            }
+        }
+        return ids;
+    }
+
+    /** 从 ids 中抽取 min(n, ids.length) 个不重复元素；n 远小于总数时只做少量查重 */
+    static long[] sample(long[] ids, int n) {
+        int k = Math.min(n, ids.length);
+        long[] out = new long[k];
+        if (k == 0) return out;
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        if (k * 2 > ids.length) {
+            // 抽取比例较高：对副本做部分 Fisher-Yates 洗牌
+            long[] copy = ids.clone();
+            for (int i = 0; i < k; i++) {
+                int j = i + rnd.nextInt(copy.length - i);
+                long t = copy[i]; copy[i] = copy[j]; copy[j] = t;
+                out[i] = copy[i];
+            }
+            return out;
+        }
+        int filled = 0;
+        while (filled < k) {
+            long candidate = ids[rnd.nextInt(ids.length)];
+            boolean dup = false;
+            for (int i = 0; i < filled; i++) {
+                if (out[i] == candidate) { dup = true; break; }
+            }
+            if (!dup) out[filled++] = candidate;
+        }
+        return out;
+    }
+
+    private static List<Long> toList(long[] ids) {
+        List<Long> list = new ArrayList<>(ids.length);
+        for (long id : ids) list.add(id);
+        return list;
+    }
+
+    /** 按抽样顺序重排（批量查询结果顺序由数据库决定），已被删除的 id 自动跳过 */
+    private static <T> List<T> inPickedOrder(long[] picked, List<T> rows, Function<T, Long> idOf) {
+        Map<Long, T> byId = new HashMap<>();
+        for (T row : rows) byId.put(idOf.apply(row), row);
+        List<T> result = new ArrayList<>(picked.length);
+        for (long id : picked) {
+            T row = byId.get(id);
+            if (row != null) result.add(row);
+        }
+        return result;
+    }
+}
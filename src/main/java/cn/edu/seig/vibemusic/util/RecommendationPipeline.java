@@ -0,0 +1,276 @@
+package cn.edu.seig.vibemusic.util;
+
+import cn.edu.seig.vibemusic.mapper.GenreMapper;
+import cn.edu.seig.vibemusic.mapper.UserFavoriteMapper;
+import cn.edu.seig.vibemusic.model.entity.Genre;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 个性化推荐的后台预计算管线。
+ * 每个用户维护两份 Redis 数据：
+ * - rec:style:{userId}  Hash，风格id -> 收藏歌曲中该风格出现次数（另含 _built 标记，表示已构建）
+ * - rec:cand:{userId}   ZSet，候选歌曲id -> 分数（该歌曲各风格权重之和），已排除用户收藏
+ * 收藏歌曲时按受影响风格增量更新，取消收藏时整体重建；推荐接口只读取候选集并抽样。
+ * 全量重建写入临时键后在 MULTI/EXEC 中 RENAME 替换，读取方不会看到空集合；同一用户的重建与增量更新按用户加锁串行执行。
+ * 另有 rec:users ZSet 登记拥有候选集的用户（分数为最近构建时间），供删除歌曲时定向清理。
+ */
+@Component
+public class RecommendationPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(RecommendationPipeline.class);
+
+    public static final String STYLE_KEY_PREFIX = "rec:style:";
+    public static final String CANDIDATE_KEY_PREFIX = "rec:cand:";
+    public static final String USER_REGISTRY_KEY = "rec:users";
+    // 重建时先写入 {正式键}:tmp:{uuid}，再 RENAME 替换正式键
+    public static final String TMP_KEY_MARKER = ":tmp:";
+    private static final String BUILT_FIELD = "_built";
+    // 全量构建时参与候选的风格数
+    private static final int TOP_STYLES = 5;
+    // 每个用户保留的候选数量
+    private static final int MAX_CANDIDATES = 200;
+    static final long TTL_DAYS = 7;
+    // 后台任务队列上限，队列满时丢弃任务（候选集在下次重建时修正）
+    private static final int QUEUE_CAPACITY = 1000;
+    // 按用户分段的锁数量
+    private static final int LOCK_STRIPES = 64;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private UserFavoriteMapper userFavoriteMapper;
+    @Autowired
+    private GenreMapper genreMapper;
+
+    // 后台计算线程，避免阻塞收藏/推荐请求
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+        Thread t = new Thread(r, "rec-pipeline");
+        t.setDaemon(true);
+        return t;
+    }, new ThreadPoolExecutor.AbortPolicy());
+    // 正在重建的用户，避免同一用户重复提交
+    private final Set<Long> rebuilding = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    // 同一用户的重建与增量更新互斥
+    private final Object[] userLocks = new Object[LOCK_STRIPES];
+
+    {
+        for (int i = 0; i < LOCK_STRIPES; i++) userLocks[i] = new Object();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // ================= 对外入口（均为异步） =================
+
+    /** 用户收藏歌曲后：按该歌曲的风格增量更新 */
+    public void onSongCollected(Long userId, Long songId) {
+        if (userId == null || songId == null) return;
+        try {
+            executor.execute(() -> {
+                try {
+                    synchronized (lockFor(userId)) {
+                        applyCollect(userId, songId);
+                    }
+                } catch (Exception e) {
+                    log.warn("[RecommendationPipeline] Incremental update failed, userId={}, songId={}: {}", userId, songId, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("[RecommendationPipeline] Queue full, dropped incremental update, userId={}, songId={}", userId, songId);
+        }
+    }
+
+    /** 用户取消收藏后：风格权重下降会影响已被截断的候选，直接重建 */
+    public void onSongUncollected(Long userId, Long songId) {
+        submitRebuild(userId);
+    }
+
+    /** 异步重建某个用户的候选集 */
+    public void submitRebuild(Long userId) {
+        if (userId == null || !rebuilding.add(userId)) return;
+        try {
+            executor.execute(() -> {
+                try {
+                    synchronized (lockFor(userId)) {
+                        rebuild(userId);
+                    }
+                } catch (Exception e) {
+                    log.warn("[RecommendationPipeline] Rebuild failed, userId={}: {}", userId, e.getMessage());
+                } finally {
+                    rebuilding.remove(userId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rebuilding.remove(userId);
+            log.warn("[RecommendationPipeline] Queue full, dropped rebuild, userId={}", userId);
+        }
+    }
+
+    /**
+     * 读取候选集中分数最高的 limit 个歌曲id（按分数降序）
+     *
+     * @return 候选id；尚未构建时返回 null（并触发异步构建），已构建但无候选时返回空列表
+     */
+    public List<Long> topCandidates(Long userId, int limit) {
+        String candKey = CANDIDATE_KEY_PREFIX + userId;
+        Set<String> members = stringRedisTemplate.opsForZSet().reverseRange(candKey, 0, limit - 1);
+        if (members != null && !members.isEmpty()) {
+            return members.stream().map(Long::valueOf).collect(Collectors.toList());
+        }
+        if (!Boolean.TRUE.equals(stringRedisTemplate.opsForHash().hasKey(STYLE_KEY_PREFIX + userId, BUILT_FIELD))) {
+            submitRebuild(userId);
+            return null;
+        }
+        return Collections.emptyList();
+    }
+
+    // ================= 计算实现 =================
+
+    /** 全量构建：收藏 -> 风格计数 -> 取前 N 个风格的歌曲打分 -> 写入 ZSet */
+    void rebuild(Long userId) {
+        String styleKey = STYLE_KEY_PREFIX + userId;
+        String candKey = CANDIDATE_KEY_PREFIX + userId;
+
+        List<Long> favoriteSongIds = userFavoriteMapper.getFavoriteSongIdsByUserId(userId);
+        Map<Long, Long> styleWeights = new HashMap<>();
+        if (!favoriteSongIds.isEmpty()) {
+            for (Genre g : genreMapper.selectList(new QueryWrapper<Genre>().select("song_id", "style_id").in("song_id", favoriteSongIds))) {
+                if (g.getStyleId() != null) styleWeights.merge(g.getStyleId(), 1L, Long::sum);
+            }
+        }
+
+        List<Long> topStyles = styleWeights.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue(), a.getValue()))
+                .limit(TOP_STYLES)
+                .map(Map.Entry::getKey)
+                .toList();
+        Map<Long, Double> scores = scoreSongsWithStyles(topStyles, styleWeights, new HashSet<>(favoriteSongIds));
+
+        Map<String, String> hash = new HashMap<>();
+        styleWeights.forEach((k, v) -> hash.put(String.valueOf(k), String.valueOf(v)));
+        hash.put(BUILT_FIELD, "1");
+
+        // 先写临时键，再一次性替换正式键
+        String suffix = TMP_KEY_MARKER + UUID.randomUUID();
+        String tmpStyleKey = styleKey + suffix;
+        String tmpCandKey = candKey + suffix;
+        stringRedisTemplate.opsForHash().putAll(tmpStyleKey, hash);
+        stringRedisTemplate.expire(tmpStyleKey, 1, TimeUnit.HOURS);
+        boolean hasCandidates = zaddTop(tmpCandKey, scores);
+        if (hasCandidates) stringRedisTemplate.expire(tmpCandKey, 1, TimeUnit.HOURS);
+        stringRedisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public List<Object> execute(RedisOperations operations) throws DataAccessException {
+                operations.multi();
+                operations.rename(tmpStyleKey, styleKey);
+                operations.expire(styleKey, TTL_DAYS, TimeUnit.DAYS);
+                if (hasCandidates) {
+                    operations.rename(tmpCandKey, candKey);
+                    operations.expire(candKey, TTL_DAYS, TimeUnit.DAYS);
+                } else {
+                    operations.delete(candKey);
+                }
+                return operations.exec();
+            }
+        });
+        register(userId);
+    }
+
+    /** 增量：只重算包含被收藏歌曲风格的那部分歌曲，其余候选分数不受影响 */
+    void applyCollect(Long userId, Long songId) {
+        String styleKey = STYLE_KEY_PREFIX + userId;
+        String candKey = CANDIDATE_KEY_PREFIX + userId;
+        if (!Boolean.TRUE.equals(stringRedisTemplate.opsForHash().hasKey(styleKey, BUILT_FIELD))) {
+            // 尚未构建过，直接走全量
+            submitRebuild(userId);
+            return;
+        }
+
+        List<Long> songStyles = genreMapper.selectList(new QueryWrapper<Genre>().select("song_id", "style_id").eq("song_id", songId))
+                .stream().map(Genre::getStyleId).filter(Objects::nonNull).distinct().toList();
+        for (Long styleId : songStyles) {
+            stringRedisTemplate.opsForHash().increment(styleKey, String.valueOf(styleId), 1L);
+        }
+        stringRedisTemplate.opsForZSet().remove(candKey, String.valueOf(songId));
+
+        if (!songStyles.isEmpty()) {
+            Map<Long, Long> styleWeights = new HashMap<>();
+            stringRedisTemplate.<String, String>opsForHash().entries(styleKey).forEach((k, v) -> {
+                if (!BUILT_FIELD.equals(k)) styleWeights.put(Long.valueOf(k), Long.valueOf(v));
+            });
+            Set<Long> favorites = new HashSet<>(userFavoriteMapper.getFavoriteSongIdsByUserId(userId));
+            Map<Long, Double> scores = scoreSongsWithStyles(songStyles, styleWeights, favorites);
+            if (!scores.isEmpty()) {
+                Set<ZSetOperations.TypedTuple<String>> tuples = scores.entrySet().stream()
+                        .map(e -> ZSetOperations.TypedTuple.of(String.valueOf(e.getKey()), e.getValue()))
+                        .collect(Collectors.toSet());
+                stringRedisTemplate.opsForZSet().add(candKey, tuples);
+            }
+            // 仅保留分数最高的 MAX_CANDIDATES 个
+            stringRedisTemplate.opsForZSet().removeRange(candKey, 0, -(MAX_CANDIDATES + 1));
+        }
+        stringRedisTemplate.expire(styleKey, TTL_DAYS, TimeUnit.DAYS);
+        stringRedisTemplate.expire(candKey, TTL_DAYS, TimeUnit.DAYS);
+        register(userId);
+    }
+
+    /** 登记/续期拥有候选集的用户 */
+    private void register(Long userId) {
+        stringRedisTemplate.opsForZSet().add(USER_REGISTRY_KEY, String.valueOf(userId), System.currentTimeMillis());
+    }
+
+    /** 对包含给定风格的歌曲打分：分数 = 该歌曲全部风格的用户权重之和，排除已收藏 */
+    private Map<Long, Double> scoreSongsWithStyles(List<Long> styleIds, Map<Long, Long> styleWeights, Set<Long> excludeSongIds) {
+        Map<Long, Double> scores = new HashMap<>();
+        if (styleIds.isEmpty()) return scores;
+        String inStyles = styleIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        List<Genre> rows = genreMapper.selectList(new QueryWrapper<Genre>()
+                .select("song_id", "style_id")
+                .inSql("song_id", "SELECT song_id FROM tb_genre WHERE style_id IN (" + inStyles + ")"));
+        for (Genre g : rows) {
+            if (g.getSongId() == null || g.getStyleId() == null || excludeSongIds.contains(g.getSongId())) continue;
+            Long w = styleWeights.get(g.getStyleId());
+            if (w == null || w <= 0) continue;
+            scores.merge(g.getSongId(), w.doubleValue(), Double::sum);
+        }
+        return scores;
+    }
+
+    /** 写入分数最高的 MAX_CANDIDATES 个候选，无候选时返回 false（不创建键） */
+    private boolean zaddTop(String candKey, Map<Long, Double> scores) {
+        if (scores.isEmpty()) return false;
+        Set<ZSetOperations.TypedTuple<String>> tuples = scores.entrySet().stream()
+                .sorted((a, b) -> Double.compare(b.getValue(), a.getValue()))
+                .limit(MAX_CANDIDATES)
+                .map(e -> ZSetOperations.TypedTuple.of(String.valueOf(e.getKey()), e.getValue()))
+                .collect(Collectors.toSet());
+        stringRedisTemplate.opsForZSet().add(candKey, tuples);
+        return true;
+    }
+
+    private Object lockFor(Long userId) {
+        return userLocks[Math.floorMod(userId.hashCode(), LOCK_STRIPES)];
+    }
+}
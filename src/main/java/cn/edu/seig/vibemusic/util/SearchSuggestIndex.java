@@ -0,0 +1,175 @@
+package cn.edu.seig.vibemusic.util;
+
+import cn.edu.seig.vibemusic.model.vo.SearchSuggestionVO;
+import cn.edu.seig.vibemusic.model.vo.SongVO;
+import cn.edu.seig.vibemusic.service.HotSearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 搜索联想索引：歌名 / 歌手名 / 专辑名 / 热搜词 的内存压缩前缀树（原文与拼音首字母均可匹配）。
+ * - 数据来源：歌曲取自 SongSearchIndex（已随歌曲/歌手/专辑写操作增量刷新），热搜词与热度取自热搜榜本地快照，构建与查询都不访问 MySQL；
+ * - 排序：热搜热度优先，其次为同名歌曲数量、文本长度，每个前缀的结果在构建时已预先算好；
+ * - 刷新：定时检查歌曲索引版本与热搜词的排名，变化时在后台全量重建并整体替换，重建期间旧索引照常服务。
+ *   热搜热度按半衰期加权，每次刷新数值都会整体衰减，但联想只依赖热搜词之间的相对顺序，因此比较的是排名而不是数值或快照引用。
+ */
+@Component
+public class SearchSuggestIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchSuggestIndex.class);
+
+    // 每个前缀预先保留的联想数，也是单次查询的上限
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private static final String TYPE_SONG = "song";
+    private static final String TYPE_ARTIST = "artist";
+    private static final String TYPE_ALBUM = "album";
+    private static final String TYPE_KEYWORD = "keyword";
+
+    @Autowired
+    private SongSearchIndex songSearchIndex;
+    @Autowired
+    private HotSearchService hotSearchService;
+
+    private volatile Snapshot snapshot;
+
+    /** 构建结果：前缀树 + 按排名排列的联想条目，以及构建时的歌曲索引版本与热搜排名 */
+    private record Snapshot(SuggestTrie trie, SearchSuggestionVO[] entries, long indexVersion, List<List<String>> hotRanking) {
+    }
+
+    /** 构建期的候选条目 */
+    private static final class Candidate {
+        final String text;
+        final String type;
+        final Long id;
+        final String normalized;
+        int count;
+        double hotScore;
+
+        Candidate(String text, String type, Long id, String normalized) {
+            this.text = text;
+            this.type = type;
+            this.id = id;
+            this.normalized = normalized;
+        }
+    }
+
+    /**
+     * 前缀联想
+     *
+     * @param keyword 用户已输入的前缀
+     * @param limit   返回数量（最多 MAX_SUGGESTIONS）
+     * @return 联想列表，索引尚未构建时为空
+     */
+    public List<SearchSuggestionVO> suggest(String keyword, int limit) {
+        Snapshot current = snapshot;
+        String prefix = SongSearchIndex.normalize(keyword);
+        if (current == null || prefix.isEmpty() || limit <= 0) return List.of();
+        int[] ids = current.trie().lookup(prefix, Math.min(limit, MAX_SUGGESTIONS));
+        List<SearchSuggestionVO> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            SearchSuggestionVO entry = current.entries()[id];
+            // 返回副本，避免调用方修改索引中的条目
+            result.add(new SearchSuggestionVO(entry.getText(), entry.getType(), entry.getId()));
+        }
+        return result;
+    }
+
+    /** 歌曲索引或热搜快照变化后重建（默认每 2 秒检查一次） */
+    @Scheduled(fixedDelayString = "${search-suggest.refresh-interval-ms:2000}")
+    public void refreshIfChanged() {
+        try {
+            if (!songSearchIndex.isReady()) return;
+            long indexVersion = songSearchIndex.version();
+            Map<String, Double> hot = hotSearchService.getKeywordScores();
+            Map<String, Double> hotScores = normalizedScores(hot);
+            List<List<String>> hotRanking = ranking(hotScores);
+            Snapshot current = snapshot;
+            if (current != null && current.indexVersion() == indexVersion && current.hotRanking().equals(hotRanking)) return;
+            snapshot = build(indexVersion, hot, hotScores, hotRanking);
+        } catch (Exception e) {
+            log.warn("[SearchSuggestIndex] Rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    /** 热搜词归一化后合并热度 */
+    private static Map<String, Double> normalizedScores(Map<String, Double> hot) {
+        Map<String, Double> hotScores = new HashMap<>();
+        hot.forEach((keyword, score) -> hotScores.merge(SongSearchIndex.normalize(keyword), score, Double::sum));
+        return hotScores;
+    }
+
+    /**
+     * 热搜词的排名：按热度降序分组，热度相同的词在同一组（组内按文本排序）。
+     * 整体衰减不改变排名；同分与否会影响联想的次级排序，因此并列关系也要保留
+     */
+    static List<List<String>> ranking(Map<String, Double> hotScores) {
+        List<Map.Entry<String, Double>> sorted = new ArrayList<>(hotScores.entrySet());
+        sorted.sort(Map.Entry.<String, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        List<List<String>> groups = new ArrayList<>();
+        Double last = null;
+        for (Map.Entry<String, Double> entry : sorted) {
+            if (entry.getKey().isEmpty()) continue;
+            if (last == null || Double.compare(last, entry.getValue()) != 0) groups.add(new ArrayList<>());
+            groups.get(groups.size() - 1).add(entry.getKey());
+            last = entry.getValue();
+        }
+        return groups;
+    }
+
+    private Snapshot build(long indexVersion, Map<String, Double> hot, Map<String, Double> hotScores, List<List<String>> hotRanking) {
+        long start = System.nanoTime();
+        Map<String, Candidate> candidates = new HashMap<>();
+        songSearchIndex.forEachSong(song -> collect(candidates, song));
+
+        Set<String> catalogTexts = new HashSet<>();
+        for (Candidate c : candidates.values()) {
+            c.hotScore = hotScores.getOrDefault(c.normalized, 0D);
+            catalogTexts.add(c.normalized);
+        }
+        // 与歌名/歌手名/专辑名相同的热搜词已由对应条目承载热度，其余作为独立的热搜词条目
+        hot.forEach((keyword, score) -> {
+            String normalized = SongSearchIndex.normalize(keyword);
+            if (normalized.isEmpty() || catalogTexts.contains(normalized)) return;
+            Candidate c = candidates.computeIfAbsent(TYPE_KEYWORD + ":" + normalized,
+                    k -> new Candidate(keyword.trim(), TYPE_KEYWORD, null, normalized));
+            c.hotScore = hotScores.getOrDefault(normalized, 0D);
+        });
+
+        List<Candidate> ranked = new ArrayList<>(candidates.values());
+        ranked.sort(Comparator.comparingDouble((Candidate c) -> -c.hotScore)
+                .thenComparingInt(c -> -c.count)
+                .thenComparingInt(c -> c.text.length())
+                .thenComparing(c -> c.text));
+
+        SearchSuggestionVO[] entries = new SearchSuggestionVO[ranked.size()];
+        List<List<String>> keys = new ArrayList<>(ranked.size());
+        for (int i = 0; i < ranked.size(); i++) {
+            Candidate c = ranked.get(i);
+            entries[i] = new SearchSuggestionVO(c.text, c.type, c.id);
+            String initials = SongSearchIndex.pinyinInitials(c.normalized);
+            keys.add(initials.isEmpty() ? List.of(c.normalized) : List.of(c.normalized, initials));
+        }
+        SuggestTrie trie = SuggestTrie.build(keys, MAX_SUGGESTIONS);
+        log.info("[SearchSuggestIndex] Built, entries={}, cost={}ms", entries.length, (System.nanoTime() - start) / 1_000_000);
+        return new Snapshot(trie, entries, indexVersion, hotRanking);
+    }
+
+    private static void collect(Map<String, Candidate> candidates, SongVO song) {
+        add(candidates, song.getSongName(), TYPE_SONG, song.getSongId());
+        add(candidates, song.getArtistName(), TYPE_ARTIST, song.getArtistId());
+        add(candidates, song.getAlbum(), TYPE_ALBUM, song.getAlbumId());
+    }
+
+    /** 同类型同文本只保留一个条目（id 取第一次出现的），count 记录出现次数 */
+    private static void add(Map<String, Candidate> candidates, String text, String type, Long id) {
+        String normalized = SongSearchIndex.normalize(text);
+        if (normalized.isEmpty()) return;
+        candidates.computeIfAbsent(type + ":" + normalized, k -> new Candidate(text.trim(), type, id, normalized)).count++;
+    }
+}
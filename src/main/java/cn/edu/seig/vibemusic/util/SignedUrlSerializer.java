@@ -0,0 +1,29 @@
+package cn.edu.seig.vibemusic.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.IOException;
+
+/**
+ * 对象 URL 字段的输出序列化器，在 VO/实体的 URL 字段上通过 @JsonSerialize(using = SignedUrlSerializer.class) 声明，
+ * 接口响应中输出预签名 URL；其他字符串（评论内容、昵称等用户输入）不经过签名。
+ * Spring MVC 的 ObjectMapper 通过 SpringHandlerInstantiator 创建本类并注入 ObjectUrlSigner；
+ * Redis 序列化器自行创建的 ObjectMapper 不会注入，此时原样输出，缓存中保存的仍是原始 URL。
+ */
+public class SignedUrlSerializer extends StdSerializer<String> {
+
+    @Autowired(required = false)
+    private ObjectUrlSigner objectUrlSigner;
+
+    public SignedUrlSerializer() {
+        super(String.class);
+    }
+
+    @Override
+    public void serialize(String value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeString(objectUrlSigner == null ? value : objectUrlSigner.sign(value));
+    }
+}
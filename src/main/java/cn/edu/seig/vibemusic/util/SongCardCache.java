@@ -0,0 +1,116 @@
+package cn.edu.seig.vibemusic.util;
+
+import cn.edu.seig.vibemusic.config.BatchReadableCache;
+import cn.edu.seig.vibemusic.mapper.ArtistMapper;
+import cn.edu.seig.vibemusic.mapper.SongMapper;
+import cn.edu.seig.vibemusic.model.entity.Artist;
+import cn.edu.seig.vibemusic.model.entity.Song;
+import cn.edu.seig.vibemusic.model.vo.SongCardVO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 歌曲卡片缓存（songCardCache，按歌曲 id 一条）。
+ * 最近播放、收藏、歌单歌曲等列表只需拿到歌曲 id，再批量读取卡片：一次批量读取缓存（本地未命中的合并为一次 MGET），
+ * 未命中的一次批量查询歌曲与歌手后回填。
+ * 卡片写入时记录 song/artist/album 依赖，歌曲或歌手变更时由 CacheInvalidator 精确失效。
+ */
+@Component
+public class SongCardCache {
+
+    public static final String CACHE_NAME = "songCardCache";
+
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private SongMapper songMapper;
+    @Autowired
+    private ArtistMapper artistMapper;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 批量读取歌曲卡片
+     *
+     * @param songIds 歌曲id
+     * @return songId -> 卡片，按传入顺序；不存在的歌曲不包含在结果中
+     */
+    public Map<Long, SongCardVO> getCards(Collection<Long> songIds) {
+        Map<Long, SongCardVO> result = new LinkedHashMap<>();
+        if (songIds == null || songIds.isEmpty()) return result;
+
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        Set<Long> ids = new LinkedHashSet<>(songIds);
+        ids.remove(null);
+        // 一次批量读取缓存（本地未命中的 key 合并为一次 MGET）
+        Map<Object, Object> cached = Map.of();
+        if (cache != null) {
+            try { cached = BatchReadableCache.getAll(cache, ids, stringRedisTemplate); } catch (Exception ignored) {}
+        }
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            SongCardVO card = cached.get(id) instanceof SongCardVO c ? c : null;
+            // 先占位保持顺序，未命中的稍后回填
+            result.put(id, card);
+            if (card == null) missing.add(id);
+        }
+
+        if (!missing.isEmpty()) {
+            Map<Long, SongCardVO> loaded = load(missing);
+            for (Long id : missing) {
+                SongCardVO card = loaded.get(id);
+                if (card == null) {
+                    result.remove(id);
+                    continue;
+                }
+                result.put(id, card);
+                if (cache != null) {
+                    try { cache.put(id, card); } catch (Exception ignored) {}
+                }
+            }
+        }
+        return result;
+    }
+
+    /** 一次查询歌曲、一次查询歌手，组装卡片 */
+    private Map<Long, SongCardVO> load(List<Long> songIds) {
+        List<Song> songs = songMapper.selectBatchIds(songIds);
+        Set<Long> artistIds = new HashSet<>();
+        for (Song s : songs) {
+            if (s.getArtistId() != null) artistIds.add(s.getArtistId());
+        }
+        Map<Long, Artist> artists = new HashMap<>();
+        if (!artistIds.isEmpty()) {
+            for (Artist a : artistMapper.selectBatchIds(artistIds)) {
+                artists.put(a.getArtistId(), a);
+            }
+        }
+
+        Map<Long, SongCardVO> cards = new HashMap<>();
+        for (Song s : songs) {
+            SongCardVO card = new SongCardVO();
+            card.setSongId(s.getSongId());
+            card.setSongName(s.getSongName());
+            card.setArtistId(s.getArtistId());
+            Artist artist = s.getArtistId() == null ? null : artists.get(s.getArtistId());
+            if (artist != null) {
+                card.setArtistName(artist.getArtistName());
+                card.setArtistAvatar(artist.getAvatar());
+            }
+            card.setAlbum(s.getAlbum());
+            card.setAlbumId(s.getAlbumId());
+            card.setDuration(s.getDuration());
+            card.setStyle(s.getStyle());
+            card.setCoverUrl(s.getCoverUrl());
+            card.setAudioUrl(s.getAudioUrl());
+            card.setReleaseTime(s.getReleaseTime());
+            cards.put(s.getSongId(), card);
+        }
+        return cards;
+    }
+}
@@ -0,0 +1,278 @@
+package cn.edu.seig.vibemusic.util;
+
+import cn.edu.seig.vibemusic.mapper.SongMapper;
+import cn.edu.seig.vibemusic.model.entity.Song;
+import cn.edu.seig.vibemusic.model.vo.SongVO;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import net.sourceforge.pinyin4j.PinyinHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 歌曲关键字搜索的内存倒排索引。
+ * 对 歌名 / 歌手名 / 专辑名 及其拼音首字母建立 单字 + 双字(bigram) 倒排表：
+ * 启动时全量构建，歌曲/歌手/专辑写操作后按 id 增量刷新。
+ * 查询时先对倒排表求交得到候选集，再逐条 contains 校验，语义与原 LIKE '%kw%' 保持一致。
+ */
+@Component
+public class SongSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SongSearchIndex.class);
+
+    @Autowired
+    private SongMapper songMapper;
+
+    // songId -> 文档
+    private volatile Map<Long, Doc> docs = new ConcurrentHashMap<>();
+    // token -> songId 集合
+    private volatile Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    // 全量构建完成前不对外提供查询，由调用方回退 SQL
+    private volatile boolean ready = false;
+    // 每次构建或增量刷新后递增，供依赖索引内容的组件（如搜索联想）判断是否需要重建
+    private final AtomicLong version = new AtomicLong();
+
+    /** 索引文档：原始 VO + 参与匹配的归一化文本（原文与拼音首字母） */
+    private record Doc(SongVO vo, String[] texts) {
+    }
+
+    /** 启动完成后全量构建 */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("[SongSearchIndex] Initial build failed, fallback to SQL search.", e);
+        }
+    }
+
+    /** 兜底：每 30 分钟全量重建一次，修正可能遗漏的增量 */
+    @Scheduled(initialDelay = 30 * 60 * 1000L, fixedDelay = 30 * 60 * 1000L)
+    public void scheduledRebuild() {
+        try { rebuild(); } catch (Exception e) { log.warn("[SongSearchIndex] Scheduled rebuild failed: {}", e.getMessage()); }
+    }
+
+    /** 全量构建（新建后整体替换，构建期间旧索引照常服务） */
+    public synchronized void rebuild() {
+        Map<Long, Doc> newDocs = new ConcurrentHashMap<>();
+        Map<String, Set<Long>> newPostings = new ConcurrentHashMap<>();
+        for (SongVO vo : songMapper.getAllSongsWithArtist()) {
+            addDoc(newDocs, newPostings, vo);
+        }
+        this.docs = newDocs;
+        this.postings = newPostings;
+        this.ready = true;
+        version.incrementAndGet();
+        log.info("[SongSearchIndex] Built, songs={}, tokens={}", newDocs.size(), newPostings.size());
+    }
+
+    /**
+     * 关键字分页搜索
+     *
+     * @return 命中分页；索引未就绪时返回 null，由调用方回退 SQL
+     */
+    public IPage<SongVO> search(Page<SongVO> page, String keyword) {
+        if (!ready) return null;
+        String kw = normalize(keyword);
+        if (kw.isEmpty()) return null;
+        Page<SongVO> result = new Page<>(page.getCurrent(), page.getSize());
+
+        Map<Long, Doc> docs = this.docs;
+        List<Long> hits = new ArrayList<>();
+        for (Long songId : candidates(kw)) {
+            Doc doc = docs.get(songId);
+            if (doc != null && matches(doc, kw)) hits.add(songId);
+        }
+        Collections.sort(hits);
+
+        result.setTotal(hits.size());
+        long from = Math.max(0, (page.getCurrent() - 1) * page.getSize());
+        long to = Math.min(hits.size(), from + page.getSize());
+        List<SongVO> records = new ArrayList<>();
+        for (long i = from; i < to; i++) {
+            Doc doc = docs.get(hits.get((int) i));
+            if (doc == null) continue;
+            // 返回副本，避免调用方修改 likeStatus 等字段污染索引
+            SongVO copy = new SongVO();
+            BeanUtils.copyProperties(doc.vo(), copy);
+            records.add(copy);
+        }
+        result.setRecords(records);
+        return result;
+    }
+
+    /** 刷新单首歌曲（新增/更新后调用） */
+    public void refreshSong(Long songId) {
+        if (songId == null) return;
+        refreshSongs(List.of(songId));
+    }
+
+    /** 按 id 批量刷新：先移除，再按数据库最新数据回填（已删除的歌曲自然不会回填） */
+    public synchronized void refreshSongs(Collection<Long> songIds) {
+        if (!ready || songIds == null || songIds.isEmpty()) return;
+        List<Long> ids = songIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) return;
+        for (Long id : ids) {
+            removeDoc(id);
+        }
+        for (SongVO vo : songMapper.getSongsWithArtistByIds(ids)) {
+            addDoc(docs, postings, vo);
+        }
+        version.incrementAndGet();
+    }
+
+    /** 移除歌曲（删除后调用） */
+    public synchronized void removeSongs(Collection<Long> songIds) {
+        if (!ready || songIds == null) return;
+        for (Long id : songIds) {
+            if (id != null) removeDoc(id);
+        }
+        version.incrementAndGet();
+    }
+
+    /** 索引是否已完成全量构建 */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** 索引内容版本号 */
+    public long version() {
+        return version.get();
+    }
+
+    /** 遍历索引中的全部歌曲（只读，调用方不得修改传入的 VO） */
+    public void forEachSong(Consumer<SongVO> action) {
+        for (Doc doc : docs.values()) {
+            action.accept(doc.vo());
+        }
+    }
+
+    /** 歌手变更：刷新索引中与数据库中属于该歌手的全部歌曲 */
+    public void refreshArtist(Long artistId) {
+        if (!ready || artistId == null) return;
+        Set<Long> ids = new HashSet<>();
+        docs.values().forEach(d -> {
+            if (artistId.equals(d.vo().getArtistId())) ids.add(d.vo().getSongId());
+        });
+        songMapper.selectList(new QueryWrapper<Song>().select("id").eq("artist_id", artistId))
+                .forEach(s -> ids.add(s.getSongId()));
+        refreshSongs(ids);
+    }
+
+    /** 专辑变更：刷新索引中与数据库中属于该专辑的全部歌曲 */
+    public void refreshAlbum(Long albumId) {
+        if (!ready || albumId == null) return;
+        Set<Long> ids = new HashSet<>();
+        docs.values().forEach(d -> {
+            if (albumId.equals(d.vo().getAlbumId())) ids.add(d.vo().getSongId());
+        });
+        songMapper.selectList(new QueryWrapper<Song>().select("id").eq("album_id", albumId))
+                .forEach(s -> ids.add(s.getSongId()));
+        refreshSongs(ids);
+    }
+
+    // ================= 内部实现 =================
+
+    private void addDoc(Map<Long, Doc> docs, Map<String, Set<Long>> postings, SongVO vo) {
+        if (vo == null || vo.getSongId() == null) return;
+        List<String> texts = new ArrayList<>(6);
+        for (String field : new String[]{vo.getSongName(), vo.getArtistName(), vo.getAlbum()}) {
+            String text = normalize(field);
+            if (text.isEmpty()) continue;
+            texts.add(text);
+            String initials = pinyinInitials(text);
+            if (!initials.isEmpty() && !initials.equals(text)) texts.add(initials);
+        }
+        Doc doc = new Doc(vo, texts.toArray(new String[0]));
+        docs.put(vo.getSongId(), doc);
+        for (String text : doc.texts()) {
+            for (String token : tokenize(text)) {
+                postings.computeIfAbsent(token, k -> ConcurrentHashMap.newKeySet()).add(vo.getSongId());
+            }
+        }
+    }
+
+    private void removeDoc(Long songId) {
+        Doc doc = docs.remove(songId);
+        if (doc == null) return;
+        for (String text : doc.texts()) {
+            for (String token : tokenize(text)) {
+                Set<Long> set = postings.get(token);
+                if (set == null) continue;
+                set.remove(songId);
+                if (set.isEmpty()) postings.remove(token, set);
+            }
+        }
+    }
+
+    /** 以关键字的 token 对倒排表求交，从最短的倒排表开始 */
+    private Set<Long> candidates(String kw) {
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String token : tokenize(kw)) {
+            if (kw.length() > 1 && token.length() == 1) continue; // 多字关键字只用 bigram
+            Set<Long> set = postings.get(token);
+            if (set == null) return Set.of();
+            lists.add(set);
+        }
+        if (lists.isEmpty()) return Set.of();
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    private boolean matches(Doc doc, String kw) {
+        for (String text : doc.texts()) {
+            if (text.contains(kw)) return true;
+        }
+        return false;
+    }
+
+    /** 单字 + 相邻双字 */
+    private static Set<String> tokenize(String text) {
+        Set<String> tokens = new HashSet<>();
+        for (int i = 0; i < text.length(); i++) {
+            tokens.add(text.substring(i, i + 1));
+            if (i + 1 < text.length()) tokens.add(text.substring(i, i + 2));
+        }
+        return tokens;
+    }
+
+    static String normalize(String s) {
+        return s == null ? "" : s.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** 拼音首字母：汉字取拼音首字母，字母数字原样保留，其它字符忽略。如 "周杰伦" -> "zjl" */
+    static String pinyinInitials(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean hasHan = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN) {
+                String[] py = PinyinHelper.toHanyuPinyinStringArray(c);
+                if (py != null && py.length > 0 && !py[0].isEmpty()) {
+                    sb.append(py[0].charAt(0));
+                    hasHan = true;
+                }
+            } else if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+            }
+        }
+        // 不含汉字的文本无需额外的首字母形式
+        return hasHan ? sb.toString() : "";
+    }
+}
@@ -0,0 +1,147 @@
+package cn.edu.seig.vibemusic.util;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 不可变的压缩前缀树（radix tree），用于搜索联想。
+ * 每个条目以整数 id 表示，id 越小排名越靠前（构建前由调用方按热度排好序）；
+ * 构建时为每个节点预先计算子树内排名前 topK 的条目，查询只需沿前缀下行一次，直接返回该节点的结果，不遍历子树。
+ * 单子节点的链在冻结时合并为一条边，节点数与键的分叉数成正比。
+ */
+public final class SuggestTrie {
+
+    private static final int[] NO_IDS = new int[0];
+
+    private final Node root;
+
+    private SuggestTrie(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * 构建前缀树
+     *
+     * @param keys 每个条目 id 对应的匹配键（已归一化，可有多个，如原文与拼音首字母），下标即条目 id
+     * @param topK 每个节点保留的条目数
+     */
+    public static SuggestTrie build(List<List<String>> keys, int topK) {
+        Builder root = new Builder();
+        for (int id = 0; id < keys.size(); id++) {
+            for (String key : keys.get(id)) {
+                if (key == null || key.isEmpty()) continue;
+                Builder node = root;
+                for (int i = 0; i < key.length(); i++) {
+                    node = node.children.computeIfAbsent(key.charAt(i), k -> new Builder());
+                }
+                node.add(id);
+            }
+        }
+        return new SuggestTrie(root.freeze(new char[0], topK));
+    }
+
+    /**
+     * 以 prefix 为前缀的条目 id，按排名升序
+     *
+     * @param prefix 已归一化的前缀
+     * @param limit  最多返回的数量（不超过构建时的 topK）
+     */
+    public int[] lookup(String prefix, int limit) {
+        if (prefix == null || prefix.isEmpty() || limit <= 0) return NO_IDS;
+        Node node = root;
+        int i = 0;
+        int n = prefix.length();
+        while (i < n) {
+            node = node.child(prefix.charAt(i));
+            if (node == null) return NO_IDS;
+            // 比较边上的字符，前缀可能在边的中间结束
+            char[] label = node.label;
+            int j = 0;
+            while (j < label.length && i < n) {
+                if (label[j] != prefix.charAt(i)) return NO_IDS;
+                j++;
+                i++;
+            }
+        }
+        int[] ids = node.top;
+        return ids.length <= limit ? ids : Arrays.copyOf(ids, limit);
+    }
+
+    // ================= 节点 =================
+
+    private static final class Node {
+        private final char[] label;     // 入边上的字符（首字符即父节点中的索引字符）
+        private final char[] keys;      // 已排序的子节点首字符
+        private final Node[] children;
+        private final int[] top;        // 子树内排名前 topK 的条目 id（升序）
+
+        Node(char[] label, char[] keys, Node[] children, int[] top) {
+            this.label = label;
+            this.keys = keys;
+            this.children = children;
+            this.top = top;
+        }
+
+        Node child(char c) {
+            int idx = Arrays.binarySearch(keys, c);
+            return idx >= 0 ? children[idx] : null;
+        }
+    }
+
+    /** 构建期使用的可变节点 */
+    private static final class Builder {
+        private final Map<Character, Builder> children = new TreeMap<>();
+        private int[] ids = NO_IDS;
+        private int size;
+
+        void add(int id) {
+            // 同一条目的多个键可能落在同一节点
+            if (size > 0 && ids[size - 1] == id) return;
+            if (size == ids.length) ids = Arrays.copyOf(ids, Math.max(2, size * 2));
+            ids[size++] = id;
+        }
+
+        Node freeze(char[] label, int topK) {
+            // 压缩：没有条目且只有一个子节点时与子节点合并为一条边
+            Builder node = this;
+            StringBuilder edge = new StringBuilder().append(label);
+            while (node.size == 0 && node.children.size() == 1 && edge.length() > 0) {
+                Map.Entry<Character, Builder> only = node.children.entrySet().iterator().next();
+                edge.append(only.getKey());
+                node = only.getValue();
+            }
+
+            char[] keys = new char[node.children.size()];
+            Node[] nodes = new Node[node.children.size()];
+            // 条目按 id 升序加入，本节点自身的条目已有序且无重复
+            int[] merged = Arrays.copyOf(node.ids, Math.min(node.size, topK));
+            int i = 0;
+            for (Map.Entry<Character, Builder> e : node.children.entrySet()) {
+                keys[i] = e.getKey();
+                nodes[i] = e.getValue().freeze(new char[]{e.getKey()}, topK);
+                merged = mergeTop(merged, nodes[i].top, topK);
+                i++;
+            }
+            return new Node(edge.toString().toCharArray(), keys, nodes, merged);
+        }
+
+        /** 合并两个条目 id 集合，保留最小的 topK 个（去重、升序） */
+        private static int[] mergeTop(int[] a, int[] b, int topK) {
+            int[] all = Arrays.copyOf(a, a.length + b.length);
+            System.arraycopy(b, 0, all, a.length, b.length);
+            Arrays.sort(all);
+            return dedupTop(all, topK);
+        }
+
+        private static int[] dedupTop(int[] sorted, int topK) {
+            int[] out = new int[Math.min(sorted.length, topK)];
+            int n = 0;
+            for (int i = 0; i < sorted.length && n < out.length; i++) {
+                if (n == 0 || out[n - 1] != sorted[i]) out[n++] = sorted[i];
+            }
+            return n == out.length ? out : Arrays.copyOf(out, n);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package cn.edu.seig.vibemusic.util;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 文本文件编码识别（歌词等用户上传的文本可能是 UTF-8 或 GBK/GB18030）
+ */
+public class TextDecodeUtil {
+
+    /**
+     * 简易智能解码：优先 UTF-8；若中文命中率低或含大量替换符，则回退 GB18030
+     */
+    public static String smartDecode(byte[] bytes) {
+        // UTF-8 BOM 处理
+        if (bytes.length >= 3 && (bytes[0] & 0xFF) == 0xEF && (bytes[1] & 0xFF) == 0xBB && (bytes[2] & 0xFF) == 0xBF) {
+            String s = new String(bytes, 3, bytes.length - 3, StandardCharsets.UTF_8);
+            return s;
+        }
+
+        String utf8 = new String(bytes, StandardCharsets.UTF_8);
+        int utf8Score = chineseScore(utf8) - replacementPenalty(utf8);
+
+        String gb = new String(bytes, Charset.forName("GB18030"));
+        int gbScore = chineseScore(gb) - replacementPenalty(gb);
+
+        return gbScore > utf8Score ? gb : utf8;
+    }
+
+    private static int chineseScore(String s) {
+        int score = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (isCjk(c)) score++;
+        }
+        return score;
+    }
+
+    private static int replacementPenalty(String s) {
+        int cnt = 0;
+        for (int i = 0; i < s.length(); i++) if (s.charAt(i) == '\uFFFD') cnt++;
+        return cnt * 5; // 大量替换符扣分
+    }
+
+    private static boolean isCjk(char c) {
+        return (c >= '\u4E00' && c <= '\u9FFF') // CJK Unified Ideographs
+                || (c >= '\u3400' && c <= '\u4DBF') // CJK Extension A
+                || (c >= '\uF900' && c <= '\uFAFF'); // CJK Compatibility Ideographs
+    }
+}
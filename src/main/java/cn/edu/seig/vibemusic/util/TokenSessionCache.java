@@ -0,0 +1,134 @@
+package cn.edu.seig.vibemusic.util;
+
+import cn.edu.seig.vibemusic.constant.JwtClaimsConstant;
+import cn.edu.seig.vibemusic.constant.RedisKeyConstant;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地会话缓存：记录已在 Redis 中校验通过的 token（按 token 摘要），过期时间取自 JWT。
+ * 命中时拦截器无需访问 Redis；注销/改密/禁用用户时通过 Redis pub/sub 广播，各节点立即清理本地条目。
+ * 本地条目另有最长存活时间，兜底丢失的广播消息。
+ */
+@Component
+public class TokenSessionCache implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenSessionCache.class);
+
+    // 消息格式：T|{tokenHash} 注销单个 token；U|{userId} 注销用户的全部 token
+    private static final String REVOKE_TOKEN = "T";
+    private static final String REVOKE_USER = "U";
+    // 与 token 在 Redis 中的有效期一致
+    private static final long SESSION_TTL_HOURS = 6;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    private final Cache<String, Session> sessions = Caffeine.newBuilder()
+            .maximumSize(50_000)
+            .expireAfterWrite(Duration.ofMinutes(30))
+            .build();
+    // 每收到一次注销消息加一：校验期间发生注销时不写入本地，避免把刚注销的 token 重新缓存
+    private final AtomicLong revocations = new AtomicLong();
+
+    private record Session(Long userId, long expiresAt) {
+    }
+
+    /**
+     * 判断 token 是否为有效会话（本地命中直接返回，否则查 Redis 并校验 JWT）
+     *
+     * @param token JWT token
+     * @return 会话是否有效；JWT 校验失败时抛出异常
+     */
+    public boolean isActive(String token) {
+        String hash = JwtUtil.tokenHash(token);
+        long now = System.currentTimeMillis();
+        Session session = sessions.getIfPresent(hash);
+        if (session != null) {
+            if (session.expiresAt() > now) return true;
+            sessions.invalidate(hash);
+            return false;
+        }
+
+        long generation = revocations.get();
+        if (stringRedisTemplate.opsForValue().get(token) == null) {
+            return false;
+        }
+        Map<String, Object> claims = JwtUtil.parseToken(token);
+        Object uid = claims.get(JwtClaimsConstant.USER_ID);
+        Session loaded = new Session(uid == null ? null : TypeConversionUtil.toLong(uid), JwtUtil.getExpiresAt(token));
+        if (revocations.get() == generation) {
+            sessions.put(hash, loaded);
+        }
+        return true;
+    }
+
+    /** 登记用户的登录 token，便于之后按用户注销全部会话 */
+    public void register(Long userId, String token) {
+        if (userId == null || userId <= 0 || token == null) return;
+        String key = RedisKeyConstant.SESSION_USER_PREFIX + userId;
+        stringRedisTemplate.opsForSet().add(key, token);
+        stringRedisTemplate.expire(key, SESSION_TTL_HOURS, TimeUnit.HOURS);
+    }
+
+    /** 注销单个 token（调用方负责删除 Redis 中的 token） */
+    public void revokeToken(String token) {
+        if (token == null || token.isEmpty()) return;
+        String hash = JwtUtil.tokenHash(token);
+        evictLocal(REVOKE_TOKEN, hash);
+        publish(REVOKE_TOKEN, hash);
+    }
+
+    /** 注销用户的全部会话：删除 Redis 中该用户登记的 token，并广播清理各节点本地缓存 */
+    public void revokeUser(Long userId) {
+        if (userId == null) return;
+        String key = RedisKeyConstant.SESSION_USER_PREFIX + userId;
+        Set<String> tokens = stringRedisTemplate.opsForSet().members(key);
+        if (tokens != null && !tokens.isEmpty()) {
+            stringRedisTemplate.delete(tokens);
+        }
+        stringRedisTemplate.delete(key);
+        evictLocal(REVOKE_USER, String.valueOf(userId));
+        publish(REVOKE_USER, String.valueOf(userId));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int idx = body.indexOf('|');
+        if (idx <= 0) return;
+        evictLocal(body.substring(0, idx), body.substring(idx + 1));
+    }
+
+    private void evictLocal(String type, String value) {
+        revocations.incrementAndGet();
+        if (REVOKE_TOKEN.equals(type)) {
+            sessions.invalidate(value);
+        } else if (REVOKE_USER.equals(type)) {
+            Long userId = Long.valueOf(value);
+            sessions.asMap().entrySet().removeIf(e -> userId.equals(e.getValue().userId()));
+        }
+    }
+
+    private void publish(String type, String value) {
+        try {
+            stringRedisTemplate.convertAndSend(RedisKeyConstant.SESSION_REVOKE_CHANNEL, type + "|" + value);
+        } catch (Exception e) {
+            log.warn("[TokenSessionCache] Publish revocation failed, {}|{}: {}", type, value, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package cn.edu.seig.vibemusic.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * 请求中对象 URL 字段的反序列化器，在 DTO 的 URL 字段上通过 @JsonDeserialize(using = UnsignedUrlDeserializer.class) 声明。
+ * 前端会把接口返回的预签名 URL 原样提交回来，这里去掉签名参数，入库的始终是原始 URL。
+ */
+public class UnsignedUrlDeserializer extends StdDeserializer<String> {
+
+    public UnsignedUrlDeserializer() {
+        super(String.class);
+    }
+
+    @Override
+    public String deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        return ObjectUrlSigner.unsign(p.getValueAsString());
+    }
+}
@@ -0,0 +1,67 @@
+package cn.edu.seig.vibemusic.config;
+
+import cn.edu.seig.vibemusic.model.vo.SongVO;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BatchReadableCacheTest {
+
+    private final GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void redisCacheIsReadWithOneMget() {
+        Cache cache = RedisCacheManager.builder(mock(RedisCacheWriter.class))
+                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig()
+                        .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
+                        .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer)))
+                .build()
+                .getCache("songCardCache");
+
+        RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+        List<String> requestedKeys = new ArrayList<>();
+        when(stringCommands.mGet(any(byte[][].class))).thenAnswer(invocation -> {
+            for (Object raw : invocation.getArguments()) requestedKeys.add(new String((byte[]) raw, StandardCharsets.UTF_8));
+            return Arrays.asList(serializer.serialize(song(1L, "晴天")), null, serializer.serialize(NullValue.INSTANCE));
+        });
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        StringRedisTemplate template = mock(StringRedisTemplate.class);
+        when(template.execute(any(RedisCallback.class))).thenAnswer(invocation ->
+                ((RedisCallback<?>) invocation.getArgument(0)).doInRedis(connection));
+
+        Map<Object, Object> hits = BatchReadableCache.getAll(cache, List.of(1L, 2L, 3L), template);
+
+        assertEquals(List.of("songCardCache::1", "songCardCache::2", "songCardCache::3"), requestedKeys);
+        verify(stringCommands, times(1)).mGet(any(byte[][].class));
+        assertEquals(Map.of(1L, song(1L, "晴天")), hits);
+    }
+
+    private static SongVO song(Long id, String name) {
+        SongVO vo = new SongVO();
+        vo.setSongId(id);
+        vo.setSongName(name);
+        return vo;
+    }
+}
@@ -0,0 +1,115 @@
+package cn.edu.seig.vibemusic.config;
+
+import cn.edu.seig.vibemusic.model.vo.PlaylistDetailVO;
+import cn.edu.seig.vibemusic.model.vo.SongVO;
+import cn.edu.seig.vibemusic.result.PageResult;
+import cn.edu.seig.vibemusic.result.Result;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 与原 Jackson2JsonRedisSerializer 的对比：编码大小与编码/解码耗时。
+ * 大小是确定的，直接断言；耗时受机器与 JIT 影响，只输出结果供参考，不作断言。
+ */
+class CompactRedisSerializerComparisonTest {
+
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 5_000;
+
+    private final RedisSerializer<Object> json = RedisConfig.jackson2JsonRedisSerializer();
+    private final CompactRedisSerializer compact = new CompactRedisSerializer(json, 1024);
+
+    @Test
+    void songPageIsSmaller() {
+        // 分页接口的典型缓存值：一页 20 首歌曲
+        Result<PageResult<SongVO>> page = Result.success(new PageResult<>(1_234L, songs(1, 20)));
+
+        Comparison c = compare("song page (20)", page);
+
+        assertTrue(c.compactBytes < c.jsonBytes, c.toString());
+    }
+
+    @Test
+    void playlistDetailIsSmallerAndCompressed() {
+        // 歌单详情：元信息 + 80 首歌曲，超过压缩阈值
+        PlaylistDetailVO detail = new PlaylistDetailVO();
+        detail.setPlaylistId(42L);
+        detail.setTitle("华语流行 · 2000 年代经典");
+        detail.setCoverUrl("http://127.0.0.1:9000/vibe-music-data/playlists/9b2c6f0e-3f41-4a7e-9d2b-4c1e8b7a5d10-cover.jpg");
+        detail.setIntroduction("收录 2000 年代最具代表性的华语流行歌曲，陪你重温青春里的那些旋律。".repeat(3));
+        detail.setCreatorId(7L);
+        detail.setCreatorName("vibe");
+        detail.setCreatorAvatar("http://127.0.0.1:9000/vibe-music-data/users/5e1d2c3b-7a8f-4e6d-9c0b-1a2b3c4d5e6f-avatar.png");
+        detail.setSongs(songs(100, 80));
+
+        Comparison c = compare("playlist detail (80)", Result.success(detail));
+
+        assertTrue(c.compactBytes * 2 < c.jsonBytes, c.toString());
+    }
+
+    private Comparison compare(String name, Object value) {
+        byte[] jsonBytes = json.serialize(value);
+        byte[] compactBytes = compact.serialize(value);
+        // 两种编码解码后的内容一致
+        assertEquals(json.deserialize(jsonBytes), compact.deserialize(compactBytes));
+
+        for (int i = 0; i < WARMUP; i++) {
+            json.deserialize(json.serialize(value));
+            compact.deserialize(compact.serialize(value));
+        }
+        Comparison c = new Comparison(name, jsonBytes.length, compactBytes.length,
+                encodeMicros(json, value), decodeMicros(json, jsonBytes),
+                encodeMicros(compact, value), decodeMicros(compact, compactBytes));
+        System.out.println(c);
+        return c;
+    }
+
+    private static double encodeMicros(RedisSerializer<Object> serializer, Object value) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) serializer.serialize(value);
+        return (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+    }
+
+    private static double decodeMicros(RedisSerializer<Object> serializer, byte[] bytes) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) serializer.deserialize(bytes);
+        return (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+    }
+
+    private static List<SongVO> songs(long firstId, int count) {
+        List<SongVO> songs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long id = firstId + i;
+            SongVO vo = new SongVO();
+            vo.setSongId(id);
+            vo.setSongName("歌曲 " + id);
+            vo.setArtistId(id % 17);
+            vo.setArtistName("歌手 " + id % 17);
+            vo.setAlbumId(id % 31);
+            vo.setAlbum("专辑 " + id % 31);
+            vo.setDuration(String.valueOf(180 + id % 120));
+            vo.setCoverUrl("http://127.0.0.1:9000/vibe-music-data/songCovers/" + id + "-1f2e3d4c-5b6a-7980-a1b2-c3d4e5f60718.jpg");
+            vo.setAudioUrl("http://127.0.0.1:9000/vibe-music-data/songs/" + id + "-8a7b6c5d-4e3f-2a1b-0c9d-8e7f6a5b4c3d.mp3");
+            vo.setLikeStatus(0);
+            vo.setReleaseTime(LocalDate.of(2000 + (int) (id % 20), 1 + (int) (id % 12), 1 + (int) (id % 28)));
+            songs.add(vo);
+        }
+        return songs;
+    }
+
+    private record Comparison(String name, int jsonBytes, int compactBytes,
+                              double jsonEncodeUs, double jsonDecodeUs, double compactEncodeUs, double compactDecodeUs) {
+        @Override
+        public String toString() {
+            return String.format("[%s] bytes json=%d compact=%d (%.0f%%); encode json=%.1fus compact=%.1fus; decode json=%.1fus compact=%.1fus",
+                    name, jsonBytes, compactBytes, 100.0 * compactBytes / jsonBytes,
+                    jsonEncodeUs, compactEncodeUs, jsonDecodeUs, compactDecodeUs);
+        }
+    }
+}
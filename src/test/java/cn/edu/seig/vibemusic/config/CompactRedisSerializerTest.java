@@ -0,0 +1,132 @@
+package cn.edu.seig.vibemusic.config;
+
+import cn.edu.seig.vibemusic.model.vo.*;
+import cn.edu.seig.vibemusic.result.PageResult;
+import cn.edu.seig.vibemusic.result.Result;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactRedisSerializerTest {
+
+    private final RedisSerializer<Object> json = RedisConfig.jackson2JsonRedisSerializer();
+    private final CompactRedisSerializer compact = new CompactRedisSerializer(json, 1024);
+
+    @Test
+    void roundTripsPagedSongResult() {
+        List<SongVO> songs = new ArrayList<>();
+        songs.add(song(1L, "晴天"));
+        songs.add(song(2L, "七里香"));
+        Result<PageResult<SongVO>> value = Result.success(new PageResult<>(2L, songs));
+
+        Object read = compact.deserialize(compact.serialize(value));
+
+        Result<?> result = assertInstanceOf(Result.class, read);
+        PageResult<?> page = assertInstanceOf(PageResult.class, result.getData());
+        assertEquals(2L, page.getTotal());
+        SongVO first = assertInstanceOf(SongVO.class, page.getItems().get(0));
+        assertEquals("晴天", first.getSongName());
+        assertEquals(LocalDate.of(2003, 7, 31), first.getReleaseTime());
+    }
+
+    @Test
+    void roundTripsDetailAndNestedTypes() {
+        SongDetailVO detail = new SongDetailVO();
+        detail.setSongId(1L);
+        detail.setSongName("晴天");
+        detail.setReleaseTime(LocalDate.of(2003, 7, 31));
+        CommentVO comment = new CommentVO();
+        comment.setContent("好听");
+        detail.setComments(new ArrayList<>(List.of(comment)));
+
+        SongDetailVO read = assertInstanceOf(SongDetailVO.class, ((Result<?>) compact.deserialize(compact.serialize(Result.success(detail)))).getData());
+
+        assertEquals("晴天", read.getSongName());
+        assertEquals(LocalDate.of(2003, 7, 31), read.getReleaseTime());
+        assertEquals("好听", assertInstanceOf(CommentVO.class, read.getComments().get(0)).getContent());
+    }
+
+    @Test
+    void roundTripsCardMapAndLyrics() {
+        Map<Long, SongCardVO> cards = new HashMap<>();
+        SongCardVO card = new SongCardVO();
+        card.setSongId(3L);
+        card.setSongName("稻香");
+        cards.put(3L, card);
+        List<LyricLine> lyrics = new ArrayList<>(List.of(new LyricLine(1200L, "第一行"), new LyricLine(3400L, "第二行")));
+
+        Map<?, ?> readCards = assertInstanceOf(Map.class, compact.deserialize(compact.serialize(cards)));
+        assertEquals("稻香", assertInstanceOf(SongCardVO.class, readCards.values().iterator().next()).getSongName());
+
+        Result<?> readLyrics = (Result<?>) compact.deserialize(compact.serialize(Result.success(lyrics)));
+        assertEquals(lyrics, readLyrics.getData());
+    }
+
+    @Test
+    void nullAndEmptyValues() {
+        assertArrayEquals(new byte[0], compact.serialize(null));
+        assertNull(compact.deserialize(null));
+        assertNull(compact.deserialize(new byte[0]));
+    }
+
+    @Test
+    void compressesOnlyAboveThreshold() {
+        Result<List<SongVO>> small = Result.success(new ArrayList<>(List.of(song(1L, "晴天"))));
+        List<SongVO> many = new ArrayList<>();
+        for (long i = 0; i < 200; i++) many.add(song(i, "歌曲" + i));
+        Result<List<SongVO>> large = Result.success(many);
+
+        byte[] smallBytes = compact.serialize(small);
+        byte[] largeBytes = compact.serialize(large);
+        assertEquals(0x01, smallBytes[0]);
+        assertEquals(0x02, largeBytes[0]);
+        assertEquals(200, ((List<?>) ((Result<?>) compact.deserialize(largeBytes)).getData()).size());
+
+        CompactRedisSerializer uncompressed = new CompactRedisSerializer(json, 0);
+        byte[] plain = uncompressed.serialize(large);
+        assertEquals(0x01, plain[0]);
+        assertTrue(plain.length > largeBytes.length);
+        assertEquals(200, ((List<?>) ((Result<?>) uncompressed.deserialize(plain)).getData()).size());
+    }
+
+    @Test
+    void readsEntriesWrittenInTheOtherMode() {
+        Result<SongVO> value = Result.success(song(1L, "晴天"));
+
+        // compact 模式读取切换前写入的 JSON
+        SongVO fromJson = (SongVO) ((Result<?>) compact.deserialize(json.serialize(value))).getData();
+        assertEquals("晴天", fromJson.getSongName());
+
+        // 切回 json 模式后读取紧凑格式，且写出的是 JSON
+        CompactRedisSerializer jsonMode = new CompactRedisSerializer(json, 1024, false);
+        SongVO fromCompact = (SongVO) ((Result<?>) jsonMode.deserialize(compact.serialize(value))).getData();
+        assertEquals("晴天", fromCompact.getSongName());
+        assertEquals('{', (char) jsonMode.serialize(value)[0]);
+    }
+
+    @Test
+    void usesShortTypeCodes() {
+        byte[] compactBytes = compact.serialize(Result.success(song(1L, "晴天")));
+        byte[] jsonBytes = json.serialize(Result.success(song(1L, "晴天")));
+        // 已登记的类型写短类型码，不再写完整类名
+        assertFalse(new String(compactBytes, StandardCharsets.ISO_8859_1).contains("cn.edu.seig"));
+        assertTrue(compactBytes.length < jsonBytes.length, "compact=" + compactBytes.length + ", json=" + jsonBytes.length);
+    }
+
+    private static SongVO song(Long id, String name) {
+        SongVO vo = new SongVO();
+        vo.setSongId(id);
+        vo.setSongName(name);
+        vo.setArtistName("周杰伦");
+        vo.setReleaseTime(LocalDate.of(2003, 7, 31));
+        return vo;
+    }
+}
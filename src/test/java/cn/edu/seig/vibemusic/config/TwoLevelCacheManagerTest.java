@@ -0,0 +1,157 @@
+package cn.edu.seig.vibemusic.config;
+
+import cn.edu.seig.vibemusic.model.vo.SongVO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TwoLevelCacheManagerTest {
+
+    private StringRedisTemplate stringRedisTemplate;
+    private ConcurrentMapCache remoteCache;
+    // 读取 Redis 时执行的钩子，用于模拟读取期间到达的失效消息
+    private Runnable onRemoteGet = () -> {};
+    private final AtomicInteger remoteGets = new AtomicInteger();
+    private TwoLevelCacheManager manager;
+
+    @BeforeEach
+    void setUp() {
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        remoteCache = new ConcurrentMapCache("songCache") {
+            @Override
+            public ValueWrapper get(Object key) {
+                remoteGets.incrementAndGet();
+                ValueWrapper wrapper = super.get(key);
+                onRemoteGet.run();
+                return wrapper;
+            }
+        };
+        CacheManager remote = mock(CacheManager.class);
+        when(remote.getCache("songCache")).thenReturn(remoteCache);
+        manager = new TwoLevelCacheManager(remote, stringRedisTemplate, new LocalCacheProperties(),
+                new GenericJackson2JsonRedisSerializer());
+    }
+
+    @Test
+    void localHitsShareTheCachedInstance() {
+        Cache cache = manager.getCache("songCache");
+        SongVO song = song(1L, "晴天");
+        cache.put(1L, song);
+
+        assertSame(song, cache.get(1L).get());
+        assertSame(song, cache.get(1L, SongVO.class));
+        assertEquals(0, remoteGets.get(), "should be served from the local cache");
+    }
+
+    @Test
+    void copyOnReadCachesReturnIndependentCopies() {
+        LocalCacheProperties properties = new LocalCacheProperties();
+        properties.getCopyOnRead().add("songCache");
+        CacheManager remote = mock(CacheManager.class);
+        when(remote.getCache("songCache")).thenReturn(remoteCache);
+        Cache cache = new TwoLevelCacheManager(remote, stringRedisTemplate, properties, new GenericJackson2JsonRedisSerializer())
+                .getCache("songCache");
+        cache.put(1L, song(1L, "晴天"));
+
+        ((SongVO) cache.get(1L).get()).setSongName("changed");
+
+        assertEquals("晴天", ((SongVO) cache.get(1L).get()).getSongName());
+        assertEquals(0, remoteGets.get(), "should be served from the local cache");
+    }
+
+    @Test
+    void invalidationDuringRemoteReadIsNotOverwritten() {
+        remoteCache.put("1", song(1L, "旧值"));
+        Cache cache = manager.getCache("songCache");
+        // 读取 Redis 后、回填本地前，其它节点更新了该条目并广播失效
+        onRemoteGet = () -> {
+            remoteCache.put("1", song(1L, "新值"));
+            manager.onMessage(message("other|E|songCache|1"), null);
+        };
+
+        assertEquals("旧值", ((SongVO) cache.get("1").get()).getSongName());
+
+        onRemoteGet = () -> {};
+        assertEquals("新值", ((SongVO) cache.get("1").get()).getSongName());
+        assertEquals(2, remoteGets.get(), "stale value must not have been filled into the local cache");
+    }
+
+    @Test
+    void evictMessageDropsLocalCopy() {
+        Cache cache = manager.getCache("songCache");
+        cache.put("1", song(1L, "晴天"));
+        remoteCache.put("1", song(1L, "稻香"));
+
+        manager.onMessage(message("other|E|songCache|1"), null);
+
+        assertEquals("稻香", ((SongVO) cache.get("1").get()).getSongName());
+    }
+
+    @Test
+    void loaderMissDoesNotBroadcast() {
+        Cache cache = manager.getCache("songCache");
+
+        SongVO loaded = cache.get("1", () -> song(1L, "晴天"));
+
+        assertEquals("晴天", loaded.getSongName());
+        verify(stringRedisTemplate, never()).convertAndSend(anyString(), anyString());
+
+        cache.evict("1");
+        verify(stringRedisTemplate).convertAndSend(eq(TwoLevelCacheManager.INVALIDATION_CHANNEL), anyString());
+    }
+
+    @Test
+    void nullValuesAreCachedLocally() {
+        Cache cache = manager.getCache("songCache");
+        cache.put("empty", null);
+
+        assertNotNull(cache.get("empty"));
+        assertNull(cache.get("empty").get());
+        assertEquals(0, remoteGets.get());
+    }
+
+    @Test
+    void getAllReadsOnlyLocalMissesFromRemoteAndFillsLocal() {
+        Cache cache = manager.getCache("songCache");
+        cache.put(1L, song(1L, "晴天"));
+        remoteCache.put(2L, song(2L, "稻香"));
+
+        Map<Object, Object> hits = ((BatchReadableCache) cache).getAll(List.of(1L, 2L, 3L));
+
+        assertEquals(Set.of(1L, 2L), hits.keySet());
+        assertEquals("稻香", ((SongVO) hits.get(2L)).getSongName());
+        // 只有 2、3 读取了 Redis
+        assertEquals(2, remoteGets.get());
+
+        assertEquals(Set.of(1L, 2L), ((BatchReadableCache) cache).getAll(List.of(1L, 2L)).keySet());
+        assertEquals(2, remoteGets.get(), "remote hits should have been filled into the local cache");
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(TwoLevelCacheManager.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static SongVO song(Long id, String name) {
+        SongVO vo = new SongVO();
+        vo.setSongId(id);
+        vo.setSongName(name);
+        return vo;
+    }
+}
@@ -0,0 +1,109 @@
+package cn.edu.seig.vibemusic.util;
+
+import cn.edu.seig.vibemusic.model.vo.LyricLine;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LyricTimelineTest {
+
+    @Test
+    void parseAppliesOffsetAndExpandsMultipleTags() {
+        String lrc = String.join("\n",
+                "[ti:晴天]",
+                "[offset:-500]",
+                "[00:00.2]前奏",
+                "[00:12.34][01:05.678]故事的小黄花",
+                "[00:30:05]从出生那年就飘着",
+                "[00:45.00]",
+                "纯文本行",
+                "[xx:yy]无效标签");
+
+        assertEquals(List.of(
+                new LyricLine(-300, "前奏"),
+                new LyricLine(11_840, "故事的小黄花"),
+                new LyricLine(29_550, "从出生那年就飘着"),
+                new LyricLine(44_500, ""),
+                new LyricLine(65_178, "故事的小黄花")), LyricTimeline.parse(lrc));
+    }
+
+    @Test
+    void onlyFirstOffsetTagCounts() {
+        List<LyricLine> lines = LyricTimeline.parse("[offset:100]\n[offset:5000]\n[00:01.00]a");
+
+        assertEquals(List.of(new LyricLine(1_100, "a")), lines);
+    }
+
+    @Test
+    void roundTripParsedLyrics() {
+        String lrc = "[offset:-1500]\n[00:00.50][00:03.00]开头\n[00:02.00]第二行 with ascii\n[00:02.00]同一时刻\n[10:00.999]结尾";
+        List<LyricLine> lines = LyricTimeline.parse(lrc);
+
+        // offset 使第一行落在负时间，首个时间差为负
+        assertEquals(-1_000, lines.get(0).getTimeMs());
+        assertEquals(lines, LyricTimeline.decode(LyricTimeline.encode(lines)));
+    }
+
+    @Test
+    void roundTripUnsortedLinesWithNegativeDeltas() {
+        List<LyricLine> lines = List.of(
+                new LyricLine(90_000, "b"),
+                new LyricLine(1_000, null),
+                new LyricLine(-20, "负时间"),
+                new LyricLine(Long.MAX_VALUE / 4, "很晚"),
+                new LyricLine(0, "😀 emoji"));
+
+        List<LyricLine> decoded = LyricTimeline.decode(LyricTimeline.encode(lines));
+
+        assertEquals(lines.size(), decoded.size());
+        for (int i = 0; i < lines.size(); i++) {
+            assertEquals(lines.get(i).getTimeMs(), decoded.get(i).getTimeMs());
+            // null 文本编码为空串
+            assertEquals(lines.get(i).getText() == null ? "" : lines.get(i).getText(), decoded.get(i).getText());
+        }
+    }
+
+    @Test
+    void roundTripEmpty() {
+        assertEquals(List.of(), LyricTimeline.decode(LyricTimeline.encode(LyricTimeline.parse(""))));
+        assertEquals(List.of(), LyricTimeline.parse(null));
+    }
+
+    @Test
+    void decodeRejectsBadVersionAndTruncation() {
+        assertThrows(IllegalArgumentException.class, () -> LyricTimeline.decode(null));
+        assertThrows(IllegalArgumentException.class, () -> LyricTimeline.decode(new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> LyricTimeline.decode(new byte[]{2, 0}));
+
+        byte[] data = LyricTimeline.encode(List.of(new LyricLine(1_000, "歌词"), new LyricLine(2_000, "第二行")));
+        for (int n = 1; n < data.length; n++) {
+            byte[] truncated = Arrays.copyOf(data, n);
+            assertThrows(IllegalArgumentException.class, () -> LyricTimeline.decode(truncated), "length " + n);
+        }
+    }
+
+    @Test
+    void decodeRejectsCountLargerThanData() {
+        // 声称有 Integer.MAX_VALUE 行，实际只有 2 字节数据：应直接拒绝而不是预分配
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(1);
+        out.writeBytes(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07});
+        out.writeBytes(new byte[]{0, 0});
+        assertThrows(IllegalArgumentException.class, () -> LyricTimeline.decode(out.toByteArray()));
+
+        // 超出 int 范围的行数
+        byte[] huge = {1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01, 0, 0};
+        assertThrows(IllegalArgumentException.class, () -> LyricTimeline.decode(huge));
+    }
+
+    @Test
+    void decodeRejectsTextLengthBeyondData() {
+        // 1 行，时间差 0，文本长度 Integer.MAX_VALUE
+        byte[] data = {1, 1, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 'a'};
+        assertThrows(IllegalArgumentException.class, () -> LyricTimeline.decode(data));
+    }
+}
@@ -0,0 +1,208 @@
+package cn.edu.seig.vibemusic.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MediaHeaderProbeTest {
+
+    // MPEG1 Layer III，128kbps，44100Hz
+    private static final byte[] MP3_STEREO = {(byte) 0xFF, (byte) 0xFB, (byte) 0x90, (byte) 0x00};
+    private static final byte[] MP3_MONO = {(byte) 0xFF, (byte) 0xFB, (byte) 0x90, (byte) 0xC0};
+
+    @Test
+    void forFileSelectsByNameOrContentType() {
+        assertNotNull(MediaHeaderProbe.forFile("a.MP3", null));
+        assertNotNull(MediaHeaderProbe.forFile(null, "audio/flac"));
+        assertNotNull(MediaHeaderProbe.forFile("v.mov", ""));
+        assertNotNull(MediaHeaderProbe.forFile("x", "video/mp4"));
+        assertNull(MediaHeaderProbe.forFile("a.wav", "audio/wav"));
+        assertNull(MediaHeaderProbe.forFile(null, null));
+    }
+
+    @Test
+    void mp3XingFrameCount() {
+        // 1000 帧 × 1152 / 44100 ≈ 26.1 秒
+        byte[] file = mp3(MP3_STEREO, 36, "Xing", 1000, 0, 4096);
+        assertEquals(26, probe("a.mp3", file));
+    }
+
+    @Test
+    void mp3XingInMonoFrameAfterId3AndJunk() {
+        byte[] file = concat(id3(2000), new byte[100], mp3(MP3_MONO, 21, "Info", 2297, 0, 4096));
+        // 2297 × 1152 / 44100 ≈ 60.0 秒
+        assertEquals(60, probe("a.mp3", file));
+    }
+
+    @Test
+    void mp3VbriFrameCount() {
+        byte[] file = mp3(MP3_STEREO, 36, "VBRI", 0, 4594, 4096);
+        // 4594 × 1152 / 44100 ≈ 120.0 秒
+        assertEquals(120, probe("a.mp3", file));
+    }
+
+    @Test
+    void mp3CbrEstimatedFromSize() {
+        // 128kbps 下 30 秒的音频数据为 480000 字节，ID3 标签不计入时长
+        byte[] audio = new byte[480_000];
+        System.arraycopy(MP3_STEREO, 0, audio, 0, 4);
+        byte[] file = concat(id3(1000), audio);
+        assertEquals(30, probe("a.mp3", file));
+    }
+
+    @Test
+    void mp3WithoutFrameIsUnknown() {
+        assertNull(probe("a.mp3", new byte[100_000]));
+    }
+
+    @Test
+    void flacStreamInfo() {
+        // 44100Hz，总采样数 44100 × 180
+        byte[] file = concat(id3(500), flac(44100, 44100L * 180), new byte[10_000]);
+        assertEquals(180, probe("a.flac", file));
+    }
+
+    @Test
+    void flacWithoutStreamInfoIsUnknown() {
+        byte[] file = new byte[64];
+        System.arraycopy("fLaC".getBytes(StandardCharsets.ISO_8859_1), 0, file, 0, 4);
+        file[4] = 0x04;
+        assertNull(probe("a.flac", file));
+    }
+
+    @Test
+    void mp4MoovBeforeMdatVersion0() {
+        byte[] file = concat(box("ftyp", new byte[8]), box("moov", mvhd0(1000, 95_400)), box("mdat", new byte[50_000]));
+        assertEquals(95, probe("v.mp4", file));
+    }
+
+    @Test
+    void mp4MoovAfterMdatVersion1() {
+        byte[] file = concat(box("ftyp", new byte[8]), box("free", new byte[3]), box("mdat", new byte[200_000]),
+                box("moov", concat(box("udta", new byte[20]), mvhd1(48_000, 48_000L * 3600))));
+        assertEquals(3600, probe("v.m4a", file));
+    }
+
+    @Test
+    void mp4LargeSizeMdat() {
+        byte[] payload = new byte[70_000];
+        ByteBuffer header = ByteBuffer.allocate(16).putInt(1).put("mdat".getBytes(StandardCharsets.ISO_8859_1))
+                .putLong(16L + payload.length);
+        byte[] file = concat(box("ftyp", new byte[8]), header.array(), payload, box("moov", mvhd0(600, 600 * 42)));
+        assertEquals(42, probe("v.mov", file));
+    }
+
+    @Test
+    void mp4MdatToEndOfFileIsUnknown() {
+        ByteBuffer header = ByteBuffer.allocate(8).putInt(0).put("mdat".getBytes(StandardCharsets.ISO_8859_1));
+        byte[] file = concat(box("ftyp", new byte[8]), header.array(), new byte[1000]);
+        assertNull(probe("v.mp4", file));
+    }
+
+    /** 以不同分块方式送入数据，结果应一致 */
+    private static Integer probe(String filename, byte[] file) {
+        Integer whole = run(filename, file, file.length);
+        assertEquals(whole, run(filename, file, 1), "1-byte chunks");
+        assertEquals(whole, run(filename, file, 7), "7-byte chunks");
+        Random random = new Random(file.length);
+        MediaHeaderProbe probe = MediaHeaderProbe.forFile(filename, null);
+        for (int off = 0; off < file.length; ) {
+            int n = Math.min(file.length - off, 1 + random.nextInt(8192));
+            probe.update(file, off, n);
+            off += n;
+        }
+        assertEquals(whole, probe.durationSeconds(file.length), "random chunks");
+        return whole;
+    }
+
+    private static Integer run(String filename, byte[] file, int chunk) {
+        MediaHeaderProbe probe = MediaHeaderProbe.forFile(filename, null);
+        for (int off = 0; off < file.length; off += chunk) {
+            probe.update(file, off, Math.min(chunk, file.length - off));
+        }
+        return probe.durationSeconds(file.length);
+    }
+
+    // ================= 合成文件 =================
+
+    /** ID3v2.3 标签，size 为标签体长度（syncsafe 编码） */
+    private static byte[] id3(int size) {
+        byte[] tag = new byte[10 + size];
+        tag[0] = 'I';
+        tag[1] = 'D';
+        tag[2] = '3';
+        tag[3] = 3;
+        tag[6] = (byte) ((size >> 21) & 0x7F);
+        tag[7] = (byte) ((size >> 14) & 0x7F);
+        tag[8] = (byte) ((size >> 7) & 0x7F);
+        tag[9] = (byte) (size & 0x7F);
+        return tag;
+    }
+
+    /** 首帧带 Xing/Info 或 VBRI 头的 MP3，tagOffset 为标签相对帧头的偏移 */
+    private static byte[] mp3(byte[] frameHeader, int tagOffset, String tag, long xingFrames, long vbriFrames, int length) {
+        ByteBuffer b = ByteBuffer.allocate(length);
+        b.put(frameHeader);
+        b.position(tagOffset);
+        b.put(tag.getBytes(StandardCharsets.ISO_8859_1));
+        if ("VBRI".equals(tag)) {
+            b.position(tagOffset + 14);
+            b.putInt((int) vbriFrames);
+        } else {
+            b.putInt(0x01);
+            b.putInt((int) xingFrames);
+        }
+        return b.array();
+    }
+
+    private static byte[] flac(int sampleRate, long totalSamples) {
+        byte[] b = new byte[42];
+        System.arraycopy("fLaC".getBytes(StandardCharsets.ISO_8859_1), 0, b, 0, 4);
+        // 最后一个元数据块，类型 0（STREAMINFO），长度 34
+        b[4] = (byte) 0x80;
+        b[7] = 34;
+        b[18] = (byte) (sampleRate >> 12);
+        b[19] = (byte) (sampleRate >> 4);
+        // 采样率低 4 位 + 声道数 - 1（2 声道）
+        b[20] = (byte) (((sampleRate & 0x0F) << 4) | 0x02);
+        // 位深余位 + 总采样数高 4 位
+        b[21] = (byte) (0xF0 | ((totalSamples >> 32) & 0x0F));
+        b[22] = (byte) (totalSamples >> 24);
+        b[23] = (byte) (totalSamples >> 16);
+        b[24] = (byte) (totalSamples >> 8);
+        b[25] = (byte) totalSamples;
+        return b;
+    }
+
+    private static byte[] box(String type, byte[] payload) {
+        return ByteBuffer.allocate(8 + payload.length).putInt(8 + payload.length)
+                .put(type.getBytes(StandardCharsets.ISO_8859_1)).put(payload).array();
+    }
+
+    private static byte[] mvhd0(long timescale, long duration) {
+        ByteBuffer b = ByteBuffer.allocate(100);
+        b.putInt(0);                        // version 0 + flags
+        b.putInt(0).putInt(0);              // creation / modification
+        b.putInt((int) timescale).putInt((int) duration);
+        return box("mvhd", b.array());
+    }
+
+    private static byte[] mvhd1(long timescale, long duration) {
+        ByteBuffer b = ByteBuffer.allocate(112);
+        b.putInt(0x01000000);               // version 1 + flags
+        b.putLong(0).putLong(0);            // creation / modification
+        b.putInt((int) timescale).putLong(duration);
+        return box("mvhd", b.array());
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] p : parts) out.writeBytes(p);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,226 @@
+package cn.edu.seig.vibemusic.util;
+
+import com.google.common.collect.Multimap;
+import io.minio.messages.Part;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultipartUploaderTest {
+
+    private static final int PART_SIZE = 1024;
+
+    private final List<MultipartUploader> uploaders = new ArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        uploaders.forEach(MultipartUploader::shutdown);
+    }
+
+    @Test
+    void partsAreCompletedInPartNumberOrder() throws Exception {
+        FakePartClient client = new FakePartClient();
+        client.maxLatencyMs = 5;
+        MultipartUploader uploader = uploader(client, 4, 8, 0);
+        byte[] data = randomBytes(PART_SIZE * 10 + 300);
+
+        uploader.upload("bucket", "obj", new ByteArrayInputStream(data), data.length, "audio/mpeg");
+
+        assertEquals(1, client.completed.size());
+        Part[] parts = client.completed.get(0);
+        assertEquals(11, parts.length);
+        for (int i = 0; i < parts.length; i++) {
+            assertEquals(i + 1, parts[i].partNumber());
+            assertEquals("etag-" + (i + 1), parts[i].etag());
+        }
+        assertArrayEquals(data, client.assemble());
+        assertEquals("audio/mpeg", client.headers.get("Content-Type").iterator().next());
+        assertEquals(0, client.aborted.get());
+    }
+
+    @Test
+    void failedPartIsRetried() throws Exception {
+        FakePartClient client = new FakePartClient();
+        client.failures.put(3, 2);
+        MultipartUploader uploader = uploader(client, 2, 4, 3);
+        byte[] data = randomBytes(PART_SIZE * 5);
+
+        uploader.upload("bucket", "obj", new ByteArrayInputStream(data), data.length, null);
+
+        assertEquals(3, client.attempts.get(3).get());
+        assertEquals(1, client.attempts.get(1).get());
+        assertArrayEquals(data, client.assemble());
+        assertEquals(0, client.aborted.get());
+    }
+
+    @Test
+    void abortsWhenRetriesAreExhausted() throws Exception {
+        FakePartClient client = new FakePartClient();
+        client.failures.put(2, Integer.MAX_VALUE);
+        MultipartUploader uploader = uploader(client, 2, 2, 1);
+        byte[] data = randomBytes(PART_SIZE * 6);
+
+        IOException e = assertThrows(IOException.class,
+                () -> uploader.upload("bucket", "obj", new ByteArrayInputStream(data), data.length, null));
+        assertEquals("part 2 failed", e.getMessage());
+        assertEquals(2, client.attempts.get(2).get());
+        assertEquals(1, client.aborted.get());
+        assertTrue(client.completed.isEmpty());
+
+        // 失败后缓冲与许可均已归还，同一个实例仍可继续上传
+        client.failures.clear();
+        assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> uploader.upload("bucket", "obj2", new ByteArrayInputStream(data), data.length, null));
+        assertEquals(1, client.completed.size());
+    }
+
+    @Test
+    void abortsWhenStreamEndsEarly() {
+        FakePartClient client = new FakePartClient();
+        MultipartUploader uploader = uploader(client, 2, 2, 0);
+        byte[] data = randomBytes(PART_SIZE * 2 + 10);
+
+        assertThrows(IOException.class,
+                () -> uploader.upload("bucket", "obj", new ByteArrayInputStream(data), PART_SIZE * 4L, null));
+        assertEquals(1, client.aborted.get());
+        assertTrue(client.completed.isEmpty());
+    }
+
+    @Test
+    void inFlightPartsAreBoundedPerUploadAndGlobally() throws Exception {
+        FakePartClient client = new FakePartClient();
+        client.maxLatencyMs = 20;
+        MultipartUploader uploader = uploader(client, 2, 3, 0);
+        byte[] data = randomBytes(PART_SIZE * 12);
+
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<?>> uploads = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                String object = "obj" + i;
+                uploads.add(callers.submit(() -> {
+                    uploader.upload("bucket", object, new ByteArrayInputStream(data), data.length, null);
+                    return null;
+                }));
+            }
+            for (Future<?> f : uploads) f.get(30, TimeUnit.SECONDS);
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertEquals(3, client.completed.size());
+        assertTrue(client.maxConcurrent.get() <= 3, "global in-flight " + client.maxConcurrent.get());
+        assertTrue(client.maxConcurrent.get() >= 2, "parts should overlap");
+        client.maxConcurrentPerObject.forEach((object, max) ->
+                assertTrue(max.get() <= 2, object + " in-flight " + max.get()));
+    }
+
+    @Test
+    void parallelUploadIsFasterThanSequential() throws Exception {
+        byte[] data = randomBytes(PART_SIZE * 8);
+
+        FakePartClient sequentialClient = new FakePartClient();
+        sequentialClient.fixedLatencyMs = 40;
+        long sequential = timeUpload(uploader(sequentialClient, 1, 1, 0), data);
+
+        FakePartClient parallelClient = new FakePartClient();
+        parallelClient.fixedLatencyMs = 40;
+        long parallel = timeUpload(uploader(parallelClient, 4, 4, 0), data);
+
+        // 8 片 × 40ms：顺序约 320ms，4 路并发约 80ms
+        assertTrue(parallel * 2 < sequential, "parallel " + parallel + "ms vs sequential " + sequential + "ms");
+    }
+
+    private static long timeUpload(MultipartUploader uploader, byte[] data) throws Exception {
+        long start = System.nanoTime();
+        uploader.upload("bucket", "obj", new ByteArrayInputStream(data), data.length, null);
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private MultipartUploader uploader(FakePartClient client, int parallelism, int maxBufferedParts, int maxRetries) {
+        MultipartUploader uploader = new MultipartUploader(client, PART_SIZE, PART_SIZE, parallelism, maxBufferedParts, maxRetries, 1);
+        uploaders.add(uploader);
+        return uploader;
+    }
+
+    private static byte[] randomBytes(int n) {
+        byte[] b = new byte[n];
+        new Random(n).nextBytes(b);
+        return b;
+    }
+
+    /** 内存中的分片上传实现：记录分片内容、并发度与调用次数，可按分片号注入失败 */
+    private static final class FakePartClient implements MultipartUploader.PartClient {
+        final Map<Integer, byte[]> parts = new ConcurrentHashMap<>();
+        final Map<Integer, AtomicInteger> attempts = new ConcurrentHashMap<>();
+        // 分片号 -> 剩余失败次数
+        final Map<Integer, Integer> failures = new ConcurrentHashMap<>();
+        final List<Part[]> completed = new CopyOnWriteArrayList<>();
+        final AtomicInteger aborted = new AtomicInteger();
+        final AtomicInteger concurrent = new AtomicInteger();
+        final AtomicInteger maxConcurrent = new AtomicInteger();
+        final Map<String, AtomicInteger> concurrentPerObject = new ConcurrentHashMap<>();
+        final Map<String, AtomicInteger> maxConcurrentPerObject = new ConcurrentHashMap<>();
+        volatile Multimap<String, String> headers;
+        volatile int maxLatencyMs;
+        volatile int fixedLatencyMs;
+
+        @Override
+        public String createUpload(String bucket, String object, Multimap<String, String> headers) {
+            this.headers = headers;
+            return "upload-" + object;
+        }
+
+        @Override
+        public String uploadPart(String bucket, String object, String uploadId, int partNumber, byte[] data, int length) throws Exception {
+            attempts.computeIfAbsent(partNumber, k -> new AtomicInteger()).incrementAndGet();
+            int now = concurrent.incrementAndGet();
+            maxConcurrent.accumulateAndGet(now, Math::max);
+            int perObject = concurrentPerObject.computeIfAbsent(object, k -> new AtomicInteger()).incrementAndGet();
+            maxConcurrentPerObject.computeIfAbsent(object, k -> new AtomicInteger()).accumulateAndGet(perObject, Math::max);
+            try {
+                int latency = fixedLatencyMs > 0 ? fixedLatencyMs
+                        : maxLatencyMs > 0 ? ThreadLocalRandom.current().nextInt(maxLatencyMs + 1) : 0;
+                if (latency > 0) Thread.sleep(latency);
+                Integer left = failures.get(partNumber);
+                if (left != null && left > 0) {
+                    failures.put(partNumber, left - 1);
+                    throw new IOException("part " + partNumber + " failed");
+                }
+                // 缓冲会被复用，保存副本
+                parts.put(partNumber, Arrays.copyOf(data, length));
+                return "etag-" + partNumber;
+            } finally {
+                concurrent.decrementAndGet();
+                concurrentPerObject.get(object).decrementAndGet();
+            }
+        }
+
+        @Override
+        public void completeUpload(String bucket, String object, String uploadId, Part[] parts) {
+            completed.add(parts);
+        }
+
+        @Override
+        public void abortUpload(String bucket, String object, String uploadId) {
+            aborted.incrementAndGet();
+        }
+
+        byte[] assemble() {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (Part part : completed.get(completed.size() - 1)) {
+                out.writeBytes(parts.get(part.partNumber()));
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package cn.edu.seig.vibemusic.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathPrefixTrieTest {
+
+    private static final List<String> PATHS = List.of(
+            "", "/", "/song", "/song/", "/song/getSongDetail", "/song/getSongDetail/", "/song/getSongDetail/12",
+            "/song/getSongDetailX", "/song/getAllSongs", "/song/getAllSongsX", "/admin", "/admin/login", "/adminx",
+            "/user/theme/1", "/theme", "/theme/", "/theme/list", "/playlist/getAllPlaylists");
+
+    @Test
+    void prefixesMatchLikeStartsWith() {
+        List<String> prefixes = List.of("/admin", "/theme/", "/song/getAllSongs");
+        PathPrefixTrie trie = PathPrefixTrie.ofPrefixes(prefixes);
+
+        for (String path : PATHS) {
+            boolean expected = prefixes.stream().anyMatch(path::startsWith);
+            assertEquals(expected, trie.matches(path), path);
+        }
+        assertFalse(trie.matches(null));
+    }
+
+    @Test
+    void antPatternsMatchLikeAntPathMatcher() {
+        List<String> patterns = List.of("/song/getSongDetail/**", "/song/getAllSongs", "/admin/login", "/playlist/**");
+        PathPrefixTrie trie = PathPrefixTrie.ofAntPatterns(patterns);
+        AntPathMatcher ant = new AntPathMatcher();
+
+        for (String path : PATHS) {
+            boolean expected = patterns.stream().anyMatch(p -> ant.match(p, path));
+            assertEquals(expected, trie.matches(path), path);
+        }
+    }
+
+    @Test
+    void doubleStarMatchesEverything() {
+        PathPrefixTrie trie = PathPrefixTrie.ofAntPatterns(List.of("**"));
+        assertTrue(trie.matches("/anything/at/all"));
+        assertTrue(trie.matches(""));
+    }
+
+    @Test
+    void emptyMatchesNothing() {
+        assertFalse(PathPrefixTrie.empty().matches("/"));
+        assertFalse(PathPrefixTrie.ofPrefixes(null).matches("/song"));
+        assertFalse(PathPrefixTrie.ofAntPatterns(List.of()).matches("/song"));
+    }
+
+    @Test
+    void rejectsUnsupportedWildcards() {
+        assertThrows(IllegalArgumentException.class, () -> PathPrefixTrie.ofAntPatterns(List.of("/song/*/detail")));
+        assertThrows(IllegalArgumentException.class, () -> PathPrefixTrie.ofAntPatterns(List.of("/song/{id}")));
+        assertThrows(IllegalArgumentException.class, () -> PathPrefixTrie.ofAntPatterns(List.of("/song/*.mp3")));
+    }
+}
@@ -0,0 +1,99 @@
+package cn.edu.seig.vibemusic.util;
+
+import cn.edu.seig.vibemusic.mapper.SongMapper;
+import cn.edu.seig.vibemusic.model.vo.SongVO;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class RandomSamplerTest {
+
+    @Test
+    void sampleReturnsDistinctSubset() {
+        long[] ids = LongStream.rangeClosed(1, 100).toArray();
+        // 低比例（随机探测）与高比例（部分洗牌）两条路径
+        for (int n : new int[]{1, 10, 49, 51, 99, 100}) {
+            long[] picked = RandomSampler.sample(ids, n);
+            assertEquals(n, picked.length);
+            Set<Long> distinct = new HashSet<>();
+            for (long id : picked) {
+                assertTrue(id >= 1 && id <= 100);
+                assertTrue(distinct.add(id), "duplicate id " + id);
+            }
+        }
+    }
+
+    @Test
+    void sampleIsCappedByPoolSize() {
+        assertEquals(0, RandomSampler.sample(new long[0], 5).length);
+        long[] picked = RandomSampler.sample(new long[]{7, 8, 9}, 10);
+        assertEquals(Set.of(7L, 8L, 9L), toSet(picked));
+    }
+
+    @Test
+    void sampleDoesNotModifyInput() {
+        long[] ids = LongStream.rangeClosed(1, 10).toArray();
+        RandomSampler.sample(ids, 8);
+        assertArrayEquals(LongStream.rangeClosed(1, 10).toArray(), ids);
+    }
+
+    @Test
+    void sampleIsRoughlyUniform() {
+        long[] ids = LongStream.range(0, 10).toArray();
+        int[] counts = new int[10];
+        int rounds = 20_000;
+        for (int i = 0; i < rounds; i++) {
+            for (long id : RandomSampler.sample(ids, 3)) counts[(int) id]++;
+        }
+        // 期望每个 id 被抽中 rounds * 3 / 10 = 6000 次
+        for (int c : counts) {
+            assertTrue(c > 5400 && c < 6600, "count out of range: " + c);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void randomSongsKeepsPickedOrderAndSkipsDeleted() {
+        SongMapper songMapper = mock(SongMapper.class);
+        doReturn(List.of(1L, 2L, 3L)).when(songMapper).selectObjs(any());
+        // 数据库返回顺序与抽样顺序无关，且 2 号歌曲已被删除
+        when(songMapper.getSongsWithArtistByIds(anyList())).thenReturn(List.of(song(3L), song(1L)));
+        RandomSampler sampler = new RandomSampler();
+        ReflectionTestUtils.setField(sampler, "songMapper", songMapper);
+
+        List<SongVO> songs = sampler.randomSongs(3);
+
+        ArgumentCaptor<List<Long>> picked = ArgumentCaptor.forClass(List.class);
+        verify(songMapper).getSongsWithArtistByIds(picked.capture());
+        List<Long> expected = new ArrayList<>(picked.getValue());
+        expected.remove(2L);
+        assertEquals(expected, songs.stream().map(SongVO::getSongId).toList());
+
+        // id 列表已缓存，失效后才重新加载
+        sampler.randomSongs(1);
+        verify(songMapper, times(1)).selectObjs(any());
+        sampler.invalidateSongs();
+        sampler.randomSongs(1);
+        verify(songMapper, times(2)).selectObjs(any());
+    }
+
+    private static Set<Long> toSet(long[] ids) {
+        Set<Long> set = new HashSet<>();
+        for (long id : ids) set.add(id);
+        return set;
+    }
+
+    private static SongVO song(Long id) {
+        SongVO vo = new SongVO();
+        vo.setSongId(id);
+        return vo;
+    }
+}
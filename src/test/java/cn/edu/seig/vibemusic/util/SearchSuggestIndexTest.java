@@ -0,0 +1,30 @@
+package cn.edu.seig.vibemusic.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchSuggestIndexTest {
+
+    @Test
+    void rankingIgnoresUniformDecay() {
+        Map<String, Double> before = Map.of("晴天", 8.0, "稻香", 4.0, "七里香", 2.0);
+        Map<String, Double> decayed = Map.of("晴天", 4.0, "稻香", 2.0, "七里香", 1.0);
+
+        assertEquals(SearchSuggestIndex.ranking(before), SearchSuggestIndex.ranking(decayed));
+        assertEquals(List.of(List.of("晴天"), List.of("稻香"), List.of("七里香")), SearchSuggestIndex.ranking(before));
+    }
+
+    @Test
+    void rankingChangesWhenOrderOrTiesChange() {
+        List<List<String>> base = SearchSuggestIndex.ranking(Map.of("a", 3.0, "b", 2.0));
+
+        assertNotEquals(base, SearchSuggestIndex.ranking(Map.of("a", 2.0, "b", 3.0)));
+        assertNotEquals(base, SearchSuggestIndex.ranking(Map.of("a", 2.0, "b", 2.0)));
+        assertNotEquals(base, SearchSuggestIndex.ranking(Map.of("a", 3.0, "b", 2.0, "c", 1.0)));
+        assertEquals(List.of(List.of("a", "b")), SearchSuggestIndex.ranking(Map.of("b", 2.0, "a", 2.0)));
+    }
+}
@@ -0,0 +1,111 @@
+package cn.edu.seig.vibemusic.util;
+
+import cn.edu.seig.vibemusic.mapper.SongMapper;
+import cn.edu.seig.vibemusic.model.vo.SongVO;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SongSearchIndexTest {
+
+    private SongMapper songMapper;
+    private SongSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        songMapper = mock(SongMapper.class);
+        when(songMapper.getAllSongsWithArtist()).thenReturn(List.of(
+                song(1L, "晴天", "周杰伦", "叶惠美"),
+                song(2L, "七里香", "周杰伦", "七里香"),
+                song(3L, "Hello", "Adele", "25")));
+        index = new SongSearchIndex();
+        ReflectionTestUtils.setField(index, "songMapper", songMapper);
+    }
+
+    @Test
+    void searchReturnsNullBeforeBuild() {
+        assertFalse(index.isReady());
+        assertNull(index.search(new Page<>(1, 10), "晴天"));
+    }
+
+    @Test
+    void searchMatchesSubstringOfAnyField() {
+        index.rebuild();
+
+        assertEquals(List.of(1L), ids(index.search(new Page<>(1, 10), "晴")));
+        assertEquals(List.of(1L, 2L), ids(index.search(new Page<>(1, 10), "杰伦")));
+        assertEquals(List.of(2L), ids(index.search(new Page<>(1, 10), "七里")));
+        // 大小写不敏感
+        assertEquals(List.of(3L), ids(index.search(new Page<>(1, 10), "hELLo")));
+        assertEquals(List.of(), ids(index.search(new Page<>(1, 10), "晴香")));
+    }
+
+    @Test
+    void searchMatchesPinyinInitials() {
+        index.rebuild();
+
+        assertEquals(List.of(1L, 2L), ids(index.search(new Page<>(1, 10), "zjl")));
+        assertEquals(List.of(1L), ids(index.search(new Page<>(1, 10), "qt")));
+    }
+
+    @Test
+    void searchPaginatesSortedHits() {
+        index.rebuild();
+
+        IPage<SongVO> page = index.search(new Page<>(2, 1), "周");
+        assertEquals(2, page.getTotal());
+        assertEquals(List.of(2L), ids(page));
+    }
+
+    @Test
+    void searchReturnsCopies() {
+        index.rebuild();
+
+        index.search(new Page<>(1, 10), "晴天").getRecords().get(0).setSongName("changed");
+        assertEquals("晴天", index.search(new Page<>(1, 10), "晴天").getRecords().get(0).getSongName());
+    }
+
+    @Test
+    void refreshAndRemoveUpdateIndex() {
+        index.rebuild();
+        long version = index.version();
+
+        when(songMapper.getSongsWithArtistByIds(anyList())).thenReturn(List.of(song(1L, "稻香", "周杰伦", "魔杰座")));
+        index.refreshSong(1L);
+        assertEquals(List.of(), ids(index.search(new Page<>(1, 10), "晴天")));
+        assertEquals(List.of(1L), ids(index.search(new Page<>(1, 10), "稻香")));
+
+        index.removeSongs(List.of(2L));
+        assertEquals(List.of(1L), ids(index.search(new Page<>(1, 10), "周杰伦")));
+        assertTrue(index.version() > version);
+    }
+
+    @Test
+    void pinyinInitialsKeepsLettersAndDigits() {
+        assertEquals("zjl", SongSearchIndex.pinyinInitials("周杰伦"));
+        assertEquals("a1b", SongSearchIndex.pinyinInitials("a1爸"));
+        assertEquals("", SongSearchIndex.pinyinInitials("hello"));
+    }
+
+    private static List<Long> ids(IPage<SongVO> page) {
+        return page.getRecords().stream().map(SongVO::getSongId).toList();
+    }
+
+    private static SongVO song(Long id, String name, String artist, String album) {
+        SongVO vo = new SongVO();
+        vo.setSongId(id);
+        vo.setSongName(name);
+        vo.setArtistName(artist);
+        vo.setAlbum(album);
+        return vo;
+    }
+}
@@ -0,0 +1,99 @@
+package cn.edu.seig.vibemusic.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestTrieTest {
+
+    @Test
+    void lookupReturnsIdsInRankOrder() {
+        SuggestTrie trie = SuggestTrie.build(List.of(
+                List.of("晴天", "qt"),
+                List.of("七里香", "qlx"),
+                List.of("晴天娃娃", "qtww"),
+                List.of("稻香", "dx")), 10);
+
+        assertArrayEquals(new int[]{0, 2}, trie.lookup("晴", 10));
+        assertArrayEquals(new int[]{0, 1, 2}, trie.lookup("q", 10));
+        assertArrayEquals(new int[]{2}, trie.lookup("晴天娃", 10));
+        assertArrayEquals(new int[]{3}, trie.lookup("dx", 10));
+        assertArrayEquals(new int[0], trie.lookup("晴天娃娃娃", 10));
+        assertArrayEquals(new int[0], trie.lookup("z", 10));
+    }
+
+    @Test
+    void prefixEndingInsideCompressedEdge() {
+        // "abcdef" 与 "abcxyz" 在 "abc" 处分叉，"ab" 结束在压缩边的中间
+        SuggestTrie trie = SuggestTrie.build(List.of(List.of("abcdef"), List.of("abcxyz")), 10);
+
+        assertArrayEquals(new int[]{0, 1}, trie.lookup("ab", 10));
+        assertArrayEquals(new int[]{0}, trie.lookup("abcde", 10));
+        assertArrayEquals(new int[]{1}, trie.lookup("abcx", 10));
+        assertArrayEquals(new int[0], trie.lookup("abd", 10));
+        assertArrayEquals(new int[0], trie.lookup("abcdefg", 10));
+    }
+
+    @Test
+    void duplicateKeysOfOneEntryAreReportedOnce() {
+        // 同一条目的原文与拼音首字母相同
+        SuggestTrie trie = SuggestTrie.build(List.of(List.of("abc", "abc", "ab"), List.of("abd")), 10);
+
+        assertArrayEquals(new int[]{0, 1}, trie.lookup("a", 10));
+        assertArrayEquals(new int[]{0}, trie.lookup("abc", 10));
+    }
+
+    @Test
+    void limitAndTopKCapTheResult() {
+        List<List<String>> keys = new ArrayList<>();
+        for (int i = 0; i < 20; i++) keys.add(List.of("song" + i));
+        SuggestTrie trie = SuggestTrie.build(keys, 5);
+
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, trie.lookup("song", 100));
+        assertArrayEquals(new int[]{0, 1}, trie.lookup("song", 2));
+        assertArrayEquals(new int[]{1, 10, 11, 12, 13}, trie.lookup("song1", 100));
+    }
+
+    @Test
+    void emptyOrInvalidInput() {
+        SuggestTrie trie = SuggestTrie.build(List.of(List.of("a"), List.of(""), new ArrayList<>(List.of())), 10);
+
+        assertArrayEquals(new int[0], trie.lookup("", 10));
+        assertArrayEquals(new int[0], trie.lookup(null, 10));
+        assertArrayEquals(new int[0], trie.lookup("a", 0));
+        assertArrayEquals(new int[0], SuggestTrie.build(List.of(), 10).lookup("a", 10));
+    }
+
+    @Test
+    void matchesLinearScan() {
+        Random random = new Random(42);
+        List<List<String>> keys = new ArrayList<>();
+        for (int id = 0; id < 500; id++) {
+            keys.add(List.of(randomKey(random), randomKey(random)));
+        }
+        int topK = 8;
+        SuggestTrie trie = SuggestTrie.build(keys, topK);
+
+        for (int n = 0; n < 2000; n++) {
+            String prefix = randomKey(random).substring(0, 1 + random.nextInt(3));
+            int[] expected = IntStream.range(0, keys.size())
+                    .filter(id -> keys.get(id).stream().anyMatch(k -> k.startsWith(prefix)))
+                    .limit(topK)
+                    .toArray();
+            assertArrayEquals(expected, trie.lookup(prefix, topK), prefix);
+        }
+    }
+
+    // 小字母表，保证出现大量共享前缀与分叉
+    private static String randomKey(Random random) {
+        int len = 3 + random.nextInt(4);
+        StringBuilder sb = new StringBuilder(len);
+        for (int i = 0; i < len; i++) sb.append((char) ('a' + random.nextInt(4)));
+        return sb.toString();
+    }
+}